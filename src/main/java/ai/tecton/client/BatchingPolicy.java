@@ -0,0 +1,125 @@
+package ai.tecton.client;
+
+import ai.tecton.client.request.RequestConstants;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * A policy for automatically batching concurrent {@link TectonClient#getFeatures} and {@link
+ * TectonClient#getFeaturesAsync} calls. Requests for the same workspace, feature service, metadata
+ * options, request options and timeout are collected into a group, and the group is sent as a
+ * single call to the /get-features-batch endpoint once it reaches {@code maxBatchSize} requests or
+ * once {@code lingerTime} has elapsed since its first request. Each caller receives its own {@link
+ * ai.tecton.client.response.GetFeaturesResponse}.
+ *
+ * <p>Batched requests trade up to {@code lingerTime} of extra latency for fewer round trips, and
+ * are not hedged by a {@link ai.tecton.client.transport.HedgingPolicy}.
+ */
+public class BatchingPolicy {
+
+  private static final int DEFAULT_MAX_BATCH_SIZE = RequestConstants.MAX_MICRO_BATCH_SIZE;
+  private static final Duration DEFAULT_LINGER_TIME = Duration.ofNanos(500_000);
+
+  private final int maxBatchSize;
+  private final Duration lingerTime;
+
+  private final AtomicLong batchCount = new AtomicLong();
+  private final AtomicLong batchedRequestCount = new AtomicLong();
+
+  private BatchingPolicy(Builder builder) {
+    Validate.isTrue(
+        builder.maxBatchSize >= 1 && builder.maxBatchSize <= RequestConstants.MAX_MICRO_BATCH_SIZE,
+        "maxBatchSize must be between 1 and " + RequestConstants.MAX_MICRO_BATCH_SIZE);
+    Validate.isTrue(
+        !builder.lingerTime.isNegative() && !builder.lingerTime.isZero(),
+        "lingerTime must be positive");
+    this.maxBatchSize = builder.maxBatchSize;
+    this.lingerTime = builder.lingerTime;
+  }
+
+  /**
+   * Returns the maximum number of requests sent in a single batch call
+   *
+   * @return maxBatchSize
+   */
+  public int getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  /**
+   * Returns the maximum time a request waits for other requests to join its batch
+   *
+   * @return lingerTime as a {@link java.time.Duration}
+   */
+  public Duration getLingerTime() {
+    return lingerTime;
+  }
+
+  /**
+   * Returns the number of batch calls sent so far
+   *
+   * @return the number of batches
+   */
+  public long getBatchCount() {
+    return batchCount.get();
+  }
+
+  /**
+   * Returns the number of requests sent as part of a batch call so far
+   *
+   * @return the number of batched requests
+   */
+  public long getBatchedRequestCount() {
+    return batchedRequestCount.get();
+  }
+
+  void onBatch(int batchSize) {
+    batchCount.incrementAndGet();
+    batchedRequestCount.addAndGet(batchSize);
+  }
+
+  /**
+   * A Builder class for creating an instance of {@link BatchingPolicy} object with specific
+   * configurations
+   */
+  public static class Builder {
+    private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+    private Duration lingerTime = DEFAULT_LINGER_TIME;
+
+    /**
+     * Setter for the maximum number of requests sent in a single batch call. A group is sent as
+     * soon as it reaches this size. Default value is {@value RequestConstants#MAX_MICRO_BATCH_SIZE}
+     *
+     * @param maxBatchSize int value, must be between 1 and {@value
+     *     RequestConstants#MAX_MICRO_BATCH_SIZE}
+     * @return this Builder
+     */
+    public Builder maxBatchSize(int maxBatchSize) {
+      this.maxBatchSize = maxBatchSize;
+      return this;
+    }
+
+    /**
+     * Setter for the maximum time a request waits for other requests to join its batch, measured
+     * from the first request of the group. Default value is 500 microseconds
+     *
+     * @param lingerTime lingerTime as a {@link java.time.Duration}, must be positive
+     * @return this Builder
+     */
+    public Builder lingerTime(Duration lingerTime) {
+      this.lingerTime = lingerTime;
+      return this;
+    }
+
+    /**
+     * Build a {@link BatchingPolicy} object from the Builder
+     *
+     * @return {@link BatchingPolicy}
+     * @throws IllegalArgumentException when the configured values are invalid
+     */
+    public BatchingPolicy build() {
+      return new BatchingPolicy(this);
+    }
+  }
+}
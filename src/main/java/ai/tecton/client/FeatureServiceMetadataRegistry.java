@@ -0,0 +1,358 @@
+package ai.tecton.client;
+
+import ai.tecton.client.exceptions.TectonClientException;
+import ai.tecton.client.exceptions.TectonErrorMessage;
+import ai.tecton.client.model.FeatureServiceMetadata;
+import ai.tecton.client.request.GetFeatureServiceMetadataRequest;
+import ai.tecton.client.transport.TectonHttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * A registry of {@link FeatureServiceMetadata} for the feature services used by a {@link
+ * TectonClient}. The metadata of the configured feature services is loaded when the client is
+ * created, and the metadata of every feature service in the registry is refreshed in the background
+ * every {@code refreshInterval}. If a refresh fails, the previous metadata is kept. With lean
+ * responses, the metadata of up to {@code maxOnDemandFeatureServices} other feature services is
+ * loaded when they are first requested. If such a load fails, it is not attempted again for that
+ * feature service until {@code loadFailureBackoff} has passed, so that requests do not each send a
+ * metadata request while the metadata endpoint fails.
+ *
+ * <p>Lookups do not take any locks and return the same parsed {@link FeatureServiceMetadata} object
+ * until the next refresh, so they can be used on the request path. The registry of a client is
+ * available from {@link TectonClient#getFeatureServiceMetadataRegistry()}. A registry can only be
+ * used by a single {@link TectonClient}, which loads and refreshes its metadata.
+ */
+public class FeatureServiceMetadataRegistry {
+
+  private static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofMinutes(5);
+  private static final int DEFAULT_MAX_ON_DEMAND_FEATURE_SERVICES = 100;
+  private static final Duration DEFAULT_LOAD_FAILURE_BACKOFF = Duration.ofSeconds(30);
+
+  private final Set<FeatureServiceName> featureServiceNames;
+  private final Duration refreshInterval;
+  private final int maxOnDemandFeatureServices;
+  private final long loadFailureBackoffNanos;
+
+  // Metadata by workspace name and feature service name
+  private final Map<String, Map<String, FeatureServiceMetadata>> metadataMap =
+      new ConcurrentHashMap<>();
+  private final Map<FeatureServiceName, CompletableFuture<FeatureServiceMetadata>> inFlightLoads =
+      new ConcurrentHashMap<>();
+  // The time of the last failed load of each feature service, removed once a load succeeds
+  private final Map<FeatureServiceName, Long> loadFailureNanos = new ConcurrentHashMap<>();
+  // Guarded by itself. The feature services not added to the Builder that were loaded on demand
+  private final Set<FeatureServiceName> onDemandFeatureServiceNames = new HashSet<>();
+  private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+  private final AtomicLong refreshCount = new AtomicLong();
+  private final AtomicLong refreshFailureCount = new AtomicLong();
+
+  private volatile TectonClient tectonClient;
+  private volatile TectonHttpClient tectonHttpClient;
+
+  private FeatureServiceMetadataRegistry(Builder builder) {
+    Validate.isTrue(
+        !builder.refreshInterval.isNegative() && !builder.refreshInterval.isZero(),
+        "refreshInterval must be positive");
+    Validate.isTrue(
+        builder.maxOnDemandFeatureServices >= 0, "maxOnDemandFeatureServices must not be negative");
+    Validate.isTrue(
+        !builder.loadFailureBackoff.isNegative() && !builder.loadFailureBackoff.isZero(),
+        "loadFailureBackoff must be positive");
+    this.featureServiceNames = builder.featureServiceNames;
+    this.refreshInterval = builder.refreshInterval;
+    this.maxOnDemandFeatureServices = builder.maxOnDemandFeatureServices;
+    this.loadFailureBackoffNanos = builder.loadFailureBackoff.toNanos();
+  }
+
+  /**
+   * Returns the {@link FeatureServiceMetadata} of a feature service wrapped in {@link
+   * java.util.Optional} if it is in the registry, Optional.empty() otherwise
+   *
+   * @param workspaceName Name of the workspace in which the Feature Service is defined
+   * @param featureServiceName Name of the Feature Service
+   * @return {@link FeatureServiceMetadata} of the feature service
+   */
+  public Optional<FeatureServiceMetadata> getFeatureServiceMetadata(
+      String workspaceName, String featureServiceName) {
+    Map<String, FeatureServiceMetadata> workspaceMetadata = metadataMap.get(workspaceName);
+    return workspaceMetadata != null
+        ? Optional.ofNullable(workspaceMetadata.get(featureServiceName))
+        : Optional.empty();
+  }
+
+  /**
+   * Returns the interval at which the metadata in the registry is refreshed
+   *
+   * @return refreshInterval as a {@link java.time.Duration}
+   */
+  public Duration getRefreshInterval() {
+    return refreshInterval;
+  }
+
+  /**
+   * Returns the number of times the metadata of a feature service has been refreshed in the
+   * background
+   *
+   * @return the number of refreshes
+   */
+  public long getRefreshCount() {
+    return refreshCount.get();
+  }
+
+  /**
+   * Returns the number of background refreshes that failed, keeping the previous metadata
+   *
+   * @return the number of failed refreshes
+   */
+  public long getRefreshFailureCount() {
+    return refreshFailureCount.get();
+  }
+
+  // Binds the registry to the TectonClient using it, and loads the configured feature services
+  synchronized CompletableFuture<Void> start(
+      TectonClient tectonClient, TectonHttpClient tectonHttpClient) {
+    if (this.tectonClient != null) {
+      throw new TectonClientException(TectonErrorMessage.METADATA_REGISTRY_IN_USE);
+    }
+    this.tectonClient = tectonClient;
+    this.tectonHttpClient = tectonHttpClient;
+    List<CompletableFuture<FeatureServiceMetadata>> loadFutures = new ArrayList<>();
+    for (FeatureServiceName name : featureServiceNames) {
+      loadFutures.add(load(name.workspaceName, name.featureServiceName));
+    }
+    return CompletableFuture.allOf(loadFutures.toArray(new CompletableFuture[0]));
+  }
+
+  // Requests the metadata of a feature service and adds it to the registry, replacing any previous
+  // metadata
+  CompletableFuture<FeatureServiceMetadata> load(String workspaceName, String featureServiceName) {
+    return tectonClient
+        .getFeatureServiceMetadataAsync(
+            new GetFeatureServiceMetadataRequest(featureServiceName, workspaceName))
+        .thenApply(
+            response -> {
+              FeatureServiceMetadata metadata = response.getFeatureServiceMetadata();
+              metadataMap
+                  .computeIfAbsent(workspaceName, name -> new ConcurrentHashMap<>())
+                  .put(featureServiceName, metadata);
+              if (refreshScheduled.compareAndSet(false, true)) {
+                scheduleRefresh();
+              }
+              return metadata;
+            });
+  }
+
+  // Loads the metadata of a feature service like load(), but shares the call with a load of the
+  // same feature service that is already in flight
+  CompletableFuture<FeatureServiceMetadata> loadShared(
+      String workspaceName, String featureServiceName) {
+    FeatureServiceName name = new FeatureServiceName(workspaceName, featureServiceName);
+    CompletableFuture<FeatureServiceMetadata> sharedFuture = new CompletableFuture<>();
+    CompletableFuture<FeatureServiceMetadata> inFlightFuture =
+        inFlightLoads.putIfAbsent(name, sharedFuture);
+    if (inFlightFuture != null) {
+      return inFlightFuture;
+    }
+    load(workspaceName, featureServiceName)
+        .whenComplete(
+            (metadata, throwable) -> {
+              // Record the outcome before the next load can start
+              if (throwable == null) {
+                loadFailureNanos.remove(name);
+              } else {
+                loadFailureNanos.put(name, System.nanoTime());
+              }
+              inFlightLoads.remove(name, sharedFuture);
+              if (throwable == null) {
+                sharedFuture.complete(metadata);
+              } else {
+                sharedFuture.completeExceptionally(
+                    throwable instanceof CompletionException && throwable.getCause() != null
+                        ? throwable.getCause()
+                        : throwable);
+              }
+            });
+    return sharedFuture;
+  }
+
+  // Loads the metadata of a feature service that is not in the registry yet, e.g. for lean
+  // responses. Only the feature services added to the Builder and up to maxOnDemandFeatureServices
+  // other feature services are loaded, so that the registry does not grow with every feature
+  // service ever requested. A feature service whose last load failed is only loaded again once the
+  // loadFailureBackoff has passed
+  void loadOnDemand(String workspaceName, String featureServiceName) {
+    FeatureServiceName name = new FeatureServiceName(workspaceName, featureServiceName);
+    Long failedAtNanos = loadFailureNanos.get(name);
+    if (failedAtNanos != null && System.nanoTime() - failedAtNanos < loadFailureBackoffNanos) {
+      return;
+    }
+    if (!featureServiceNames.contains(name)) {
+      synchronized (onDemandFeatureServiceNames) {
+        if (!onDemandFeatureServiceNames.contains(name)) {
+          if (onDemandFeatureServiceNames.size() >= maxOnDemandFeatureServices) {
+            return;
+          }
+          onDemandFeatureServiceNames.add(name);
+        }
+      }
+    }
+    loadShared(workspaceName, featureServiceName);
+  }
+
+  private void scheduleRefresh() {
+    try {
+      tectonHttpClient.schedule(this::refresh, refreshInterval);
+    } catch (RejectedExecutionException e) {
+      refreshScheduled.set(false);
+    }
+  }
+
+  // Refresh every feature service in the registry, and schedule the next refresh once done
+  private void refresh() {
+    if (tectonClient.isClosed()) {
+      refreshScheduled.set(false);
+      return;
+    }
+    List<CompletableFuture<?>> refreshFutures = new ArrayList<>();
+    metadataMap.forEach(
+        (workspaceName, workspaceMetadata) ->
+            workspaceMetadata
+                .keySet()
+                .forEach(
+                    featureServiceName -> {
+                      CompletableFuture<FeatureServiceMetadata> refreshFuture;
+                      try {
+                        refreshFuture = load(workspaceName, featureServiceName);
+                      } catch (RuntimeException e) {
+                        refreshFailureCount.incrementAndGet();
+                        return;
+                      }
+                      refreshFutures.add(
+                          refreshFuture.whenComplete(
+                              (metadata, throwable) -> {
+                                if (throwable == null) {
+                                  refreshCount.incrementAndGet();
+                                } else {
+                                  refreshFailureCount.incrementAndGet();
+                                }
+                              }));
+                    }));
+    CompletableFuture.allOf(refreshFutures.toArray(new CompletableFuture[0]))
+        .whenComplete((ignored, throwable) -> scheduleRefresh());
+  }
+
+  private static final class FeatureServiceName {
+    private final String workspaceName;
+    private final String featureServiceName;
+
+    FeatureServiceName(String workspaceName, String featureServiceName) {
+      this.workspaceName = workspaceName;
+      this.featureServiceName = featureServiceName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      FeatureServiceName that = (FeatureServiceName) o;
+      return workspaceName.equals(that.workspaceName)
+          && featureServiceName.equals(that.featureServiceName);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * workspaceName.hashCode() + featureServiceName.hashCode();
+    }
+  }
+
+  /**
+   * A Builder class for creating an instance of {@link FeatureServiceMetadataRegistry} object with
+   * specific configurations
+   */
+  public static class Builder {
+    private final Set<FeatureServiceName> featureServiceNames = new LinkedHashSet<>();
+    private Duration refreshInterval = DEFAULT_REFRESH_INTERVAL;
+    private int maxOnDemandFeatureServices = DEFAULT_MAX_ON_DEMAND_FEATURE_SERVICES;
+    private Duration loadFailureBackoff = DEFAULT_LOAD_FAILURE_BACKOFF;
+
+    /**
+     * Adds a feature service whose metadata is loaded when the client is created
+     *
+     * @param workspaceName Name of the workspace in which the Feature Service is defined
+     * @param featureServiceName Name of the Feature Service
+     * @return this Builder
+     */
+    public Builder featureService(String workspaceName, String featureServiceName) {
+      Validate.notEmpty(workspaceName, "workspaceName must not be empty");
+      Validate.notEmpty(featureServiceName, "featureServiceName must not be empty");
+      this.featureServiceNames.add(new FeatureServiceName(workspaceName, featureServiceName));
+      return this;
+    }
+
+    /**
+     * Setter for the interval at which the metadata in the registry is refreshed. Default value is
+     * 5 minutes
+     *
+     * @param refreshInterval refreshInterval as a {@link java.time.Duration}, must be positive
+     * @return this Builder
+     */
+    public Builder refreshInterval(Duration refreshInterval) {
+      this.refreshInterval = refreshInterval;
+      return this;
+    }
+
+    /**
+     * Setter for the maximum number of feature services, other than those added with {@link
+     * #featureService(String, String)}, whose metadata is loaded on demand when lean responses are
+     * enabled with {@link ai.tecton.client.TectonClientOptions.Builder#leanResponses}. Requests for
+     * any further feature services are sent with metadata. Use 0 to only send lean requests for the
+     * feature services added with {@link #featureService(String, String)}. Default value is 100
+     *
+     * @param maxOnDemandFeatureServices the maximum number of feature services loaded on demand,
+     *     must not be negative
+     * @return this Builder
+     */
+    public Builder maxOnDemandFeatureServices(int maxOnDemandFeatureServices) {
+      this.maxOnDemandFeatureServices = maxOnDemandFeatureServices;
+      return this;
+    }
+
+    /**
+     * Setter for the time after a failed on-demand load of the metadata of a feature service during
+     * which its metadata is not requested again. Requests for the feature service are sent with
+     * metadata in the meantime. Default value is 30 seconds
+     *
+     * @param loadFailureBackoff loadFailureBackoff as a {@link java.time.Duration}, must be
+     *     positive
+     * @return this Builder
+     */
+    public Builder loadFailureBackoff(Duration loadFailureBackoff) {
+      this.loadFailureBackoff = loadFailureBackoff;
+      return this;
+    }
+
+    /**
+     * Build a {@link FeatureServiceMetadataRegistry} object from the Builder
+     *
+     * @return {@link FeatureServiceMetadataRegistry}
+     * @throws IllegalArgumentException when the configured values are invalid
+     */
+    public FeatureServiceMetadataRegistry build() {
+      return new FeatureServiceMetadataRegistry(this);
+    }
+  }
+}
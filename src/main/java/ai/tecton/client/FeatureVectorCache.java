@@ -0,0 +1,509 @@
+package ai.tecton.client;
+
+import ai.tecton.client.exceptions.TectonClientException;
+import ai.tecton.client.exceptions.TectonErrorMessage;
+import ai.tecton.client.model.MetadataOption;
+import ai.tecton.client.request.FeatureProjection;
+import ai.tecton.client.request.GetFeaturesBatchRequest;
+import ai.tecton.client.request.GetFeaturesRequest;
+import ai.tecton.client.request.GetFeaturesRequestData;
+import ai.tecton.client.request.RequestOptions;
+import ai.tecton.client.response.GetFeaturesBatchListener;
+import ai.tecton.client.response.GetFeaturesBatchResponse;
+import ai.tecton.client.response.GetFeaturesResponse;
+import ai.tecton.client.response.ResponseStatus;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * An in-process cache of feature vectors for {@link TectonClient#getFeatures}, {@link
+ * TectonClient#getFeaturesBatch} and their asynchronous variants. Feature vectors are keyed by
+ * workspace, feature service, join keys, request context, metadata options and request options, and
+ * are served from memory until their {@code ttl} has elapsed. For a batch request, only the rows
+ * that are not cached are sent to Tecton.
+ *
+ * <p>The cache holds at most {@code maxEntries} feature vectors and evicts the least recently used
+ * entry once it is full. Only successful responses are cached.
+ *
+ * <p>If {@code refreshAfter} is set, a feature vector that is older than {@code refreshAfter} but
+ * has not expired yet is still served from the cache, and is refreshed in the background. The
+ * refreshes of concurrent requests are batched into calls to the /get-features-batch endpoint. Only
+ * a feature vector older than {@code ttl} requires a call before it is returned. If a refresh
+ * fails, the feature vector is not refreshed again until another {@code refreshAfter} has elapsed.
+ * A cache with {@code refreshAfter} can only be used by a single {@link TectonClient}, which
+ * performs the refreshes.
+ */
+public class FeatureVectorCache {
+
+  private static final Duration DEFAULT_TTL = Duration.ofSeconds(60);
+  private static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+  private final Duration ttl;
+  private final Duration refreshAfter;
+  private final int maxEntries;
+
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+  private final AtomicLong evictionCount = new AtomicLong();
+  private final AtomicLong refreshCount = new AtomicLong();
+
+  // Sends the call to refresh a feature vector, set once by the TectonClient using the cache
+  private volatile Function<GetFeaturesRequest, CompletableFuture<GetFeaturesResponse>> refresher;
+
+  // Guarded by this. Ordered by access, so that the eldest entry is the least recently used
+  private final LinkedHashMap<CacheKey, CacheEntry> entries;
+
+  private FeatureVectorCache(Builder builder) {
+    Validate.isTrue(!builder.ttl.isNegative() && !builder.ttl.isZero(), "ttl must be positive");
+    Validate.isTrue(builder.maxEntries >= 1, "maxEntries must be at least 1");
+    Validate.isTrue(
+        builder.refreshAfter == null
+            || (!builder.refreshAfter.isNegative()
+                && !builder.refreshAfter.isZero()
+                && builder.refreshAfter.compareTo(builder.ttl) < 0),
+        "refreshAfter must be positive and less than ttl");
+    this.ttl = builder.ttl;
+    this.refreshAfter = builder.refreshAfter;
+    this.maxEntries = builder.maxEntries;
+    this.entries =
+        new LinkedHashMap<CacheKey, CacheEntry>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<CacheKey, CacheEntry> eldest) {
+            if (size() > maxEntries) {
+              evictionCount.incrementAndGet();
+              return true;
+            }
+            return false;
+          }
+        };
+  }
+
+  /**
+   * Returns the time a feature vector is served from the cache after it was received
+   *
+   * @return ttl as a {@link java.time.Duration}
+   */
+  public Duration getTtl() {
+    return ttl;
+  }
+
+  /**
+   * Returns the time after which a feature vector is refreshed in the background wrapped in {@link
+   * java.util.Optional} if configured, Optional.empty() otherwise
+   *
+   * @return refreshAfter as a {@link java.time.Duration}
+   */
+  public Optional<Duration> getRefreshAfter() {
+    return Optional.ofNullable(refreshAfter);
+  }
+
+  /**
+   * Returns the maximum number of feature vectors held by the cache
+   *
+   * @return maxEntries
+   */
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  /**
+   * Returns the number of feature vectors served from the cache so far
+   *
+   * @return the number of cache hits
+   */
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  /**
+   * Returns the number of feature vectors that were not cached or had expired, and were requested
+   * from Tecton
+   *
+   * @return the number of cache misses
+   */
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  /**
+   * Returns the number of feature vectors evicted because the cache was full
+   *
+   * @return the number of evictions
+   */
+  public long getEvictionCount() {
+    return evictionCount.get();
+  }
+
+  /**
+   * Returns the number of background refreshes sent so far
+   *
+   * @return the number of refreshes
+   */
+  public long getRefreshCount() {
+    return refreshCount.get();
+  }
+
+  /**
+   * Returns the number of feature vectors currently held by the cache, including expired entries
+   * that have not been removed yet
+   *
+   * @return the number of entries
+   */
+  public synchronized int getSize() {
+    return entries.size();
+  }
+
+  /** Removes all feature vectors from the cache */
+  public synchronized void invalidateAll() {
+    entries.clear();
+  }
+
+  // Returns the cached feature vector for the key, or null if it is not cached or has expired. A
+  // feature vector that is due for a refresh is returned and refreshed in the background
+  GetFeaturesResponse get(CacheKey key) {
+    long now = System.nanoTime();
+    CacheEntry entry;
+    synchronized (this) {
+      entry = entries.get(key);
+      if (entry != null && now - entry.expiresAtNanos >= 0) {
+        entries.remove(key);
+        entry = null;
+      }
+    }
+    if (entry == null) {
+      missCount.incrementAndGet();
+      return null;
+    }
+    hitCount.incrementAndGet();
+    if (refresher != null
+        && now - entry.refreshAtNanos >= 0
+        && entry.refreshing.compareAndSet(false, true)) {
+      refresh(key, entry);
+    }
+    return entry.response;
+  }
+
+  void put(CacheKey key, GetFeaturesResponse response) {
+    long now = System.nanoTime();
+    CacheEntry entry =
+        new CacheEntry(
+            response,
+            now + ttl.toNanos(),
+            refreshAfter != null ? now + refreshAfter.toNanos() : Long.MAX_VALUE);
+    synchronized (this) {
+      entries.put(key, entry);
+    }
+  }
+
+  // Bind the cache to the client that refreshes its feature vectors
+  synchronized void attach(
+      Function<GetFeaturesRequest, CompletableFuture<GetFeaturesResponse>> refresher) {
+    if (this.refresher != null) {
+      throw new TectonClientException(TectonErrorMessage.FEATURE_VECTOR_CACHE_IN_USE);
+    }
+    this.refresher = refresher;
+  }
+
+  private void refresh(CacheKey key, CacheEntry entry) {
+    refreshCount.incrementAndGet();
+    CompletableFuture<GetFeaturesResponse> refreshFuture;
+    try {
+      refreshFuture = refresher.apply(key.toRequest());
+    } catch (RuntimeException e) {
+      backOff(entry);
+      return;
+    }
+    refreshFuture.whenComplete(
+        (response, throwable) -> {
+          if (response != null) {
+            put(key, response);
+          } else {
+            backOff(entry);
+          }
+        });
+  }
+
+  // Allow a later request to retry a failed refresh once another refreshAfter has elapsed, instead
+  // of on the next cache hit
+  private void backOff(CacheEntry entry) {
+    entry.refreshAtNanos = System.nanoTime() + refreshAfter.toNanos();
+    entry.refreshing.set(false);
+  }
+
+  // Looks up every row of a batch request in the cache
+  BatchLookup lookup(GetFeaturesBatchRequest batchRequest) {
+    return new BatchLookup(batchRequest);
+  }
+
+  static CacheKey keyOf(GetFeaturesRequest getFeaturesRequest) {
+    return new CacheKey(
+        getFeaturesRequest.getWorkspaceName(),
+        getFeaturesRequest.getFeatureServiceName(),
+        getFeaturesRequest.getFeaturesRequestData(),
+        getFeaturesRequest.getMetadataOptions(),
+        getFeaturesRequest.getRequestOptions(),
+        getFeaturesRequest.getProjection().orElse(null));
+  }
+
+  static CacheKey keyOf(GetFeaturesBatchRequest batchRequest, GetFeaturesRequestData requestData) {
+    return new CacheKey(
+        batchRequest.getWorkspaceName(),
+        batchRequest.getFeatureServiceName(),
+        requestData,
+        batchRequest.getMetadataOptions(),
+        batchRequest.getRequestOptions(),
+        batchRequest.getProjection().orElse(null));
+  }
+
+  // The result of looking up the rows of a batch request: the cached feature vectors, and a
+  // request for the remaining rows that need to be sent to Tecton
+  final class BatchLookup {
+    private final List<CacheKey> keys;
+    private final List<GetFeaturesResponse> cachedResponses;
+    private final List<Integer> missIndices = new ArrayList<>();
+    private final GetFeaturesBatchRequest missRequest;
+
+    private BatchLookup(GetFeaturesBatchRequest batchRequest) {
+      List<GetFeaturesRequestData> requestDataList = batchRequest.getRequestDataList();
+      this.keys = new ArrayList<>(requestDataList.size());
+      this.cachedResponses = new ArrayList<>(requestDataList.size());
+      List<GetFeaturesRequestData> missRequestDataList = new ArrayList<>();
+      for (int i = 0; i < requestDataList.size(); i++) {
+        CacheKey key = keyOf(batchRequest, requestDataList.get(i));
+        GetFeaturesResponse response = get(key);
+        keys.add(key);
+        cachedResponses.add(response);
+        if (response == null) {
+          missIndices.add(i);
+          missRequestDataList.add(requestDataList.get(i));
+        }
+      }
+      if (missRequestDataList.isEmpty()) {
+        this.missRequest = null;
+      } else if (missRequestDataList.size() == requestDataList.size()) {
+        this.missRequest = batchRequest;
+      } else {
+        this.missRequest =
+            new GetFeaturesBatchRequest(
+                batchRequest.getWorkspaceName(),
+                batchRequest.getFeatureServiceName(),
+                missRequestDataList,
+                batchRequest.getMetadataOptions(),
+                batchRequest.getMicroBatchSize(),
+                batchRequest.getTimeout(),
+                batchRequest.getRequestOptions(),
+                batchRequest.getProjection().orElse(null));
+      }
+    }
+
+    // The request for the rows that are not cached, or null if every row is cached
+    GetFeaturesBatchRequest getMissRequest() {
+      return missRequest;
+    }
+
+    // Caches the rows received for the miss request and combines them with the cached rows
+    GetFeaturesBatchResponse complete(GetFeaturesBatchResponse missResponse) {
+      if (missResponse != null) {
+        List<GetFeaturesResponse> missResponseList = missResponse.getBatchResponseList();
+        List<ResponseStatus> missStatusList = missResponse.getResponseStatusList();
+        for (int i = 0; i < missIndices.size(); i++) {
+          if (missStatusList.get(i).isOk() && missResponseList.get(i) != null) {
+            put(keys.get(missIndices.get(i)), missResponseList.get(i));
+          }
+        }
+      }
+      return missIndices.size() == keys.size()
+          ? missResponse
+          : new GetFeaturesBatchResponse(cachedResponses, missResponse);
+    }
+
+    // Delivers the cached rows to the listener
+    void deliverCached(GetFeaturesBatchListener listener) {
+      for (int i = 0; i < cachedResponses.size(); i++) {
+        if (cachedResponses.get(i) != null) {
+          listener.onResponse(i, cachedResponses.get(i));
+        }
+      }
+    }
+
+    // Returns a listener for the rows of the miss request, that caches each row and delivers it to
+    // the listener at its index in the original request
+    GetFeaturesBatchListener missListener(GetFeaturesBatchListener listener) {
+      return new GetFeaturesBatchListener() {
+        @Override
+        public void onResponse(int index, GetFeaturesResponse response) {
+          int originalIndex = missIndices.get(index);
+          if (response != null) {
+            put(keys.get(originalIndex), response);
+          }
+          listener.onResponse(originalIndex, response);
+        }
+
+        @Override
+        public void onError(int index, Throwable throwable) {
+          listener.onError(missIndices.get(index), throwable);
+        }
+      };
+    }
+  }
+
+  static final class CacheKey {
+    private final String workspaceName;
+    private final String featureServiceName;
+    private final Map<String, String> joinKeyMap;
+    private final Map<String, Object> requestContextMap;
+    private final Set<MetadataOption> metadataOptions;
+    private final RequestOptions requestOptions;
+    private final FeatureProjection projection;
+    private final int hashCode;
+
+    CacheKey(
+        String workspaceName,
+        String featureServiceName,
+        GetFeaturesRequestData requestData,
+        Set<MetadataOption> metadataOptions,
+        RequestOptions requestOptions,
+        FeatureProjection projection) {
+      this.workspaceName = workspaceName;
+      this.featureServiceName = featureServiceName;
+      // Copy the maps, since the request data can be modified after the request is made
+      this.joinKeyMap = new HashMap<>(requestData.getJoinKeyMap());
+      this.requestContextMap = new HashMap<>(requestData.getRequestContextMap());
+      this.metadataOptions = metadataOptions;
+      this.requestOptions = requestOptions;
+      this.projection = projection;
+      this.hashCode =
+          Objects.hash(
+              workspaceName,
+              featureServiceName,
+              joinKeyMap,
+              requestContextMap,
+              metadataOptions,
+              requestOptions,
+              projection);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      CacheKey that = (CacheKey) o;
+      return hashCode == that.hashCode
+          && workspaceName.equals(that.workspaceName)
+          && featureServiceName.equals(that.featureServiceName)
+          && joinKeyMap.equals(that.joinKeyMap)
+          && requestContextMap.equals(that.requestContextMap)
+          && metadataOptions.equals(that.metadataOptions)
+          && Objects.equals(requestOptions, that.requestOptions)
+          && Objects.equals(projection, that.projection);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    // Rebuild the request for the feature vector, used to refresh it
+    GetFeaturesRequest toRequest() {
+      GetFeaturesRequestData requestData = new GetFeaturesRequestData();
+      if (!joinKeyMap.isEmpty()) {
+        requestData.addJoinKeyMap(joinKeyMap);
+      }
+      if (!requestContextMap.isEmpty()) {
+        requestData.addRequestContextMap(requestContextMap);
+      }
+      return new GetFeaturesRequest.Builder()
+          .workspaceName(workspaceName)
+          .featureServiceName(featureServiceName)
+          .getFeaturesRequestData(requestData)
+          .metadataOptions(metadataOptions)
+          .requestOptions(requestOptions)
+          .projection(projection)
+          .build();
+    }
+  }
+
+  private static final class CacheEntry {
+    private final GetFeaturesResponse response;
+    private final long expiresAtNanos;
+    // Pushed forward when a refresh fails
+    private volatile long refreshAtNanos;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    CacheEntry(GetFeaturesResponse response, long expiresAtNanos, long refreshAtNanos) {
+      this.response = response;
+      this.expiresAtNanos = expiresAtNanos;
+      this.refreshAtNanos = refreshAtNanos;
+    }
+  }
+
+  /**
+   * A Builder class for creating an instance of {@link FeatureVectorCache} object with specific
+   * configurations
+   */
+  public static class Builder {
+    private Duration ttl = DEFAULT_TTL;
+    private Duration refreshAfter;
+    private int maxEntries = DEFAULT_MAX_ENTRIES;
+
+    /**
+     * Setter for the time a feature vector is served from the cache after it was received. Default
+     * value is 60s
+     *
+     * @param ttl ttl as a {@link java.time.Duration}, must be positive
+     * @return this Builder
+     */
+    public Builder ttl(Duration ttl) {
+      this.ttl = ttl;
+      return this;
+    }
+
+    /**
+     * Setter for the time after which a cached feature vector is refreshed in the background, while
+     * the cached feature vector is still returned until the refresh completes or the ttl elapses.
+     * Default value is none, i.e. feature vectors are only requested again once they expire
+     *
+     * @param refreshAfter refreshAfter as a {@link java.time.Duration}, must be positive and less
+     *     than ttl
+     * @return this Builder
+     */
+    public Builder refreshAfter(Duration refreshAfter) {
+      this.refreshAfter = refreshAfter;
+      return this;
+    }
+
+    /**
+     * Setter for the maximum number of feature vectors held by the cache. Once the cache is full,
+     * the least recently used feature vector is evicted. Default value is 10000
+     *
+     * @param maxEntries int value, must be at least 1
+     * @return this Builder
+     */
+    public Builder maxEntries(int maxEntries) {
+      this.maxEntries = maxEntries;
+      return this;
+    }
+
+    /**
+     * Build a {@link FeatureVectorCache} object from the Builder
+     *
+     * @return {@link FeatureVectorCache}
+     * @throws IllegalArgumentException when the configured values are invalid
+     */
+    public FeatureVectorCache build() {
+      return new FeatureVectorCache(this);
+    }
+  }
+}
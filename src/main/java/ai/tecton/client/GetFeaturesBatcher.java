@@ -0,0 +1,183 @@
+package ai.tecton.client;
+
+import ai.tecton.client.model.MetadataOption;
+import ai.tecton.client.request.FeatureProjection;
+import ai.tecton.client.request.GetFeaturesBatchRequest;
+import ai.tecton.client.request.GetFeaturesRequest;
+import ai.tecton.client.request.GetFeaturesRequestData;
+import ai.tecton.client.request.RequestConstants;
+import ai.tecton.client.request.RequestOptions;
+import ai.tecton.client.response.GetFeaturesBatchListener;
+import ai.tecton.client.response.GetFeaturesResponse;
+import ai.tecton.client.transport.TectonHttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+
+// Collects concurrent GetFeaturesRequests into groups that can be sent as a single batch call, and
+// sends each group once it is full or its linger time has elapsed. See BatchingPolicy
+class GetFeaturesBatcher {
+
+  private final TectonClient tectonClient;
+  private final TectonHttpClient tectonHttpClient;
+  private final BatchingPolicy batchingPolicy;
+
+  // Guarded by this
+  private final Map<BatchKey, PendingBatch> pendingBatches = new HashMap<>();
+
+  GetFeaturesBatcher(
+      TectonClient tectonClient, TectonHttpClient tectonHttpClient, BatchingPolicy batchingPolicy) {
+    this.tectonClient = tectonClient;
+    this.tectonHttpClient = tectonHttpClient;
+    this.batchingPolicy = batchingPolicy;
+  }
+
+  CompletableFuture<GetFeaturesResponse> submit(GetFeaturesRequest getFeaturesRequest) {
+    BatchKey batchKey = new BatchKey(getFeaturesRequest);
+    CompletableFuture<GetFeaturesResponse> future = new CompletableFuture<>();
+    PendingBatch fullBatch = null;
+    synchronized (this) {
+      PendingBatch pendingBatch = pendingBatches.get(batchKey);
+      if (pendingBatch == null) {
+        PendingBatch newBatch = new PendingBatch(batchKey);
+        newBatch.lingerTask =
+            tectonHttpClient.schedule(
+                () -> flush(batchKey, newBatch), batchingPolicy.getLingerTime());
+        pendingBatches.put(batchKey, newBatch);
+        pendingBatch = newBatch;
+      }
+      pendingBatch.add(getFeaturesRequest.getFeaturesRequestData(), future);
+      if (pendingBatch.size() >= batchingPolicy.getMaxBatchSize()) {
+        pendingBatches.remove(batchKey);
+        fullBatch = pendingBatch;
+      }
+    }
+    if (fullBatch != null) {
+      fullBatch.lingerTask.cancel(false);
+      send(fullBatch);
+    }
+    return future;
+  }
+
+  private void flush(BatchKey batchKey, PendingBatch pendingBatch) {
+    synchronized (this) {
+      // The batch may already have been sent because it was full
+      if (!pendingBatches.remove(batchKey, pendingBatch)) {
+        return;
+      }
+    }
+    send(pendingBatch);
+  }
+
+  private void send(PendingBatch pendingBatch) {
+    BatchKey batchKey = pendingBatch.batchKey;
+    List<CompletableFuture<GetFeaturesResponse>> futures = pendingBatch.futures;
+    batchingPolicy.onBatch(futures.size());
+    CompletableFuture<Void> batchFuture;
+    try {
+      GetFeaturesBatchRequest batchRequest =
+          new GetFeaturesBatchRequest(
+              batchKey.workspaceName,
+              batchKey.featureServiceName,
+              pendingBatch.requestDataList,
+              batchKey.metadataOptions,
+              RequestConstants.MAX_MICRO_BATCH_SIZE,
+              batchKey.timeout != null ? batchKey.timeout : RequestConstants.NONE_TIMEOUT,
+              batchKey.requestOptions,
+              batchKey.projection);
+      batchFuture =
+          tectonClient.sendGetFeaturesBatchAsync(
+              batchRequest,
+              new GetFeaturesBatchListener() {
+                @Override
+                public void onResponse(int index, GetFeaturesResponse response) {
+                  futures.get(index).complete(response);
+                }
+
+                @Override
+                public void onError(int index, Throwable throwable) {
+                  futures.get(index).completeExceptionally(throwable);
+                }
+              });
+    } catch (Exception e) {
+      futures.forEach(future -> future.completeExceptionally(e));
+      return;
+    }
+    // Fail any request whose row could not be delivered, e.g. if the batch could not be built
+    batchFuture.whenComplete(
+        (ignored, throwable) -> {
+          if (throwable != null) {
+            Throwable cause =
+                throwable instanceof CompletionException && throwable.getCause() != null
+                    ? throwable.getCause()
+                    : throwable;
+            futures.forEach(future -> future.completeExceptionally(cause));
+          }
+        });
+  }
+
+  // Requests can only be batched together if they share all parameters except the request data
+  private static final class BatchKey {
+    private final String workspaceName;
+    private final String featureServiceName;
+    private final Set<MetadataOption> metadataOptions;
+    private final RequestOptions requestOptions;
+    private final Duration timeout;
+    private final FeatureProjection projection;
+
+    BatchKey(GetFeaturesRequest getFeaturesRequest) {
+      this.workspaceName = getFeaturesRequest.getWorkspaceName();
+      this.featureServiceName = getFeaturesRequest.getFeatureServiceName();
+      this.metadataOptions = getFeaturesRequest.getMetadataOptions();
+      this.requestOptions = getFeaturesRequest.getRequestOptions();
+      this.timeout = getFeaturesRequest.getTimeout().orElse(null);
+      this.projection = getFeaturesRequest.getProjection().orElse(null);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      BatchKey that = (BatchKey) o;
+      return workspaceName.equals(that.workspaceName)
+          && featureServiceName.equals(that.featureServiceName)
+          && metadataOptions.equals(that.metadataOptions)
+          && Objects.equals(requestOptions, that.requestOptions)
+          && Objects.equals(timeout, that.timeout)
+          && Objects.equals(projection, that.projection);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(
+          workspaceName, featureServiceName, metadataOptions, requestOptions, timeout, projection);
+    }
+  }
+
+  private static final class PendingBatch {
+    private final BatchKey batchKey;
+    private final List<GetFeaturesRequestData> requestDataList = new ArrayList<>();
+    private final List<CompletableFuture<GetFeaturesResponse>> futures = new ArrayList<>();
+    private ScheduledFuture<?> lingerTask;
+
+    PendingBatch(BatchKey batchKey) {
+      this.batchKey = batchKey;
+    }
+
+    void add(GetFeaturesRequestData requestData, CompletableFuture<GetFeaturesResponse> future) {
+      requestDataList.add(requestData);
+      futures.add(future);
+    }
+
+    int size() {
+      return futures.size();
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package ai.tecton.client;
+
+import ai.tecton.client.exceptions.InvalidRequestParameterException;
+import ai.tecton.client.exceptions.TectonClientException;
+import ai.tecton.client.exceptions.TectonServiceException;
+import ai.tecton.client.request.GetFeaturesRequest;
+import ai.tecton.client.request.GetFeaturesRequestData;
+import ai.tecton.client.request.GetFeaturesRequestTemplate;
+import ai.tecton.client.response.GetFeaturesResponse;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A handle for requesting feature vectors from one feature service with the same metadata options
+ * and request options, created with {@link TectonClient#prepare}. The JSON of the requests is
+ * written from a {@link GetFeaturesRequestTemplate}, so each call only encodes its join keys and
+ * request context, and the URL and headers of the /get-features endpoint are resolved once.
+ *
+ * <p>Requests sent with the handle are regular {@link GetFeaturesRequest}s, so they use the cache,
+ * coalescing, batching and lean responses configured for the client like any other request. A
+ * handle can be shared across threads.
+ */
+public class PreparedFeatureService {
+
+  private final TectonClient tectonClient;
+  private final GetFeaturesRequestTemplate requestTemplate;
+
+  PreparedFeatureService(TectonClient tectonClient, GetFeaturesRequestTemplate requestTemplate) {
+    this.tectonClient = tectonClient;
+    this.requestTemplate = requestTemplate;
+  }
+
+  /**
+   * Returns the {@link GetFeaturesRequestTemplate} the requests of the handle are created from
+   *
+   * @return {@link GetFeaturesRequestTemplate}
+   */
+  public GetFeaturesRequestTemplate getRequestTemplate() {
+    return requestTemplate;
+  }
+
+  /**
+   * Makes a request to the /get-features endpoint for the joinKeyMap and requestContextMap of
+   * {@code getFeaturesRequestData}, see {@link TectonClient#getFeatures(GetFeaturesRequest)}
+   *
+   * @param getFeaturesRequestData {@link GetFeaturesRequestData} object with joinKeyMap and/or
+   *     requestContextMap
+   * @return {@link GetFeaturesResponse} object representing the response from the HTTP API
+   * @throws InvalidRequestParameterException when both maps of getFeaturesRequestData are empty
+   * @throws TectonClientException when the client is already closed or encounters an error while
+   *     building the request or parsing the response
+   * @throws TectonServiceException If Tecton returns an error response
+   */
+  public GetFeaturesResponse getFeatures(GetFeaturesRequestData getFeaturesRequestData)
+      throws TectonClientException, TectonServiceException {
+    return tectonClient.getFeatures(requestTemplate.newRequest(getFeaturesRequestData));
+  }
+
+  /**
+   * Asynchronously makes a request to the /get-features endpoint for the joinKeyMap and
+   * requestContextMap of {@code getFeaturesRequestData}, see {@link
+   * TectonClient#getFeaturesAsync(GetFeaturesRequest)}
+   *
+   * @param getFeaturesRequestData {@link GetFeaturesRequestData} object with joinKeyMap and/or
+   *     requestContextMap
+   * @return a {@link CompletableFuture} that completes with the {@link GetFeaturesResponse}
+   * @throws InvalidRequestParameterException when both maps of getFeaturesRequestData are empty
+   */
+  public CompletableFuture<GetFeaturesResponse> getFeaturesAsync(
+      GetFeaturesRequestData getFeaturesRequestData) {
+    return tectonClient.getFeaturesAsync(requestTemplate.newRequest(getFeaturesRequestData));
+  }
+}
@@ -0,0 +1,124 @@
+package ai.tecton.client;
+
+import ai.tecton.client.request.GetFeaturesRequest;
+import ai.tecton.client.response.GetFeaturesResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Coalesces identical {@link TectonClient#getFeatures} and {@link TectonClient#getFeaturesAsync}
+ * requests that are in flight at the same time. Requests are identical if they are equal according
+ * to {@link GetFeaturesRequest#equals(Object)}, i.e. they have the same workspace, feature service,
+ * request data, metadata options, request options and projection, and also have the same timeout.
+ * While a request is in flight, identical requests do not send another call but receive the same
+ * {@link GetFeaturesResponse}, or the same exception, once the call completes.
+ *
+ * <p>Requests with different timeouts are never coalesced, so a request never waits for longer than
+ * its own timeout. Cancelling the future of a coalesced request does not cancel the shared call.
+ */
+public class RequestCoalescer {
+
+  private final Map<CallKey, CompletableFuture<GetFeaturesResponse>> inFlightCalls =
+      new ConcurrentHashMap<>();
+  private final AtomicLong requestCount = new AtomicLong();
+  private final AtomicLong coalescedRequestCount = new AtomicLong();
+
+  /**
+   * Returns the number of requests handled by the coalescer so far
+   *
+   * @return the number of requests
+   */
+  public long getRequestCount() {
+    return requestCount.get();
+  }
+
+  /**
+   * Returns the number of requests that were coalesced with an identical request already in flight,
+   * i.e. the number of calls that were saved
+   *
+   * @return the number of coalesced requests
+   */
+  public long getCoalescedRequestCount() {
+    return coalescedRequestCount.get();
+  }
+
+  /**
+   * Returns the number of distinct requests currently in flight
+   *
+   * @return the number of calls in flight
+   */
+  public int getInFlightCount() {
+    return inFlightCalls.size();
+  }
+
+  // Returns the result of the call in flight for an identical request, or sends a new call
+  CompletableFuture<GetFeaturesResponse> coalesce(
+      GetFeaturesRequest getFeaturesRequest,
+      Function<GetFeaturesRequest, CompletableFuture<GetFeaturesResponse>> call) {
+    requestCount.incrementAndGet();
+    CallKey callKey = new CallKey(getFeaturesRequest);
+    CompletableFuture<GetFeaturesResponse> sharedFuture = new CompletableFuture<>();
+    CompletableFuture<GetFeaturesResponse> inFlightFuture =
+        inFlightCalls.putIfAbsent(callKey, sharedFuture);
+    if (inFlightFuture != null) {
+      coalescedRequestCount.incrementAndGet();
+      return inFlightFuture.thenApply(Function.identity());
+    }
+
+    CompletableFuture<GetFeaturesResponse> callFuture;
+    try {
+      callFuture = call.apply(getFeaturesRequest);
+    } catch (RuntimeException e) {
+      inFlightCalls.remove(callKey, sharedFuture);
+      sharedFuture.completeExceptionally(e);
+      throw e;
+    }
+    callFuture.whenComplete(
+        (response, throwable) -> {
+          // Remove the call before completing it, so that later requests send a new call
+          inFlightCalls.remove(callKey, sharedFuture);
+          if (throwable == null) {
+            sharedFuture.complete(response);
+          } else {
+            sharedFuture.completeExceptionally(
+                throwable instanceof CompletionException && throwable.getCause() != null
+                    ? throwable.getCause()
+                    : throwable);
+          }
+        });
+    // Each request receives its own future, so that cancelling one does not affect the others
+    return sharedFuture.thenApply(Function.identity());
+  }
+
+  // Requests share a call only if they are equal and have the same timeout, which
+  // GetFeaturesRequest.equals() does not compare
+  private static final class CallKey {
+    private final GetFeaturesRequest getFeaturesRequest;
+    private final Duration timeout;
+
+    CallKey(GetFeaturesRequest getFeaturesRequest) {
+      this.getFeaturesRequest = getFeaturesRequest;
+      this.timeout = getFeaturesRequest.getTimeout().orElse(null);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      CallKey that = (CallKey) o;
+      return getFeaturesRequest.equals(that.getFeaturesRequest)
+          && Objects.equals(timeout, that.timeout);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(getFeaturesRequest, timeout);
+    }
+  }
+}
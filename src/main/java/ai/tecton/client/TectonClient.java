@@ -1,28 +1,51 @@
 package ai.tecton.client;
 
 import ai.tecton.client.exceptions.BadRequestException;
+import ai.tecton.client.exceptions.FeatureSchemaMismatchException;
 import ai.tecton.client.exceptions.ForbiddenException;
 import ai.tecton.client.exceptions.GatewayTimeoutException;
 import ai.tecton.client.exceptions.InternalServerErrorException;
+import ai.tecton.client.exceptions.InvalidRequestParameterException;
 import ai.tecton.client.exceptions.ResourceExhaustedException;
 import ai.tecton.client.exceptions.ResourceNotFoundException;
 import ai.tecton.client.exceptions.ServiceUnavailableException;
 import ai.tecton.client.exceptions.TectonClientException;
+import ai.tecton.client.exceptions.TectonException;
 import ai.tecton.client.exceptions.TectonServiceException;
 import ai.tecton.client.exceptions.UnauthorizedException;
+import ai.tecton.client.model.FeatureSchema;
+import ai.tecton.client.model.FeatureServiceMetadata;
+import ai.tecton.client.model.MetadataOption;
 import ai.tecton.client.request.AbstractTectonRequest;
+import ai.tecton.client.request.FeatureProjection;
 import ai.tecton.client.request.GetFeatureServiceMetadataRequest;
 import ai.tecton.client.request.GetFeaturesBatchRequest;
 import ai.tecton.client.request.GetFeaturesRequest;
+import ai.tecton.client.request.GetFeaturesRequestTemplate;
+import ai.tecton.client.request.RequestConstants;
+import ai.tecton.client.request.RequestOptions;
+import ai.tecton.client.response.FeatureFrame;
 import ai.tecton.client.response.GetFeatureServiceMetadataResponse;
+import ai.tecton.client.response.GetFeaturesBatchListener;
 import ai.tecton.client.response.GetFeaturesBatchResponse;
 import ai.tecton.client.response.GetFeaturesResponse;
+import ai.tecton.client.response.GetFeaturesResponse.DecodeOptions;
 import ai.tecton.client.transport.HttpResponse;
 import ai.tecton.client.transport.TectonHttpClient;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import okhttp3.OkHttpClient;
+import okhttp3.RequestBody;
 
 /**
  * A client for interacting with the Tecton FeatureService API. The client provides several methods
@@ -32,10 +55,23 @@ import okhttp3.OkHttpClient;
  * <p>Note: Each method throws TectonServiceException when it receives an error response from the
  * API and a TectonClientException when an error or exception is encountered by the client. The
  * message included in the exception will provide more information about the error.
+ *
+ * <p>Each method also has a non-blocking variant (e.g. {@link #getFeaturesAsync}) that returns a
+ * {@link CompletableFuture}. These futures complete exceptionally with the same exceptions that the
+ * blocking methods throw, and cancelling a future cancels the underlying HTTP call(s).
  */
 public class TectonClient {
 
+  private static final Duration REFRESH_LINGER_TIME = Duration.ofMillis(5);
+
   private final TectonHttpClient tectonHttpClient;
+  private final Executor callbackExecutor;
+  private final GetFeaturesBatcher getFeaturesBatcher;
+  private final RequestCoalescer requestCoalescer;
+  private final FeatureVectorCache featureVectorCache;
+  private final FeatureServiceMetadataRegistry featureServiceMetadataRegistry;
+  private final boolean leanResponses;
+  private final boolean lazyDecoding;
 
   /**
    * Constructor for a simple Tecton Client
@@ -46,8 +82,7 @@ public class TectonClient {
    *     with an API key</a> for more information
    */
   public TectonClient(String url, String apiKey) {
-    this.tectonHttpClient =
-        new TectonHttpClient(url, apiKey, new TectonClientOptions.Builder().build());
+    this(url, apiKey, new TectonClientOptions.Builder().build());
   }
 
   /**
@@ -61,6 +96,35 @@ public class TectonClient {
    */
   public TectonClient(String url, String apiKey, TectonClientOptions tectonClientOptions) {
     this.tectonHttpClient = new TectonHttpClient(url, apiKey, tectonClientOptions);
+    this.callbackExecutor = tectonClientOptions.getCallbackExecutor();
+    BatchingPolicy batchingPolicy = tectonClientOptions.getBatchingPolicy();
+    this.getFeaturesBatcher =
+        batchingPolicy != null
+            ? new GetFeaturesBatcher(this, tectonHttpClient, batchingPolicy)
+            : null;
+    this.requestCoalescer = tectonClientOptions.getRequestCoalescer();
+    this.featureVectorCache = tectonClientOptions.getFeatureVectorCache();
+    if (featureVectorCache != null && featureVectorCache.getRefreshAfter().isPresent()) {
+      // Batch the background refreshes of concurrent requests into calls to /get-features-batch
+      GetFeaturesBatcher refreshBatcher =
+          new GetFeaturesBatcher(
+              this,
+              tectonHttpClient,
+              new BatchingPolicy.Builder().lingerTime(REFRESH_LINGER_TIME).build());
+      try {
+        featureVectorCache.attach(refreshBatcher::submit);
+      } catch (TectonClientException e) {
+        tectonHttpClient.close();
+        throw e;
+      }
+    }
+    this.featureServiceMetadataRegistry =
+        tectonClientOptions.getFeatureServiceMetadataRegistry() != null
+            ? tectonClientOptions.getFeatureServiceMetadataRegistry()
+            : new FeatureServiceMetadataRegistry.Builder().build();
+    this.leanResponses = tectonClientOptions.isLeanResponses();
+    this.lazyDecoding = tectonClientOptions.isLazyDecoding();
+    startFeatureServiceMetadataRegistry();
   }
 
   /**
@@ -84,6 +148,14 @@ public class TectonClient {
    */
   public TectonClient(String url, String apiKey, OkHttpClient httpClient) {
     this.tectonHttpClient = new TectonHttpClient(url, apiKey, httpClient);
+    this.callbackExecutor = ForkJoinPool.commonPool();
+    this.getFeaturesBatcher = null;
+    this.requestCoalescer = null;
+    this.featureVectorCache = null;
+    this.featureServiceMetadataRegistry = new FeatureServiceMetadataRegistry.Builder().build();
+    this.leanResponses = false;
+    this.lazyDecoding = false;
+    startFeatureServiceMetadataRegistry();
   }
 
   /**
@@ -106,9 +178,43 @@ public class TectonClient {
    */
   public GetFeaturesResponse getFeatures(GetFeaturesRequest getFeaturesRequest)
       throws TectonClientException, TectonServiceException {
-    HttpResponse httpResponse = getHttpResponse(getFeaturesRequest);
-    return new GetFeaturesResponse(
-        httpResponse.getResponseBody().get(), httpResponse.getRequestDuration());
+    if (featureVectorCache == null) {
+      return fetchFeatures(getFeaturesRequest);
+    }
+    FeatureVectorCache.CacheKey cacheKey = FeatureVectorCache.keyOf(getFeaturesRequest);
+    GetFeaturesResponse cachedResponse = featureVectorCache.get(cacheKey);
+    if (cachedResponse != null) {
+      return cachedResponse;
+    }
+    GetFeaturesResponse response = fetchFeatures(getFeaturesRequest);
+    featureVectorCache.put(cacheKey, response);
+    return response;
+  }
+
+  private GetFeaturesResponse fetchFeatures(GetFeaturesRequest getFeaturesRequest) {
+    if (requestCoalescer != null) {
+      return join(requestCoalescer.coalesce(getFeaturesRequest, this::sendGetFeaturesAsync));
+    }
+    if (getFeaturesBatcher != null) {
+      return join(getFeaturesBatcher.submit(getFeaturesRequest));
+    }
+    FeatureSchema featureSchema = getLeanFeatureSchema(getFeaturesRequest);
+    HttpResponse httpResponse =
+        tectonHttpClient.performHedgedRequest(
+            getFeaturesRequest.getEndpoint(),
+            getFeaturesRequest.getMethod(),
+            featureSchema != null
+                ? getFeaturesRequest.leanRequestBody()
+                : getFeaturesRequest.requestBody(),
+            getFeaturesRequest.getTimeout().orElse(null));
+    httpResponse.validateResponse();
+    if (featureSchema != null) {
+      return join(decodeLeanResponse(getFeaturesRequest, httpResponse, featureSchema));
+    }
+    return GetFeaturesResponse.decode(
+        httpResponse.getResponseSource().get(),
+        httpResponse.getRequestDuration(),
+        decodeOptions(getFeaturesRequest, null));
   }
 
   /**
@@ -145,31 +251,34 @@ public class TectonClient {
    *
    * @param batchRequest The {@link GetFeaturesRequest} object with the request parameters
    * @return {@link GetFeaturesBatchResponse} object with the list of feature vector and metadata
-   *     (if requested)
+   *     (if requested). The rows of a microbatch that Tecton answers with an error response have a
+   *     {@link ai.tecton.client.response.ResponseStatus.Code#FAILED} status, whose cause is the
+   *     exception for the HTTP status, e.g. a {@link BadRequestException}
    * @throws TectonClientException when the client is already closed or the client encounters an
    *     error while building the request or parsing the response
-   * @throws BadRequestException If the HTTP status code is 400 (Bad Request).
-   * @throws UnauthorizedException If the HTTP status code is 401 (Unauthorized).
-   * @throws ForbiddenException If the HTTP status code is 403 (Forbidden).
-   * @throws ResourceNotFoundException If the HTTP status code is 404 (Resource Not Found).
-   * @throws ResourceExhaustedException If the HTTP status code is 429 (Resource Exhausted).
-   * @throws InternalServerErrorException If HTTP the status code is 500 (Internal Server Error).
-   * @throws ServiceUnavailableException If HTTP the status code is 503 (Service Unavailable).
-   * @throws GatewayTimeoutException If HTTP the status code is 504 (Gateway Timeout).
-   * @throws TectonServiceException If Tecton returns an error response with other status codes
    */
   public GetFeaturesBatchResponse getFeaturesBatch(GetFeaturesBatchRequest batchRequest)
       throws TectonClientException, TectonServiceException {
-    // Serialize batch request into list of JSON request
-    List<String> requestList =
+    if (featureVectorCache == null) {
+      return sendGetFeaturesBatch(batchRequest);
+    }
+    // Only send the rows that are not cached
+    FeatureVectorCache.BatchLookup cacheLookup = featureVectorCache.lookup(batchRequest);
+    GetFeaturesBatchRequest missRequest = cacheLookup.getMissRequest();
+    return cacheLookup.complete(missRequest != null ? sendGetFeaturesBatch(missRequest) : null);
+  }
+
+  private GetFeaturesBatchResponse sendGetFeaturesBatch(GetFeaturesBatchRequest batchRequest) {
+    // Each request of the batch is serialized directly into its call
+    List<RequestBody> requestList =
         batchRequest.getRequestList().stream()
-            .map(AbstractTectonRequest::requestToJson)
+            .map(AbstractTectonRequest::requestBody)
             .collect(Collectors.toList());
 
     // Perform parallel batch call
     long start = System.currentTimeMillis();
     List<HttpResponse> httpResponseList =
-        tectonHttpClient.performParallelRequests(
+        tectonHttpClient.performParallelRequestBodies(
             batchRequest.getEndpoint(),
             batchRequest.getMethod(),
             requestList,
@@ -178,8 +287,332 @@ public class TectonClient {
     Duration totalTime = Duration.ofMillis(stop - start);
 
     // Deserialize list of JSON responses into a GetFeaturesBatchResponse
-    return new GetFeaturesBatchResponse(
-        httpResponseList, totalTime, batchRequest.getMicroBatchSize());
+    return new GetFeaturesBatchResponse(httpResponseList, totalTime, batchRequest);
+  }
+
+  /**
+   * Makes a batch request and returns the response as a columnar {@link FeatureFrame}, with the
+   * values of each feature decoded into primitive arrays instead of a {@link
+   * ai.tecton.client.model.FeatureValue} per value. Frames are not served from or added to the
+   * configured {@link FeatureVectorCache}
+   *
+   * @param batchRequest The {@link GetFeaturesBatchRequest} object with the request parameters
+   * @return {@link FeatureFrame} with the values of every row of the request. The rows of a call
+   *     that Tecton answers with an error response have a failed {@link
+   *     ai.tecton.client.response.ResponseStatus}, as in {@link
+   *     #getFeaturesBatch(GetFeaturesBatchRequest)}
+   * @throws TectonClientException when the client is already closed or the client encounters an
+   *     error while building the request or parsing the response
+   */
+  public FeatureFrame getFeaturesBatchFrame(GetFeaturesBatchRequest batchRequest)
+      throws TectonClientException, TectonServiceException {
+    List<RequestBody> requestList =
+        batchRequest.getRequestList().stream()
+            .map(AbstractTectonRequest::requestBody)
+            .collect(Collectors.toList());
+    long start = System.currentTimeMillis();
+    List<HttpResponse> httpResponseList =
+        tectonHttpClient.performParallelRequestBodies(
+            batchRequest.getEndpoint(),
+            batchRequest.getMethod(),
+            requestList,
+            batchRequest.getTimeout());
+    return new FeatureFrame(
+        httpResponseList, Duration.ofMillis(System.currentTimeMillis() - start), batchRequest);
+  }
+
+  /**
+   * Asynchronously makes a batch request and returns the response as a columnar {@link
+   * FeatureFrame}. All calls are sent without blocking the calling thread and the responses are
+   * decoded on the configured {@link TectonClientOptions#getCallbackExecutor()}
+   *
+   * @param batchRequest The {@link GetFeaturesBatchRequest} object with the request parameters
+   * @return a {@link CompletableFuture} that completes with the {@link FeatureFrame}, or
+   *     exceptionally with the exceptions documented in {@link
+   *     #getFeaturesBatchFrame(GetFeaturesBatchRequest)}. Cancelling the future cancels all calls
+   *     that are still in flight
+   */
+  public CompletableFuture<FeatureFrame> getFeaturesBatchFrameAsync(
+      GetFeaturesBatchRequest batchRequest) {
+    CompletableFuture<List<HttpResponse>> httpResponseFuture;
+    long start = System.currentTimeMillis();
+    try {
+      List<RequestBody> requestList =
+          batchRequest.getRequestList().stream()
+              .map(AbstractTectonRequest::requestBody)
+              .collect(Collectors.toList());
+      httpResponseFuture =
+          tectonHttpClient.performParallelRequestBodiesAsync(
+              batchRequest.getEndpoint(),
+              batchRequest.getMethod(),
+              requestList,
+              batchRequest.getTimeout());
+    } catch (Exception e) {
+      return failedFuture(e);
+    }
+    return parseAsync(
+        httpResponseFuture,
+        httpResponseList ->
+            new FeatureFrame(
+                httpResponseList,
+                Duration.ofMillis(System.currentTimeMillis() - start),
+                batchRequest));
+  }
+
+  /**
+   * Asynchronously makes a request to the /get-features endpoint. The request is sent without
+   * blocking the calling thread and the response is parsed on the configured {@link
+   * TectonClientOptions#getCallbackExecutor()}
+   *
+   * @param getFeaturesRequest A {@link GetFeaturesRequest} object with the request parameters
+   * @return a {@link CompletableFuture} that completes with the {@link GetFeaturesResponse}, or
+   *     exceptionally with the exceptions documented in {@link #getFeatures(GetFeaturesRequest)}.
+   *     Cancelling the future cancels the underlying HTTP call
+   */
+  public CompletableFuture<GetFeaturesResponse> getFeaturesAsync(
+      GetFeaturesRequest getFeaturesRequest) {
+    if (featureVectorCache == null) {
+      return fetchFeaturesAsync(getFeaturesRequest);
+    }
+    FeatureVectorCache.CacheKey cacheKey = FeatureVectorCache.keyOf(getFeaturesRequest);
+    GetFeaturesResponse cachedResponse = featureVectorCache.get(cacheKey);
+    if (cachedResponse != null) {
+      return CompletableFuture.completedFuture(cachedResponse);
+    }
+    CompletableFuture<GetFeaturesResponse> responseFuture = fetchFeaturesAsync(getFeaturesRequest);
+    responseFuture.thenAccept(response -> featureVectorCache.put(cacheKey, response));
+    return responseFuture;
+  }
+
+  private CompletableFuture<GetFeaturesResponse> fetchFeaturesAsync(
+      GetFeaturesRequest getFeaturesRequest) {
+    if (requestCoalescer != null) {
+      return requestCoalescer.coalesce(getFeaturesRequest, this::sendGetFeaturesAsync);
+    }
+    return sendGetFeaturesAsync(getFeaturesRequest);
+  }
+
+  /**
+   * Asynchronously makes a request to the /metadata endpoint. The request is sent without blocking
+   * the calling thread and the response is parsed on the configured {@link
+   * TectonClientOptions#getCallbackExecutor()}
+   *
+   * @param getFeatureServiceMetadataRequest A {@link GetFeatureServiceMetadataRequest} object with
+   *     the request parameters
+   * @return a {@link CompletableFuture} that completes with the {@link
+   *     GetFeatureServiceMetadataResponse}, or exceptionally with the exceptions documented in
+   *     {@link #getFeatureServiceMetadata(GetFeatureServiceMetadataRequest)}. Cancelling the future
+   *     cancels the underlying HTTP call
+   */
+  public CompletableFuture<GetFeatureServiceMetadataResponse> getFeatureServiceMetadataAsync(
+      GetFeatureServiceMetadataRequest getFeatureServiceMetadataRequest) {
+    return getHttpResponseAsync(
+        getFeatureServiceMetadataRequest,
+        getFeatureServiceMetadataRequest::requestBody,
+        false,
+        null,
+        httpResponse ->
+            new GetFeatureServiceMetadataResponse(
+                httpResponse.getResponseBody().get(), httpResponse.getRequestDuration()));
+  }
+
+  /**
+   * Asynchronously makes a batch request to retrieve a list of feature vectors. All calls are sent
+   * without blocking the calling thread and the responses are parsed on the configured {@link
+   * TectonClientOptions#getCallbackExecutor()}
+   *
+   * @param batchRequest The {@link GetFeaturesBatchRequest} object with the request parameters
+   * @return a {@link CompletableFuture} that completes with the {@link GetFeaturesBatchResponse},
+   *     or exceptionally with the exceptions documented in {@link
+   *     #getFeaturesBatch(GetFeaturesBatchRequest)}. Cancelling the future cancels all calls that
+   *     are still in flight
+   */
+  public CompletableFuture<GetFeaturesBatchResponse> getFeaturesBatchAsync(
+      GetFeaturesBatchRequest batchRequest) {
+    if (featureVectorCache == null) {
+      return sendGetFeaturesBatchAsync(batchRequest);
+    }
+    // Only send the rows that are not cached
+    FeatureVectorCache.BatchLookup cacheLookup = featureVectorCache.lookup(batchRequest);
+    if (cacheLookup.getMissRequest() == null) {
+      return CompletableFuture.completedFuture(cacheLookup.complete(null));
+    }
+    return parseAsync(
+        sendGetFeaturesBatchAsync(cacheLookup.getMissRequest()), cacheLookup::complete);
+  }
+
+  private CompletableFuture<GetFeaturesBatchResponse> sendGetFeaturesBatchAsync(
+      GetFeaturesBatchRequest batchRequest) {
+    List<RequestBody> requestList;
+    try {
+      requestList =
+          batchRequest.getRequestList().stream()
+              .map(AbstractTectonRequest::requestBody)
+              .collect(Collectors.toList());
+    } catch (Exception e) {
+      return failedFuture(e);
+    }
+
+    long start = System.currentTimeMillis();
+    CompletableFuture<List<HttpResponse>> httpResponseFuture =
+        tectonHttpClient.performParallelRequestBodiesAsync(
+            batchRequest.getEndpoint(),
+            batchRequest.getMethod(),
+            requestList,
+            batchRequest.getTimeout());
+    return parseAsync(
+        httpResponseFuture,
+        httpResponseList ->
+            new GetFeaturesBatchResponse(
+                httpResponseList,
+                Duration.ofMillis(System.currentTimeMillis() - start),
+                batchRequest));
+  }
+
+  /**
+   * Asynchronously makes a batch request and delivers the rows of each microbatch to the {@code
+   * listener} as soon as its call completes, instead of waiting for the entire batch. Each
+   * microbatch is parsed on the configured {@link TectonClientOptions#getCallbackExecutor()} while
+   * the remaining calls are still in flight. Calls that have not completed once the timeout of the
+   * batch request has elapsed are cancelled and their rows are delivered to {@link
+   * GetFeaturesBatchListener#onError}
+   *
+   * @param batchRequest The {@link GetFeaturesBatchRequest} object with the request parameters
+   * @param listener The {@link GetFeaturesBatchListener} that receives each row with its index in
+   *     the request data list
+   * @return a {@link CompletableFuture} that completes once every row has been delivered to the
+   *     listener, or exceptionally if the request cannot be built or the listener throws.
+   *     Cancelling the future cancels all calls that are still in flight
+   */
+  public CompletableFuture<Void> getFeaturesBatchAsync(
+      GetFeaturesBatchRequest batchRequest, GetFeaturesBatchListener listener) {
+    if (featureVectorCache == null) {
+      return sendGetFeaturesBatchAsync(batchRequest, listener);
+    }
+    // Deliver the cached rows right away and only send the rows that are not cached
+    FeatureVectorCache.BatchLookup cacheLookup = featureVectorCache.lookup(batchRequest);
+    try {
+      cacheLookup.deliverCached(listener);
+    } catch (Exception e) {
+      return failedFuture(e);
+    }
+    if (cacheLookup.getMissRequest() == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return sendGetFeaturesBatchAsync(
+        cacheLookup.getMissRequest(), cacheLookup.missListener(listener));
+  }
+
+  // Send a batch request and deliver the rows of each microbatch to the listener, without
+  // consulting the FeatureVectorCache
+  CompletableFuture<Void> sendGetFeaturesBatchAsync(
+      GetFeaturesBatchRequest batchRequest, GetFeaturesBatchListener listener) {
+    List<CompletableFuture<HttpResponse>> callFutures;
+    try {
+      List<RequestBody> requestList =
+          batchRequest.getRequestList().stream()
+              .map(AbstractTectonRequest::requestBody)
+              .collect(Collectors.toList());
+      callFutures =
+          tectonHttpClient.performParallelRequestBodiesIncrementally(
+              batchRequest.getEndpoint(),
+              batchRequest.getMethod(),
+              requestList,
+              batchRequest.getTimeout());
+    } catch (Exception e) {
+      return failedFuture(e);
+    }
+
+    // Only unique rows are sent, so collect the indices of all rows each unique row stands for
+    int uniqueRowCount = batchRequest.getUniqueRequestDataList().size();
+    List<List<Integer>> rowIndices = new ArrayList<>(uniqueRowCount);
+    for (int i = 0; i < uniqueRowCount; i++) {
+      rowIndices.add(new ArrayList<>(1));
+    }
+    for (int i = 0; i < batchRequest.getRequestDataList().size(); i++) {
+      rowIndices.get(batchRequest.getUniqueIndex(i)).add(i);
+    }
+    int rowsPerCall = batchRequest.getRowsPerCall();
+    FeatureProjection projection = batchRequest.getProjection().orElse(null);
+
+    List<CompletableFuture<Void>> deliveryFutures = new ArrayList<>(callFutures.size());
+    for (int i = 0; i < callFutures.size(); i++) {
+      int startIndex = i * rowsPerCall;
+      int endIndex = Math.min(startIndex + rowsPerCall, uniqueRowCount);
+      deliveryFutures.add(
+          callFutures
+              .get(i)
+              .handleAsync(
+                  (httpResponse, throwable) -> {
+                    deliverMicroBatch(
+                        httpResponse,
+                        throwable,
+                        rowsPerCall,
+                        projection,
+                        rowIndices.subList(startIndex, endIndex),
+                        listener);
+                    return null;
+                  },
+                  callbackExecutor));
+    }
+
+    CompletableFuture<Void> resultFuture =
+        CompletableFuture.allOf(deliveryFutures.toArray(new CompletableFuture[0]));
+    resultFuture.whenComplete(
+        (ignored, throwable) -> {
+          if (resultFuture.isCancelled()) {
+            callFutures.forEach(callFuture -> callFuture.cancel(true));
+          }
+        });
+    return resultFuture;
+  }
+
+  /**
+   * Prepares a {@link PreparedFeatureService} handle for requesting feature vectors from a feature
+   * service with the same metadata options and request options. The parts of the request that are
+   * the same for every call, and the URL and headers of the /get-features endpoint, are encoded
+   * once when the handle is prepared, so each call only writes its join keys and request context
+   *
+   * @param workspaceName Name of the workspace in which the Feature Service is defined
+   * @param featureServiceName Name of the Feature Service
+   * @param metadataOptions A {@link Set} of {@link MetadataOption} for retrieving additional
+   *     metadata about the feature values. A null or empty set defaults to {@link
+   *     RequestConstants#DEFAULT_METADATA_OPTIONS}
+   * @return {@link PreparedFeatureService}
+   * @throws InvalidRequestParameterException when workspaceName or featureServiceName is null or
+   *     empty
+   */
+  public PreparedFeatureService prepare(
+      String workspaceName, String featureServiceName, Set<MetadataOption> metadataOptions) {
+    return prepare(workspaceName, featureServiceName, metadataOptions, null);
+  }
+
+  /**
+   * Prepares a {@link PreparedFeatureService} handle for requesting feature vectors from a feature
+   * service with the same metadata options and request options, see {@link #prepare(String, String,
+   * Set)}
+   *
+   * @param workspaceName Name of the workspace in which the Feature Service is defined
+   * @param featureServiceName Name of the Feature Service
+   * @param metadataOptions A {@link Set} of {@link MetadataOption} for retrieving additional
+   *     metadata about the feature values. A null or empty set defaults to {@link
+   *     RequestConstants#DEFAULT_METADATA_OPTIONS}
+   * @param requestOptions {@link RequestOptions} object with request-level options to control
+   *     feature server behavior, or null
+   * @return {@link PreparedFeatureService}
+   * @throws InvalidRequestParameterException when workspaceName or featureServiceName is null or
+   *     empty
+   */
+  public PreparedFeatureService prepare(
+      String workspaceName,
+      String featureServiceName,
+      Set<MetadataOption> metadataOptions,
+      RequestOptions requestOptions) {
+    GetFeaturesRequestTemplate requestTemplate =
+        new GetFeaturesRequestTemplate(
+            workspaceName, featureServiceName, metadataOptions, requestOptions);
+    tectonHttpClient.prepareEndpoint(requestTemplate.getEndpoint());
+    return new PreparedFeatureService(this, requestTemplate);
   }
 
   /**
@@ -192,6 +625,17 @@ public class TectonClient {
     }
   }
 
+  /**
+   * Returns the {@link FeatureServiceMetadataRegistry} of the client, which holds the metadata of
+   * the feature services configured with {@link
+   * TectonClientOptions.Builder#featureServiceMetadataRegistry} and keeps it up to date
+   *
+   * @return {@link FeatureServiceMetadataRegistry}
+   */
+  public FeatureServiceMetadataRegistry getFeatureServiceMetadataRegistry() {
+    return featureServiceMetadataRegistry;
+  }
+
   /**
    * Returns true if the Tecton Client has been closed, false otherwise
    *
@@ -201,16 +645,226 @@ public class TectonClient {
     return tectonHttpClient.isClosed();
   }
 
+  // Load the metadata of the configured feature services, and close the client if it fails
+  private void startFeatureServiceMetadataRegistry() {
+    try {
+      join(featureServiceMetadataRegistry.start(this, tectonHttpClient));
+    } catch (TectonException e) {
+      tectonHttpClient.close();
+      throw e;
+    }
+  }
+
   private HttpResponse getHttpResponse(AbstractTectonRequest tectonRequest) {
     // Perform request and get HttpResponse
     HttpResponse httpResponse =
         tectonHttpClient.performRequest(
-            tectonRequest.getEndpoint(), tectonRequest.getMethod(), tectonRequest.requestToJson());
+            tectonRequest.getEndpoint(),
+            tectonRequest.getMethod(),
+            tectonRequest.requestBody(),
+            null);
 
     httpResponse.validateResponse();
     return httpResponse;
   }
 
+  // Send a request to the /get-features endpoint, or add it to a batch if a BatchingPolicy is
+  // configured
+  private CompletableFuture<GetFeaturesResponse> sendGetFeaturesAsync(
+      GetFeaturesRequest getFeaturesRequest) {
+    if (getFeaturesBatcher != null) {
+      return getFeaturesBatcher.submit(getFeaturesRequest);
+    }
+    FeatureSchema featureSchema = getLeanFeatureSchema(getFeaturesRequest);
+    if (featureSchema == null) {
+      return getHttpResponseAsync(
+          getFeaturesRequest,
+          getFeaturesRequest::requestBody,
+          true,
+          getFeaturesRequest.getTimeout().orElse(null),
+          httpResponse ->
+              GetFeaturesResponse.decode(
+                  httpResponse.getResponseSource().get(),
+                  httpResponse.getRequestDuration(),
+                  decodeOptions(getFeaturesRequest, null)));
+    }
+    CompletableFuture<HttpResponse> httpResponseFuture =
+        getHttpResponseAsync(
+            getFeaturesRequest,
+            getFeaturesRequest::leanRequestBody,
+            true,
+            getFeaturesRequest.getTimeout().orElse(null),
+            Function.identity());
+    CompletableFuture<GetFeaturesResponse> resultFuture =
+        httpResponseFuture.thenCompose(
+            httpResponse -> decodeLeanResponse(getFeaturesRequest, httpResponse, featureSchema));
+    resultFuture.whenComplete(
+        (result, throwable) -> {
+          if (resultFuture.isCancelled()) {
+            httpResponseFuture.cancel(true);
+          }
+        });
+    return resultFuture;
+  }
+
+  // Returns the feature schema of the feature service metadata to decode the response against if
+  // the request can be sent without metadata options, i.e. lean responses are enabled, the request
+  // only asks for the default metadata options and the feature service is in the registry. Returns
+  // null otherwise, and starts loading the metadata of a feature service not yet in the registry
+  // if the registry allows it
+  private FeatureSchema getLeanFeatureSchema(GetFeaturesRequest getFeaturesRequest) {
+    if (!leanResponses
+        || !RequestConstants.DEFAULT_METADATA_OPTIONS.equals(
+            getFeaturesRequest.getMetadataOptions())) {
+      return null;
+    }
+    Optional<FeatureServiceMetadata> metadata =
+        featureServiceMetadataRegistry.getFeatureServiceMetadata(
+            getFeaturesRequest.getWorkspaceName(), getFeaturesRequest.getFeatureServiceName());
+    if (metadata.isPresent()) {
+      return metadata.get().getFeatureSchema();
+    }
+    featureServiceMetadataRegistry.loadOnDemand(
+        getFeaturesRequest.getWorkspaceName(), getFeaturesRequest.getFeatureServiceName());
+    return null;
+  }
+
+  // The options to decode the response to a request with, against the featureSchema if not null
+  private DecodeOptions decodeOptions(
+      GetFeaturesRequest getFeaturesRequest, FeatureSchema featureSchema) {
+    return new DecodeOptions.Builder()
+        .featureSchema(featureSchema)
+        .projection(getFeaturesRequest.getProjection().orElse(null))
+        .lazyDecoding(lazyDecoding)
+        .build();
+  }
+
+  // Decode a lean response against the feature schema it was requested with. If the feature vector
+  // does not have as many values as the schema has features, the feature service may have changed,
+  // so load its metadata again and decode the response against the new feature schema. Any other
+  // error is returned as is
+  private CompletableFuture<GetFeaturesResponse> decodeLeanResponse(
+      GetFeaturesRequest getFeaturesRequest,
+      HttpResponse httpResponse,
+      FeatureSchema featureSchema) {
+    try {
+      return CompletableFuture.completedFuture(
+          GetFeaturesResponse.decode(
+              httpResponse.getResponseSource().get(),
+              httpResponse.getRequestDuration(),
+              decodeOptions(getFeaturesRequest, featureSchema)));
+    } catch (FeatureSchemaMismatchException e) {
+      return featureServiceMetadataRegistry
+          .loadShared(
+              getFeaturesRequest.getWorkspaceName(), getFeaturesRequest.getFeatureServiceName())
+          .thenApply(
+              metadata ->
+                  GetFeaturesResponse.decode(
+                      httpResponse.getResponseSource().get(),
+                      httpResponse.getRequestDuration(),
+                      decodeOptions(getFeaturesRequest, metadata.getFeatureSchema())));
+    }
+  }
+
+  private <T> CompletableFuture<T> getHttpResponseAsync(
+      AbstractTectonRequest tectonRequest,
+      Supplier<RequestBody> requestBody,
+      boolean hedged,
+      Duration callTimeout,
+      Function<HttpResponse, T> responseParser) {
+    CompletableFuture<HttpResponse> httpResponseFuture;
+    try {
+      httpResponseFuture =
+          hedged
+              ? tectonHttpClient.performHedgedRequestAsync(
+                  tectonRequest.getEndpoint(),
+                  tectonRequest.getMethod(),
+                  requestBody.get(),
+                  callTimeout)
+              : tectonHttpClient.performRequestAsync(
+                  tectonRequest.getEndpoint(),
+                  tectonRequest.getMethod(),
+                  requestBody.get(),
+                  callTimeout);
+    } catch (Exception e) {
+      return failedFuture(e);
+    }
+    return parseAsync(
+        httpResponseFuture,
+        httpResponse -> {
+          httpResponse.validateResponse();
+          return responseParser.apply(httpResponse);
+        });
+  }
+
+  // Parse the result on the callback executor and propagate cancellation of the returned future
+  // to the future performing the HTTP call(s)
+  private <S, T> CompletableFuture<T> parseAsync(
+      CompletableFuture<S> httpFuture, Function<S, T> responseParser) {
+    CompletableFuture<T> resultFuture = httpFuture.thenApplyAsync(responseParser, callbackExecutor);
+    resultFuture.whenComplete(
+        (result, throwable) -> {
+          if (resultFuture.isCancelled()) {
+            httpFuture.cancel(true);
+          }
+        });
+    return resultFuture;
+  }
+
+  // Parse a single microbatch and deliver each of its rows to the listener at the indices of all
+  // rows it was deduplicated from, either as a response or as an error if the call failed or the
+  // response could not be parsed
+  private static void deliverMicroBatch(
+      HttpResponse httpResponse,
+      Throwable throwable,
+      int microBatchSize,
+      FeatureProjection projection,
+      List<List<Integer>> rowIndices,
+      GetFeaturesBatchListener listener) {
+    List<GetFeaturesResponse> responseList = null;
+    if (throwable == null) {
+      try {
+        responseList =
+            GetFeaturesBatchResponse.parseMicroBatchResponse(
+                httpResponse, microBatchSize, projection);
+      } catch (Exception e) {
+        throwable = e;
+      }
+    }
+    if (throwable instanceof CompletionException && throwable.getCause() != null) {
+      throwable = throwable.getCause();
+    }
+    for (int i = 0; i < rowIndices.size(); i++) {
+      for (int index : rowIndices.get(i)) {
+        if (responseList != null) {
+          listener.onResponse(index, responseList.get(i));
+        } else {
+          listener.onError(index, throwable);
+        }
+      }
+    }
+  }
+
+  // Wait for the result of a future and rethrow its failure as the exception the blocking methods
+  // are documented to throw
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause() != null ? e.getCause() : e;
+      if (cause instanceof TectonException) {
+        throw (TectonException) cause;
+      }
+      throw new TectonClientException(cause.getMessage(), cause);
+    }
+  }
+
+  private static <T> CompletableFuture<T> failedFuture(Throwable throwable) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    future.completeExceptionally(throwable);
+    return future;
+  }
+
   /**
    * A Builder class for creating an instance of {@link TectonClient} object with specific
    * configurations
@@ -1,6 +1,12 @@
 package ai.tecton.client;
 
+import ai.tecton.client.transport.AdaptiveConcurrencyLimiter;
+import ai.tecton.client.transport.HedgingPolicy;
+import ai.tecton.client.transport.RetryPolicy;
 import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import org.apache.commons.lang3.Validate;
 
 /**
  * A class that provides custom configuration options for the underlying Http Client. The Client
@@ -9,10 +15,17 @@ import java.time.Duration;
  * <ul>
  *   <li><a
  *       href="https://square.github.io/okhttp/4.x/okhttp/okhttp3/-ok-http-client/-builder/read-timeout/">Read
- *       Timeout</a> - Default = 5s
+ *       Timeout</a> - Default = 2s
  *   <li><a
  *       href="https://square.github.io/okhttp/4.x/okhttp/okhttp3/-ok-http-client/-builder/connect-timeout/">Connect
- *       Timeout</a> - Default = 5s
+ *       Timeout</a> - Default = 2s
+ *   <li><a
+ *       href="https://square.github.io/okhttp/4.x/okhttp/okhttp3/-ok-http-client/-builder/write-timeout/">Write
+ *       Timeout</a> - Default = 2s
+ *   <li><a
+ *       href="https://square.github.io/okhttp/4.x/okhttp/okhttp3/-ok-http-client/-builder/call-timeout/">Call
+ *       Timeout</a> - the timeout for a complete call, which can be overridden per request with
+ *       {@link ai.tecton.client.request.GetFeaturesRequest.Builder#timeout}. Default = none
  *   <li><a href="https://square.github.io/okhttp/3.x/okhttp/okhttp3/ConnectionPool.html/">Max Idle
  *       Connections</a> - Default = 5
  *   <li><a href="https://square.github.io/okhttp/3.x/okhttp/okhttp3/ConnectionPool.html/">Keep
@@ -20,34 +33,80 @@ import java.time.Duration;
  *   <li><a
  *       href="https://square.github.io/okhttp/4.x/okhttp/okhttp3/-dispatcher/max-requests-per-host//">Max
  *       Parallel Requests</a> - Default = 5
+ *   <li>Callback Executor - the {@link Executor} used to parse responses for the asynchronous
+ *       methods in {@link TectonClient}. Default = {@link ForkJoinPool#commonPool()}
+ *   <li>Concurrency Limiter - an optional {@link AdaptiveConcurrencyLimiter} that adjusts the
+ *       number of parallel requests at runtime, replacing Max Parallel Requests. Default = none
+ *   <li>Hedging Policy - an optional {@link HedgingPolicy} for hedging slow requests. Default =
+ *       none
+ *   <li>Retry Policy - an optional {@link RetryPolicy} for retrying failed calls. Default = none
+ *   <li>Batching Policy - an optional {@link BatchingPolicy} that batches concurrent requests into
+ *       calls to the /get-features-batch endpoint. Default = none
+ *   <li>Request Coalescer - an optional {@link RequestCoalescer} that sends a single call for
+ *       identical requests in flight at the same time. Default = none
+ *   <li>Feature Vector Cache - an optional {@link FeatureVectorCache} that serves repeated requests
+ *       from memory. Default = none
+ *   <li>Feature Service Metadata Registry - an optional {@link FeatureServiceMetadataRegistry} that
+ *       loads the metadata of feature services when the client is created and refreshes it in the
+ *       background. Default = an empty registry
+ *   <li>Lean Responses - whether /get-features requests are sent without metadata options and their
+ *       feature vectors are decoded against the feature service metadata in the registry. Default =
+ *       false
  * </ul>
  */
 public class TectonClientOptions {
 
   private static final Duration DEFAULT_READ_TIMEOUT = Duration.ofSeconds(2);
   private static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(2);
+  private static final Duration DEFAULT_WRITE_TIMEOUT = Duration.ofSeconds(2);
+  private static final Duration DEFAULT_CALL_TIMEOUT = Duration.ZERO;
   private static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
   private static final Duration DEFAULT_KEEPALIVE_DURATION = Duration.ofMinutes(5);
   private static final int DEFAULT_MAX_PARALLEL_REQUESTS = 5;
+  private static final Executor DEFAULT_CALLBACK_EXECUTOR = ForkJoinPool.commonPool();
 
   private final Duration readTimeout;
   private final Duration connectTimeout;
+  private final Duration writeTimeout;
+  private final Duration callTimeout;
   private final int maxIdleConnections;
   private final Duration keepAliveDuration;
   private final int maxParallelRequests;
+  private final Executor callbackExecutor;
+  private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+  private final HedgingPolicy hedgingPolicy;
+  private final RetryPolicy retryPolicy;
+  private final BatchingPolicy batchingPolicy;
+  private final RequestCoalescer requestCoalescer;
+  private final FeatureVectorCache featureVectorCache;
+  private final FeatureServiceMetadataRegistry featureServiceMetadataRegistry;
+  private final boolean leanResponses;
+  private final boolean lazyDecoding;
 
   /**
    * Constructor that instantiates a TectonClientOptions with default configurations
    *
-   * <p>Read Timeout = 5 seconds, Connect Timeout = 5 seconds, Max Idle Connections = 5, Keep Alive
-   * Duration = 5 minutes, Max Parallel Requests = 5
+   * <p>Read Timeout = 2 seconds, Connect Timeout = 2 seconds, Write Timeout = 2 seconds, Max Idle
+   * Connections = 5, Keep Alive Duration = 5 minutes, Max Parallel Requests = 5
    */
   public TectonClientOptions() {
     this.readTimeout = DEFAULT_READ_TIMEOUT;
     this.connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+    this.writeTimeout = DEFAULT_WRITE_TIMEOUT;
+    this.callTimeout = DEFAULT_CALL_TIMEOUT;
     this.maxIdleConnections = DEFAULT_MAX_IDLE_CONNECTIONS;
     this.keepAliveDuration = DEFAULT_KEEPALIVE_DURATION;
     this.maxParallelRequests = DEFAULT_MAX_PARALLEL_REQUESTS;
+    this.callbackExecutor = DEFAULT_CALLBACK_EXECUTOR;
+    this.concurrencyLimiter = null;
+    this.hedgingPolicy = null;
+    this.retryPolicy = null;
+    this.batchingPolicy = null;
+    this.requestCoalescer = null;
+    this.featureVectorCache = null;
+    this.featureServiceMetadataRegistry = null;
+    this.leanResponses = false;
+    this.lazyDecoding = false;
   }
   /** Constructor that configures the TectonClientOptions with specified configurations */
   public TectonClientOptions(
@@ -58,9 +117,41 @@ public class TectonClientOptions {
       int maxParallelRequests) {
     this.readTimeout = readTimeout;
     this.connectTimeout = connectTimeout;
+    this.writeTimeout = DEFAULT_WRITE_TIMEOUT;
+    this.callTimeout = DEFAULT_CALL_TIMEOUT;
     this.maxIdleConnections = maxIdleConnections;
     this.keepAliveDuration = keepAliveDuration;
     this.maxParallelRequests = maxParallelRequests;
+    this.callbackExecutor = DEFAULT_CALLBACK_EXECUTOR;
+    this.concurrencyLimiter = null;
+    this.hedgingPolicy = null;
+    this.retryPolicy = null;
+    this.batchingPolicy = null;
+    this.requestCoalescer = null;
+    this.featureVectorCache = null;
+    this.featureServiceMetadataRegistry = null;
+    this.leanResponses = false;
+    this.lazyDecoding = false;
+  }
+
+  private TectonClientOptions(Builder builder) {
+    this.readTimeout = builder.readTimeout;
+    this.connectTimeout = builder.connectTimeout;
+    this.writeTimeout = builder.writeTimeout;
+    this.callTimeout = builder.callTimeout;
+    this.maxIdleConnections = builder.maxIdleConnections;
+    this.keepAliveDuration = builder.keepAliveDuration;
+    this.maxParallelRequests = builder.maxParallelRequests;
+    this.callbackExecutor = builder.callbackExecutor;
+    this.concurrencyLimiter = builder.concurrencyLimiter;
+    this.hedgingPolicy = builder.hedgingPolicy;
+    this.retryPolicy = builder.retryPolicy;
+    this.batchingPolicy = builder.batchingPolicy;
+    this.requestCoalescer = builder.requestCoalescer;
+    this.featureVectorCache = builder.featureVectorCache;
+    this.featureServiceMetadataRegistry = builder.featureServiceMetadataRegistry;
+    this.leanResponses = builder.leanResponses;
+    this.lazyDecoding = builder.lazyDecoding;
   }
 
   /**
@@ -72,6 +163,25 @@ public class TectonClientOptions {
     return connectTimeout;
   }
 
+  /**
+   * Returns the writeTimeout configuration for the client
+   *
+   * @return writeTimeout represented as a {@link java.time.Duration}
+   */
+  public Duration getWriteTimeout() {
+    return writeTimeout;
+  }
+
+  /**
+   * Returns the callTimeout configuration for the client
+   *
+   * @return callTimeout represented as a {@link java.time.Duration}, {@link Duration#ZERO} if calls
+   *     have no timeout
+   */
+  public Duration getCallTimeout() {
+    return callTimeout;
+  }
+
   /**
    * Returns the keepAliveDuration configuration for the client's ConnectionPool
    *
@@ -108,6 +218,96 @@ public class TectonClientOptions {
     return maxParallelRequests;
   }
 
+  /**
+   * Returns the {@link Executor} used to parse responses for the asynchronous methods of the client
+   *
+   * @return callbackExecutor
+   */
+  public Executor getCallbackExecutor() {
+    return callbackExecutor;
+  }
+
+  /**
+   * Returns the {@link AdaptiveConcurrencyLimiter} configured for the client, if any
+   *
+   * @return concurrencyLimiter, or null if the client uses the fixed maxParallelRequests
+   */
+  public AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+    return concurrencyLimiter;
+  }
+
+  /**
+   * Returns the {@link HedgingPolicy} configured for the client, if any
+   *
+   * @return hedgingPolicy, or null if requests are not hedged
+   */
+  public HedgingPolicy getHedgingPolicy() {
+    return hedgingPolicy;
+  }
+
+  /**
+   * Returns the {@link RetryPolicy} configured for the client, if any
+   *
+   * @return retryPolicy, or null if calls are not retried
+   */
+  public RetryPolicy getRetryPolicy() {
+    return retryPolicy;
+  }
+
+  /**
+   * Returns the {@link BatchingPolicy} configured for the client, if any
+   *
+   * @return batchingPolicy, or null if requests are not batched automatically
+   */
+  public BatchingPolicy getBatchingPolicy() {
+    return batchingPolicy;
+  }
+
+  /**
+   * Returns the {@link RequestCoalescer} configured for the client, if any
+   *
+   * @return requestCoalescer, or null if identical requests are not coalesced
+   */
+  public RequestCoalescer getRequestCoalescer() {
+    return requestCoalescer;
+  }
+
+  /**
+   * Returns the {@link FeatureVectorCache} configured for the client, if any
+   *
+   * @return featureVectorCache, or null if feature vectors are not cached
+   */
+  public FeatureVectorCache getFeatureVectorCache() {
+    return featureVectorCache;
+  }
+
+  /**
+   * Returns the {@link FeatureServiceMetadataRegistry} configured for the client, if any
+   *
+   * @return featureServiceMetadataRegistry, or null if the client uses an empty registry
+   */
+  public FeatureServiceMetadataRegistry getFeatureServiceMetadataRegistry() {
+    return featureServiceMetadataRegistry;
+  }
+
+  /**
+   * Returns true if lean responses are enabled for the client, false otherwise
+   *
+   * @return leanResponses
+   */
+  public boolean isLeanResponses() {
+    return leanResponses;
+  }
+
+  /**
+   * Returns true if feature values are decoded lazily for the client, false otherwise
+   *
+   * @return lazyDecoding
+   */
+  public boolean isLazyDecoding() {
+    return lazyDecoding;
+  }
+
   /**
    * A Builder class for creating an instance of {@link TectonClientOptions} object with specific
    * configurations
@@ -115,9 +315,21 @@ public class TectonClientOptions {
   public static class Builder {
     private Duration readTimeout = DEFAULT_READ_TIMEOUT;
     private Duration connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+    private Duration writeTimeout = DEFAULT_WRITE_TIMEOUT;
+    private Duration callTimeout = DEFAULT_CALL_TIMEOUT;
     private int maxIdleConnections = DEFAULT_MAX_IDLE_CONNECTIONS;
     private Duration keepAliveDuration = DEFAULT_KEEPALIVE_DURATION;
     private int maxParallelRequests = DEFAULT_MAX_PARALLEL_REQUESTS;
+    private Executor callbackExecutor = DEFAULT_CALLBACK_EXECUTOR;
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private HedgingPolicy hedgingPolicy;
+    private RetryPolicy retryPolicy;
+    private BatchingPolicy batchingPolicy;
+    private RequestCoalescer requestCoalescer;
+    private FeatureVectorCache featureVectorCache;
+    private FeatureServiceMetadataRegistry featureServiceMetadataRegistry;
+    private boolean leanResponses = false;
+    private boolean lazyDecoding = false;
 
     /**
      * Setter for the readTimeout value for new connections. A value of 0 means no timeout,
@@ -143,6 +355,33 @@ public class TectonClientOptions {
       return this;
     }
 
+    /**
+     * Setter for the writeTimeout value for new connections. A value of 0 means no timeout,
+     * otherwise values must be between 1 and Integer.MAX_VALUE when converted to milliseconds
+     *
+     * @param writeTimeout writeTimeout as a {@link java.time.Duration}
+     * @return this Builder
+     */
+    public Builder writeTimeout(Duration writeTimeout) {
+      this.writeTimeout = writeTimeout;
+      return this;
+    }
+
+    /**
+     * Setter for the timeout of a complete call, spanning resolving DNS, connecting, writing the
+     * request and reading the response. A value of 0 means no timeout, otherwise values must be
+     * between 1 and Integer.MAX_VALUE when converted to milliseconds. The timeout of an individual
+     * request can be overridden with {@link
+     * ai.tecton.client.request.GetFeaturesRequest.Builder#timeout}
+     *
+     * @param callTimeout callTimeout as a {@link java.time.Duration}
+     * @return this Builder
+     */
+    public Builder callTimeout(Duration callTimeout) {
+      this.callTimeout = callTimeout;
+      return this;
+    }
+
     /**
      * Setter for the maximum number of idle connections to keep in the pool. If not set, the client
      * will use a default value of 5
@@ -178,18 +417,162 @@ public class TectonClientOptions {
       return this;
     }
 
+    /**
+     * Setter for the {@link Executor} on which the asynchronous methods of the client parse
+     * responses and complete their futures. Responses are never parsed on the OkHttp callback
+     * thread. Default value is {@link ForkJoinPool#commonPool()}
+     *
+     * @param callbackExecutor an {@link Executor}, must not be null
+     * @return this Builder
+     * @throws NullPointerException when the callbackExecutor is null
+     */
+    public Builder callbackExecutor(Executor callbackExecutor) {
+      Validate.notNull(callbackExecutor, "callbackExecutor must not be null");
+      this.callbackExecutor = callbackExecutor;
+      return this;
+    }
+
+    /**
+     * Setter for an {@link AdaptiveConcurrencyLimiter} that adjusts the number of requests executed
+     * concurrently based on the observed latency and overload responses from Tecton. When set, the
+     * limits of the limiter are used instead of maxParallelRequests. A limiter can only be used by
+     * a single client. Default value is none
+     *
+     * @param concurrencyLimiter an {@link AdaptiveConcurrencyLimiter}
+     * @return this Builder
+     */
+    public Builder concurrencyLimiter(AdaptiveConcurrencyLimiter concurrencyLimiter) {
+      this.concurrencyLimiter = concurrencyLimiter;
+      return this;
+    }
+
+    /**
+     * Setter for a {@link HedgingPolicy} used for requests to the /get-features endpoint made with
+     * {@link TectonClient#getFeatures} and {@link TectonClient#getFeaturesAsync}. Default value is
+     * none, i.e. requests are not hedged
+     *
+     * @param hedgingPolicy a {@link HedgingPolicy}
+     * @return this Builder
+     */
+    public Builder hedgingPolicy(HedgingPolicy hedgingPolicy) {
+      this.hedgingPolicy = hedgingPolicy;
+      return this;
+    }
+
+    /**
+     * Setter for a {@link RetryPolicy} used for all calls made by the client, including each
+     * microbatch of a batch request. Default value is none, i.e. calls are not retried
+     *
+     * @param retryPolicy a {@link RetryPolicy}
+     * @return this Builder
+     */
+    public Builder retryPolicy(RetryPolicy retryPolicy) {
+      this.retryPolicy = retryPolicy;
+      return this;
+    }
+
+    /**
+     * Setter for a {@link BatchingPolicy} that automatically batches concurrent requests made with
+     * {@link TectonClient#getFeatures} and {@link TectonClient#getFeaturesAsync} into calls to the
+     * /get-features-batch endpoint. Default value is none, i.e. every request is sent as its own
+     * call
+     *
+     * @param batchingPolicy a {@link BatchingPolicy}
+     * @return this Builder
+     */
+    public Builder batchingPolicy(BatchingPolicy batchingPolicy) {
+      this.batchingPolicy = batchingPolicy;
+      return this;
+    }
+
+    /**
+     * Setter for a {@link RequestCoalescer} that sends a single call for identical requests made
+     * with {@link TectonClient#getFeatures} and {@link TectonClient#getFeaturesAsync} while they
+     * are in flight, and shares the response among all of them. Default value is none
+     *
+     * @param requestCoalescer a {@link RequestCoalescer}
+     * @return this Builder
+     */
+    public Builder requestCoalescer(RequestCoalescer requestCoalescer) {
+      this.requestCoalescer = requestCoalescer;
+      return this;
+    }
+
+    /**
+     * Setter for a {@link FeatureVectorCache} that serves the feature vectors of repeated requests
+     * made with {@link TectonClient#getFeatures}, {@link TectonClient#getFeaturesBatch} and their
+     * asynchronous variants from memory until they expire. Default value is none
+     *
+     * @param featureVectorCache a {@link FeatureVectorCache}
+     * @return this Builder
+     */
+    public Builder featureVectorCache(FeatureVectorCache featureVectorCache) {
+      this.featureVectorCache = featureVectorCache;
+      return this;
+    }
+
+    /**
+     * Setter for a {@link FeatureServiceMetadataRegistry} with the feature services whose metadata
+     * is loaded when the client is created and refreshed in the background. Creating the client
+     * fails if the metadata of any of these feature services cannot be loaded, or if the registry
+     * is already used by another client. Default value is an empty registry
+     *
+     * @param featureServiceMetadataRegistry a {@link FeatureServiceMetadataRegistry}
+     * @return this Builder
+     */
+    public Builder featureServiceMetadataRegistry(
+        FeatureServiceMetadataRegistry featureServiceMetadataRegistry) {
+      this.featureServiceMetadataRegistry = featureServiceMetadataRegistry;
+      return this;
+    }
+
+    /**
+     * Setter for leanResponses. When enabled, {@link TectonClient#getFeatures} and {@link
+     * TectonClient#getFeaturesAsync} send requests that only ask for the default metadata options
+     * without any metadata options, and decode the feature vector of the response by position
+     * against the feature service metadata in the {@link FeatureServiceMetadataRegistry}. This
+     * shrinks the responses and skips parsing the same metadata for every response.
+     *
+     * <p>A request for a feature service that is not yet in the registry is sent with metadata
+     * while its metadata is loaded in the background, up to {@link
+     * FeatureServiceMetadataRegistry.Builder#maxOnDemandFeatureServices} feature services that were
+     * not added to the registry. If the feature vector of a response does not have as many values
+     * as the metadata has features, e.g. because the feature service has changed, the metadata is
+     * loaded again and the response decoded against it. Requests batched by a {@link
+     * BatchingPolicy} are always sent with metadata. Default value is false
+     *
+     * @param leanResponses whether to enable lean responses
+     * @return this Builder
+     */
+    public Builder leanResponses(boolean leanResponses) {
+      this.leanResponses = leanResponses;
+      return this;
+    }
+
+    /**
+     * Setter for lazyDecoding. When enabled, the {@link
+     * ai.tecton.client.response.GetFeaturesResponse} returned by {@link TectonClient#getFeatures}
+     * and {@link TectonClient#getFeaturesAsync} keeps the raw JSON of its feature vector, and only
+     * decodes a {@link ai.tecton.client.model.FeatureValue} when it is first accessed. This saves
+     * decoding the feature values that are never read when an application only reads a few features
+     * of a wide feature service. Errors in the value of a feature are then reported when it is
+     * accessed. Default value is false
+     *
+     * @param lazyDecoding whether to enable lazy decoding of feature values
+     * @return this Builder
+     */
+    public Builder lazyDecoding(boolean lazyDecoding) {
+      this.lazyDecoding = lazyDecoding;
+      return this;
+    }
+
     /**
      * Build a {@link TectonClientOptions} object from the Builder
      *
      * @return {@link TectonClientOptions}
      */
     public TectonClientOptions build() {
-      return new TectonClientOptions(
-          this.readTimeout,
-          this.connectTimeout,
-          this.maxIdleConnections,
-          this.keepAliveDuration,
-          this.maxParallelRequests);
+      return new TectonClientOptions(this);
     }
   }
 }
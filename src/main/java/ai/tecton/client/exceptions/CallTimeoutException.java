@@ -0,0 +1,13 @@
+package ai.tecton.client.exceptions;
+
+/**
+ * An exception class representing a call that did not complete within the timeout of the request it
+ * belongs to, e.g. a microbatch of a batch request that is still in flight when the timeout of the
+ * batch elapses. It extends the {@link TectonClientException} class.
+ */
+public class CallTimeoutException extends TectonClientException {
+
+  public CallTimeoutException(long timeoutMillis) {
+    super(String.format(TectonErrorMessage.CALL_TIMEOUT, timeoutMillis));
+  }
+}
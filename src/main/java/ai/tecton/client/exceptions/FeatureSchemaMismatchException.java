@@ -0,0 +1,15 @@
+package ai.tecton.client.exceptions;
+
+/**
+ * An exception class representing a feature vector in a response that does not have as many feature
+ * values as the feature schema it is decoded against, e.g. because the feature service has changed
+ * since its metadata was loaded. It extends the {@link TectonClientException} class.
+ */
+public class FeatureSchemaMismatchException extends TectonClientException {
+
+  public FeatureSchemaMismatchException(int featureValueCount, int featureCount) {
+    super(
+        String.format(
+            TectonErrorMessage.FEATURE_VECTOR_SCHEMA_MISMATCH, featureValueCount, featureCount));
+  }
+}
@@ -28,6 +28,8 @@ public class TectonErrorMessage {
   public static final String INVALID_RESPONSE_FORMAT = "Unable to parse JSON response from Tecton";
   public static final String EMPTY_RESPONSE = "Received empty response body from Tecton";
   public static final String EMPTY_FEATURE_VECTOR = "Received empty feature vector from Tecton";
+  public static final String FEATURE_VECTOR_SCHEMA_MISMATCH =
+      "Received %s feature values from Tecton but the feature service metadata has %s features";
 
   public static final String MISSING_EXPECTED_METADATA =
       "Required metadata %s is missing in the response";
@@ -43,4 +45,14 @@ public class TectonErrorMessage {
       "The microBatchSize is out of bounds and should be in the range [ %s , %s ]";
   public static final String INVALID_REQUEST_DATA_LIST =
       "The list of GetFeaturesRequestData objects cannot be null or empty";
+  public static final String CONCURRENCY_LIMITER_IN_USE =
+      "The AdaptiveConcurrencyLimiter is already used by another client";
+  public static final String FEATURE_VECTOR_CACHE_IN_USE =
+      "The FeatureVectorCache with refreshAfter is already used by another client";
+  public static final String METADATA_REGISTRY_IN_USE =
+      "The FeatureServiceMetadataRegistry is already used by another client";
+  public static final String CALL_TIMEOUT = "Call did not complete within the timeout of %s ms";
+  public static final String INVALID_TIMEOUT = "The timeout of a request must be positive";
+  public static final String INVALID_FEATURE_PROJECTION =
+      "A feature projection must have at least one feature name, or non-negative feature index";
 }
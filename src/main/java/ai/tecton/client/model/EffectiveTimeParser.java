@@ -0,0 +1,187 @@
+package ai.tecton.client.model;
+
+import ai.tecton.client.exceptions.TectonClientException;
+import ai.tecton.client.exceptions.TectonErrorMessage;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+
+// Parses RFC 3339 timestamps, e.g. 2023-05-03T01:23:45.678Z, into epoch seconds and nanos without
+// a DateTimeFormatter. The layout Tecton returns is parsed directly: a 'T' separator, seconds, an
+// optional fraction of up to nine digits and a 'Z' or +HH:MM offset. Any other timestamp is parsed
+// with OffsetDateTime, so the accepted formats are the same as OffsetDateTime.parse(). A parser
+// holds the result of the last timestamp parsed, and is not thread-safe
+final class EffectiveTimeParser {
+
+  private static final int SECONDS_PER_DAY = 86400;
+  private static final int MAX_OFFSET_SECONDS = 18 * 3600;
+  private static final int[] NANO_SCALE = {
+    1_000_000_000, 100_000_000, 10_000_000, 1_000_000, 100_000, 10_000, 1_000, 100, 10, 1
+  };
+
+  private long epochSecond;
+  private int nano;
+
+  // Parses the timestamp into the epoch second and nano returned by the getters
+  void parse(String value) {
+    if (parseRfc3339(value)) {
+      return;
+    }
+    try {
+      Instant instant = OffsetDateTime.parse(value).toInstant();
+      this.epochSecond = instant.getEpochSecond();
+      this.nano = instant.getNano();
+    } catch (DateTimeException e) {
+      throw new TectonClientException(TectonErrorMessage.UNKNOWN_DATETIME_FORMAT);
+    }
+  }
+
+  long getEpochSecond() {
+    return epochSecond;
+  }
+
+  int getNano() {
+    return nano;
+  }
+
+  static Instant parseInstant(String value) {
+    EffectiveTimeParser parser = new EffectiveTimeParser();
+    parser.parse(value);
+    return Instant.ofEpochSecond(parser.epochSecond, parser.nano);
+  }
+
+  static long parseEpochMicros(String value) {
+    EffectiveTimeParser parser = new EffectiveTimeParser();
+    parser.parse(value);
+    return toEpochMicros(parser.epochSecond, parser.nano);
+  }
+
+  static long toEpochMicros(long epochSecond, int nano) {
+    return Math.addExact(Math.multiplyExact(epochSecond, 1_000_000L), nano / 1000);
+  }
+
+  // Parses yyyy-MM-ddTHH:mm:ss[.fraction](Z|+HH:MM|-HH:MM), and returns false for any other layout
+  // or an invalid date, time or offset
+  private boolean parseRfc3339(String value) {
+    int length = value.length();
+    if (length < 20
+        || value.charAt(4) != '-'
+        || value.charAt(7) != '-'
+        || value.charAt(10) != 'T'
+        || value.charAt(13) != ':'
+        || value.charAt(16) != ':') {
+      return false;
+    }
+    int year = digits(value, 0, 4);
+    int month = digits(value, 5, 2);
+    int day = digits(value, 8, 2);
+    int hour = digits(value, 11, 2);
+    int minute = digits(value, 14, 2);
+    int second = digits(value, 17, 2);
+    if (year < 0
+        || month < 1
+        || month > 12
+        || day < 1
+        || day > lengthOfMonth(year, month)
+        || hour < 0
+        || hour > 23
+        || minute < 0
+        || minute > 59
+        || second < 0
+        || second > 59) {
+      return false;
+    }
+
+    int i = 19;
+    int fraction = 0;
+    if (value.charAt(i) == '.') {
+      int start = ++i;
+      while (i < length && isDigit(value.charAt(i))) {
+        if (i - start < 9) {
+          fraction = fraction * 10 + (value.charAt(i) - '0');
+        }
+        i++;
+      }
+      int fractionDigits = i - start;
+      if (fractionDigits == 0 || fractionDigits > 9) {
+        return false;
+      }
+      fraction *= NANO_SCALE[fractionDigits];
+    }
+
+    if (i >= length) {
+      return false;
+    }
+    int offsetSeconds;
+    char sign = value.charAt(i);
+    if (sign == 'Z' && i + 1 == length) {
+      offsetSeconds = 0;
+    } else if ((sign == '+' || sign == '-') && i + 6 == length && value.charAt(i + 3) == ':') {
+      int offsetHours = digits(value, i + 1, 2);
+      int offsetMinutes = digits(value, i + 4, 2);
+      if (offsetHours < 0 || offsetMinutes < 0 || offsetMinutes > 59) {
+        return false;
+      }
+      offsetSeconds = offsetHours * 3600 + offsetMinutes * 60;
+      if (offsetSeconds > MAX_OFFSET_SECONDS) {
+        return false;
+      }
+      if (sign == '-') {
+        offsetSeconds = -offsetSeconds;
+      }
+    } else {
+      return false;
+    }
+
+    this.epochSecond =
+        epochDay(year, month, day) * SECONDS_PER_DAY
+            + hour * 3600
+            + minute * 60
+            + second
+            - offsetSeconds;
+    this.nano = fraction;
+    return true;
+  }
+
+  // The number of days from 1970-01-01 to a date of the proleptic Gregorian calendar
+  private static long epochDay(int year, int month, int day) {
+    int y = month <= 2 ? year - 1 : year;
+    long era = Math.floorDiv(y, 400);
+    long yearOfEra = y - era * 400;
+    long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+    long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return era * 146097 + dayOfEra - 719468;
+  }
+
+  private static int lengthOfMonth(int year, int month) {
+    switch (month) {
+      case 2:
+        boolean leapYear = year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+        return leapYear ? 29 : 28;
+      case 4:
+      case 6:
+      case 9:
+      case 11:
+        return 30;
+      default:
+        return 31;
+    }
+  }
+
+  // Returns the value of the decimal digits at [start, start + count), or -1 if any is not a digit
+  private static int digits(String value, int start, int count) {
+    int result = 0;
+    for (int i = start; i < start + count; i++) {
+      char c = value.charAt(i);
+      if (!isDigit(c)) {
+        return -1;
+      }
+      result = result * 10 + (c - '0');
+    }
+    return result;
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+}
@@ -0,0 +1,347 @@
+package ai.tecton.client.model;
+
+import ai.tecton.client.exceptions.TectonClientException;
+import ai.tecton.client.exceptions.TectonErrorMessage;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Class that represents the in-order schema of a feature vector: the name, type and metadata of
+ * each feature. The schema is parsed once from the metadata of a response, or of a microbatch of a
+ * batch response, and is shared by the {@link FeatureValue} objects of every row, which only hold
+ * their own value and status.
+ *
+ * <p>Effective times are parsed once per schema, and features with the same effective time share a
+ * single parse. They are held as epoch seconds and nanos, and can be read as epoch microseconds
+ * with {@link #getEffectiveTimeMicros(int)} without creating an {@link Instant}.
+ *
+ * <p>A FeatureSchema is immutable and can be shared across threads.
+ */
+public final class FeatureSchema {
+
+  /** The value returned by {@link #getEffectiveTimeMicros(int)} for a feature without one */
+  public static final long NO_EFFECTIVE_TIME = Long.MIN_VALUE;
+
+  // The nanos of a feature without an effective time
+  private static final int ABSENT = -1;
+
+  private final String[] names;
+  private final String[] featureNamespaces;
+  private final String[] featureNames;
+  private final ValueType[] valueTypes;
+  private final ValueType[] listElementTypes;
+  private final long[] effectiveTimeSeconds;
+  private final int[] effectiveTimeNanos;
+  private final String[] featureDescriptions;
+  private final List<Map<String, String>> featureTags;
+  private final Map<String, Integer> indices;
+
+  private FeatureSchema(Builder builder) {
+    int size = builder.names.size();
+    this.names = builder.names.toArray(new String[0]);
+    this.featureNamespaces = builder.featureNamespaces.toArray(new String[0]);
+    this.featureNames = builder.featureNames.toArray(new String[0]);
+    this.valueTypes = builder.valueTypes.toArray(new ValueType[0]);
+    this.listElementTypes = builder.listElementTypes.toArray(new ValueType[0]);
+    this.effectiveTimeSeconds = Arrays.copyOf(builder.effectiveTimeSeconds, size);
+    this.effectiveTimeNanos = Arrays.copyOf(builder.effectiveTimeNanos, size);
+    this.featureDescriptions = builder.featureDescriptions.toArray(new String[0]);
+    this.featureTags = Collections.unmodifiableList(new ArrayList<>(builder.featureTags));
+    Map<String, Integer> indexMap = new HashMap<>(size * 2);
+    for (int i = size - 1; i >= 0; i--) {
+      indexMap.put(names[i], i);
+    }
+    this.indices = Collections.unmodifiableMap(indexMap);
+  }
+
+  /**
+   * Returns a FeatureSchema with the name and type of each feature value of a {@link
+   * FeatureServiceMetadata}, without any feature-level metadata
+   *
+   * @param featureValues the feature values, in the order of the feature vector
+   * @return {@link FeatureSchema}
+   */
+  public static FeatureSchema of(List<NameAndType> featureValues) {
+    Builder builder = new Builder();
+    for (NameAndType nameAndType : featureValues) {
+      builder.addFeature(
+          nameAndType.getName(),
+          nameAndType.getDataType(),
+          nameAndType.getListElementType().orElse(null));
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns the number of features in the schema
+   *
+   * @return the number of features
+   */
+  public int size() {
+    return names.length;
+  }
+
+  /**
+   * Returns the position of a feature in the feature vector
+   *
+   * @param name the name of the feature (featureNamespace.featureName)
+   * @return the index of the feature, or -1 if the schema has no such feature
+   */
+  public int indexOf(String name) {
+    Integer index = indices.get(name);
+    return index != null ? index : -1;
+  }
+
+  /**
+   * Returns the name of a feature (featureNamespace.featureName), as returned in the response
+   *
+   * @param index the index of the feature
+   * @return the name of the feature
+   */
+  public String getName(int index) {
+    return names[index];
+  }
+
+  /**
+   * Returns the names of all features (featureNamespace.featureName), in order
+   *
+   * @return unmodifiable {@link List} of feature names
+   */
+  public List<String> getNames() {
+    return Collections.unmodifiableList(Arrays.asList(names));
+  }
+
+  /**
+   * Returns the namespace of a feature
+   *
+   * @param index the index of the feature
+   * @return the feature namespace
+   */
+  public String getFeatureNamespace(int index) {
+    return featureNamespaces[index];
+  }
+
+  /**
+   * Returns the name of a feature within its namespace
+   *
+   * @param index the index of the feature
+   * @return the feature name
+   */
+  public String getFeatureName(int index) {
+    return featureNames[index];
+  }
+
+  /**
+   * Returns the {@link ValueType} of a feature
+   *
+   * @param index the index of the feature
+   * @return {@link ValueType}
+   */
+  public ValueType getValueType(int index) {
+    return valueTypes[index];
+  }
+
+  /**
+   * Returns the {@link ValueType} of the elements of an array feature
+   *
+   * @param index the index of the feature
+   * @return {@link ValueType} of the array elements if the feature is an ARRAY, null otherwise
+   */
+  public ValueType getListElementType(int index) {
+    return listElementTypes[index];
+  }
+
+  /**
+   * Returns the effective serving time of a feature, if it was returned in the response metadata
+   *
+   * @param index the index of the feature
+   * @return the effectiveTime as an {@link Instant}, or null if not present
+   */
+  public Instant getEffectiveTime(int index) {
+    return hasEffectiveTime(index)
+        ? Instant.ofEpochSecond(effectiveTimeSeconds[index], effectiveTimeNanos[index])
+        : null;
+  }
+
+  /**
+   * Returns true if the effective serving time of a feature was returned in the response metadata
+   *
+   * @param index the index of the feature
+   * @return true if the feature has an effectiveTime
+   */
+  public boolean hasEffectiveTime(int index) {
+    return effectiveTimeNanos[index] != ABSENT;
+  }
+
+  /**
+   * Returns the effective serving time of a feature in microseconds since the epoch, without
+   * creating an {@link Instant}. Digits of the fraction beyond microseconds are truncated
+   *
+   * @param index the index of the feature
+   * @return the effectiveTime in epoch microseconds, or {@link #NO_EFFECTIVE_TIME} if not present
+   * @throws ArithmeticException if the effectiveTime is outside the range of epoch microseconds
+   */
+  public long getEffectiveTimeMicros(int index) {
+    return hasEffectiveTime(index)
+        ? EffectiveTimeParser.toEpochMicros(effectiveTimeSeconds[index], effectiveTimeNanos[index])
+        : NO_EFFECTIVE_TIME;
+  }
+
+  /**
+   * Returns the description of a feature, if it was returned in the response metadata
+   *
+   * @param index the index of the feature
+   * @return the description, or null if not present
+   */
+  public String getFeatureDescription(int index) {
+    return featureDescriptions[index];
+  }
+
+  /**
+   * Returns the tags of a feature, if they were returned in the response metadata
+   *
+   * @param index the index of the feature
+   * @return the tags, or null if not present
+   */
+  public Map<String, String> getFeatureTags(int index) {
+    return featureTags.get(index);
+  }
+
+  /**
+   * Returns true if the other schema has the same features with the same types, in the same order,
+   * regardless of their feature-level metadata
+   *
+   * @param other the other {@link FeatureSchema}
+   * @return true if a feature vector can be read with either schema
+   */
+  public boolean hasSameFeatures(FeatureSchema other) {
+    return Arrays.equals(names, other.names)
+        && Arrays.equals(valueTypes, other.valueTypes)
+        && Arrays.equals(listElementTypes, other.listElementTypes);
+  }
+
+  /** Overrides <i>equals()</i> in class {@link Object} */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    FeatureSchema that = (FeatureSchema) o;
+    return hasSameFeatures(that)
+        && Arrays.equals(effectiveTimeSeconds, that.effectiveTimeSeconds)
+        && Arrays.equals(effectiveTimeNanos, that.effectiveTimeNanos)
+        && Arrays.equals(featureDescriptions, that.featureDescriptions)
+        && Objects.equals(featureTags, that.featureTags);
+  }
+
+  /** Overrides <i>hashCode()</i> in class {@link Object} */
+  @Override
+  public int hashCode() {
+    return Objects.hash(
+        Arrays.hashCode(names), Arrays.hashCode(valueTypes), Arrays.hashCode(listElementTypes));
+  }
+
+  /** A Builder class for creating an instance of {@link FeatureSchema}, one feature at a time */
+  public static class Builder {
+    private final List<String> names = new ArrayList<>();
+    // Each name is split into feature namespace and feature name once, for all rows
+    private final List<String> featureNamespaces = new ArrayList<>();
+    private final List<String> featureNames = new ArrayList<>();
+    private final List<ValueType> valueTypes = new ArrayList<>();
+    private final List<ValueType> listElementTypes = new ArrayList<>();
+    private long[] effectiveTimeSeconds = new long[16];
+    private int[] effectiveTimeNanos = new int[16];
+    private final List<String> featureDescriptions = new ArrayList<>();
+    private final List<Map<String, String>> featureTags = new ArrayList<>();
+    // The effective times of a response are mostly the same, so each distinct string is only
+    // parsed once. Maps the string to the index of the first feature with that effective time
+    private final Map<String, Integer> effectiveTimeIndices = new HashMap<>();
+    private EffectiveTimeParser effectiveTimeParser;
+
+    /**
+     * Adds a feature without any feature-level metadata
+     *
+     * @param name the name of the feature (featureNamespace.featureName)
+     * @param valueType the {@link ValueType} of the feature
+     * @param listElementType the {@link ValueType} of the array elements if the feature is an
+     *     ARRAY, null otherwise
+     * @return this Builder
+     * @throws TectonClientException if the name is not of the form featureNamespace.featureName
+     */
+    public Builder addFeature(String name, ValueType valueType, ValueType listElementType) {
+      return addFeature(name, valueType, listElementType, null, null, null);
+    }
+
+    /**
+     * Adds a feature with its feature-level metadata
+     *
+     * @param name the name of the feature (featureNamespace.featureName)
+     * @param valueType the {@link ValueType} of the feature
+     * @param listElementType the {@link ValueType} of the array elements if the feature is an
+     *     ARRAY, null otherwise
+     * @param effectiveTime the effectiveTime in RFC 3339 format, or null
+     * @param featureDescription the description of the feature, or null
+     * @param featureTags the tags of the feature, or null
+     * @return this Builder
+     * @throws TectonClientException if the name is not of the form featureNamespace.featureName, or
+     *     the effectiveTime cannot be parsed
+     */
+    public Builder addFeature(
+        String name,
+        ValueType valueType,
+        ValueType listElementType,
+        String effectiveTime,
+        String featureDescription,
+        Map<String, String> featureTags) {
+      String[] split = StringUtils.split(name, ".");
+      if (split == null || split.length < 2) {
+        throw new TectonClientException(TectonErrorMessage.INVALID_RESPONSE_FORMAT);
+      }
+      int index = names.size();
+      if (index == effectiveTimeNanos.length) {
+        effectiveTimeSeconds = Arrays.copyOf(effectiveTimeSeconds, index * 2);
+        effectiveTimeNanos = Arrays.copyOf(effectiveTimeNanos, index * 2);
+      }
+      if (StringUtils.isEmpty(effectiveTime)) {
+        effectiveTimeNanos[index] = ABSENT;
+      } else {
+        Integer parsedIndex = effectiveTimeIndices.get(effectiveTime);
+        if (parsedIndex != null) {
+          effectiveTimeSeconds[index] = effectiveTimeSeconds[parsedIndex];
+          effectiveTimeNanos[index] = effectiveTimeNanos[parsedIndex];
+        } else {
+          if (effectiveTimeParser == null) {
+            effectiveTimeParser = new EffectiveTimeParser();
+          }
+          effectiveTimeParser.parse(effectiveTime);
+          effectiveTimeSeconds[index] = effectiveTimeParser.getEpochSecond();
+          effectiveTimeNanos[index] = effectiveTimeParser.getNano();
+          effectiveTimeIndices.put(effectiveTime, index);
+        }
+      }
+      this.names.add(name);
+      this.featureNamespaces.add(split[0]);
+      this.featureNames.add(split[1]);
+      this.valueTypes.add(valueType);
+      this.listElementTypes.add(listElementType);
+      this.featureDescriptions.add(featureDescription);
+      this.featureTags.add(featureTags);
+      return this;
+    }
+
+    /**
+     * Build a {@link FeatureSchema} object from the Builder
+     *
+     * @return {@link FeatureSchema}
+     */
+    public FeatureSchema build() {
+      return new FeatureSchema(this);
+    }
+  }
+}
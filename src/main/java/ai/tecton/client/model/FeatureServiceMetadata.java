@@ -1,6 +1,7 @@
 package ai.tecton.client.model;
 
 import ai.tecton.client.request.GetFeaturesRequest;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -18,6 +19,12 @@ public class FeatureServiceMetadata {
   private final List<NameAndType> inputRequestContextKeys;
   private final List<NameAndType> featureValues;
 
+  // Built on first use, the metadata is immutable so a racy initialization is harmless
+  private volatile Map<String, NameAndType> inputJoinKeysMap;
+  private volatile Map<String, NameAndType> inputRequestContextKeysMap;
+  private volatile Map<String, NameAndType> featureValuesMap;
+  private volatile FeatureSchema featureSchema;
+
   public FeatureServiceMetadata(
       List<NameAndType> inputJoinKeys,
       List<NameAndType> inputRequestContextKeys,
@@ -61,28 +68,61 @@ public class FeatureServiceMetadata {
     return this.featureValues;
   }
 
-  /** Returns the input join keys as a {@link java.util.Map} with the join key name as the key */
+  /**
+   * Returns the input join keys as an unmodifiable {@link java.util.Map} with the join key name as
+   * the key
+   */
   public Map<String, NameAndType> getInputJoinKeysAsMap() {
-    return this.inputJoinKeys.stream()
-        .collect(Collectors.toMap(NameAndType::getName, Function.identity()));
+    Map<String, NameAndType> map = this.inputJoinKeysMap;
+    if (map == null) {
+      map = toMap(this.inputJoinKeys);
+      this.inputJoinKeysMap = map;
+    }
+    return map;
   }
 
   /**
-   * Returns the request context keys as a {@link java.util.Map} with the request context name as
-   * the key
+   * Returns the request context keys as an unmodifiable {@link java.util.Map} with the request
+   * context name as the key
    */
   public Map<String, NameAndType> getInputRequestContextKeysAsMap() {
-    return this.inputRequestContextKeys.stream()
-        .collect(Collectors.toMap(NameAndType::getName, Function.identity()));
+    Map<String, NameAndType> map = this.inputRequestContextKeysMap;
+    if (map == null) {
+      map = toMap(this.inputRequestContextKeys);
+      this.inputRequestContextKeysMap = map;
+    }
+    return map;
   }
 
   /**
-   * Returns the feature metadata as a {@link java.util.Map} with the (featureNamespace.featureName)
-   * as the key
+   * Returns the feature metadata as an unmodifiable {@link java.util.Map} with the
+   * (featureNamespace.featureName) as the key
    */
   public Map<String, NameAndType> getFeatureValuesAsMap() {
-    return this.featureValues.stream()
-        .collect(Collectors.toMap(NameAndType::getName, Function.identity()));
+    Map<String, NameAndType> map = this.featureValuesMap;
+    if (map == null) {
+      map = toMap(this.featureValues);
+      this.featureValuesMap = map;
+    }
+    return map;
+  }
+
+  /**
+   * Returns the feature values as a {@link FeatureSchema}, which is built once and shared by the
+   * responses decoded against this metadata
+   */
+  public FeatureSchema getFeatureSchema() {
+    FeatureSchema schema = this.featureSchema;
+    if (schema == null) {
+      schema = FeatureSchema.of(this.featureValues);
+      this.featureSchema = schema;
+    }
+    return schema;
+  }
+
+  private static Map<String, NameAndType> toMap(List<NameAndType> nameAndTypes) {
+    return Collections.unmodifiableMap(
+        nameAndTypes.stream().collect(Collectors.toMap(NameAndType::getName, Function.identity())));
   }
 
   /** Overrides <i>equals()</i> in class {@link Object} */
@@ -3,12 +3,10 @@ package ai.tecton.client.model;
 import ai.tecton.client.exceptions.TectonClientException;
 import ai.tecton.client.exceptions.TectonErrorMessage;
 import java.time.Instant;
-import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import org.apache.commons.lang3.StringUtils;
 
 /**
  * Class that represents each feature value in the feature vector returned in the
@@ -16,13 +14,10 @@ import org.apache.commons.lang3.StringUtils;
  */
 public class FeatureValue {
 
-  private final String featureNamespace;
-  private final String featureName;
-  private Instant effectiveTime;
+  private final FeatureSchema featureSchema;
+  private final int index;
   private final Value value;
   private final Optional<FeatureStatus> featureStatus;
-  private final String featureDescription;
-  private final Map<String, String> featureTags;
 
   public FeatureValue(
       Object featureObject,
@@ -33,29 +28,49 @@ public class FeatureValue {
       Optional<FeatureStatus> featureStatus,
       String featureDescription,
       Map<String, String> featureTags) {
+    this(
+        featureObject,
+        new FeatureSchema.Builder()
+            .addFeature(
+                name,
+                valueType,
+                elementValueType != null ? elementValueType.orElse(null) : null,
+                effectiveTime,
+                featureDescription,
+                featureTags)
+            .build(),
+        0,
+        featureStatus);
+  }
 
-    // Split name into feature namespace and feature name
-    String[] split = StringUtils.split(name, ".");
-    featureNamespace = split[0];
-    featureName = split[1];
+  /**
+   * Constructor for the value of the feature at a position of a shared {@link FeatureSchema}. The
+   * name, type and metadata of the feature are read from the schema, so only the value and status
+   * are held by each FeatureValue
+   *
+   * @param featureObject the JSON value of the feature, or for Float32 and Float64 arrays a float[]
+   *     or double[] with NaN for null elements, as decoded by {@link
+   *     ai.tecton.client.response.NumericArrayDecoder}
+   * @param featureSchema the {@link FeatureSchema} of the feature vector
+   * @param index the position of the feature in the feature vector
+   * @param featureStatus the {@link FeatureStatus} of the value
+   * @throws TectonClientException if the value cannot be converted to the type of the feature
+   */
+  public FeatureValue(
+      Object featureObject,
+      FeatureSchema featureSchema,
+      int index,
+      Optional<FeatureStatus> featureStatus) {
+    this.featureSchema = featureSchema;
+    this.index = index;
     this.featureStatus = featureStatus;
-    this.featureDescription = featureDescription;
-    this.featureTags = featureTags;
-
-    // Parse effective_time if present
-    try {
-      if (StringUtils.isNotEmpty(effectiveTime)) {
-        this.effectiveTime = OffsetDateTime.parse(effectiveTime).toInstant();
-      }
-    } catch (Exception e) {
-      throw new TectonClientException(TectonErrorMessage.UNKNOWN_DATETIME_FORMAT);
-    }
 
+    ValueType valueType = featureSchema.getValueType(index);
     try {
       // Create Value using valueType
       switch (valueType) {
         case ARRAY:
-          this.value = new Value(featureObject, valueType, elementValueType.get());
+          this.value = new Value(featureObject, valueType, featureSchema.getListElementType(index));
           break;
         case STRING:
         case INT64:
@@ -68,7 +83,10 @@ public class FeatureValue {
     } catch (Exception e) {
       throw new TectonClientException(
           String.format(
-              TectonErrorMessage.INVALID_DATA_TYPE, name, valueType.getName(), featureObject));
+              TectonErrorMessage.INVALID_DATA_TYPE,
+              featureSchema.getName(index),
+              valueType.getName(),
+              featureObject));
     }
   }
 
@@ -108,12 +126,12 @@ public class FeatureValue {
    * @return String
    */
   public String getFeatureDescription() {
-    return this.featureDescription;
+    return featureSchema.getFeatureDescription(index);
   }
 
   /** Returns the tags of the feature */
   public Map<String, String> getFeatureTags() {
-    return this.featureTags;
+    return featureSchema.getFeatureTags(index);
   }
 
   /**
@@ -125,26 +143,50 @@ public class FeatureValue {
    *     otherwise
    */
   public Optional<Instant> getEffectiveTime() {
-    return Optional.ofNullable(effectiveTime);
+    return Optional.ofNullable(featureSchema.getEffectiveTime(index));
+  }
+
+  /**
+   * Returns the effective serving time for this feature in microseconds since the epoch, without
+   * creating an {@link Instant}. Note: Only present if MetadataOption.EFFECTIVE_TIME is included in
+   * the GetFeaturesRequest
+   *
+   * @return the effectiveTime in epoch microseconds if present, {@link
+   *     FeatureSchema#NO_EFFECTIVE_TIME} otherwise
+   */
+  public long getEffectiveTimeMicros() {
+    return featureSchema.getEffectiveTimeMicros(index);
   }
 
   /** Returns the feature service name */
   public String getFeatureName() {
-    return featureName;
+    return featureSchema.getFeatureName(index);
   }
 
   /** Returns the feature service namespace */
   public String getFeatureNamespace() {
-    return featureNamespace;
+    return featureSchema.getFeatureNamespace(index);
+  }
+
+  /**
+   * Returns the {@link FeatureSchema} of the feature vector this value belongs to, shared by all
+   * values of the response
+   *
+   * @return {@link FeatureSchema}
+   */
+  public FeatureSchema getFeatureSchema() {
+    return featureSchema;
   }
 
   class Value {
 
     private final ValueType valueType;
     private String stringValue;
-    private Long int64Value;
+    // Int64 and Float64 values are stored as primitives, isNull is set for null values
+    private long int64Value;
     private Boolean booleanValue;
-    private Double float64Value;
+    private double float64Value;
+    private boolean isNull;
     private ListDataType listValue;
 
     @Override
@@ -154,16 +196,17 @@ public class FeatureValue {
       Value value = (Value) o;
       return valueType == value.valueType
           && Objects.equals(stringValue, value.stringValue)
-          && Objects.equals(int64Value, value.int64Value)
+          && int64Value == value.int64Value
           && Objects.equals(booleanValue, value.booleanValue)
-          && Objects.equals(float64Value, value.float64Value)
+          && Double.compare(float64Value, value.float64Value) == 0
+          && isNull == value.isNull
           && Objects.equals(listValue, value.listValue);
     }
 
     @Override
     public int hashCode() {
       return Objects.hash(
-          valueType, stringValue, int64Value, booleanValue, float64Value, listValue);
+          valueType, stringValue, int64Value, booleanValue, float64Value, isNull, listValue);
     }
 
     // Primitive types
@@ -175,15 +218,19 @@ public class FeatureValue {
       switch (valueType) {
         case BOOLEAN:
           this.booleanValue = (Boolean) featureObject;
+          this.isNull = booleanValue == null;
           break;
         case STRING:
           this.stringValue = (String) featureObject;
+          this.isNull = stringValue == null;
           break;
         case INT64:
           // Tecton represents all Int64 feature values as JSON strings in the response.
           String stringValue = (String) featureObject;
           if (stringValue != null) {
             this.int64Value = Long.parseLong(stringValue);
+          } else {
+            this.isNull = true;
           }
           break;
         case FLOAT64:
@@ -194,12 +241,17 @@ public class FeatureValue {
                 || doubleString.equals("NaN")
                 || doubleString.equals("Infinity")
                 || doubleString.equals("-Infinity")) {
-              this.float64Value = null;
+              this.isNull = true;
             } else {
-              this.float64Value = Double.valueOf(doubleString);
+              this.float64Value = Double.parseDouble(doubleString);
             }
-          } else {
+          } else if (featureObject != null) {
             this.float64Value = (Double) featureObject;
+          } else {
+            this.isNull = true;
+          }
+          if (isNull) {
+            this.float64Value = Double.NaN;
           }
           break;
         default:
@@ -212,6 +264,7 @@ public class FeatureValue {
     Value(Object featureObject, ValueType valueType, ValueType listElementType) {
       this.valueType = valueType;
       this.listValue = new ListDataType(listElementType, featureObject);
+      this.isNull = listValue.isNull();
     }
   }
 
@@ -234,7 +287,7 @@ public class FeatureValue {
    */
   public Long int64value() throws TectonClientException {
     validateValueType(ValueType.INT64);
-    return this.value.int64Value;
+    return this.value.isNull ? null : this.value.int64Value;
   }
 
   /**
@@ -256,7 +309,7 @@ public class FeatureValue {
    */
   public Double float64Value() throws TectonClientException {
     validateValueType(ValueType.FLOAT64);
-    return this.value.float64Value;
+    return this.value.isNull ? null : this.value.float64Value;
   }
 
   /**
@@ -268,7 +321,7 @@ public class FeatureValue {
    */
   public List<Double> float64ArrayValue() throws TectonClientException {
     validateValueType(ValueType.ARRAY, ValueType.FLOAT64);
-    return this.value.listValue.float64List;
+    return this.value.listValue.float64List();
   }
 
   /**
@@ -280,7 +333,7 @@ public class FeatureValue {
    */
   public List<Float> float32ArrayValue() throws TectonClientException {
     validateValueType(ValueType.ARRAY, ValueType.FLOAT32);
-    return this.value.listValue.float32List;
+    return this.value.listValue.float32List();
   }
 
   /**
@@ -292,7 +345,7 @@ public class FeatureValue {
    */
   public List<Long> int64ArrayValue() throws TectonClientException {
     validateValueType(ValueType.ARRAY, ValueType.INT64);
-    return this.value.listValue.int64List;
+    return this.value.listValue.int64List();
   }
 
   /**
@@ -307,6 +360,120 @@ public class FeatureValue {
     return this.value.listValue.stringList;
   }
 
+  /**
+   * Returns true if the feature value is null
+   *
+   * @return true if the value is null, for a value of any type
+   */
+  public boolean isNull() {
+    return this.value.isNull;
+  }
+
+  /**
+   * A Feature Value of type int64 as a primitive long, without boxing
+   *
+   * @return feature value as a long, or 0 if the value is null. Use {@link #isNull()} to tell the
+   *     two apart
+   * @throws TectonClientException if the method is called on a value whose ValueType is not INT64
+   */
+  public long getLong() throws TectonClientException {
+    validateValueType(ValueType.INT64);
+    return this.value.int64Value;
+  }
+
+  /**
+   * A Feature Value of type Float64 as a primitive double, without boxing
+   *
+   * @return feature value as a double, or {@link Double#NaN} if the value is null. Use {@link
+   *     #isNull()} to tell null apart from NaN values
+   * @throws TectonClientException if the method is called on a value whose ValueType is not FLOAT64
+   */
+  public double getDouble() throws TectonClientException {
+    validateValueType(ValueType.FLOAT64);
+    return this.value.float64Value;
+  }
+
+  /**
+   * A Feature Value of type ARRAY with FLOAT64 or FLOAT32 values as a primitive double array. The
+   * array is shared by all callers and must not be modified for FLOAT64 values
+   *
+   * @return feature value as a double[] with {@link Double#NaN} for null elements, or null if the
+   *     value is null. Use {@link #isNullElement(int)} to tell null elements apart
+   * @throws TectonClientException if the method is called on a value whose valueType is not ARRAY
+   *     or listElementType is not FLOAT64 or FLOAT32
+   */
+  public double[] toDoubleArray() throws TectonClientException {
+    validateValueType(ValueType.ARRAY);
+    ListDataType listValue = this.value.listValue;
+    if (listValue.listElementType == ValueType.FLOAT64) {
+      return listValue.float64Array;
+    }
+    validateValueType(ValueType.ARRAY, ValueType.FLOAT32);
+    if (listValue.float32Array == null) {
+      return null;
+    }
+    double[] doubleArray = new double[listValue.float32Array.length];
+    for (int i = 0; i < doubleArray.length; i++) {
+      doubleArray[i] = listValue.float32Array[i];
+    }
+    return doubleArray;
+  }
+
+  /**
+   * A Feature Value of type ARRAY with FLOAT32 or FLOAT64 values as a primitive float array. The
+   * array is shared by all callers and must not be modified for FLOAT32 values
+   *
+   * @return feature value as a float[] with {@link Float#NaN} for null elements, or null if the
+   *     value is null. Use {@link #isNullElement(int)} to tell null elements apart
+   * @throws TectonClientException if the method is called on a value whose valueType is not ARRAY
+   *     or listElementType is not FLOAT32 or FLOAT64
+   */
+  public float[] toFloatArray() throws TectonClientException {
+    validateValueType(ValueType.ARRAY);
+    ListDataType listValue = this.value.listValue;
+    if (listValue.listElementType == ValueType.FLOAT32) {
+      return listValue.float32Array;
+    }
+    validateValueType(ValueType.ARRAY, ValueType.FLOAT64);
+    if (listValue.float64Array == null) {
+      return null;
+    }
+    float[] floatArray = new float[listValue.float64Array.length];
+    for (int i = 0; i < floatArray.length; i++) {
+      floatArray[i] = (float) listValue.float64Array[i];
+    }
+    return floatArray;
+  }
+
+  /**
+   * A Feature Value of type ARRAY with INT64 values as a primitive long array. The array is shared
+   * by all callers and must not be modified
+   *
+   * @return feature value as a long[] with 0 for null elements, or null if the value is null. Use
+   *     {@link #isNullElement(int)} to tell null elements apart
+   * @throws TectonClientException if the method is called on a value whose valueType is not ARRAY
+   *     or listElementType is not INT64
+   */
+  public long[] toLongArray() throws TectonClientException {
+    validateValueType(ValueType.ARRAY, ValueType.INT64);
+    return this.value.listValue.int64Array;
+  }
+
+  /**
+   * Returns true if an element of a Feature Value of type ARRAY is null
+   *
+   * @param index the index of the element
+   * @return true if the element is null
+   * @throws TectonClientException if the method is called on a value whose valueType is not ARRAY
+   */
+  public boolean isNullElement(int index) throws TectonClientException {
+    validateValueType(ValueType.ARRAY);
+    ListDataType listValue = this.value.listValue;
+    return listValue.listElementType == ValueType.STRING
+        ? listValue.stringList.get(index) == null
+        : listValue.isNullElement(index);
+  }
+
   private void validateValueType(ValueType valueType) {
     if (this.value.valueType != valueType) {
       throw new TectonClientException(
@@ -329,9 +496,9 @@ public class FeatureValue {
     if (this == o) return true;
     if (o == null || getClass() != o.getClass()) return false;
     FeatureValue that = (FeatureValue) o;
-    return Objects.equals(featureNamespace, that.featureNamespace)
-        && Objects.equals(featureName, that.featureName)
-        && Objects.equals(effectiveTime, that.effectiveTime)
+    return Objects.equals(getFeatureNamespace(), that.getFeatureNamespace())
+        && Objects.equals(getFeatureName(), that.getFeatureName())
+        && Objects.equals(getEffectiveTime(), that.getEffectiveTime())
         && Objects.equals(value, that.value)
         && Objects.equals(featureStatus, that.featureStatus);
   }
@@ -339,6 +506,7 @@ public class FeatureValue {
   /** Overrides <i>hashCode()</i> in class {@link Object} */
   @Override
   public int hashCode() {
-    return Objects.hash(featureNamespace, featureName, effectiveTime, value, featureStatus);
+    return Objects.hash(
+        getFeatureNamespace(), getFeatureName(), getEffectiveTime(), value, featureStatus);
   }
 }
@@ -3,60 +3,81 @@ package ai.tecton.client.model;
 import ai.tecton.client.exceptions.TectonClientException;
 import ai.tecton.client.exceptions.TectonErrorMessage;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
+// Numeric arrays are stored as primitive arrays with a mask of the null elements, instead of lists
+// of boxed values. The boxed lists are only built if they are accessed, and then reused
 @SuppressWarnings("unchecked")
 class ListDataType {
 
   List<String> stringList;
-  List<Float> float32List;
-  List<Double> float64List;
-  List<Long> int64List;
+  float[] float32Array;
+  double[] float64Array;
+  long[] int64Array;
+  // The indices of the null elements of a numeric array, null if there are none
+  BitSet nullElements;
   ValueType listElementType;
 
+  private volatile List<?> boxedList;
+
   ListDataType(ValueType listElementType, Object featureObject) {
-    List<Object> featureObjectList = (ArrayList<Object>) featureObject;
     this.listElementType = listElementType;
-    // Parse List of Object to List of corresponding Java type
+    if (featureObject instanceof float[] || featureObject instanceof double[]) {
+      // Already decoded from the response, with NaN for null elements
+      setDecodedArray(featureObject);
+      return;
+    }
+    List<Object> featureObjectList = (List<Object>) featureObject;
     switch (listElementType) {
       case INT64:
         if (featureObjectList != null) {
-          this.int64List =
-              featureObjectList.stream()
-                  .map(
-                      obj -> {
-                        String stringValue = (String) obj;
-                        return (stringValue != null) ? Long.parseLong(stringValue) : null;
-                      })
-                  .collect(Collectors.toList());
-        } else {
-          this.int64List = null;
+          this.int64Array = new long[featureObjectList.size()];
+          for (int i = 0; i < int64Array.length; i++) {
+            // Tecton represents all Int64 values as JSON strings in the response
+            String stringValue = (String) featureObjectList.get(i);
+            if (stringValue != null) {
+              int64Array[i] = Long.parseLong(stringValue);
+            } else {
+              setNull(i);
+            }
+          }
         }
         break;
       case FLOAT32:
         if (featureObjectList != null) {
-          this.float32List = new ArrayList<>(featureObjectList.size());
-          featureObjectList.forEach(obj -> this.float32List.add((Float) obj));
-        } else {
-          this.float32List = null;
+          this.float32Array = new float[featureObjectList.size()];
+          for (int i = 0; i < float32Array.length; i++) {
+            Number number = (Number) featureObjectList.get(i);
+            if (number != null) {
+              float32Array[i] = number.floatValue();
+            } else {
+              float32Array[i] = Float.NaN;
+              setNull(i);
+            }
+          }
         }
         break;
       case FLOAT64:
         if (featureObjectList != null) {
-          this.float64List = new ArrayList<>(featureObjectList.size());
-          featureObjectList.forEach(obj -> this.float64List.add((Double) obj));
-        } else {
-          this.float64List = null;
+          this.float64Array = new double[featureObjectList.size()];
+          for (int i = 0; i < float64Array.length; i++) {
+            Number number = (Number) featureObjectList.get(i);
+            if (number != null) {
+              float64Array[i] = number.doubleValue();
+            } else {
+              float64Array[i] = Double.NaN;
+              setNull(i);
+            }
+          }
         }
         break;
       case STRING:
         if (featureObjectList != null) {
           this.stringList = new ArrayList<>(featureObjectList.size());
           featureObjectList.forEach(obj -> this.stringList.add((String) obj));
-        } else {
-          this.stringList = null;
         }
         break;
       default:
@@ -64,6 +85,107 @@ class ListDataType {
     }
   }
 
+  // Numeric arrays decoded straight from the JSON token stream can only contain NaN where the
+  // element was null, since JSON numbers cannot represent NaN
+  private void setDecodedArray(Object decodedArray) {
+    switch (listElementType) {
+      case FLOAT32:
+        float[] floats = decodedArray instanceof float[] ? (float[]) decodedArray : null;
+        if (floats == null) {
+          double[] doubles = (double[]) decodedArray;
+          floats = new float[doubles.length];
+          for (int i = 0; i < floats.length; i++) {
+            floats[i] = (float) doubles[i];
+          }
+        }
+        for (int i = 0; i < floats.length; i++) {
+          if (Float.isNaN(floats[i])) {
+            setNull(i);
+          }
+        }
+        this.float32Array = floats;
+        break;
+      case FLOAT64:
+        double[] doubles = decodedArray instanceof double[] ? (double[]) decodedArray : null;
+        if (doubles == null) {
+          float[] decodedFloats = (float[]) decodedArray;
+          doubles = new double[decodedFloats.length];
+          for (int i = 0; i < doubles.length; i++) {
+            doubles[i] = decodedFloats[i];
+          }
+        }
+        for (int i = 0; i < doubles.length; i++) {
+          if (Double.isNaN(doubles[i])) {
+            setNull(i);
+          }
+        }
+        this.float64Array = doubles;
+        break;
+      default:
+        throw new TectonClientException(TectonErrorMessage.UNSUPPORTED_LIST_DATA_TYPE);
+    }
+  }
+
+  boolean isNull() {
+    return int64Array == null && float32Array == null && float64Array == null && stringList == null;
+  }
+
+  boolean isNullElement(int index) {
+    return nullElements != null && nullElements.get(index);
+  }
+
+  List<Long> int64List() {
+    if (int64Array == null) {
+      return null;
+    }
+    List<Long> list = (List<Long>) boxedList;
+    if (list == null) {
+      list = new ArrayList<>(int64Array.length);
+      for (int i = 0; i < int64Array.length; i++) {
+        list.add(isNullElement(i) ? null : int64Array[i]);
+      }
+      boxedList = list;
+    }
+    return list;
+  }
+
+  List<Float> float32List() {
+    if (float32Array == null) {
+      return null;
+    }
+    List<Float> list = (List<Float>) boxedList;
+    if (list == null) {
+      list = new ArrayList<>(float32Array.length);
+      for (int i = 0; i < float32Array.length; i++) {
+        list.add(isNullElement(i) ? null : float32Array[i]);
+      }
+      boxedList = list;
+    }
+    return list;
+  }
+
+  List<Double> float64List() {
+    if (float64Array == null) {
+      return null;
+    }
+    List<Double> list = (List<Double>) boxedList;
+    if (list == null) {
+      list = new ArrayList<>(float64Array.length);
+      for (int i = 0; i < float64Array.length; i++) {
+        list.add(isNullElement(i) ? null : float64Array[i]);
+      }
+      boxedList = list;
+    }
+    return list;
+  }
+
+  private void setNull(int index) {
+    if (nullElements == null) {
+      nullElements = new BitSet();
+    }
+    nullElements.set(index);
+  }
+
   /** Overrides <i>equals()</i> in class {@link Object} */
   @Override
   public boolean equals(Object o) {
@@ -71,15 +193,22 @@ class ListDataType {
     if (o == null || getClass() != o.getClass()) return false;
     ListDataType that = (ListDataType) o;
     return Objects.equals(stringList, that.stringList)
-        && Objects.equals(float32List, that.float32List)
-        && Objects.equals(float64List, that.float64List)
-        && Objects.equals(int64List, that.int64List)
+        && Arrays.equals(float32Array, that.float32Array)
+        && Arrays.equals(float64Array, that.float64Array)
+        && Arrays.equals(int64Array, that.int64Array)
+        && Objects.equals(nullElements, that.nullElements)
         && Objects.equals(listElementType, that.listElementType);
   }
 
   /** Overrides <i>hashCode()</i> in class {@link Object} */
   @Override
   public int hashCode() {
-    return Objects.hash(stringList, float32List, float64List, int64List, listElementType);
+    return Objects.hash(
+        stringList,
+        Arrays.hashCode(float32Array),
+        Arrays.hashCode(float64Array),
+        Arrays.hashCode(int64Array),
+        nullElements,
+        listElementType);
   }
 }
@@ -8,13 +8,18 @@ import ai.tecton.client.model.MetadataOption;
 import ai.tecton.client.transport.TectonHttpClient.HttpMethod;
 import com.squareup.moshi.JsonAdapter;
 import com.squareup.moshi.JsonQualifier;
+import com.squareup.moshi.JsonWriter;
 import com.squareup.moshi.Moshi;
 import com.squareup.moshi.Types;
+import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.Retention;
 import java.lang.reflect.Type;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
+import okhttp3.RequestBody;
 import org.jetbrains.annotations.Nullable;
 
 /**
@@ -39,7 +44,12 @@ public abstract class AbstractGetFeaturesRequest extends AbstractTectonRequest {
     }
   }
 
-  Set<MetadataOption> getMetadataOptions() {
+  /**
+   * Getter for the set of {@link MetadataOption} of the request, including the default options
+   *
+   * @return {@link Set} of {@link MetadataOption}
+   */
+  public Set<MetadataOption> getMetadataOptions() {
     return this.metadataOptions;
   }
 
@@ -58,6 +68,49 @@ public abstract class AbstractGetFeaturesRequest extends AbstractTectonRequest {
     return finalMetadataOptionSet;
   }
 
+  /**
+   * Returns a {@link RequestBody} that streams the JSON representation of the request directly into
+   * the HTTP call, without first building it as a String
+   *
+   * @return {@link RequestBody}
+   */
+  @Override
+  public abstract RequestBody requestBody();
+
+  // Write a map of the request, or null if the map is empty. Null values, including an empty map,
+  // are only written if serializeNulls is set
+  static void writeMap(JsonWriter writer, String name, Map<String, ?> map, boolean serializeNulls)
+      throws IOException {
+    boolean writerSerializeNulls = writer.getSerializeNulls();
+    writer.setSerializeNulls(serializeNulls);
+    writer.name(name);
+    writeMapValue(writer, map);
+    writer.setSerializeNulls(writerSerializeNulls);
+  }
+
+  // Write a map of the request as a value, or null if the map is empty
+  static void writeMapValue(JsonWriter writer, Map<String, ?> map) throws IOException {
+    if (map == null || map.isEmpty()) {
+      writer.nullValue();
+    } else {
+      writer.beginObject();
+      for (Map.Entry<String, ?> entry : map.entrySet()) {
+        writer.name(entry.getKey());
+        writer.jsonValue(entry.getValue());
+      }
+      writer.endObject();
+    }
+  }
+
+  // Write the metadata options as a map from their JSON name to true
+  static void writeMetadataOptions(JsonWriter writer, Set<MetadataOption> metadataOptions)
+      throws IOException {
+    Map<String, Boolean> metadataOptionMap =
+        metadataOptions.stream()
+            .collect(Collectors.toMap(MetadataOption::getJsonName, (a) -> Boolean.TRUE));
+    writeMap(writer, "metadata_options", metadataOptionMap, false);
+  }
+
   static void validateRequestParameters(GetFeaturesRequestData getFeaturesRequestData) {
     if (getFeaturesRequestData.isEmptyJoinKeyMap()
         && getFeaturesRequestData.isEmptyRequestContextMap()) {
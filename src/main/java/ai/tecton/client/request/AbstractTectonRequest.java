@@ -5,6 +5,7 @@ import ai.tecton.client.exceptions.TectonClientException;
 import ai.tecton.client.exceptions.TectonErrorMessage;
 import ai.tecton.client.transport.TectonHttpClient;
 import java.util.Objects;
+import okhttp3.RequestBody;
 import org.apache.commons.lang3.Validate;
 
 /** An abstract parent class for Tecton FeatureService API Request subclasses */
@@ -63,6 +64,16 @@ public abstract class AbstractTectonRequest {
 
   public abstract String requestToJson();
 
+  /**
+   * Returns the {@link RequestBody} that is sent to the endpoint, which contains the JSON
+   * representation of the request
+   *
+   * @return {@link RequestBody}
+   */
+  public RequestBody requestBody() {
+    return RequestBody.create(requestToJson(), TectonHttpClient.JSON_MEDIA_TYPE);
+  }
+
   static void validateRequestParameters(String workspaceName, String featureServiceName) {
     try {
       Validate.notEmpty(workspaceName, TectonErrorMessage.INVALID_WORKSPACENAME);
@@ -0,0 +1,152 @@
+package ai.tecton.client.request;
+
+import ai.tecton.client.exceptions.InvalidRequestParameterException;
+import ai.tecton.client.exceptions.TectonErrorMessage;
+import ai.tecton.client.model.FeatureSchema;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Class that represents a client-side projection of the feature vector: the features, by name or by
+ * position, that a caller needs from the response. The projection is not sent to Tecton. The
+ * response decoder resolves it once against the features of the response, and skips the values of
+ * all other features without decoding them, which saves CPU and memory for wide feature services.
+ * The feature values of a projected response are in the order of the feature vector.
+ *
+ * <p>Names or positions that are not in the feature vector of a response are ignored. A
+ * FeatureProjection is immutable and can be shared across threads and requests.
+ */
+public final class FeatureProjection {
+
+  private final Set<String> featureNames;
+  private final int[] featureIndices;
+  // The positions resolved against the last schema, reused for responses that share the schema
+  private volatile Resolution lastResolution;
+
+  private FeatureProjection(Set<String> featureNames, int[] featureIndices) {
+    this.featureNames = featureNames;
+    this.featureIndices = featureIndices;
+  }
+
+  /**
+   * Returns a projection of the features with the given names
+   *
+   * @param featureNames the names of the features (featureNamespace.featureName)
+   * @return {@link FeatureProjection}
+   * @throws InvalidRequestParameterException when featureNames is null or empty
+   */
+  public static FeatureProjection ofNames(Collection<String> featureNames) {
+    if (featureNames == null || featureNames.isEmpty()) {
+      throw new InvalidRequestParameterException(TectonErrorMessage.INVALID_FEATURE_PROJECTION);
+    }
+    return new FeatureProjection(
+        Collections.unmodifiableSet(new LinkedHashSet<>(featureNames)), null);
+  }
+
+  /**
+   * Returns a projection of the features with the given names
+   *
+   * @param featureNames the names of the features (featureNamespace.featureName)
+   * @return {@link FeatureProjection}
+   * @throws InvalidRequestParameterException when featureNames is null or empty
+   */
+  public static FeatureProjection ofNames(String... featureNames) {
+    return ofNames(featureNames != null ? Arrays.asList(featureNames) : null);
+  }
+
+  /**
+   * Returns a projection of the features at the given positions of the feature vector
+   *
+   * @param featureIndices the positions of the features in the feature vector
+   * @return {@link FeatureProjection}
+   * @throws InvalidRequestParameterException when featureIndices is null or empty, or contains a
+   *     negative index
+   */
+  public static FeatureProjection ofIndices(int... featureIndices) {
+    if (featureIndices == null || featureIndices.length == 0) {
+      throw new InvalidRequestParameterException(TectonErrorMessage.INVALID_FEATURE_PROJECTION);
+    }
+    int[] indices = Arrays.stream(featureIndices).sorted().distinct().toArray();
+    if (indices[0] < 0) {
+      throw new InvalidRequestParameterException(TectonErrorMessage.INVALID_FEATURE_PROJECTION);
+    }
+    return new FeatureProjection(null, indices);
+  }
+
+  /**
+   * Returns the names of the projected features, if the projection was created by name
+   *
+   * @return unmodifiable {@link Set} of feature names, or an empty set for a projection by index
+   */
+  public Set<String> getFeatureNames() {
+    return featureNames != null ? featureNames : Collections.emptySet();
+  }
+
+  /**
+   * Returns the positions of the projected features, if the projection was created by index
+   *
+   * @return the sorted positions, or an empty array for a projection by name
+   */
+  public int[] getFeatureIndices() {
+    return featureIndices != null ? featureIndices.clone() : new int[0];
+  }
+
+  /**
+   * Resolves the projection against the features of a response. The result for the last schema is
+   * reused, so the projection is only resolved once for the responses that share a schema
+   *
+   * @param featureSchema the {@link FeatureSchema} of the feature vector
+   * @return the positions in the feature vector of the projected features, in ascending order. The
+   *     array is shared and must not be modified
+   */
+  public int[] resolve(FeatureSchema featureSchema) {
+    Resolution resolution = lastResolution;
+    if (resolution != null && resolution.featureSchema == featureSchema) {
+      return resolution.positions;
+    }
+    int[] positions;
+    if (featureNames != null) {
+      positions =
+          featureNames.stream()
+              .mapToInt(featureSchema::indexOf)
+              .filter(index -> index >= 0)
+              .sorted()
+              .toArray();
+    } else {
+      positions =
+          Arrays.stream(featureIndices).filter(index -> index < featureSchema.size()).toArray();
+    }
+    lastResolution = new Resolution(featureSchema, positions);
+    return positions;
+  }
+
+  /** Overrides <i>equals()</i> in class {@link Object} */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    FeatureProjection that = (FeatureProjection) o;
+    return Objects.equals(featureNames, that.featureNames)
+        && Arrays.equals(featureIndices, that.featureIndices);
+  }
+
+  /** Overrides <i>hashCode()</i> in class {@link Object} */
+  @Override
+  public int hashCode() {
+    return Objects.hash(featureNames, Arrays.hashCode(featureIndices));
+  }
+
+  private static final class Resolution {
+    private final FeatureSchema featureSchema;
+    private final int[] positions;
+
+    private Resolution(FeatureSchema featureSchema, int[] positions) {
+      this.featureSchema = featureSchema;
+      this.positions = positions;
+    }
+  }
+}
@@ -17,7 +17,8 @@ public class GetFeatureServiceMetadataRequest extends AbstractTectonRequest {
   private static final TectonHttpClient.HttpMethod method = TectonHttpClient.HttpMethod.POST;
   private static final String ENDPOINT = "/api/v1/feature-service/metadata";
   private static final String DEFAULT_WORKSPACE = "prod";
-  private final JsonAdapter<GetFeatureServiceMetadataJson> jsonAdapter;
+  private static final JsonAdapter<GetFeatureServiceMetadataJson> jsonAdapter =
+      new Moshi.Builder().build().adapter(GetFeatureServiceMetadataJson.class);
 
   /**
    * Constructor that creates a new GetFeatureServiceMetadataRequest with the specified
@@ -28,8 +29,6 @@ public class GetFeatureServiceMetadataRequest extends AbstractTectonRequest {
    */
   public GetFeatureServiceMetadataRequest(String featureServiceName, String workspaceName) {
     super(ENDPOINT, method, workspaceName, featureServiceName);
-    Moshi moshi = new Moshi.Builder().build();
-    jsonAdapter = moshi.adapter(GetFeatureServiceMetadataJson.class);
   }
 
   /**
@@ -40,8 +39,6 @@ public class GetFeatureServiceMetadataRequest extends AbstractTectonRequest {
    */
   public GetFeatureServiceMetadataRequest(String featureServiceName) {
     super(ENDPOINT, method, DEFAULT_WORKSPACE, featureServiceName);
-    Moshi moshi = new Moshi.Builder().build();
-    jsonAdapter = moshi.adapter(GetFeatureServiceMetadataJson.class);
   }
 
   static class GetFeatureServiceMetadataJson {
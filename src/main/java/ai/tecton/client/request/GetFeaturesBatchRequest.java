@@ -5,15 +5,19 @@ import ai.tecton.client.exceptions.TectonClientException;
 import ai.tecton.client.exceptions.TectonErrorMessage;
 import ai.tecton.client.model.MetadataOption;
 import ai.tecton.client.transport.TectonHttpClient;
-import com.squareup.moshi.JsonAdapter;
-import com.squareup.moshi.Moshi;
+import com.squareup.moshi.JsonWriter;
+import java.io.IOException;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
 import org.apache.commons.collections4.ListUtils;
 
 /**
@@ -40,22 +44,26 @@ import org.apache.commons.collections4.ListUtils;
  * to be sent parallely to the /get-features-batch endpoint, waits until all microbatch requests are
  * complete or a specific configured timeout has elapsed and returns a {@link List} of {@link
  * ai.tecton.client.response.GetFeaturesResponse} objects of size {@code n}.
+ *
+ * <p>Calls that are still in flight once the timeout has elapsed are cancelled. The rows of calls
+ * that timed out or failed are null, and the reason is available from {@link
+ * ai.tecton.client.response.GetFeaturesBatchResponse#getResponseStatusList()}.
  */
 public class GetFeaturesBatchRequest {
 
   private List<? extends AbstractGetFeaturesRequest> requestList;
+  private final String workspaceName;
+  private final String featureServiceName;
+  private final List<GetFeaturesRequestData> requestDataList;
+  private final List<GetFeaturesRequestData> uniqueRequestDataList;
+  private final int[] uniqueIndices;
   private final int microBatchSize;
   private final Duration timeout;
   private final RequestOptions requestOptions;
+  private final FeatureProjection projection;
   private static final String BATCH_ENDPOINT = "/api/v1/feature-service/get-features-batch";
-  private static JsonAdapter<GetFeaturesMicroBatchRequest.GetFeaturesRequestBatchJson> jsonAdapter =
-      null;
   private String endpoint;
   private TectonHttpClient.HttpMethod method;
-  private final Moshi moshi =
-      new Moshi.Builder()
-          .add(AbstractGetFeaturesRequest.SerializeNulls.JSON_ADAPTER_FACTORY)
-          .build();
 
   /**
    * Constructor that creates a new GetFeaturesBatchRequest with the specified parameters. {@code
@@ -243,18 +251,84 @@ public class GetFeaturesBatchRequest {
       int microBatchSize,
       Duration timeout,
       RequestOptions requestOptions) {
+    this(
+        workspaceName,
+        featureServiceName,
+        requestDataList,
+        metadataOptions,
+        microBatchSize,
+        timeout,
+        requestOptions,
+        null);
+  }
+
+  /**
+   * Constructor that creates a new GetFeaturesBatchRequest with the specified parameters including
+   * requestOptions and a client-side projection of the feature vectors
+   *
+   * @param workspaceName Name of the workspace in which the Feature Service is defined
+   * @param featureServiceName Name of the Feature Service for which the feature vectors are being
+   *     requested
+   * @param requestDataList a {@link List} of {@link GetFeaturesRequestData} object with joinKeyMap
+   *     and/or requestContextMap
+   * @param metadataOptions metadataOptions A {@link Set} of {@link MetadataOption} for retrieving
+   *     additional metadata about the feature values
+   * @param microBatchSize an int value between 1 and {@value RequestConstants#MAX_MICRO_BATCH_SIZE}
+   * @param timeout The max time in {@link Duration} for which the client waits for the batch
+   *     requests to complete before canceling the operation and returning the partial list of
+   *     results.
+   * @param requestOptions {@link RequestOptions} object with request-level options to control
+   *     feature server behavior
+   * @param projection The {@link FeatureProjection} of the features to decode from the responses,
+   *     or null to decode all features
+   * @throws InvalidRequestParameterException when workspaceName or featureServiceName is empty or
+   *     null
+   * @throws InvalidRequestParameterException when requestDataList is invalid (null/empty or
+   *     contains null/empty elements)
+   * @throws InvalidRequestParameterException when the microBatchSize is out of bounds of [ 1,
+   *     {@value RequestConstants#MAX_MICRO_BATCH_SIZE} ]
+   */
+  public GetFeaturesBatchRequest(
+      String workspaceName,
+      String featureServiceName,
+      List<GetFeaturesRequestData> requestDataList,
+      Set<MetadataOption> metadataOptions,
+      int microBatchSize,
+      Duration timeout,
+      RequestOptions requestOptions,
+      FeatureProjection projection) {
     validateParameters(workspaceName, featureServiceName, requestDataList, microBatchSize);
+    this.workspaceName = workspaceName;
+    this.featureServiceName = featureServiceName;
+    this.requestDataList = requestDataList;
     this.timeout = timeout;
     this.requestOptions = requestOptions;
+    this.projection = projection;
+
+    // Send each distinct row only once. Duplicate rows are mapped to the index of their first
+    // occurrence in the list of unique rows
+    Map<GetFeaturesRequestData, Integer> uniqueIndexMap = new HashMap<>();
+    List<GetFeaturesRequestData> uniqueRows = new ArrayList<>();
+    this.uniqueIndices = new int[requestDataList.size()];
+    for (int i = 0; i < requestDataList.size(); i++) {
+      Integer uniqueIndex = uniqueIndexMap.putIfAbsent(requestDataList.get(i), uniqueRows.size());
+      if (uniqueIndex == null) {
+        uniqueIndex = uniqueRows.size();
+        uniqueRows.add(requestDataList.get(i));
+      }
+      this.uniqueIndices[i] = uniqueIndex;
+    }
+    this.uniqueRequestDataList =
+        uniqueRows.size() == requestDataList.size() ? requestDataList : uniqueRows;
 
     // Create final variable for use in lambda expressions
     final RequestOptions finalRequestOptions = requestOptions;
 
-    if (microBatchSize > 1 && requestDataList.size() > 1) {
-      // For batch requests, partition the requestDataList into n sublists of size
+    if (microBatchSize > 1 && uniqueRequestDataList.size() > 1) {
+      // For batch requests, partition the unique rows into n sublists of size
       // microBatchSize and create GetFeaturesMicroBatchRequest for each
       this.requestList =
-          ListUtils.partition(requestDataList, microBatchSize)
+          ListUtils.partition(uniqueRequestDataList, microBatchSize)
               .parallelStream()
               .map(
                   requestData ->
@@ -266,22 +340,23 @@ public class GetFeaturesBatchRequest {
                           finalRequestOptions))
               .collect(Collectors.toList());
       this.microBatchSize = microBatchSize;
-      jsonAdapter = moshi.adapter(GetFeaturesMicroBatchRequest.GetFeaturesRequestBatchJson.class);
       this.endpoint = BATCH_ENDPOINT;
       this.method = TectonHttpClient.HttpMethod.POST;
     } else {
       // For microBatchSize=1, create a List of individual GetFeaturesRequest objects
       this.requestList =
-          requestDataList
+          uniqueRequestDataList
               .parallelStream()
               .map(
                   requestData ->
-                      new GetFeaturesRequest(
-                          workspaceName,
-                          featureServiceName,
-                          requestData,
-                          metadataOptions,
-                          finalRequestOptions))
+                      new GetFeaturesRequest.Builder()
+                          .workspaceName(workspaceName)
+                          .featureServiceName(featureServiceName)
+                          .getFeaturesRequestData(requestData)
+                          .metadataOptions(metadataOptions)
+                          .requestOptions(finalRequestOptions)
+                          .projection(projection)
+                          .build())
               .collect(Collectors.toList());
       this.microBatchSize = microBatchSize;
       this.endpoint = GetFeaturesRequest.ENDPOINT;
@@ -299,6 +374,85 @@ public class GetFeaturesBatchRequest {
     return this.requestList;
   }
 
+  /**
+   * Getter for workspaceName
+   *
+   * @return workspaceName
+   */
+  public String getWorkspaceName() {
+    return this.workspaceName;
+  }
+
+  /**
+   * Getter for featureServiceName
+   *
+   * @return featureServiceName
+   */
+  public String getFeatureServiceName() {
+    return this.featureServiceName;
+  }
+
+  /**
+   * Getter for the set of {@link MetadataOption} requested for each row, including the default
+   * options
+   *
+   * @return {@link Set} of {@link MetadataOption}
+   */
+  public Set<MetadataOption> getMetadataOptions() {
+    return this.requestList.get(0).getMetadataOptions();
+  }
+
+  /**
+   * Getter for the {@link RequestOptions} of the request, if any
+   *
+   * @return {@link RequestOptions}, or null if none were set
+   */
+  public RequestOptions getRequestOptions() {
+    return this.requestOptions;
+  }
+
+  /**
+   * Getter for the list of {@link GetFeaturesRequestData}, in the order the responses are returned
+   *
+   * @return {@link List} of {@link GetFeaturesRequestData}
+   */
+  public List<GetFeaturesRequestData> getRequestDataList() {
+    return this.requestDataList;
+  }
+
+  /**
+   * Getter for the list of distinct {@link GetFeaturesRequestData}, in the order of their first
+   * occurrence in the request data list. Only these rows are sent to Tecton, and the response of
+   * each row is shared by all of its duplicates
+   *
+   * @return {@link List} of unique {@link GetFeaturesRequestData}
+   */
+  public List<GetFeaturesRequestData> getUniqueRequestDataList() {
+    return this.uniqueRequestDataList;
+  }
+
+  /**
+   * Returns the index in {@link #getUniqueRequestDataList()} of the row at the given index in the
+   * request data list
+   *
+   * @param index the index of a row in the request data list
+   * @return the index of the row in the unique request data list
+   */
+  public int getUniqueIndex(int index) {
+    return this.uniqueIndices[index];
+  }
+
+  /**
+   * Returns the number of unique rows sent in each call: the microBatchSize if the rows are
+   * partitioned into microbatches for the /get-features-batch endpoint, 1 if each row is sent to
+   * the /get-features endpoint
+   *
+   * @return the number of rows per call
+   */
+  public int getRowsPerCall() {
+    return BATCH_ENDPOINT.equals(this.endpoint) ? this.microBatchSize : 1;
+  }
+
   /**
    * Getter for timeout
    *
@@ -308,6 +462,17 @@ public class GetFeaturesBatchRequest {
     return timeout;
   }
 
+  /**
+   * Getter for the client-side projection of the feature vectors, if set. Features outside the
+   * projection are skipped when the responses are decoded
+   *
+   * @return {@link FeatureProjection} wrapped in {@link java.util.Optional}, Optional.empty() if
+   *     all features are decoded
+   */
+  public Optional<FeatureProjection> getProjection() {
+    return Optional.ofNullable(projection);
+  }
+
   /**
    * Getter for microBatchSize
    *
@@ -337,6 +502,7 @@ public class GetFeaturesBatchRequest {
     private int microBatchSize = RequestConstants.DEFAULT_MICRO_BATCH_SIZE;
     private Duration timeout = RequestConstants.NONE_TIMEOUT;
     private RequestOptions requestOptions;
+    private FeatureProjection projection;
 
     /** Constructs an empty Builder */
     public Builder() {
@@ -446,6 +612,18 @@ public class GetFeaturesBatchRequest {
       return this;
     }
 
+    /**
+     * Setter for the client-side projection of the feature vectors. Only the features in the
+     * projection are decoded from the responses
+     *
+     * @param projection {@link FeatureProjection} of the features to decode
+     * @return this Builder
+     */
+    public Builder projection(FeatureProjection projection) {
+      this.projection = projection;
+      return this;
+    }
+
     /**
      * Returns an instance of {@link GetFeaturesBatchRequest} created from the fields set on this
      * builder
@@ -464,7 +642,8 @@ public class GetFeaturesBatchRequest {
           metadataOptionList,
           microBatchSize,
           timeout,
-          requestOptions);
+          requestOptions,
+          projection);
     }
   }
 
@@ -488,7 +667,7 @@ public class GetFeaturesBatchRequest {
     }
   }
 
-  // Moshi JSON Classes
+  // A request to the /get-features-batch endpoint for one microbatch
   static class GetFeaturesMicroBatchRequest extends AbstractGetFeaturesRequest {
 
     private final List<GetFeaturesRequestData> requestDataList;
@@ -515,28 +694,6 @@ public class GetFeaturesBatchRequest {
       this.requestOptions = requestOptions;
     }
 
-    // Moshi JSON classes
-    static class GetFeaturesRequestBatchJson {
-      GetFeaturesBatchFields params;
-
-      GetFeaturesRequestBatchJson(GetFeaturesBatchFields params) {
-        this.params = params;
-      }
-    }
-
-    static class GetFeaturesBatchFields {
-      String feature_service_name;
-      String workspace_name;
-      List<RequestDataField> request_data;
-      Map<String, Boolean> metadata_options;
-      Map<String, Object> request_options;
-    }
-
-    static class RequestDataField {
-      @SerializeNulls Map<String, String> join_key_map;
-      Map<String, Object> request_context_map;
-    }
-
     List<GetFeaturesRequestData> getFeaturesRequestData() {
       return this.requestDataList;
     }
@@ -544,37 +701,41 @@ public class GetFeaturesBatchRequest {
     // Convert MicroBatch Request to JSON String
     @Override
     public String requestToJson() {
-      GetFeaturesBatchFields getFeaturesFields = new GetFeaturesBatchFields();
-      getFeaturesFields.feature_service_name = this.getFeatureServiceName();
-      getFeaturesFields.workspace_name = this.getWorkspaceName();
-      getFeaturesFields.request_data = new ArrayList<>(this.requestDataList.size());
-      this.requestDataList.forEach(
-          requestData -> {
-            RequestDataField requestDataField = new RequestDataField();
-            if (!requestData.isEmptyJoinKeyMap()) {
-              requestDataField.join_key_map = requestData.getJoinKeyMap();
-            }
-            if (!requestData.isEmptyRequestContextMap()) {
-              requestDataField.request_context_map = requestData.getRequestContextMap();
-            }
-            getFeaturesFields.request_data.add(requestDataField);
-          });
+      return JsonRequestBody.toJson(
+          this::writeJson, TectonErrorMessage.INVALID_GET_FEATURE_BATCH_REQUEST);
+    }
+
+    @Override
+    public RequestBody requestBody() {
+      return JsonRequestBody.of(
+          this::writeJson, TectonErrorMessage.INVALID_GET_FEATURE_BATCH_REQUEST);
+    }
+
+    // Write the request as {"params": {...}}, with the fields in alphabetical order
+    private void writeJson(BufferedSink sink) throws IOException {
+      JsonWriter writer = JsonWriter.of(sink);
+      writer.beginObject();
+      writer.name("params");
+      writer.beginObject();
+      writer.name("feature_service_name").value(this.getFeatureServiceName());
       if (!metadataOptions.isEmpty()) {
-        getFeaturesFields.metadata_options =
-            metadataOptions.stream()
-                .collect(Collectors.toMap(MetadataOption::getJsonName, (a) -> Boolean.TRUE));
+        writeMetadataOptions(writer, metadataOptions);
       }
-      if (requestOptions != null && !requestOptions.isEmpty()) {
-        getFeaturesFields.request_options = requestOptions.getOptions();
+      writer.name("request_data");
+      writer.beginArray();
+      for (GetFeaturesRequestData requestData : this.requestDataList) {
+        writer.beginObject();
+        writeMap(writer, "join_key_map", requestData.getJoinKeyMap(), true);
+        writeMap(writer, "request_context_map", requestData.getRequestContextMap(), false);
+        writer.endObject();
       }
-      GetFeaturesRequestBatchJson getFeaturesRequestJson =
-          new GetFeaturesRequestBatchJson(getFeaturesFields);
-      try {
-        return jsonAdapter.toJson(getFeaturesRequestJson);
-      } catch (Exception e) {
-        throw new InvalidRequestParameterException(
-            String.format(TectonErrorMessage.INVALID_GET_FEATURE_BATCH_REQUEST, e.getMessage()));
+      writer.endArray();
+      if (requestOptions != null) {
+        writeMap(writer, "request_options", requestOptions.options(), false);
       }
+      writer.name("workspace_name").value(this.getWorkspaceName());
+      writer.endObject();
+      writer.endObject();
     }
 
     @Override
@@ -599,8 +760,10 @@ public class GetFeaturesBatchRequest {
     if (o == null || getClass() != o.getClass()) return false;
     GetFeaturesBatchRequest that = (GetFeaturesBatchRequest) o;
     return microBatchSize == that.microBatchSize
+        && Objects.equals(requestDataList, that.requestDataList)
         && Objects.equals(requestList, that.requestList)
         && Objects.equals(timeout, that.timeout)
+        && Objects.equals(projection, that.projection)
         && Objects.equals(endpoint, that.endpoint)
         && method == that.method;
   }
@@ -608,6 +771,7 @@ public class GetFeaturesBatchRequest {
   /** Overrides <i>hashCode()</i> in class {@link Object} */
   @Override
   public int hashCode() {
-    return Objects.hash(requestList, microBatchSize, timeout, endpoint, method);
+    return Objects.hash(
+        requestDataList, requestList, microBatchSize, timeout, projection, endpoint, method);
   }
 }
@@ -3,13 +3,15 @@ package ai.tecton.client.request;
 import ai.tecton.client.exceptions.InvalidRequestParameterException;
 import ai.tecton.client.exceptions.TectonErrorMessage;
 import ai.tecton.client.model.MetadataOption;
-import com.squareup.moshi.JsonAdapter;
-import com.squareup.moshi.Moshi;
+import com.squareup.moshi.JsonWriter;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
 
 /**
  * A subclass of {@link AbstractTectonRequest} that represents a request to the <i>/get-features</i>
@@ -18,10 +20,11 @@ import java.util.stream.Collectors;
 public class GetFeaturesRequest extends AbstractGetFeaturesRequest {
 
   static final String ENDPOINT = "/api/v1/feature-service/get-features";
-  private final JsonAdapter<GetFeaturesRequestJson> jsonAdapter;
   private final GetFeaturesRequestData getFeaturesRequestData;
   private final RequestOptions requestOptions;
-  private final Moshi moshi = new Moshi.Builder().add(SerializeNulls.JSON_ADAPTER_FACTORY).build();
+  private final Duration timeout;
+  private final FeatureProjection projection;
+  private final GetFeaturesRequestTemplate requestTemplate;
 
   /**
    * Constructor that creates a new GetFeaturesRequest with specified parameters. {@code
@@ -42,7 +45,9 @@ public class GetFeaturesRequest extends AbstractGetFeaturesRequest {
     validateRequestParameters(getFeaturesRequestData);
     this.getFeaturesRequestData = getFeaturesRequestData;
     this.requestOptions = null;
-    jsonAdapter = moshi.adapter(GetFeaturesRequestJson.class);
+    this.timeout = null;
+    this.projection = null;
+    this.requestTemplate = null;
   }
 
   /**
@@ -69,7 +74,9 @@ public class GetFeaturesRequest extends AbstractGetFeaturesRequest {
     validateRequestParameters(getFeaturesRequestData);
     this.getFeaturesRequestData = getFeaturesRequestData;
     this.requestOptions = null;
-    jsonAdapter = moshi.adapter(GetFeaturesRequestJson.class);
+    this.timeout = null;
+    this.projection = null;
+    this.requestTemplate = null;
   }
 
   /**
@@ -100,32 +107,93 @@ public class GetFeaturesRequest extends AbstractGetFeaturesRequest {
     validateRequestParameters(getFeaturesRequestData);
     this.getFeaturesRequestData = getFeaturesRequestData;
     this.requestOptions = requestOptions;
-    jsonAdapter = moshi.adapter(GetFeaturesRequestJson.class);
+    this.timeout = null;
+    this.projection = null;
+    this.requestTemplate = null;
   }
 
-  GetFeaturesRequestData getFeaturesRequestData() {
+  // Create a request with a timeout and projection, each of which may be null, e.g. from the
+  // Builder
+  GetFeaturesRequest(
+      String workspaceName,
+      String featureServiceName,
+      GetFeaturesRequestData getFeaturesRequestData,
+      Set<MetadataOption> metadataOptions,
+      RequestOptions requestOptions,
+      Duration timeout,
+      FeatureProjection projection) {
+
+    super(workspaceName, featureServiceName, ENDPOINT, metadataOptions);
+    validateRequestParameters(getFeaturesRequestData);
+    if (timeout != null && (timeout.isNegative() || timeout.isZero())) {
+      throw new InvalidRequestParameterException(TectonErrorMessage.INVALID_TIMEOUT);
+    }
+    this.getFeaturesRequestData = getFeaturesRequestData;
+    this.requestOptions = requestOptions;
+    this.timeout = timeout;
+    this.projection = projection;
+    this.requestTemplate = null;
+  }
+
+  // Create a request from a template, which writes the JSON of the request
+  GetFeaturesRequest(
+      GetFeaturesRequestTemplate requestTemplate,
+      GetFeaturesRequestData getFeaturesRequestData,
+      Duration timeout) {
+    super(
+        requestTemplate.getWorkspaceName(),
+        requestTemplate.getFeatureServiceName(),
+        ENDPOINT,
+        requestTemplate.getMetadataOptions());
+    validateRequestParameters(getFeaturesRequestData);
+    if (timeout != null && (timeout.isNegative() || timeout.isZero())) {
+      throw new InvalidRequestParameterException(TectonErrorMessage.INVALID_TIMEOUT);
+    }
+    this.getFeaturesRequestData = getFeaturesRequestData;
+    this.requestOptions = requestTemplate.getRequestOptions();
+    this.timeout = timeout;
+    this.projection = null;
+    this.requestTemplate = requestTemplate;
+  }
+
+  /**
+   * Getter for the {@link GetFeaturesRequestData} of the request
+   *
+   * @return {@link GetFeaturesRequestData} with the joinKeyMap and/or requestContextMap
+   */
+  public GetFeaturesRequestData getFeaturesRequestData() {
     return this.getFeaturesRequestData;
   }
 
-  RequestOptions getRequestOptions() {
+  /**
+   * Getter for the {@link RequestOptions} of the request
+   *
+   * @return {@link RequestOptions}, or null if not set
+   */
+  public RequestOptions getRequestOptions() {
     return this.requestOptions;
   }
 
-  static class GetFeaturesRequestJson {
-    GetFeaturesFields params;
-
-    GetFeaturesRequestJson(GetFeaturesFields params) {
-      this.params = params;
-    }
+  /**
+   * Getter for the timeout of the request, if set. The timeout is not part of the identity of the
+   * request and is not considered by {@link #equals(Object)}
+   *
+   * @return timeout in {@link Duration} wrapped in {@link java.util.Optional}, Optional.empty() if
+   *     the request uses the callTimeout of the client
+   */
+  public Optional<Duration> getTimeout() {
+    return Optional.ofNullable(this.timeout);
   }
 
-  static class GetFeaturesFields {
-    String feature_service_name;
-    String workspace_name;
-    @SerializeNulls Map<String, String> join_key_map;
-    @SerializeNulls Map<String, Object> request_context_map;
-    Map<String, Boolean> metadata_options;
-    Map<String, Object> request_options;
+  /**
+   * Getter for the client-side projection of the feature vector, if set. Features outside the
+   * projection are skipped when the response is decoded
+   *
+   * @return {@link FeatureProjection} wrapped in {@link java.util.Optional}, Optional.empty() if
+   *     all features are decoded
+   */
+  public Optional<FeatureProjection> getProjection() {
+    return Optional.ofNullable(this.projection);
   }
 
   /**
@@ -135,30 +203,62 @@ public class GetFeaturesRequest extends AbstractGetFeaturesRequest {
    */
   @Override
   public String requestToJson() {
-    GetFeaturesFields getFeaturesFields = new GetFeaturesFields();
-    getFeaturesFields.feature_service_name = this.getFeatureServiceName();
-    getFeaturesFields.workspace_name = this.getWorkspaceName();
-    if (!getFeaturesRequestData().isEmptyJoinKeyMap()) {
-      getFeaturesFields.join_key_map = getFeaturesRequestData().getJoinKeyMap();
-    }
-    if (!getFeaturesRequestData().isEmptyRequestContextMap()) {
-      getFeaturesFields.request_context_map = getFeaturesRequestData().getRequestContextMap();
-    }
-    if (!metadataOptions.isEmpty()) {
-      getFeaturesFields.metadata_options =
-          metadataOptions.stream()
-              .collect(Collectors.toMap(MetadataOption::getJsonName, (a) -> Boolean.TRUE));
+    return JsonRequestBody.toJson(
+        sink -> writeJson(sink, true), TectonErrorMessage.INVALID_GET_FEATURE_REQUEST);
+  }
+
+  /**
+   * Get the JSON representation of the request without any metadata options. The response to this
+   * request only contains the feature vector, which is decoded against the feature service metadata
+   * when lean responses are enabled with {@link
+   * ai.tecton.client.TectonClientOptions.Builder#leanResponses}
+   *
+   * @return JSON String representation of {@link GetFeaturesRequest} without metadata options
+   */
+  public String leanRequestToJson() {
+    return JsonRequestBody.toJson(
+        sink -> writeJson(sink, false), TectonErrorMessage.INVALID_GET_FEATURE_REQUEST);
+  }
+
+  @Override
+  public RequestBody requestBody() {
+    return JsonRequestBody.of(
+        sink -> writeJson(sink, true), TectonErrorMessage.INVALID_GET_FEATURE_REQUEST);
+  }
+
+  /**
+   * Returns a {@link RequestBody} that streams the JSON representation of the request without any
+   * metadata options, see {@link #leanRequestToJson()}
+   *
+   * @return {@link RequestBody}
+   */
+  public RequestBody leanRequestBody() {
+    return JsonRequestBody.of(
+        sink -> writeJson(sink, false), TectonErrorMessage.INVALID_GET_FEATURE_REQUEST);
+  }
+
+  // Write the request as {"params": {...}}, with the fields in alphabetical order
+  private void writeJson(BufferedSink sink, boolean includeMetadataOptions) throws IOException {
+    if (requestTemplate != null) {
+      requestTemplate.writeJson(sink, getFeaturesRequestData, includeMetadataOptions);
+      return;
     }
-    if (requestOptions != null && !requestOptions.isEmpty()) {
-      getFeaturesFields.request_options = requestOptions.getOptions();
+    JsonWriter writer = JsonWriter.of(sink);
+    writer.beginObject();
+    writer.name("params");
+    writer.beginObject();
+    writer.name("feature_service_name").value(this.getFeatureServiceName());
+    writeMap(writer, "join_key_map", getFeaturesRequestData.getJoinKeyMap(), true);
+    if (includeMetadataOptions && !metadataOptions.isEmpty()) {
+      writeMetadataOptions(writer, metadataOptions);
     }
-    GetFeaturesRequestJson getFeaturesRequestJson = new GetFeaturesRequestJson(getFeaturesFields);
-    try {
-      return jsonAdapter.toJson(getFeaturesRequestJson);
-    } catch (Exception e) {
-      throw new InvalidRequestParameterException(
-          String.format(TectonErrorMessage.INVALID_GET_FEATURE_REQUEST, e.getMessage()));
+    writeMap(writer, "request_context_map", getFeaturesRequestData.getRequestContextMap(), true);
+    if (requestOptions != null) {
+      writeMap(writer, "request_options", requestOptions.options(), false);
     }
+    writer.name("workspace_name").value(this.getWorkspaceName());
+    writer.endObject();
+    writer.endObject();
   }
 
   /** Overrides <i>equals()</i> in class {@link Object} */
@@ -169,13 +269,14 @@ public class GetFeaturesRequest extends AbstractGetFeaturesRequest {
     if (!super.equals(o)) return false;
     GetFeaturesRequest that = (GetFeaturesRequest) o;
     return getFeaturesRequestData.equals(that.getFeaturesRequestData)
-        && Objects.equals(requestOptions, that.requestOptions);
+        && Objects.equals(requestOptions, that.requestOptions)
+        && Objects.equals(projection, that.projection);
   }
 
   /** Overrides <i>hashCode()</i> in class {@link Object} */
   @Override
   public int hashCode() {
-    return Objects.hash(super.hashCode(), getFeaturesRequestData, requestOptions);
+    return Objects.hash(super.hashCode(), getFeaturesRequestData, requestOptions, projection);
   }
 
   /**
@@ -188,6 +289,8 @@ public class GetFeaturesRequest extends AbstractGetFeaturesRequest {
     private String featureServiceName;
     private GetFeaturesRequestData getFeaturesRequestData;
     private RequestOptions requestOptions;
+    private Duration timeout;
+    private FeatureProjection projection;
 
     /** Constructor for instantiating an empty Builder */
     public Builder() {
@@ -256,30 +359,52 @@ public class GetFeaturesRequest extends AbstractGetFeaturesRequest {
       return this;
     }
 
+    /**
+     * Setter for the timeout of the request, which overrides the callTimeout configured in {@link
+     * ai.tecton.client.TectonClientOptions} so that a single client can serve callers with
+     * different latency budgets
+     *
+     * @param timeout The max time in {@link Duration} for the request to complete, including
+     *     retries. Must be positive
+     * @return this Builder
+     */
+    public Builder timeout(Duration timeout) {
+      this.timeout = timeout;
+      return this;
+    }
+
+    /**
+     * Setter for the client-side projection of the feature vector. Only the features in the
+     * projection are decoded from the response
+     *
+     * @param projection {@link FeatureProjection} of the features to decode
+     * @return this Builder
+     */
+    public Builder projection(FeatureProjection projection) {
+      this.projection = projection;
+      return this;
+    }
+
     /**
      * Returns an instance of {@link GetFeaturesRequest} created from the fields set on this builder
      *
      * @return {@link GetFeaturesRequest} object
      * @throws InvalidRequestParameterException when workspaceName and/or featureServiceName is null
-     *     or empty
+     *     or empty, or the timeout is not positive
      */
     public GetFeaturesRequest build() {
-      if (this.requestOptions != null) {
-        // Handle the case where requestOptions is set and metadataOptions is or is not set (using a
-        // default if not set).
-        Set<MetadataOption> options =
-            this.metadataOptions.isEmpty()
-                ? RequestConstants.DEFAULT_METADATA_OPTIONS
-                : this.metadataOptions;
-        return new GetFeaturesRequest(
-            workspaceName, featureServiceName, getFeaturesRequestData, options, requestOptions);
-      } else if (this.metadataOptions.isEmpty()) {
-        // Handle the case where neither requestOptions nor metadataOptions are set.
-        return new GetFeaturesRequest(workspaceName, featureServiceName, getFeaturesRequestData);
-      } else {
-        // Handle the case where metadataOptions is set and requestOptions is not set.
-        return new GetFeaturesRequest(workspaceName, featureServiceName, getFeaturesRequestData);
-      }
+      Set<MetadataOption> options =
+          this.metadataOptions.isEmpty()
+              ? RequestConstants.DEFAULT_METADATA_OPTIONS
+              : this.metadataOptions;
+      return new GetFeaturesRequest(
+          workspaceName,
+          featureServiceName,
+          getFeaturesRequestData,
+          options,
+          requestOptions,
+          timeout,
+          projection);
     }
   }
 }
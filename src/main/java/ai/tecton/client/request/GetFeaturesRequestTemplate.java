@@ -0,0 +1,189 @@
+package ai.tecton.client.request;
+
+import ai.tecton.client.exceptions.InvalidRequestParameterException;
+import ai.tecton.client.exceptions.TectonErrorMessage;
+import ai.tecton.client.model.MetadataOption;
+import com.squareup.moshi.JsonWriter;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ByteString;
+
+/**
+ * A template for {@link GetFeaturesRequest}s to one feature service with the same metadata options
+ * and request options. Only the join keys and request context of these requests differ, so the rest
+ * of their JSON representation is encoded once when the template is created. The JSON of a request
+ * created from the template consists of these pre-encoded bytes and its joinKeyMap and
+ * requestContextMap, and is identical to the JSON of the equivalent {@link GetFeaturesRequest}.
+ *
+ * <p>A template is immutable and can be shared across threads. Templates are usually created with
+ * {@link ai.tecton.client.TectonClient#prepare}.
+ */
+public final class GetFeaturesRequestTemplate {
+
+  private final String workspaceName;
+  private final String featureServiceName;
+  private final Set<MetadataOption> metadataOptions;
+  private final RequestOptions requestOptions;
+
+  // The JSON of a request is prefix + joinKeyMap + infix + requestContextMap + suffix
+  private final ByteString prefix;
+  private final ByteString infix;
+  private final ByteString leanInfix;
+  private final ByteString suffix;
+
+  /**
+   * Constructor that creates a new GetFeaturesRequestTemplate with the specified parameters
+   *
+   * @param workspaceName Name of the workspace in which the Feature Service is defined
+   * @param featureServiceName Name of the Feature Service for which the feature vectors are
+   *     requested
+   * @param metadataOptions A {@link Set} of {@link MetadataOption} for retrieving additional
+   *     metadata about the feature values, see {@link GetFeaturesRequest}. A null or empty set
+   *     defaults to {@link RequestConstants#DEFAULT_METADATA_OPTIONS}
+   * @param requestOptions {@link RequestOptions} object with request-level options to control
+   *     feature server behavior, or null. The options are copied, so later changes to them do not
+   *     affect the template
+   * @throws InvalidRequestParameterException when workspaceName or featureServiceName is null or
+   *     empty
+   */
+  public GetFeaturesRequestTemplate(
+      String workspaceName,
+      String featureServiceName,
+      Set<MetadataOption> metadataOptions,
+      RequestOptions requestOptions) {
+    AbstractTectonRequest.validateRequestParameters(workspaceName, featureServiceName);
+    this.workspaceName = workspaceName;
+    this.featureServiceName = featureServiceName;
+    this.metadataOptions =
+        metadataOptions == null || metadataOptions.isEmpty()
+            ? RequestConstants.DEFAULT_METADATA_OPTIONS
+            : AbstractGetFeaturesRequest.getMetadataOptions(new HashSet<>(metadataOptions));
+    if (requestOptions != null) {
+      this.requestOptions = new RequestOptions();
+      requestOptions.options().forEach(this.requestOptions::setOption);
+    } else {
+      this.requestOptions = null;
+    }
+
+    ByteString[] segments = encodeSegments(true);
+    this.prefix = segments[0];
+    this.infix = segments[1];
+    this.suffix = segments[2];
+    this.leanInfix = encodeSegments(false)[1];
+  }
+
+  /**
+   * Creates a {@link GetFeaturesRequest} for the joinKeyMap and requestContextMap of {@code
+   * getFeaturesRequestData}
+   *
+   * @param getFeaturesRequestData {@link GetFeaturesRequestData} object with joinKeyMap and/or
+   *     requestContextMap
+   * @return {@link GetFeaturesRequest}
+   * @throws InvalidRequestParameterException when both maps of getFeaturesRequestData are empty
+   */
+  public GetFeaturesRequest newRequest(GetFeaturesRequestData getFeaturesRequestData) {
+    return new GetFeaturesRequest(this, getFeaturesRequestData, null);
+  }
+
+  /**
+   * Creates a {@link GetFeaturesRequest} with a timeout for the joinKeyMap and requestContextMap of
+   * {@code getFeaturesRequestData}
+   *
+   * @param getFeaturesRequestData {@link GetFeaturesRequestData} object with joinKeyMap and/or
+   *     requestContextMap
+   * @param timeout The max time in {@link Duration} for the request to complete, including retries.
+   *     A null timeout uses the callTimeout of the client
+   * @return {@link GetFeaturesRequest}
+   * @throws InvalidRequestParameterException when both maps of getFeaturesRequestData are empty or
+   *     the timeout is zero or negative
+   */
+  public GetFeaturesRequest newRequest(
+      GetFeaturesRequestData getFeaturesRequestData, Duration timeout) {
+    return new GetFeaturesRequest(this, getFeaturesRequestData, timeout);
+  }
+
+  /** Returns the workspaceName of the template */
+  public String getWorkspaceName() {
+    return workspaceName;
+  }
+
+  /** Returns the featureServiceName of the template */
+  public String getFeatureServiceName() {
+    return featureServiceName;
+  }
+
+  /** Returns the set of {@link MetadataOption} of the template, including the default options */
+  public Set<MetadataOption> getMetadataOptions() {
+    return metadataOptions;
+  }
+
+  /** Returns the endpoint of the requests created from the template */
+  public String getEndpoint() {
+    return GetFeaturesRequest.ENDPOINT;
+  }
+
+  RequestOptions getRequestOptions() {
+    return requestOptions;
+  }
+
+  // Write the JSON of a request created from the template
+  void writeJson(
+      BufferedSink sink,
+      GetFeaturesRequestData getFeaturesRequestData,
+      boolean includeMetadataOptions)
+      throws IOException {
+    sink.write(prefix);
+    writeMapValue(sink, getFeaturesRequestData.getJoinKeyMap());
+    sink.write(includeMetadataOptions ? infix : leanInfix);
+    writeMapValue(sink, getFeaturesRequestData.getRequestContextMap());
+    sink.write(suffix);
+  }
+
+  private static void writeMapValue(BufferedSink sink, Map<String, ?> map) throws IOException {
+    JsonWriter writer = JsonWriter.of(sink);
+    writer.setSerializeNulls(true);
+    AbstractGetFeaturesRequest.writeMapValue(writer, map);
+  }
+
+  // Encode the JSON of a request, in the same field order as GetFeaturesRequest, up to the value of
+  // the joinKeyMap, between the joinKeyMap and the requestContextMap, and after the
+  // requestContextMap
+  private ByteString[] encodeSegments(boolean includeMetadataOptions) {
+    Buffer buffer = new Buffer();
+    ByteString[] segments = new ByteString[3];
+    try {
+      JsonWriter writer = JsonWriter.of(buffer);
+      writer.beginObject();
+      writer.name("params");
+      writer.beginObject();
+      writer.name("feature_service_name").value(featureServiceName);
+      writer.name("join_key_map");
+      // An empty value sink only writes the name, and leaves the writer after the value
+      writer.valueSink().close();
+      segments[0] = buffer.readByteString();
+      if (includeMetadataOptions && !metadataOptions.isEmpty()) {
+        AbstractGetFeaturesRequest.writeMetadataOptions(writer, metadataOptions);
+      }
+      writer.name("request_context_map");
+      writer.valueSink().close();
+      segments[1] = buffer.readByteString();
+      if (requestOptions != null) {
+        AbstractGetFeaturesRequest.writeMap(
+            writer, "request_options", requestOptions.options(), false);
+      }
+      writer.name("workspace_name").value(workspaceName);
+      writer.endObject();
+      writer.endObject();
+      segments[2] = buffer.readByteString();
+    } catch (IOException | RuntimeException e) {
+      throw new InvalidRequestParameterException(
+          String.format(TectonErrorMessage.INVALID_GET_FEATURE_REQUEST, e.getMessage()));
+    }
+    return segments;
+  }
+}
@@ -0,0 +1,67 @@
+package ai.tecton.client.request;
+
+import ai.tecton.client.exceptions.InvalidRequestParameterException;
+import ai.tecton.client.transport.TectonHttpClient;
+import java.io.IOException;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ByteString;
+
+/**
+ * A {@link RequestBody} that holds the UTF-8 encoded JSON representation of a request, written
+ * directly into a buffer without first building it as a String. The JSON is encoded when the body
+ * is created, so a request that cannot be encoded fails with an {@link
+ * InvalidRequestParameterException} before the call is made, and every attempt of the call sends
+ * the same bytes.
+ */
+final class JsonRequestBody extends RequestBody {
+
+  private final ByteString json;
+
+  private JsonRequestBody(ByteString json) {
+    this.json = json;
+  }
+
+  // Encode the JSON of a request into a RequestBody
+  static JsonRequestBody of(JsonBodyWriter bodyWriter, String errorMessageFormat) {
+    return new JsonRequestBody(encode(bodyWriter, errorMessageFormat).readByteString());
+  }
+
+  // Write the JSON into a String, e.g. for requestToJson()
+  static String toJson(JsonBodyWriter bodyWriter, String errorMessageFormat) {
+    return encode(bodyWriter, errorMessageFormat).readUtf8();
+  }
+
+  private static Buffer encode(JsonBodyWriter bodyWriter, String errorMessageFormat) {
+    Buffer buffer = new Buffer();
+    try {
+      bodyWriter.writeJson(buffer);
+    } catch (IOException | RuntimeException e) {
+      throw new InvalidRequestParameterException(String.format(errorMessageFormat, e.getMessage()));
+    }
+    return buffer;
+  }
+
+  @Override
+  public MediaType contentType() {
+    return TectonHttpClient.JSON_MEDIA_TYPE;
+  }
+
+  @Override
+  public long contentLength() {
+    return json.size();
+  }
+
+  @Override
+  public void writeTo(BufferedSink sink) throws IOException {
+    sink.write(json);
+  }
+
+  /** Writes the JSON representation of a request */
+  interface JsonBodyWriter {
+    // The sink is neither flushed nor closed by the writer
+    void writeJson(BufferedSink sink) throws IOException;
+  }
+}
@@ -62,6 +62,11 @@ public class RequestOptions {
     return this.options.isEmpty();
   }
 
+  // Returns the options without copying them, to write them into the JSON of a request
+  Map<String, Object> options() {
+    return this.options;
+  }
+
   /** A Builder class for creating an instance of {@link RequestOptions} object */
   public static class Builder {
     private RequestOptions requestOptions;
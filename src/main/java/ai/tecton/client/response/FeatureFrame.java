@@ -0,0 +1,501 @@
+package ai.tecton.client.response;
+
+import ai.tecton.client.exceptions.TectonClientException;
+import ai.tecton.client.exceptions.TectonErrorMessage;
+import ai.tecton.client.model.FeatureSchema;
+import ai.tecton.client.model.FeatureStatus;
+import ai.tecton.client.model.SloInformation;
+import ai.tecton.client.model.ValueType;
+import ai.tecton.client.request.GetFeaturesBatchRequest;
+import ai.tecton.client.response.FeatureFrameChunk.Column;
+import ai.tecton.client.transport.HttpResponse;
+import ai.tecton.client.transport.HttpResponse.CallStatus;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * A columnar view of the response to a {@link GetFeaturesBatchRequest}. Instead of a {@link
+ * GetFeaturesResponse} with a list of {@link ai.tecton.client.model.FeatureValue} objects per row,
+ * the values of each feature are decoded straight from the JSON response into primitive arrays,
+ * with a single {@link FeatureSchema} shared by all rows. This avoids allocating an object per
+ * feature value when scoring large batches.
+ *
+ * <p>Values are accessed by row index, in the order of the request data list, and column index, in
+ * the order of {@link #getFeatureNames()}. Boolean, Int64, Float32 and Float64 features are stored
+ * as {@code boolean}, {@code long} and {@code double} values, and the getters for these types
+ * return false, 0 and {@link Double#NaN} respectively for null values, so {@link #isNull(int, int)}
+ * should be checked first for features that can be null. Array features are stored as the elements
+ * of all rows with the offset of each row, and are accessed by element index.
+ *
+ * <p>Rows whose call timed out, failed or received an error response have a {@link ResponseStatus}
+ * that is not OK and all their values are null. The sloInformation of each row is not kept in a
+ * frame, only the batchSloInformation is.
+ */
+public final class FeatureFrame {
+
+  private final FeatureSchema schema;
+  private final FeatureFrameChunk[] chunks;
+  private final ResponseStatus[] chunkStatuses;
+  // The chunk of each row, and the index of the row within its chunk
+  private final int[] rowChunks;
+  private final int[] chunkRows;
+  private final SloInformation batchSloInfo;
+  private final Duration requestLatency;
+
+  /**
+   * Constructs a frame from the responses of the calls made for a {@link GetFeaturesBatchRequest}.
+   * Duplicate rows of the request are only sent once, and the values of each unique row are
+   * returned at the position of every row it was deduplicated from
+   *
+   * @param httpResponseList the {@link HttpResponse} of each call, in request order
+   * @param totalDuration the total time of the batch request
+   * @param batchRequest the {@link GetFeaturesBatchRequest} the calls were made for
+   * @throws TectonClientException when a response cannot be parsed, or the responses of the calls
+   *     do not have the same features
+   */
+  public FeatureFrame(
+      List<HttpResponse> httpResponseList,
+      Duration totalDuration,
+      GetFeaturesBatchRequest batchRequest) {
+    int callCount = httpResponseList.size();
+    this.chunks = new FeatureFrameChunk[callCount];
+    this.chunkStatuses = new ResponseStatus[callCount];
+    for (int i = 0; i < callCount; i++) {
+      chunkStatuses[i] = callStatus(httpResponseList.get(i));
+    }
+
+    // Decode the response of each call in parallel
+    List<FeatureFrameChunk> decodedChunks =
+        IntStream.range(0, callCount)
+            .parallel()
+            .mapToObj(i -> chunkStatuses[i].isOk() ? decodeChunk(httpResponseList.get(i)) : null)
+            .collect(Collectors.toList());
+
+    int uniqueRowCount = batchRequest.getUniqueRequestDataList().size();
+    int rowsPerCall = batchRequest.getRowsPerCall();
+    FeatureSchema frameSchema = null;
+    List<SloInformation> chunkSloInfoList = new ArrayList<>();
+    for (int i = 0; i < callCount; i++) {
+      FeatureFrameChunk chunk = decodedChunks.get(i);
+      if (chunk == null) {
+        continue;
+      }
+      int expectedRowCount = Math.min(rowsPerCall, uniqueRowCount - i * rowsPerCall);
+      if (chunk.rowCount != expectedRowCount) {
+        throw new TectonClientException(TectonErrorMessage.INVALID_RESPONSE_FORMAT);
+      }
+      if (frameSchema == null) {
+        frameSchema = chunk.schema;
+      } else if (!frameSchema.hasSameFeatures(chunk.schema)) {
+        throw new TectonClientException(TectonErrorMessage.INVALID_RESPONSE_FORMAT);
+      }
+      if (chunk.batchSloInfo != null) {
+        chunkSloInfoList.add(chunk.batchSloInfo);
+      }
+      chunks[i] = chunk;
+    }
+    this.schema = frameSchema;
+
+    int rowCount = batchRequest.getRequestDataList().size();
+    this.rowChunks = new int[rowCount];
+    this.chunkRows = new int[rowCount];
+    for (int i = 0; i < rowCount; i++) {
+      int uniqueIndex = batchRequest.getUniqueIndex(i);
+      rowChunks[i] = uniqueIndex / rowsPerCall;
+      chunkRows[i] = uniqueIndex % rowsPerCall;
+    }
+
+    this.batchSloInfo =
+        chunkSloInfoList.isEmpty()
+            ? null
+            : GetFeaturesBatchResponse.computeBatchSloInfo(chunkSloInfoList);
+    this.requestLatency = totalDuration;
+  }
+
+  /**
+   * Returns the number of rows in the frame, which is the size of the request data list
+   *
+   * @return the number of rows
+   */
+  public int getRowCount() {
+    return rowChunks.length;
+  }
+
+  /**
+   * Returns the number of features (columns) in the frame. The frame has no columns if no call of
+   * the batch request completed successfully
+   *
+   * @return the number of columns
+   */
+  public int getColumnCount() {
+    return schema != null ? schema.size() : 0;
+  }
+
+  /**
+   * Returns the names of the features in column order, as returned in the response metadata (e.g.
+   * "user_transaction_counts.transaction_count_1d_1d")
+   *
+   * @return {@link List} of feature names
+   */
+  public List<String> getFeatureNames() {
+    return schema != null ? schema.getNames() : Collections.emptyList();
+  }
+
+  /**
+   * Returns the column index of a feature
+   *
+   * @param featureName the name of the feature, as returned by {@link #getFeatureNames()}
+   * @return the column index, or -1 if the frame has no such feature
+   */
+  public int getColumnIndex(String featureName) {
+    return schema != null ? schema.indexOf(featureName) : -1;
+  }
+
+  /**
+   * Returns the {@link FeatureSchema} of the frame, with the name, type and metadata of the feature
+   * in each column
+   *
+   * @return {@link FeatureSchema} wrapped in {@link java.util.Optional}, Optional.empty() if no
+   *     call of the batch request completed successfully
+   */
+  public Optional<FeatureSchema> getFeatureSchema() {
+    return Optional.ofNullable(schema);
+  }
+
+  /**
+   * Returns the {@link ValueType} of the values in a column
+   *
+   * @param column the column index
+   * @return {@link ValueType}
+   */
+  public ValueType getValueType(int column) {
+    return schema().getValueType(column);
+  }
+
+  /**
+   * Returns the {@link ValueType} of the elements of an array column
+   *
+   * @param column the column index
+   * @return {@link ValueType} of the elements if the column is an array, Optional.empty() otherwise
+   */
+  public Optional<ValueType> getListElementType(int column) {
+    return Optional.ofNullable(schema().getListElementType(column));
+  }
+
+  /**
+   * Returns the effectiveTime of a feature wrapped in {@link java.util.Optional} if present in the
+   * response metadata, Optional.empty() otherwise
+   *
+   * @param column the column index
+   * @return Optional&lt;Instant&gt; representing the effectiveTime
+   */
+  public Optional<Instant> getEffectiveTime(int column) {
+    return Optional.ofNullable(schema().getEffectiveTime(column));
+  }
+
+  /**
+   * Returns the effectiveTime of a feature in microseconds since the epoch, without creating an
+   * {@link Instant}
+   *
+   * @param column the column index
+   * @return the effectiveTime in epoch microseconds if present in the response metadata, {@link
+   *     FeatureSchema#NO_EFFECTIVE_TIME} otherwise
+   */
+  public long getEffectiveTimeMicros(int column) {
+    return schema().getEffectiveTimeMicros(column);
+  }
+
+  /**
+   * Returns the description of a feature wrapped in {@link java.util.Optional} if present in the
+   * response metadata, Optional.empty() otherwise
+   *
+   * @param column the column index
+   * @return Optional&lt;String&gt; representing the description
+   */
+  public Optional<String> getFeatureDescription(int column) {
+    return Optional.ofNullable(schema().getFeatureDescription(column));
+  }
+
+  /**
+   * Returns the tags of a feature wrapped in {@link java.util.Optional} if present in the response
+   * metadata, Optional.empty() otherwise
+   *
+   * @param column the column index
+   * @return Optional&lt;Map&lt;String, String&gt;&gt; representing the tags
+   */
+  public Optional<Map<String, String>> getFeatureTags(int column) {
+    return Optional.ofNullable(schema().getFeatureTags(column));
+  }
+
+  /**
+   * Returns the {@link ResponseStatus} of a row. All values of a row are null unless its status is
+   * {@link ResponseStatus.Code#OK}
+   *
+   * @param row the row index
+   * @return {@link ResponseStatus}
+   */
+  public ResponseStatus getResponseStatus(int row) {
+    return chunkStatuses[rowChunks[row]];
+  }
+
+  /**
+   * Returns the {@link FeatureStatus} of a value wrapped in {@link java.util.Optional} if present
+   * in the response metadata, Optional.empty() otherwise
+   *
+   * @param row the row index
+   * @param column the column index
+   * @return Optional&lt;FeatureStatus&gt;
+   */
+  public Optional<FeatureStatus> getFeatureStatus(int row, int column) {
+    FeatureFrameChunk chunk = chunks[rowChunks[row]];
+    return chunk != null
+        ? chunk.columns[column].getFeatureStatus(chunkRows[row])
+        : Optional.empty();
+  }
+
+  /**
+   * Returns true if a value is null, or if the row has no response
+   *
+   * @param row the row index
+   * @param column the column index
+   * @return true if the value is null
+   */
+  public boolean isNull(int row, int column) {
+    FeatureFrameChunk chunk = chunks[rowChunks[row]];
+    return chunk == null || chunk.columns[column].nulls.get(chunkRows[row]);
+  }
+
+  /**
+   * Returns the value of a Boolean feature, or false if the value is null
+   *
+   * @param row the row index
+   * @param column the column index
+   * @return the value as a boolean
+   * @throws TectonClientException if the feature is not a Boolean feature
+   */
+  public boolean getBoolean(int row, int column) {
+    checkType(column, ValueType.BOOLEAN);
+    return !isNull(row, column) && chunks[rowChunks[row]].columns[column].booleans[chunkRows[row]];
+  }
+
+  /**
+   * Returns the value of an Int64 feature, or 0 if the value is null
+   *
+   * @param row the row index
+   * @param column the column index
+   * @return the value as a long
+   * @throws TectonClientException if the feature is not an Int64 feature
+   */
+  public long getLong(int row, int column) {
+    checkType(column, ValueType.INT64);
+    return isNull(row, column) ? 0L : chunks[rowChunks[row]].columns[column].longs[chunkRows[row]];
+  }
+
+  /**
+   * Returns the value of a Float32 or Float64 feature, or {@link Double#NaN} if the value is null
+   *
+   * @param row the row index
+   * @param column the column index
+   * @return the value as a double
+   * @throws TectonClientException if the feature is not a Float32 or Float64 feature
+   */
+  public double getDouble(int row, int column) {
+    checkFloatType(getValueType(column));
+    return isNull(row, column)
+        ? Double.NaN
+        : chunks[rowChunks[row]].columns[column].doubles[chunkRows[row]];
+  }
+
+  /**
+   * Returns the value of a String feature, or null if the value is null
+   *
+   * @param row the row index
+   * @param column the column index
+   * @return the value as a String
+   * @throws TectonClientException if the feature is not a String feature
+   */
+  public String getString(int row, int column) {
+    checkType(column, ValueType.STRING);
+    return isNull(row, column)
+        ? null
+        : chunks[rowChunks[row]].columns[column].strings[chunkRows[row]];
+  }
+
+  /**
+   * Returns the number of elements of an array value, or 0 if the value is null
+   *
+   * @param row the row index
+   * @param column the column index
+   * @return the number of elements
+   * @throws TectonClientException if the feature is not an array feature
+   */
+  public int getListSize(int row, int column) {
+    checkType(column, ValueType.ARRAY);
+    if (isNull(row, column)) {
+      return 0;
+    }
+    Column values = chunks[rowChunks[row]].columns[column];
+    return values.offsets[chunkRows[row] + 1] - values.offsets[chunkRows[row]];
+  }
+
+  /**
+   * Returns true if an element of an array value is null
+   *
+   * @param row the row index
+   * @param column the column index
+   * @param index the index of the element in the array
+   * @return true if the element is null
+   * @throws TectonClientException if the feature is not an array feature
+   */
+  public boolean isListElementNull(int row, int column, int index) {
+    return listColumn(row, column).elementNulls.get(elementIndex(row, column, index));
+  }
+
+  /**
+   * Returns an element of a Float32 or Float64 array value, or {@link Double#NaN} if the element is
+   * null
+   *
+   * @param row the row index
+   * @param column the column index
+   * @param index the index of the element in the array
+   * @return the element as a double
+   * @throws TectonClientException if the feature is not a Float32 or Float64 array feature
+   */
+  public double getListDouble(int row, int column, int index) {
+    checkFloatType(listElementType(column));
+    Column values = listColumn(row, column);
+    int elementIndex = elementIndex(row, column, index);
+    return values.elementNulls.get(elementIndex) ? Double.NaN : values.doubles[elementIndex];
+  }
+
+  /**
+   * Returns an element of an Int64 array value, or 0 if the element is null
+   *
+   * @param row the row index
+   * @param column the column index
+   * @param index the index of the element in the array
+   * @return the element as a long
+   * @throws TectonClientException if the feature is not an Int64 array feature
+   */
+  public long getListLong(int row, int column, int index) {
+    checkListType(column, ValueType.INT64);
+    Column values = listColumn(row, column);
+    int elementIndex = elementIndex(row, column, index);
+    return values.elementNulls.get(elementIndex) ? 0L : values.longs[elementIndex];
+  }
+
+  /**
+   * Returns an element of a String array value, or null if the element is null
+   *
+   * @param row the row index
+   * @param column the column index
+   * @param index the index of the element in the array
+   * @return the element as a String
+   * @throws TectonClientException if the feature is not a String array feature
+   */
+  public String getListString(int row, int column, int index) {
+    checkListType(column, ValueType.STRING);
+    return listColumn(row, column).strings[elementIndex(row, column, index)];
+  }
+
+  /**
+   * Returns the response time (network latency + online store latency) as provided by the
+   * underlying Http Client
+   *
+   * @return response time as {@link java.time.Duration}
+   */
+  public Duration getRequestLatency() {
+    return requestLatency;
+  }
+
+  /**
+   * Returns an {@link SloInformation} object wrapped in {@link java.util.Optional} if present in
+   * the response received from the HTTP API, Optional.empty() otherwise
+   *
+   * @return {@link SloInformation} for the batch request
+   */
+  public Optional<SloInformation> getBatchSloInformation() {
+    return Optional.ofNullable(batchSloInfo);
+  }
+
+  private static ResponseStatus callStatus(HttpResponse httpResponse) {
+    // Null HttpResponse represents a timeout
+    if (httpResponse == null) {
+      return ResponseStatus.timedOut(null);
+    }
+    if (httpResponse.getCallStatus() == CallStatus.TIMED_OUT) {
+      return ResponseStatus.timedOut(httpResponse.getCause().orElse(null));
+    }
+    if (httpResponse.getCallStatus() == CallStatus.FAILED) {
+      return ResponseStatus.failed(httpResponse.getCause().orElse(null));
+    }
+    // An error response fails the rows of this call, the other calls are unaffected
+    if (!httpResponse.isSuccessful()) {
+      return ResponseStatus.failed(httpResponse.errorResponseException());
+    }
+    return ResponseStatus.ok();
+  }
+
+  private static FeatureFrameChunk decodeChunk(HttpResponse httpResponse) {
+    return FeatureFrameChunk.decode(
+        httpResponse
+            .getResponseSource()
+            .orElseThrow(() -> new TectonClientException(TectonErrorMessage.EMPTY_RESPONSE)));
+  }
+
+  private FeatureSchema schema() {
+    if (schema == null) {
+      throw new IndexOutOfBoundsException("The frame has no columns");
+    }
+    return schema;
+  }
+
+  private void checkType(int column, ValueType valueType) {
+    if (getValueType(column) != valueType) {
+      throw new TectonClientException(
+          String.format(TectonErrorMessage.MISMATCHED_TYPE, getValueType(column)));
+    }
+  }
+
+  private static void checkFloatType(ValueType valueType) {
+    if (valueType != ValueType.FLOAT32 && valueType != ValueType.FLOAT64) {
+      throw new TectonClientException(String.format(TectonErrorMessage.MISMATCHED_TYPE, valueType));
+    }
+  }
+
+  private ValueType listElementType(int column) {
+    checkType(column, ValueType.ARRAY);
+    return schema.getListElementType(column);
+  }
+
+  private void checkListType(int column, ValueType elementType) {
+    if (listElementType(column) != elementType) {
+      throw new TectonClientException(
+          String.format(TectonErrorMessage.MISMATCHED_TYPE, listElementType(column)));
+    }
+  }
+
+  private Column listColumn(int row, int column) {
+    checkType(column, ValueType.ARRAY);
+    FeatureFrameChunk chunk = chunks[rowChunks[row]];
+    if (chunk == null) {
+      throw new IndexOutOfBoundsException("Row " + row + " has no response");
+    }
+    return chunk.columns[column];
+  }
+
+  private int elementIndex(int row, int column, int index) {
+    int size = getListSize(row, column);
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    return chunks[rowChunks[row]].columns[column].offsets[chunkRows[row]] + index;
+  }
+}
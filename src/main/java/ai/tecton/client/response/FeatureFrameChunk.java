@@ -0,0 +1,476 @@
+package ai.tecton.client.response;
+
+import ai.tecton.client.exceptions.FeatureSchemaMismatchException;
+import ai.tecton.client.exceptions.TectonClientException;
+import ai.tecton.client.exceptions.TectonErrorMessage;
+import ai.tecton.client.model.FeatureSchema;
+import ai.tecton.client.model.FeatureStatus;
+import ai.tecton.client.model.SloInformation;
+import ai.tecton.client.model.ValueType;
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.JsonReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import okio.BufferedSource;
+
+// The rows of the response to one call of a batch request, decoded column by column straight from
+// the JSON token stream. The metadata block follows the result block in the response, so it is
+// read first from a peek of the source, and the result is then decoded into typed columns
+final class FeatureFrameChunk {
+
+  private static final JsonReader.Options RESULT_FIELD = JsonReader.Options.of("result");
+  private static final JsonReader.Options METADATA_FIELD = JsonReader.Options.of("metadata");
+  private static final JsonReader.Options FEATURES_FIELD = JsonReader.Options.of("features");
+  private static final JsonReader.Options METADATA_FIELDS =
+      JsonReader.Options.of("features", "batchSloInfo");
+  private static final JsonReader.Options FEATURE_METADATA_FIELDS =
+      JsonReader.Options.of("name", "dataType", "effectiveTime", "description", "tags", "status");
+  private static final JsonReader.Options DATA_TYPE_FIELDS =
+      JsonReader.Options.of("type", "elementType");
+  private static final FeatureStatus[] FEATURE_STATUSES = FeatureStatus.values();
+  private static final JsonReader.Options FEATURE_STATUS_NAMES =
+      JsonReader.Options.of(Arrays.stream(FEATURE_STATUSES).map(Enum::name).toArray(String[]::new));
+  private static final int INITIAL_CAPACITY = 16;
+
+  final FeatureSchema schema;
+  final Column[] columns;
+  final int rowCount;
+  final SloInformation batchSloInfo;
+
+  private FeatureFrameChunk(
+      FeatureSchema schema, Column[] columns, int rowCount, SloInformation batchSloInfo) {
+    this.schema = schema;
+    this.columns = columns;
+    this.rowCount = rowCount;
+    this.batchSloInfo = batchSloInfo;
+  }
+
+  // Decode the response of a call to the /get-features-batch endpoint, or to the /get-features
+  // endpoint for a single row
+  static FeatureFrameChunk decode(BufferedSource source) {
+    try {
+      Metadata metadata = readMetadata(JsonReader.of(source.peek()));
+      if (metadata.features == null) {
+        throw new TectonClientException(TectonErrorMessage.INVALID_RESPONSE_FORMAT);
+      }
+      FeatureSchema schema = buildFeatureSchema(metadata.features);
+      Column[] columns = new Column[metadata.features.size()];
+      for (int i = 0; i < columns.length; i++) {
+        columns[i] = new Column(schema, i, metadata.features.get(i).statuses);
+      }
+      int rowCount = readResult(JsonReader.of(source), columns);
+      return new FeatureFrameChunk(schema, columns, rowCount, metadata.batchSloInfo);
+    } catch (IOException | JsonDataException | NumberFormatException e) {
+      throw new TectonClientException(TectonErrorMessage.INVALID_RESPONSE_FORMAT);
+    }
+  }
+
+  private static Metadata readMetadata(JsonReader reader) throws IOException {
+    Metadata metadata = new Metadata();
+    reader.beginObject();
+    while (reader.hasNext()) {
+      if (reader.selectName(METADATA_FIELD) != 0) {
+        reader.skipName();
+        reader.skipValue();
+        continue;
+      }
+      reader.beginObject();
+      while (reader.hasNext()) {
+        switch (reader.selectName(METADATA_FIELDS)) {
+          case 0:
+            metadata.features = new ArrayList<>();
+            reader.beginArray();
+            while (reader.hasNext()) {
+              metadata.features.add(readFeatureMetadata(reader));
+            }
+            reader.endArray();
+            break;
+          case 1:
+            metadata.batchSloInfo = GetFeaturesResponse.sloInformationAdapter.fromJson(reader);
+            break;
+          default:
+            // The sloInfo of each row is not kept in a frame
+            reader.skipName();
+            reader.skipValue();
+        }
+      }
+      reader.endObject();
+    }
+    reader.endObject();
+    return metadata;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static FeatureMetadata readFeatureMetadata(JsonReader reader) throws IOException {
+    FeatureMetadata featureMetadata = new FeatureMetadata();
+    reader.beginObject();
+    while (reader.hasNext()) {
+      int field = reader.selectName(FEATURE_METADATA_FIELDS);
+      if (field < 0) {
+        reader.skipName();
+        reader.skipValue();
+      } else if (reader.peek() == JsonReader.Token.NULL) {
+        reader.nextNull();
+      } else if (field == 0) {
+        featureMetadata.name = reader.nextString();
+      } else if (field == 1) {
+        reader.beginObject();
+        while (reader.hasNext()) {
+          switch (reader.selectName(DATA_TYPE_FIELDS)) {
+            case 0:
+              featureMetadata.type = reader.nextString();
+              break;
+            case 1:
+              featureMetadata.elementType = readElementType(reader);
+              break;
+            default:
+              reader.skipName();
+              reader.skipValue();
+          }
+        }
+        reader.endObject();
+      } else if (field == 2) {
+        featureMetadata.effectiveTime = reader.nextString();
+      } else if (field == 3) {
+        featureMetadata.description = reader.nextString();
+      } else if (field == 4) {
+        featureMetadata.tags = (Map<String, String>) reader.readJsonValue();
+      } else if (reader.peek() == JsonReader.Token.BEGIN_ARRAY) {
+        byte[] statuses = new byte[INITIAL_CAPACITY];
+        int count = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+          if (count == statuses.length) {
+            statuses = Arrays.copyOf(statuses, count * 2);
+          }
+          statuses[count++] = readStatus(reader);
+        }
+        reader.endArray();
+        featureMetadata.statuses = Arrays.copyOf(statuses, count);
+      } else {
+        // The response of the /get-features endpoint has a single status per feature
+        featureMetadata.statuses = new byte[] {readStatus(reader)};
+      }
+    }
+    reader.endObject();
+    return featureMetadata;
+  }
+
+  private static String readElementType(JsonReader reader) throws IOException {
+    String elementType = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      if (reader.selectName(DATA_TYPE_FIELDS) == 0) {
+        elementType = reader.nextString();
+      } else {
+        reader.skipName();
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return elementType;
+  }
+
+  // Read a feature status as its ordinal + 1, or 0 if it is unknown
+  private static byte readStatus(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonReader.Token.NULL) {
+      reader.nextNull();
+      return 0;
+    }
+    int index = reader.selectString(FEATURE_STATUS_NAMES);
+    if (index >= 0) {
+      return (byte) (index + 1);
+    }
+    Optional<FeatureStatus> status = FeatureStatus.fromString(reader.nextString());
+    return status.isPresent() ? (byte) (status.get().ordinal() + 1) : 0;
+  }
+
+  private static int readResult(JsonReader reader, Column[] columns) throws IOException {
+    int rowCount = -1;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      if (reader.selectName(RESULT_FIELD) != 0) {
+        reader.skipName();
+        reader.skipValue();
+      } else if (reader.peek() == JsonReader.Token.BEGIN_ARRAY) {
+        rowCount = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+          readRow(reader, columns, rowCount++);
+        }
+        reader.endArray();
+      } else {
+        // The response of the /get-features endpoint has a single feature vector
+        readRow(reader, columns, 0);
+        rowCount = 1;
+      }
+    }
+    reader.endObject();
+    if (rowCount < 0) {
+      throw new TectonClientException(TectonErrorMessage.INVALID_RESPONSE_FORMAT);
+    }
+    return rowCount;
+  }
+
+  private static void readRow(JsonReader reader, Column[] columns, int row) throws IOException {
+    reader.beginObject();
+    while (reader.hasNext()) {
+      if (reader.selectName(FEATURES_FIELD) != 0) {
+        reader.skipName();
+        reader.skipValue();
+        continue;
+      }
+      int column = 0;
+      reader.beginArray();
+      while (reader.hasNext()) {
+        if (column == columns.length) {
+          throw new FeatureSchemaMismatchException(column + 1, columns.length);
+        }
+        columns[column++].read(reader, row);
+      }
+      reader.endArray();
+      if (column != columns.length) {
+        throw new FeatureSchemaMismatchException(column, columns.length);
+      }
+    }
+    reader.endObject();
+  }
+
+  // A double is either a JSON number, or a string for values that JSON numbers cannot represent.
+  // Like FeatureValue, the strings "null", "NaN", "Infinity" and "-Infinity" are read as null
+  private static boolean readDouble(JsonReader reader, double[] values, int index)
+      throws IOException {
+    if (reader.peek() != JsonReader.Token.STRING) {
+      values[index] = reader.nextDouble();
+      return true;
+    }
+    String value = reader.nextString();
+    switch (value) {
+      case "null":
+      case "NaN":
+      case "Infinity":
+      case "-Infinity":
+        values[index] = Double.NaN;
+        return false;
+      default:
+        values[index] = Double.parseDouble(value);
+        return true;
+    }
+  }
+
+  // The values of one feature. Scalar values are stored at the index of their row. The values of
+  // a list in row r are stored at [offsets[r], offsets[r + 1]) of the element arrays
+  static final class Column {
+    final ValueType valueType;
+    final ValueType elementType;
+    final byte[] statuses;
+    final BitSet nulls = new BitSet();
+    boolean[] booleans;
+    long[] longs;
+    double[] doubles;
+    String[] strings;
+    int[] offsets;
+    BitSet elementNulls;
+    private int elementCount;
+
+    Column(FeatureSchema schema, int index, byte[] statuses) {
+      this.valueType = schema.getValueType(index);
+      this.elementType = schema.getListElementType(index);
+      this.statuses = statuses;
+      int capacity = statuses != null ? Math.max(statuses.length, 1) : INITIAL_CAPACITY;
+      ValueType storedType = valueType;
+      if (valueType == ValueType.ARRAY) {
+        this.offsets = new int[capacity + 1];
+        this.elementNulls = new BitSet();
+        storedType = elementType;
+        capacity = capacity * 4;
+        if (elementType == ValueType.BOOLEAN || elementType == ValueType.ARRAY) {
+          throw new TectonClientException(TectonErrorMessage.UNSUPPORTED_LIST_DATA_TYPE);
+        }
+      }
+      switch (storedType) {
+        case BOOLEAN:
+          this.booleans = new boolean[capacity];
+          break;
+        case INT64:
+          this.longs = new long[capacity];
+          break;
+        case FLOAT32:
+        case FLOAT64:
+          this.doubles = new double[capacity];
+          break;
+        case STRING:
+          this.strings = new String[capacity];
+          break;
+        default:
+          throw new TectonClientException(TectonErrorMessage.UNSUPPORTED_LIST_DATA_TYPE);
+      }
+    }
+
+    Optional<FeatureStatus> getFeatureStatus(int row) {
+      if (statuses == null || row >= statuses.length || statuses[row] == 0) {
+        return Optional.empty();
+      }
+      return Optional.of(FEATURE_STATUSES[statuses[row] - 1]);
+    }
+
+    private void read(JsonReader reader, int row) throws IOException {
+      if (valueType == ValueType.ARRAY) {
+        readList(reader, row);
+        return;
+      }
+      ensureCapacity(row + 1);
+      if (reader.peek() == JsonReader.Token.NULL) {
+        reader.nextNull();
+        nulls.set(row);
+        return;
+      }
+      switch (valueType) {
+        case BOOLEAN:
+          booleans[row] = reader.nextBoolean();
+          break;
+        case INT64:
+          // Tecton represents all Int64 feature values as JSON strings in the response
+          longs[row] = reader.nextLong();
+          break;
+        case FLOAT32:
+        case FLOAT64:
+          if (!readDouble(reader, doubles, row)) {
+            nulls.set(row);
+          }
+          break;
+        case STRING:
+        default:
+          strings[row] = reader.nextString();
+      }
+    }
+
+    private void readList(JsonReader reader, int row) throws IOException {
+      if (row + 2 > offsets.length) {
+        offsets = Arrays.copyOf(offsets, Math.max(offsets.length * 2, row + 2));
+      }
+      if (elementType == ValueType.FLOAT32 || elementType == ValueType.FLOAT64) {
+        readNumericList(reader, row);
+      } else if (reader.peek() == JsonReader.Token.NULL) {
+        reader.nextNull();
+        nulls.set(row);
+      } else {
+        reader.beginArray();
+        while (reader.hasNext()) {
+          ensureCapacity(elementCount + 1);
+          int index = elementCount++;
+          if (reader.peek() == JsonReader.Token.NULL) {
+            reader.nextNull();
+            elementNulls.set(index);
+            continue;
+          }
+          switch (elementType) {
+            case INT64:
+              longs[index] = reader.nextLong();
+              break;
+            case FLOAT32:
+            case FLOAT64:
+              if (!readDouble(reader, doubles, index)) {
+                elementNulls.set(index);
+              }
+              break;
+            case STRING:
+            default:
+              strings[index] = reader.nextString();
+          }
+        }
+        reader.endArray();
+      }
+      offsets[row + 1] = elementCount;
+    }
+
+    // Decode the elements from the bytes of the array, without a string or boxed value for each
+    private void readNumericList(JsonReader reader, int row) throws IOException {
+      int size = NumericArrayDecoder.decode(reader);
+      if (size < 0) {
+        nulls.set(row);
+        return;
+      }
+      ensureCapacity(elementCount + size);
+      double[] values = NumericArrayDecoder.decodedValues();
+      System.arraycopy(values, 0, doubles, elementCount, size);
+      for (int i = 0; i < size; i++) {
+        if (Double.isNaN(values[i])) {
+          elementNulls.set(elementCount + i);
+        }
+      }
+      elementCount += size;
+    }
+
+    private void ensureCapacity(int capacity) {
+      if (booleans != null && booleans.length < capacity) {
+        booleans = Arrays.copyOf(booleans, Math.max(booleans.length * 2, capacity));
+      } else if (longs != null && longs.length < capacity) {
+        longs = Arrays.copyOf(longs, Math.max(longs.length * 2, capacity));
+      } else if (doubles != null && doubles.length < capacity) {
+        doubles = Arrays.copyOf(doubles, Math.max(doubles.length * 2, capacity));
+      } else if (strings != null && strings.length < capacity) {
+        strings = Arrays.copyOf(strings, Math.max(strings.length * 2, capacity));
+      }
+    }
+  }
+
+  // Build the schema shared by all rows of a frame from the metadata of the features
+  private static FeatureSchema buildFeatureSchema(List<FeatureMetadata> features) {
+    FeatureSchema.Builder builder = new FeatureSchema.Builder();
+    for (FeatureMetadata feature : features) {
+      if (feature.name == null || feature.name.isEmpty()) {
+        throw new TectonClientException(
+            String.format(TectonErrorMessage.MISSING_EXPECTED_METADATA, "Name"));
+      }
+      if (feature.type == null || feature.type.isEmpty()) {
+        throw new TectonClientException(
+            String.format(TectonErrorMessage.MISSING_EXPECTED_METADATA, "Data Type"));
+      }
+      ValueType valueType = valueType(feature.type);
+      ValueType elementType = null;
+      if (valueType == ValueType.ARRAY) {
+        if (feature.elementType == null) {
+          throw new TectonClientException(TectonErrorMessage.UNSUPPORTED_LIST_DATA_TYPE);
+        }
+        elementType = valueType(feature.elementType);
+      }
+      builder.addFeature(
+          feature.name,
+          valueType,
+          elementType,
+          feature.effectiveTime,
+          feature.description,
+          feature.tags);
+    }
+    return builder.build();
+  }
+
+  private static ValueType valueType(String type) {
+    return ValueType.fromString(type)
+        .orElseThrow(
+            () ->
+                new TectonClientException(
+                    String.format(TectonErrorMessage.UNKNOWN_DATA_TYPE, type)));
+  }
+
+  private static final class Metadata {
+    List<FeatureMetadata> features;
+    SloInformation batchSloInfo;
+  }
+
+  private static final class FeatureMetadata {
+    String name;
+    String type;
+    String elementType;
+    String effectiveTime;
+    String description;
+    Map<String, String> tags;
+    byte[] statuses;
+  }
+}
@@ -19,12 +19,11 @@ import java.util.List;
 public class GetFeatureServiceMetadataResponse extends AbstractTectonResponse {
 
   private FeatureServiceMetadata featureServiceMetadata;
-  private final JsonAdapter<GetFeatureServiceMetadataJson> jsonAdapter;
+  private static final JsonAdapter<GetFeatureServiceMetadataJson> jsonAdapter =
+      new Moshi.Builder().build().adapter(GetFeatureServiceMetadataJson.class);
 
   public GetFeatureServiceMetadataResponse(String response, Duration requestLatency) {
     super(requestLatency);
-    Moshi moshi = new Moshi.Builder().build();
-    jsonAdapter = moshi.adapter(GetFeatureServiceMetadataJson.class);
     buildResponseFromJson(response);
   }
 
@@ -0,0 +1,38 @@
+package ai.tecton.client.response;
+
+/**
+ * A listener that receives the rows of a {@link ai.tecton.client.request.GetFeaturesBatchRequest}
+ * incrementally, as each microbatch call completes, instead of waiting for the entire batch. Used
+ * with {@link
+ * ai.tecton.client.TectonClient#getFeaturesBatchAsync(ai.tecton.client.request.GetFeaturesBatchRequest,
+ * GetFeaturesBatchListener)}
+ *
+ * <p>Every row of the batch request is delivered exactly once, either to {@link #onResponse} or to
+ * {@link #onError}. Rows are identified by their index in the request data list of the batch
+ * request. Rows of different microbatches are delivered in completion order, and the methods may be
+ * invoked concurrently from different threads of the configured callback executor, so
+ * implementations must be thread-safe.
+ */
+public interface GetFeaturesBatchListener {
+
+  /**
+   * Invoked with the parsed response of a single row, as soon as the microbatch call containing the
+   * row has completed
+   *
+   * @param index the index of the row in the request data list of the batch request
+   * @param response the {@link GetFeaturesResponse} for the row
+   */
+  void onResponse(int index, GetFeaturesResponse response);
+
+  /**
+   * Invoked for a row whose microbatch call failed, returned an error response or did not complete
+   * within the timeout of the batch request
+   *
+   * @param index the index of the row in the request data list of the batch request
+   * @param throwable the cause of the failure, e.g. a {@link
+   *     ai.tecton.client.exceptions.TectonServiceException} for an error response. The rows of all
+   *     calls that did not complete within the timeout receive the same {@link
+   *     ai.tecton.client.exceptions.TectonClientException}
+   */
+  void onError(int index, Throwable throwable);
+}
@@ -2,15 +2,22 @@ package ai.tecton.client.response;
 
 import ai.tecton.client.exceptions.TectonClientException;
 import ai.tecton.client.exceptions.TectonErrorMessage;
+import ai.tecton.client.model.FeatureSchema;
 import ai.tecton.client.model.FeatureValue;
 import ai.tecton.client.model.SloInformation;
+import ai.tecton.client.request.FeatureProjection;
+import ai.tecton.client.request.GetFeaturesBatchRequest;
 import ai.tecton.client.response.GetFeaturesResponseUtils.FeatureMetadata;
 import ai.tecton.client.response.GetFeaturesResponseUtils.FeatureVectorJson;
 import ai.tecton.client.transport.HttpResponse;
+import ai.tecton.client.transport.HttpResponse.CallStatus;
 import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.JsonReader;
 import com.squareup.moshi.Moshi;
 import java.io.IOException;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -20,6 +27,7 @@ import java.util.OptionalDouble;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import okio.BufferedSource;
 
 /**
  * A class that represents the response from the HTTP API for when fetching batch features. The
@@ -28,40 +36,141 @@ import java.util.stream.IntStream;
  *
  * <p>The {@link List} of {@link GetFeaturesResponse} objects represents the list of response, each
  * of which encapsulates a feature vector and its metadata. Note: The list may contain nulls for any
- * request that was never completed, due to a timeout.
+ * request that was never completed, due to a timeout, a failure or an error response. The {@link
+ * ResponseStatus} of every row is available in the list returned by {@link
+ * #getResponseStatusList()}.
+ *
+ * <p>Rows that are repeated in a {@link GetFeaturesBatchRequest} are only sent once, and share the
+ * same {@link GetFeaturesResponse} in the list.
  *
  * <p>The batchSloInformation is only present for batch requests to the /get-features-batch endpoint
  * (i.e. microBatchSize&gt;1)
+ *
+ * <p>For a request with a {@link FeatureProjection}, the projection is resolved once against the
+ * metadata of each microbatch, and only the projected features of each row are decoded.
  */
 public class GetFeaturesBatchResponse {
 
   private final List<GetFeaturesResponse> batchResponseList;
+  private final List<ResponseStatus> responseStatusList;
 
   private SloInformation batchSloInfo;
   private Duration requestLatency;
-  private static JsonAdapter<GetFeaturesMicroBatchResponse.GetFeaturesBatchResponseJson>
-      jsonAdapter;
+  private static final JsonAdapter<GetFeaturesMicroBatchResponse.GetFeaturesBatchResponseJson>
+      jsonAdapter =
+          new Moshi.Builder()
+              .build()
+              .adapter(GetFeaturesMicroBatchResponse.GetFeaturesBatchResponseJson.class);
+  private static final JsonAdapter<
+          GetFeaturesMicroBatchResponse.GetFeaturesBatchResponseJson.ResponseMetadataJson>
+      metadataAdapter =
+          new Moshi.Builder()
+              .build()
+              .adapter(
+                  GetFeaturesMicroBatchResponse.GetFeaturesBatchResponseJson.ResponseMetadataJson
+                      .class);
+  private static final JsonReader.Options RESULT_FIELD = JsonReader.Options.of("result");
+  private static final JsonReader.Options METADATA_FIELD = JsonReader.Options.of("metadata");
 
   public GetFeaturesBatchResponse(
       List<HttpResponse> httpResponseList, Duration totalDuration, int microBatchSize) {
-    Moshi moshi = new Moshi.Builder().build();
-    jsonAdapter = moshi.adapter(GetFeaturesMicroBatchResponse.GetFeaturesBatchResponseJson.class);
+    this(httpResponseList, totalDuration, microBatchSize, null);
+  }
+
+  /**
+   * Constructs the response of a {@link GetFeaturesBatchRequest} from the responses of its calls.
+   * Duplicate rows of the request are only sent once, and the response of each unique row is
+   * returned at the position of every row it was deduplicated from
+   *
+   * @param httpResponseList the {@link HttpResponse} of each call, in request order
+   * @param totalDuration the total time of the batch request
+   * @param batchRequest the {@link GetFeaturesBatchRequest} the calls were made for
+   */
+  public GetFeaturesBatchResponse(
+      List<HttpResponse> httpResponseList,
+      Duration totalDuration,
+      GetFeaturesBatchRequest batchRequest) {
+    this(httpResponseList, totalDuration, batchRequest.getRowsPerCall(), batchRequest);
+  }
+
+  /**
+   * Constructs the response of a batch request whose rows were partly served from a {@link
+   * ai.tecton.client.FeatureVectorCache}, by filling the rows that were not cached with the rows of
+   * the response to the request for those rows, in order
+   *
+   * @param cachedResponseList the cached {@link GetFeaturesResponse} of each row, or null for rows
+   *     that were not cached
+   * @param missResponse the response to the request for the rows that were not cached, or null if
+   *     every row was cached
+   */
+  public GetFeaturesBatchResponse(
+      List<GetFeaturesResponse> cachedResponseList, GetFeaturesBatchResponse missResponse) {
+    this.batchResponseList = new ArrayList<>(cachedResponseList.size());
+    this.responseStatusList = new ArrayList<>(cachedResponseList.size());
+    int missIndex = 0;
+    for (GetFeaturesResponse cachedResponse : cachedResponseList) {
+      if (cachedResponse != null) {
+        this.batchResponseList.add(cachedResponse);
+        this.responseStatusList.add(ResponseStatus.ok());
+      } else {
+        this.batchResponseList.add(missResponse.batchResponseList.get(missIndex));
+        this.responseStatusList.add(missResponse.responseStatusList.get(missIndex));
+        missIndex++;
+      }
+    }
+    if (missResponse != null) {
+      this.batchSloInfo = missResponse.batchSloInfo;
+      this.requestLatency = missResponse.requestLatency;
+    } else {
+      this.requestLatency = Duration.ZERO;
+    }
+  }
 
+  private GetFeaturesBatchResponse(
+      List<HttpResponse> httpResponseList,
+      Duration totalDuration,
+      int microBatchSize,
+      GetFeaturesBatchRequest batchRequest) {
+    FeatureProjection projection =
+        batchRequest != null ? batchRequest.getProjection().orElse(null) : null;
     // Serialize list of HttpResponse into list of GetFeaturesMicroBatchResponse
     List<GetFeaturesMicroBatchResponse> microBatchResponses =
         httpResponseList
             .parallelStream()
-            .map(httpResponse -> parseSingleHttpResponse(httpResponse, microBatchSize))
+            .map(httpResponse -> parseSingleHttpResponse(httpResponse, microBatchSize, projection))
             .collect(Collectors.toList());
 
     // Concatenate list of GetFeaturesResponse objects from each microbatch into a single list
     // Maintain ordering
-    this.batchResponseList =
+    List<GetFeaturesResponse> responseList =
         microBatchResponses
             .parallelStream()
             .map(microBatch -> microBatch.microBatchResponseList)
             .flatMap(List::stream)
             .collect(Collectors.toList());
+    List<ResponseStatus> statusList =
+        microBatchResponses.stream()
+            .map(
+                microBatch ->
+                    Collections.nCopies(
+                        microBatch.microBatchResponseList.size(), microBatch.responseStatus))
+            .flatMap(List::stream)
+            .collect(Collectors.toList());
+
+    if (batchRequest != null) {
+      // Map the response of each unique row back to the position of every row in the request
+      int rowCount = batchRequest.getRequestDataList().size();
+      this.batchResponseList = new ArrayList<>(rowCount);
+      this.responseStatusList = new ArrayList<>(rowCount);
+      for (int i = 0; i < rowCount; i++) {
+        int uniqueIndex = batchRequest.getUniqueIndex(i);
+        this.batchResponseList.add(responseList.get(uniqueIndex));
+        this.responseStatusList.add(statusList.get(uniqueIndex));
+      }
+    } else {
+      this.batchResponseList = responseList;
+      this.responseStatusList = statusList;
+    }
 
     // Compute Batch SLO Information, if present
     List<SloInformation> microBatchSloInfoList =
@@ -86,6 +195,17 @@ public class GetFeaturesBatchResponse {
     return batchResponseList;
   }
 
+  /**
+   * Returns the list of {@link ResponseStatus} objects, one per row and in the same order as the
+   * list returned by {@link #getBatchResponseList()}. The response of a row is null unless its
+   * status is {@link ResponseStatus.Code#OK}
+   *
+   * @return {@link List} of {@link ResponseStatus}
+   */
+  public List<ResponseStatus> getResponseStatusList() {
+    return responseStatusList;
+  }
+
   /**
    * Returns the response time (network latency + online store latency) as provided by the
    * underlying Http Client
@@ -122,41 +242,111 @@ public class GetFeaturesBatchResponse {
     return Objects.hash(batchResponseList, batchSloInfo);
   }
 
+  /**
+   * Parses the response of a single call made for a {@link
+   * ai.tecton.client.request.GetFeaturesBatchRequest} into the list of {@link GetFeaturesResponse}
+   * objects for the rows sent in that call, in request order. This allows the rows of each
+   * microbatch to be consumed as soon as its call completes, without waiting for the whole batch
+   *
+   * @param httpResponse the {@link HttpResponse} of the call, or null if the call never completed
+   * @param microBatchSize the microBatchSize of the call, 1 for calls to the /get-features endpoint
+   * @return {@link List} of {@link GetFeaturesResponse}, with nulls if the call timed out or failed
+   * @throws TectonClientException when the response is an error response or cannot be parsed
+   */
+  public static List<GetFeaturesResponse> parseMicroBatchResponse(
+      HttpResponse httpResponse, int microBatchSize) {
+    return parseMicroBatchResponse(httpResponse, microBatchSize, null);
+  }
+
+  /**
+   * Parses the response of a single call made for a {@link
+   * ai.tecton.client.request.GetFeaturesBatchRequest} into the list of {@link GetFeaturesResponse}
+   * objects for the rows sent in that call, decoding only the features of a {@link
+   * FeatureProjection}
+   *
+   * @param httpResponse the {@link HttpResponse} of the call, or null if the call never completed
+   * @param microBatchSize the microBatchSize of the call, 1 for calls to the /get-features endpoint
+   * @param projection the {@link FeatureProjection} of the features to decode, or null to decode
+   *     all features
+   * @return {@link List} of {@link GetFeaturesResponse}, with nulls if the call timed out or failed
+   * @throws TectonClientException when the response is an error response or cannot be parsed
+   */
+  public static List<GetFeaturesResponse> parseMicroBatchResponse(
+      HttpResponse httpResponse, int microBatchSize, FeatureProjection projection) {
+    // The rows of the microbatch are delivered on their own, so an error response fails the call
+    if (httpResponse != null && httpResponse.getCallStatus() == CallStatus.COMPLETED) {
+      httpResponse.validateResponse();
+    }
+    return parseSingleHttpResponse(httpResponse, microBatchSize, projection).microBatchResponseList;
+  }
+
   // Parse a single HttpResponse and extract GetFeaturesResponse, SloInformation
   // This method is called parallely for all responses in the list
-  private GetFeaturesMicroBatchResponse parseSingleHttpResponse(
-      HttpResponse httpResponse, int microBatchSize) {
+  private static GetFeaturesMicroBatchResponse parseSingleHttpResponse(
+      HttpResponse httpResponse, int microBatchSize, FeatureProjection projection) {
     // Null HttpResponse represents a timeout and so all the individual responses in the microbatch
     // will be null
-    if (httpResponse == null)
-      return new GetFeaturesMicroBatchResponse(Collections.nCopies(microBatchSize, null), null);
-    // For an error response, throw TectonServiceException
-    httpResponse.validateResponse();
+    if (httpResponse == null) {
+      return new GetFeaturesMicroBatchResponse(
+          Collections.nCopies(microBatchSize, null), ResponseStatus.timedOut(null));
+    }
+    if (httpResponse.getCallStatus() == CallStatus.TIMED_OUT) {
+      return new GetFeaturesMicroBatchResponse(
+          Collections.nCopies(microBatchSize, null),
+          ResponseStatus.timedOut(httpResponse.getCause().orElse(null)));
+    }
+    if (httpResponse.getCallStatus() == CallStatus.FAILED) {
+      return new GetFeaturesMicroBatchResponse(
+          Collections.nCopies(microBatchSize, null),
+          ResponseStatus.failed(httpResponse.getCause().orElse(null)));
+    }
+    // An error response fails the rows of this microbatch, the other microbatches are unaffected
+    if (!httpResponse.isSuccessful()) {
+      return new GetFeaturesMicroBatchResponse(
+          Collections.nCopies(microBatchSize, null),
+          ResponseStatus.failed(httpResponse.errorResponseException()));
+    }
 
-    String responseJson = httpResponse.getResponseBody().get();
+    BufferedSource responseSource =
+        httpResponse
+            .getResponseSource()
+            .orElseThrow(() -> new TectonClientException(TectonErrorMessage.EMPTY_RESPONSE));
     if (microBatchSize == 1) {
+      GetFeaturesResponse response =
+          GetFeaturesResponse.decode(
+              responseSource,
+              httpResponse.getRequestDuration(),
+              new GetFeaturesResponse.DecodeOptions.Builder().projection(projection).build());
       return new GetFeaturesMicroBatchResponse(
-          Collections.singletonList(
-              new GetFeaturesResponse(responseJson, httpResponse.getRequestDuration())),
-          null);
+          Collections.singletonList(response), ResponseStatus.ok());
     } else {
-      return new GetFeaturesMicroBatchResponse(responseJson, httpResponse.getRequestDuration());
+      return new GetFeaturesMicroBatchResponse(
+          responseSource, httpResponse.getRequestDuration(), projection);
     }
   }
 
-  private static class GetFeaturesMicroBatchResponse extends AbstractTectonResponse {
+  private static class GetFeaturesMicroBatchResponse {
     private List<GetFeaturesResponse> microBatchResponseList;
     private SloInformation microBatchSloInfo;
+    private final ResponseStatus responseStatus;
+    private final Duration requestLatency;
 
-    GetFeaturesMicroBatchResponse(String response, Duration requestLatency) {
-      super(requestLatency);
-      buildResponseFromJson(response);
+    GetFeaturesMicroBatchResponse(
+        BufferedSource response, Duration requestLatency, FeatureProjection projection) {
+      this.responseStatus = ResponseStatus.ok();
+      this.requestLatency = requestLatency;
+      if (projection != null) {
+        buildProjectedResponse(response, projection);
+      } else {
+        buildResponse(response);
+      }
     }
 
     GetFeaturesMicroBatchResponse(
-        List<GetFeaturesResponse> microBatchResponseList, Duration requestDuration) {
-      super(requestDuration);
+        List<GetFeaturesResponse> microBatchResponseList, ResponseStatus responseStatus) {
       this.microBatchResponseList = microBatchResponseList;
+      this.responseStatus = responseStatus;
+      this.requestLatency = null;
     }
 
     Optional<SloInformation> getMicroBatchSloInformation() {
@@ -175,53 +365,115 @@ public class GetFeaturesBatchResponse {
       }
     }
 
-    @Override
-    void buildResponseFromJson(String response) {
-      if (response != null) {
-        GetFeaturesBatchResponseJson responseJson;
-        try {
-          responseJson = jsonAdapter.fromJson(response);
-        } catch (IOException e) {
+    private void buildResponse(BufferedSource response) {
+      GetFeaturesBatchResponseJson responseJson;
+      try {
+        responseJson = jsonAdapter.fromJson(response);
+      } catch (IOException | JsonDataException e) {
+        throw new TectonClientException(TectonErrorMessage.INVALID_RESPONSE_FORMAT);
+      }
+      if (responseJson == null || responseJson.result == null || responseJson.metadata == null) {
+        throw new TectonClientException(TectonErrorMessage.INVALID_RESPONSE_FORMAT);
+      }
+
+      List<FeatureVectorJson> featureVectorJson = responseJson.result;
+      List<FeatureMetadata> featureMetadata = responseJson.metadata.features;
+      List<SloInformation> sloInformationList = responseJson.metadata.sloInfo;
+      // The schema is parsed once and shared by the feature values of every row
+      FeatureSchema featureSchema = GetFeaturesResponseUtils.buildFeatureSchema(featureMetadata);
+
+      // Parallel Stream to map each feature vector and sloInfo (if present) in the response to a
+      // corresponding
+      // GetFeaturesResponse object and collect to a List
+      // Preserves ordering
+      this.microBatchResponseList =
+          IntStream.range(0, responseJson.result.size())
+              .parallel()
+              .mapToObj(
+                  i ->
+                      generateGetFeaturesResponse(
+                          featureVectorJson.get(i).features,
+                          featureSchema,
+                          featureMetadata,
+                          null,
+                          sloInformationList,
+                          this.requestLatency,
+                          i))
+              .collect(Collectors.toList());
+
+      this.microBatchSloInfo = responseJson.metadata.batchSloInfo;
+    }
+
+    // Decode the rows of the response with a reader, skipping the values of the features outside
+    // the projection. The metadata, which follows the result, is read first from a peek of the
+    // response, so that the projection is resolved once for the schema shared by every row
+    private void buildProjectedResponse(BufferedSource source, FeatureProjection projection) {
+      GetFeaturesBatchResponseJson.ResponseMetadataJson metadata = null;
+      List<List<Object>> featureVectors = new ArrayList<>();
+      FeatureSchema featureSchema;
+      int[] positions;
+      try {
+        try (JsonReader reader = JsonReader.of(source.peek())) {
+          if (GetFeaturesResponseUtils.selectField(reader, METADATA_FIELD)) {
+            metadata = metadataAdapter.fromJson(reader);
+          }
+        }
+        if (metadata == null || metadata.features == null) {
           throw new TectonClientException(TectonErrorMessage.INVALID_RESPONSE_FORMAT);
         }
-
-        List<FeatureVectorJson> featureVectorJson = responseJson.result;
-        List<FeatureMetadata> featureMetadata = responseJson.metadata.features;
-        List<SloInformation> sloInformationList = responseJson.metadata.sloInfo;
-
-        // Parallel Stream to map each feature vector and sloInfo (if present) in the response to a
-        // corresponding
-        // GetFeaturesResponse object and collect to a List
-        // Preserves ordering
-        this.microBatchResponseList =
-            IntStream.range(0, responseJson.result.size())
-                .parallel()
-                .mapToObj(
-                    i ->
-                        generateGetFeaturesResponse(
-                            featureVectorJson,
-                            featureMetadata,
-                            sloInformationList,
-                            this.getRequestLatency(),
-                            i))
-                .collect(Collectors.toList());
-
-        this.microBatchSloInfo = responseJson.metadata.batchSloInfo;
+        featureSchema = GetFeaturesResponseUtils.buildFeatureSchema(metadata.features);
+        positions = projection.resolve(featureSchema);
+        try (JsonReader reader = JsonReader.of(source)) {
+          if (GetFeaturesResponseUtils.selectField(reader, RESULT_FIELD)) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+              List<Object> features =
+                  GetFeaturesResponse.readFeatureVector(reader, featureSchema, positions);
+              if (features == null) {
+                throw new TectonClientException(TectonErrorMessage.INVALID_RESPONSE_FORMAT);
+              }
+              featureVectors.add(features);
+            }
+            reader.endArray();
+          }
+        }
+      } catch (IOException | JsonDataException e) {
+        throw new TectonClientException(TectonErrorMessage.INVALID_RESPONSE_FORMAT);
       }
+
+      List<FeatureMetadata> featureMetadata = metadata.features;
+      List<SloInformation> sloInformationList = metadata.sloInfo;
+      this.microBatchResponseList =
+          IntStream.range(0, featureVectors.size())
+              .parallel()
+              .mapToObj(
+                  i ->
+                      generateGetFeaturesResponse(
+                          featureVectors.get(i),
+                          featureSchema,
+                          featureMetadata,
+                          positions,
+                          sloInformationList,
+                          this.requestLatency,
+                          i))
+              .collect(Collectors.toList());
+      this.microBatchSloInfo = metadata.batchSloInfo;
     }
   }
 
   // Generate a single GetFeaturesResponse
   private static GetFeaturesResponse generateGetFeaturesResponse(
-      List<FeatureVectorJson> featureVectorJson,
+      List<Object> features,
+      FeatureSchema featureSchema,
       List<FeatureMetadata> featureMetadata,
+      int[] positions,
       List<SloInformation> sloInformationList,
       Duration requestLatency,
       int index) {
 
     List<FeatureValue> featureValues =
         GetFeaturesResponseUtils.constructFeatureVector(
-            featureVectorJson.get(index).features, featureMetadata, index);
+            features, featureSchema, featureMetadata, positions, index);
     GetFeaturesResponse getFeaturesResponse =
         new GetFeaturesResponse(featureValues, requestLatency);
     if (sloInformationList != null) {
@@ -231,7 +483,7 @@ public class GetFeaturesBatchResponse {
   }
 
   // Compute Batch SLO Information
-  SloInformation computeBatchSloInfo(List<SloInformation> batchSloInformation) {
+  static SloInformation computeBatchSloInfo(List<SloInformation> batchSloInformation) {
     batchSloInformation.removeAll(Collections.singleton(null));
 
     boolean isSloEligibleBatch =
@@ -272,7 +524,7 @@ public class GetFeaturesBatchResponse {
         .build();
   }
 
-  private Double getMaxValueFromOptionalList(List<Optional<Double>> values) {
+  private static Double getMaxValueFromOptionalList(List<Optional<Double>> values) {
     OptionalDouble doubleVal =
         values.stream().filter(Optional::isPresent).mapToDouble(Optional::get).max();
     return doubleVal.isPresent() ? doubleVal.getAsDouble() : null;
@@ -1,55 +1,117 @@
 package ai.tecton.client.response;
 
+import ai.tecton.client.exceptions.FeatureSchemaMismatchException;
 import ai.tecton.client.exceptions.TectonClientException;
 import ai.tecton.client.exceptions.TectonErrorMessage;
+import ai.tecton.client.model.FeatureSchema;
 import ai.tecton.client.model.FeatureStatus;
 import ai.tecton.client.model.FeatureValue;
 import ai.tecton.client.model.SloInformation;
+import ai.tecton.client.model.ValueType;
+import ai.tecton.client.request.FeatureProjection;
 import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.JsonReader;
 import com.squareup.moshi.Moshi;
 import java.io.IOException;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import okio.Buffer;
+import okio.BufferedSource;
 import org.apache.commons.lang3.StringUtils;
 
 /**
  * A class that represents the response from the HTTP API for a call to the <i>/get-features</i>
  * endpoint. The class provides methods to access the feature vector returned, along with its
  * metadata, if present.
+ *
+ * <p>The response is decoded in a single pass with a {@link JsonReader}, which can read directly
+ * from the {@link BufferedSource} of the HTTP response without first copying it into a String.
+ *
+ * <p>With lazy decoding, the raw JSON of the feature vector is kept and each {@link FeatureValue}
+ * is only decoded, once, when it is first accessed, e.g. with {@link #getFeatureValue(String)}.
+ * This saves decoding the values of a wide feature vector that are never read. Errors in the value
+ * of a feature are then reported when it is accessed, instead of when the response is constructed.
+ *
+ * <p>With a {@link FeatureProjection}, only the features in the projection are decoded, and the
+ * values of all other features are skipped in the token stream. The projection is resolved once
+ * against the features of the response, which requires reading the metadata ahead of the result
+ * when the response is not decoded against a {@link FeatureSchema}.
  */
 public class GetFeaturesResponse extends AbstractTectonResponse {
 
-  private final List<FeatureValue> featureValues;
+  private List<FeatureValue> featureValues;
+  private FeatureSchema featureSchema;
+  // The positions in the feature vector of the projected feature values, null if not projected
+  private int[] projectedPositions;
   private SloInformation sloInformation;
 
-  private final JsonAdapter<GetFeaturesResponseJson> jsonAdapter;
   private static final String NAME = "Name";
   private static final String DATA_TYPE = "Data Type";
 
+  private static final Moshi moshi = new Moshi.Builder().build();
+  private static final JsonAdapter<GetFeaturesResponseJson.FeatureMetadata> featureMetadataAdapter =
+      moshi.adapter(GetFeaturesResponseJson.FeatureMetadata.class);
+  static final JsonAdapter<SloInformation> sloInformationAdapter =
+      moshi.adapter(SloInformation.class);
+  private static final JsonReader.Options RESPONSE_FIELDS =
+      JsonReader.Options.of("result", "metadata");
+  private static final JsonReader.Options FEATURES_FIELD = JsonReader.Options.of("features");
+  private static final JsonReader.Options METADATA_FIELD = JsonReader.Options.of("metadata");
+  private static final JsonReader.Options METADATA_FIELDS =
+      JsonReader.Options.of("features", "sloInfo");
+
   public GetFeaturesResponse(String response, Duration requestLatency)
       throws TectonClientException {
     super(requestLatency);
-    Moshi moshi = new Moshi.Builder().build();
-    jsonAdapter = moshi.adapter(GetFeaturesResponseJson.class);
     this.featureValues = new ArrayList<>();
     buildResponseFromJson(response);
   }
 
+  // Decodes the response from the source, see decode()
+  private GetFeaturesResponse(
+      BufferedSource responseSource, Duration requestLatency, DecodeOptions decodeOptions)
+      throws TectonClientException {
+    super(requestLatency);
+    FeatureSchema featureSchema = decodeOptions.featureSchema;
+    this.featureValues =
+        featureSchema != null ? new ArrayList<>(featureSchema.size()) : new ArrayList<>();
+    buildResponseFromSource(
+        responseSource, featureSchema, decodeOptions.projection, decodeOptions.lazyDecoding);
+  }
+
+  /**
+   * Decodes a response directly from the {@link BufferedSource} of the HTTP response body, without
+   * first copying it into a String
+   *
+   * @param responseSource the JSON response body
+   * @param requestLatency the response time of the call
+   * @param decodeOptions the {@link DecodeOptions} of how to decode the response
+   * @return {@link GetFeaturesResponse}
+   * @throws TectonClientException when the response cannot be parsed, or does not match the {@link
+   *     FeatureSchema} of the decodeOptions
+   */
+  public static GetFeaturesResponse decode(
+      BufferedSource responseSource, Duration requestLatency, DecodeOptions decodeOptions)
+      throws TectonClientException {
+    return new GetFeaturesResponse(responseSource, requestLatency, decodeOptions);
+  }
+
   // Package-Private constructor
   GetFeaturesResponse(List<FeatureValue> featureValues, Duration requestLatency) {
     super(requestLatency);
     this.featureValues = featureValues;
-    Moshi moshi = new Moshi.Builder().build();
-    jsonAdapter = moshi.adapter(GetFeaturesResponseJson.class);
   }
 
   /**
-   * Returns the feature vector as a List of {@link FeatureValue} objects
+   * Returns the feature vector as a List of {@link FeatureValue} objects. For a response decoded
+   * with a {@link FeatureProjection}, only the values of the projected features are returned
    *
    * @return List of {@link FeatureValue}
    */
@@ -57,6 +119,33 @@ public class GetFeaturesResponse extends AbstractTectonResponse {
     return featureValues;
   }
 
+  /**
+   * Returns the value of a feature. With lazy decoding, only this feature value is decoded
+   *
+   * @param name the name of the feature (featureNamespace.featureName)
+   * @return the {@link FeatureValue} wrapped in {@link java.util.Optional} if the feature vector
+   *     has the feature, Optional.empty() otherwise
+   */
+  public Optional<FeatureValue> getFeatureValue(String name) {
+    if (featureSchema != null) {
+      int index = featureSchema.indexOf(name);
+      if (projectedPositions != null && index >= 0) {
+        index = Arrays.binarySearch(projectedPositions, index);
+      }
+      return index >= 0 && index < featureValues.size()
+          ? Optional.of(featureValues.get(index))
+          : Optional.empty();
+    }
+    for (FeatureValue featureValue : featureValues) {
+      if (name.equals(
+          StringUtils.join(
+              featureValue.getFeatureNamespace(), ".", featureValue.getFeatureName()))) {
+        return Optional.of(featureValue);
+      }
+    }
+    return Optional.empty();
+  }
+
   /** Returns the feature vector as a Map, with the feature name as the key */
   public Map<String, FeatureValue> getFeatureValuesAsMap() {
     Map<String, FeatureValue> featureMap = new HashMap<>();
@@ -77,6 +166,82 @@ public class GetFeaturesResponse extends AbstractTectonResponse {
     return Optional.ofNullable(sloInformation);
   }
 
+  /**
+   * Options of how a {@link GetFeaturesResponse} is decoded by {@link #decode(BufferedSource,
+   * Duration, DecodeOptions)}. By default, every feature value is decoded right away against the
+   * metadata in the response
+   */
+  public static final class DecodeOptions {
+
+    /** The default options, which decode every feature value against the response metadata */
+    public static final DecodeOptions DEFAULT = new Builder().build();
+
+    private final FeatureSchema featureSchema;
+    private final FeatureProjection projection;
+    private final boolean lazyDecoding;
+
+    private DecodeOptions(Builder builder) {
+      this.featureSchema = builder.featureSchema;
+      this.projection = builder.projection;
+      this.lazyDecoding = builder.lazyDecoding;
+    }
+
+    /** A Builder class for creating {@link DecodeOptions} */
+    public static final class Builder {
+      private FeatureSchema featureSchema;
+      private FeatureProjection projection;
+      private boolean lazyDecoding;
+
+      /**
+       * Decodes a lean response, which only contains the feature vector, by position against a
+       * {@link FeatureSchema}, e.g. {@link
+       * ai.tecton.client.model.FeatureServiceMetadata#getFeatureSchema()}. The schema is shared by
+       * the feature values of every response decoded against it
+       *
+       * @param featureSchema the {@link FeatureSchema} of the feature vector, or null to decode
+       *     against the metadata in the response
+       * @return this Builder
+       */
+      public Builder featureSchema(FeatureSchema featureSchema) {
+        this.featureSchema = featureSchema;
+        return this;
+      }
+
+      /**
+       * Decodes only the features of a {@link FeatureProjection}
+       *
+       * @param projection the {@link FeatureProjection} of the features to decode, or null to
+       *     decode all features
+       * @return this Builder
+       */
+      public Builder projection(FeatureProjection projection) {
+        this.projection = projection;
+        return this;
+      }
+
+      /**
+       * Defers decoding each {@link FeatureValue} until it is first accessed
+       *
+       * @param lazyDecoding whether to decode each feature value when it is first accessed
+       * @return this Builder
+       */
+      public Builder lazyDecoding(boolean lazyDecoding) {
+        this.lazyDecoding = lazyDecoding;
+        return this;
+      }
+
+      /**
+       * Returns the {@link DecodeOptions} built from the options set on this Builder
+       *
+       * @return {@link DecodeOptions}
+       */
+      public DecodeOptions build() {
+        return new DecodeOptions(this);
+      }
+    }
+  }
+
+  // The structure of the JSON response, which buildResponseFromSource reads field by field
   static class GetFeaturesResponseJson {
     Result result;
     ResponseMetadata metadata;
@@ -102,34 +267,315 @@ public class GetFeaturesResponse extends AbstractTectonResponse {
 
   @Override
   void buildResponseFromJson(String response) {
-    GetFeaturesResponseJson responseJson;
+    buildResponseFromSource(new Buffer().writeUtf8(response), null, null, false);
+  }
+
+  // Decode the response in a single pass. The feature vector is decoded against the featureSchema
+  // if present, or against the metadata in the response otherwise. With lazyDecoding, only the
+  // span of each feature value is found, and the value is decoded when it is accessed. With a
+  // projection, the metadata is first read ahead from a peek of the source, so that the projection
+  // is resolved before the feature vector is read
+  private void buildResponseFromSource(
+      BufferedSource source,
+      FeatureSchema featureSchema,
+      FeatureProjection projection,
+      boolean lazyDecoding) {
+    List<Object> featureVector = null;
+    LazyFeatureValues lazyFeatureValues = null;
+    // The metadata of the features is only read if the response is not decoded by position
+    List<GetFeaturesResponseJson.FeatureMetadata> featureMetadata =
+        featureSchema == null ? new ArrayList<>() : null;
+    boolean metadataRead = false;
+    int[] positions = null;
     try {
-      responseJson = jsonAdapter.fromJson(response);
-    } catch (IOException e) {
+      if (projection != null) {
+        if (featureSchema == null) {
+          metadataRead = peekMetadata(source, featureMetadata);
+          validateMetadata(featureMetadata);
+          featureSchema = buildFeatureSchema(featureMetadata);
+        }
+        positions = projection.resolve(featureSchema);
+      }
+      try (JsonReader reader = JsonReader.of(source)) {
+        reader.beginObject();
+        while (reader.hasNext()) {
+          switch (reader.selectName(RESPONSE_FIELDS)) {
+            case 0:
+              if (lazyDecoding) {
+                lazyFeatureValues = readRawFeatureVector(reader);
+              } else {
+                featureVector = readFeatureVector(reader, featureSchema, positions);
+              }
+              break;
+            case 1:
+              if (metadataRead) {
+                reader.skipValue();
+              } else {
+                readMetadata(reader, featureMetadata);
+              }
+              break;
+            default:
+              reader.skipName();
+              reader.skipValue();
+          }
+        }
+        reader.endObject();
+      }
+    } catch (IOException | JsonDataException e) {
+      throw new TectonClientException(TectonErrorMessage.INVALID_RESPONSE_FORMAT);
+    }
+    if (lazyDecoding) {
+      if (lazyFeatureValues == null) {
+        throw new TectonClientException(TectonErrorMessage.INVALID_RESPONSE_FORMAT);
+      }
+      bindLazyFeatureValues(lazyFeatureValues, featureSchema, featureMetadata, positions);
+      return;
+    }
+    if (featureVector == null) {
+      throw new TectonClientException(TectonErrorMessage.INVALID_RESPONSE_FORMAT);
+    }
+
+    if (featureMetadata == null) {
+      buildFeatureValues(featureVector, featureSchema, positions);
+    } else {
+      buildFeatureValuesFromMetadata(featureVector, featureMetadata, featureSchema, positions);
+    }
+  }
+
+  // Reads the metadata, which follows the result, from a peek of the source that leaves it
+  // unconsumed. Returns whether the response has metadata
+  private boolean peekMetadata(
+      BufferedSource source, List<GetFeaturesResponseJson.FeatureMetadata> featureMetadata)
+      throws IOException {
+    try (JsonReader reader = JsonReader.of(source.peek())) {
+      if (GetFeaturesResponseUtils.selectField(reader, METADATA_FIELD)) {
+        readMetadata(reader, featureMetadata);
+        return true;
+      }
+      return false;
+    }
+  }
+
+  // Reads an object with the features of a feature vector as a list of JSON values. Float32 and
+  // Float64 arrays are decoded into primitive arrays when the featureSchema is known. Otherwise
+  // arrays are kept as raw JSON, since their types are only known once the metadata after the
+  // result has been read. With projected positions, the values at all other positions are skipped
+  // without being decoded, and are null in the list
+  static List<Object> readFeatureVector(
+      JsonReader reader, FeatureSchema featureSchema, int[] positions) throws IOException {
+    List<Object> featureVector = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      if (reader.selectName(FEATURES_FIELD) == 0) {
+        featureVector = new ArrayList<>();
+        int next = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+          int index = featureVector.size();
+          if (positions != null) {
+            if (next < positions.length && positions[next] == index) {
+              featureVector.add(readFeature(reader, featureSchema.getListElementType(index)));
+              next++;
+            } else {
+              reader.skipValue();
+              featureVector.add(null);
+            }
+          } else if (featureSchema != null && index < featureSchema.size()) {
+            featureVector.add(readFeature(reader, featureSchema.getListElementType(index)));
+          } else if (featureSchema == null && reader.peek() == JsonReader.Token.BEGIN_ARRAY) {
+            Buffer rawArray = new Buffer();
+            try (BufferedSource arraySource = reader.nextSource()) {
+              arraySource.readAll(rawArray);
+            }
+            featureVector.add(rawArray);
+          } else {
+            featureVector.add(reader.readJsonValue());
+          }
+        }
+        reader.endArray();
+      } else {
+        reader.skipName();
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return featureVector;
+  }
+
+  // Reads result.features as the raw JSON of each feature value
+  private static LazyFeatureValues readRawFeatureVector(JsonReader reader) throws IOException {
+    LazyFeatureValues lazyFeatureValues = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      if (reader.selectName(FEATURES_FIELD) == 0) {
+        lazyFeatureValues = LazyFeatureValues.read(reader);
+      } else {
+        reader.skipName();
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return lazyFeatureValues;
+  }
+
+  static Object readFeature(JsonReader reader, ValueType listElementType) throws IOException {
+    if (listElementType == ValueType.FLOAT32) {
+      return NumericArrayDecoder.readFloatArray(reader);
+    } else if (listElementType == ValueType.FLOAT64) {
+      return NumericArrayDecoder.readDoubleArray(reader);
+    }
+    return reader.readJsonValue();
+  }
+
+  // Decodes an array kept as raw JSON by readFeatureVector, now that its type is known
+  private static Object decodeRawArray(Object feature, ValueType listElementType) {
+    if (!(feature instanceof Buffer)) {
+      return feature;
+    }
+    try (JsonReader reader = JsonReader.of((Buffer) feature)) {
+      return readFeature(reader, listElementType);
+    } catch (IOException | JsonDataException e) {
       throw new TectonClientException(TectonErrorMessage.INVALID_RESPONSE_FORMAT);
     }
-    List<Object> featureVector = responseJson.result.features;
-    List<GetFeaturesResponseJson.FeatureMetadata> featureMetadata = responseJson.metadata.features;
+  }
+
+  // Reads the metadata of the features into featureMetadata, or skips it if featureMetadata is
+  // null, and the SLO information
+  private void readMetadata(
+      JsonReader reader, List<GetFeaturesResponseJson.FeatureMetadata> featureMetadata)
+      throws IOException {
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.selectName(METADATA_FIELDS)) {
+        case 0:
+          if (featureMetadata == null) {
+            reader.skipValue();
+            break;
+          }
+          reader.beginArray();
+          while (reader.hasNext()) {
+            featureMetadata.add(featureMetadataAdapter.fromJson(reader));
+          }
+          reader.endArray();
+          break;
+        case 1:
+          this.sloInformation = sloInformationAdapter.fromJson(reader);
+          break;
+        default:
+          reader.skipName();
+          reader.skipValue();
+      }
+    }
+    reader.endObject();
+  }
 
-    validateResponse(featureVector, featureMetadata);
+  // Builds the feature values against the metadata of the response. The featureSchema is only
+  // present if it was already built from the metadata to resolve a projection
+  private void buildFeatureValuesFromMetadata(
+      List<Object> featureVector,
+      List<GetFeaturesResponseJson.FeatureMetadata> featureMetadata,
+      FeatureSchema featureSchema,
+      int[] positions) {
+    validateResponse(featureVector.size(), featureMetadata);
+    if (featureSchema == null) {
+      featureSchema = buildFeatureSchema(featureMetadata);
+    }
+    this.featureSchema = featureSchema;
+    this.projectedPositions = positions;
 
     // Construct Feature Value object from response
-    for (int i = 0; i < responseJson.result.features.size(); i++) {
+    int size = projectedSize(positions, featureVector.size());
+    for (int i = 0; i < size; i++) {
+      int position = positions != null ? positions[i] : i;
       FeatureValue value =
           new FeatureValue(
-              featureVector.get(i),
-              featureMetadata.get(i).name,
-              featureMetadata.get(i).dataType.getDataType(),
-              featureMetadata.get(i).dataType.getListElementType(),
-              featureMetadata.get(i).effectiveTime,
-              FeatureStatus.fromString(featureMetadata.get(i).status),
-              featureMetadata.get(i).description,
-              featureMetadata.get(i).tags);
+              decodeRawArray(
+                  featureVector.get(position), featureSchema.getListElementType(position)),
+              featureSchema,
+              position,
+              FeatureStatus.fromString(featureMetadata.get(position).status));
       this.featureValues.add(value);
     }
-    // Construct Slo Info if present
-    if (responseJson.metadata.sloInfo != null) {
-      this.sloInformation = responseJson.metadata.sloInfo;
+  }
+
+  private void bindLazyFeatureValues(
+      LazyFeatureValues lazyFeatureValues,
+      FeatureSchema featureSchema,
+      List<GetFeaturesResponseJson.FeatureMetadata> featureMetadata,
+      int[] positions) {
+    String[] statuses = null;
+    int featureCount = lazyFeatureValues.getFeatureCount();
+    if (featureMetadata == null) {
+      validateFeatureVectorSize(featureCount, featureSchema);
+    } else {
+      validateResponse(featureCount, featureMetadata);
+      if (featureSchema == null) {
+        featureSchema = buildFeatureSchema(featureMetadata);
+      }
+      statuses = new String[featureCount];
+      for (int i = 0; i < statuses.length; i++) {
+        statuses[i] = featureMetadata.get(i).status;
+      }
+    }
+    lazyFeatureValues.bind(featureSchema, statuses, positions);
+    this.featureSchema = featureSchema;
+    this.projectedPositions = positions;
+    this.featureValues = lazyFeatureValues;
+  }
+
+  // Returns the number of projected positions within a feature vector of the given size, or the
+  // size if the feature vector is not projected
+  static int projectedSize(int[] positions, int size) {
+    if (positions == null) {
+      return size;
+    }
+    int projectedSize = 0;
+    while (projectedSize < positions.length && positions[projectedSize] < size) {
+      projectedSize++;
+    }
+    return projectedSize;
+  }
+
+  private static FeatureSchema buildFeatureSchema(
+      List<GetFeaturesResponseJson.FeatureMetadata> featureMetadata) {
+    FeatureSchema.Builder schemaBuilder = new FeatureSchema.Builder();
+    for (GetFeaturesResponseJson.FeatureMetadata metadata : featureMetadata) {
+      schemaBuilder.addFeature(
+          metadata.name,
+          metadata.dataType.getDataType(),
+          metadata.dataType.getListElementType().orElse(null),
+          metadata.effectiveTime,
+          metadata.description,
+          metadata.tags);
+    }
+    return schemaBuilder.build();
+  }
+
+  private void buildFeatureValues(
+      List<Object> featureVector, FeatureSchema featureSchema, int[] positions) {
+    validateFeatureVectorSize(featureVector.size(), featureSchema);
+    this.featureSchema = featureSchema;
+    this.projectedPositions = positions;
+
+    // Construct Feature Value object from the response and the schema at the same position
+    int size = projectedSize(positions, featureVector.size());
+    for (int i = 0; i < size; i++) {
+      int position = positions != null ? positions[i] : i;
+      this.featureValues.add(
+          new FeatureValue(
+              featureVector.get(position),
+              featureSchema,
+              position,
+              FeatureStatus.fromString(null)));
+    }
+  }
+
+  private static void validateFeatureVectorSize(int size, FeatureSchema featureSchema) {
+    if (size == 0) {
+      throw new TectonClientException(TectonErrorMessage.EMPTY_FEATURE_VECTOR);
+    }
+    if (size != featureSchema.size()) {
+      throw new FeatureSchemaMismatchException(size, featureSchema.size());
     }
   }
 
@@ -138,10 +584,19 @@ public class GetFeaturesResponse extends AbstractTectonResponse {
   }
 
   private void validateResponse(
-      List<Object> featureVector, List<GetFeaturesResponseJson.FeatureMetadata> featureMetadata) {
-    if (featureVector.isEmpty()) {
+      int featureCount, List<GetFeaturesResponseJson.FeatureMetadata> featureMetadata) {
+    if (featureCount == 0) {
       throw new TectonClientException(TectonErrorMessage.EMPTY_FEATURE_VECTOR);
     }
+    if (featureMetadata.size() < featureCount) {
+      throw new TectonClientException(
+          String.format(TectonErrorMessage.MISSING_EXPECTED_METADATA, NAME));
+    }
+    validateMetadata(featureMetadata);
+  }
+
+  private static void validateMetadata(
+      List<GetFeaturesResponseJson.FeatureMetadata> featureMetadata) {
     for (GetFeaturesResponseJson.FeatureMetadata metadata : featureMetadata) {
       if (StringUtils.isEmpty(metadata.name)) {
         throw new TectonClientException(
@@ -1,9 +1,13 @@
 package ai.tecton.client.response;
 
+import ai.tecton.client.exceptions.FeatureSchemaMismatchException;
 import ai.tecton.client.exceptions.TectonClientException;
 import ai.tecton.client.exceptions.TectonErrorMessage;
+import ai.tecton.client.model.FeatureSchema;
 import ai.tecton.client.model.FeatureStatus;
 import ai.tecton.client.model.FeatureValue;
+import com.squareup.moshi.JsonReader;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -14,34 +18,68 @@ class GetFeaturesResponseUtils {
   private static final String NAME = "Name";
   private static final String DATA_TYPE = "Data Type";
 
-  // Construct Feature Vector from list of object and metadata
+  // Build the schema shared by every feature vector of a response from the metadata of its features
+  static FeatureSchema buildFeatureSchema(List<FeatureMetadata> featureMetadata) {
+    validateMetadata(featureMetadata);
+    FeatureSchema.Builder builder = new FeatureSchema.Builder();
+    for (FeatureMetadata metadata : featureMetadata) {
+      builder.addFeature(
+          metadata.name,
+          metadata.dataType.getDataType(),
+          metadata.dataType.getListElementType().orElse(null),
+          metadata.effectiveTime,
+          metadata.description,
+          metadata.tags);
+    }
+    return builder.build();
+  }
+
+  // Construct the Feature Vector of a row from list of object and the shared schema, with the
+  // status of each feature for the row. With projected positions, only the features at those
+  // positions are constructed
   static List<FeatureValue> constructFeatureVector(
-      List<Object> features, List<FeatureMetadata> featureMetadata, int index) {
-    validateResponse(features, featureMetadata);
-    List<FeatureValue> featureValues = new ArrayList<>(features.size());
-    for (int i = 0; i < features.size(); i++) {
-      FeatureValue value =
+      List<Object> features,
+      FeatureSchema featureSchema,
+      List<FeatureMetadata> featureMetadata,
+      int[] positions,
+      int index) {
+    if (features.isEmpty()) {
+      throw new TectonClientException(TectonErrorMessage.EMPTY_FEATURE_VECTOR);
+    }
+    if (features.size() > featureSchema.size()) {
+      throw new FeatureSchemaMismatchException(features.size(), featureSchema.size());
+    }
+    int size = GetFeaturesResponse.projectedSize(positions, features.size());
+    List<FeatureValue> featureValues = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      int position = positions != null ? positions[i] : i;
+      List<String> status = featureMetadata.get(position).status;
+      featureValues.add(
           new FeatureValue(
-              features.get(i),
-              featureMetadata.get(i).name,
-              featureMetadata.get(i).dataType.getDataType(),
-              featureMetadata.get(i).dataType.getListElementType(),
-              featureMetadata.get(i).effectiveTime,
-              (featureMetadata.get(i).status != null)
-                  ? FeatureStatus.fromString(featureMetadata.get(i).status.get(index))
-                  : null,
-              featureMetadata.get(i).description,
-              featureMetadata.get(i).tags);
-      featureValues.add(value);
+              features.get(position),
+              featureSchema,
+              position,
+              (status != null) ? FeatureStatus.fromString(status.get(index)) : null));
     }
     return featureValues;
   }
 
-  // Validate response from Feature Server
-  static void validateResponse(List<Object> featureVector, List<FeatureMetadata> featureMetadata) {
-    if (featureVector.isEmpty()) {
-      throw new TectonClientException(TectonErrorMessage.EMPTY_FEATURE_VECTOR);
+  // Advances a reader at the start of an object to the value of the field, and returns whether the
+  // object has the field
+  static boolean selectField(JsonReader reader, JsonReader.Options field) throws IOException {
+    reader.beginObject();
+    while (reader.hasNext()) {
+      if (reader.selectName(field) == 0) {
+        return true;
+      }
+      reader.skipName();
+      reader.skipValue();
     }
+    return false;
+  }
+
+  // Validate the metadata of the response from Feature Server
+  static void validateMetadata(List<FeatureMetadata> featureMetadata) {
     for (FeatureMetadata metadata : featureMetadata) {
       if (StringUtils.isEmpty(metadata.name)) {
         throw new TectonClientException(
@@ -0,0 +1,163 @@
+package ai.tecton.client.response;
+
+import ai.tecton.client.exceptions.TectonClientException;
+import ai.tecton.client.exceptions.TectonErrorMessage;
+import ai.tecton.client.model.FeatureSchema;
+import ai.tecton.client.model.FeatureStatus;
+import ai.tecton.client.model.FeatureValue;
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.JsonReader;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import okio.Buffer;
+import okio.BufferedSource;
+
+// A feature vector that keeps the raw JSON of its feature values, and only decodes a FeatureValue
+// when it is accessed. The JSON array of the feature vector is copied once, and the span of each
+// element found with a scan that only tracks nesting and strings. Decoded values are memoized, and
+// concurrent accesses publish a single FeatureValue for each position. With projected positions,
+// the list only has the feature values at those positions
+final class LazyFeatureValues extends AbstractList<FeatureValue> implements RandomAccess {
+
+  private final byte[] json;
+  private final int[] starts;
+  private final int[] ends;
+  private final int featureCount;
+  private FeatureSchema featureSchema;
+  private String[] statuses;
+  private int[] positions;
+  private AtomicReferenceArray<FeatureValue> values;
+
+  private LazyFeatureValues(byte[] json, int[] starts, int[] ends, int featureCount) {
+    this.json = json;
+    this.starts = starts;
+    this.ends = ends;
+    this.featureCount = featureCount;
+  }
+
+  // Reads the next value of the reader, which must be the JSON array of the feature vector
+  static LazyFeatureValues read(JsonReader reader) throws IOException {
+    if (reader.peek() != JsonReader.Token.BEGIN_ARRAY) {
+      throw new JsonDataException("Expected the feature vector at " + reader.getPath());
+    }
+    byte[] json;
+    try (BufferedSource source = reader.nextSource()) {
+      json = source.readByteArray();
+    }
+    int[] starts = new int[16];
+    int[] ends = new int[16];
+    int size = 0;
+    int depth = 0;
+    boolean inString = false;
+    int start = -1;
+    // The array is valid JSON, since the reader has already consumed it
+    for (int i = 0; i < json.length; i++) {
+      byte b = json[i];
+      if (inString) {
+        if (b == '\\') {
+          i++;
+        } else if (b == '"') {
+          inString = false;
+        }
+        continue;
+      }
+      switch (b) {
+        case '"':
+          inString = true;
+          break;
+        case '[':
+        case '{':
+          depth++;
+          break;
+        case ']':
+        case '}':
+          depth--;
+          break;
+        case ',':
+          break;
+        default:
+          continue;
+      }
+      if (depth == 1 && b == '[') {
+        // Start of the feature vector
+        start = i + 1;
+      } else if ((depth == 1 && b == ',') || (depth == 0 && b == ']')) {
+        if (b == ',' || !isBlank(json, start, i)) {
+          if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+          }
+          starts[size] = start;
+          ends[size++] = i;
+        }
+        start = i + 1;
+      }
+    }
+    return new LazyFeatureValues(json, starts, ends, size);
+  }
+
+  // Sets the schema to decode the feature values against, their statuses if present, and the
+  // projected positions of the feature vector, or null for all positions
+  void bind(FeatureSchema featureSchema, String[] statuses, int[] positions) {
+    this.featureSchema = featureSchema;
+    this.statuses = statuses;
+    this.positions = positions;
+    this.values =
+        new AtomicReferenceArray<>(GetFeaturesResponse.projectedSize(positions, featureCount));
+  }
+
+  // The number of feature values in the feature vector, including those outside the projection
+  int getFeatureCount() {
+    return featureCount;
+  }
+
+  FeatureSchema getFeatureSchema() {
+    return featureSchema;
+  }
+
+  @Override
+  public FeatureValue get(int index) {
+    FeatureValue featureValue = values.get(index);
+    if (featureValue == null) {
+      featureValue = decode(positions != null ? positions[index] : index);
+      if (!values.compareAndSet(index, null, featureValue)) {
+        featureValue = values.get(index);
+      }
+    }
+    return featureValue;
+  }
+
+  @Override
+  public int size() {
+    return values.length();
+  }
+
+  private FeatureValue decode(int position) {
+    Object featureObject;
+    try (JsonReader reader =
+        JsonReader.of(
+            new Buffer().write(json, starts[position], ends[position] - starts[position]))) {
+      featureObject =
+          GetFeaturesResponse.readFeature(reader, featureSchema.getListElementType(position));
+    } catch (IOException | JsonDataException e) {
+      throw new TectonClientException(TectonErrorMessage.INVALID_RESPONSE_FORMAT);
+    }
+    return new FeatureValue(
+        featureObject,
+        featureSchema,
+        position,
+        FeatureStatus.fromString(statuses != null ? statuses[position] : null));
+  }
+
+  private static boolean isBlank(byte[] json, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (json[i] != ' ' && json[i] != '\n' && json[i] != '\r' && json[i] != '\t') {
+        return false;
+      }
+    }
+    return true;
+  }
+}
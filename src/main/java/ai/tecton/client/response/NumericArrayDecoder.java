@@ -0,0 +1,359 @@
+package ai.tecton.client.response;
+
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.JsonReader;
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import okio.BufferedSource;
+
+/**
+ * Decodes JSON arrays of numbers, such as embedding features, straight from the bytes of the JSON
+ * token stream into primitive arrays. Unlike {@link JsonReader#readJsonValue()}, no boxed number,
+ * intermediate list or string is allocated per element for numbers with up to 15 significant
+ * digits, which covers the values of Float32 features. Numbers with more digits are parsed with
+ * {@link Double#parseDouble(String)} to keep them correctly rounded.
+ *
+ * <p>Null elements, and the strings "null", "NaN", "Infinity" and "-Infinity" that Tecton uses for
+ * values that JSON numbers cannot represent, are decoded as NaN. Other strings are parsed as
+ * numbers. Elements are decoded into a reusable per-thread buffer, or into a caller-supplied {@link
+ * FloatBuffer} or {@link DoubleBuffer} to avoid allocating an array per feature value.
+ */
+public final class NumericArrayDecoder {
+
+  private static final int MAX_EXACT_DIGITS = 15;
+  private static final double[] POWERS_OF_TEN = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+    1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+  private static final int INITIAL_CAPACITY = 256;
+  // Larger arrays are decoded into a temporary buffer, so that a single oversized value does not
+  // stay pinned by every thread that decoded one
+  static final int MAX_RETAINED_CAPACITY = 16384;
+  private static final int MAX_NUMBER_LENGTH = 64;
+
+  private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+  private NumericArrayDecoder() {}
+
+  /**
+   * Reads the next value of the reader, which must be a JSON array of numbers or null, into a new
+   * double array
+   *
+   * @param reader the {@link JsonReader} positioned at the array
+   * @return the elements, with NaN for null elements, or null if the value is null
+   * @throws IOException if the value cannot be read or is not an array of numbers
+   */
+  public static double[] readDoubleArray(JsonReader reader) throws IOException {
+    Scratch scratch = SCRATCH.get();
+    try {
+      int size = decode(reader, scratch);
+      return size < 0 ? null : Arrays.copyOf(scratch.values, size);
+    } finally {
+      scratch.release();
+    }
+  }
+
+  /**
+   * Reads the next value of the reader, which must be a JSON array of numbers or null, into a new
+   * float array
+   *
+   * @param reader the {@link JsonReader} positioned at the array
+   * @return the elements, with NaN for null elements, or null if the value is null
+   * @throws IOException if the value cannot be read or is not an array of numbers
+   */
+  public static float[] readFloatArray(JsonReader reader) throws IOException {
+    Scratch scratch = SCRATCH.get();
+    try {
+      int size = decode(reader, scratch);
+      if (size < 0) {
+        return null;
+      }
+      float[] floats = new float[size];
+      for (int i = 0; i < size; i++) {
+        floats[i] = (float) scratch.values[i];
+      }
+      return floats;
+    } finally {
+      scratch.release();
+    }
+  }
+
+  /**
+   * Reads the next value of the reader, which must be a JSON array of numbers or null, into the
+   * target buffer starting at its current position, without allocating an array
+   *
+   * @param reader the {@link JsonReader} positioned at the array
+   * @param target the {@link FloatBuffer} to put the elements into, with NaN for null elements
+   * @return the number of elements put into the buffer, or -1 if the value is null
+   * @throws IOException if the value cannot be read or is not an array of numbers
+   * @throws java.nio.BufferOverflowException if the buffer does not have room for all elements
+   */
+  public static int readFloats(JsonReader reader, FloatBuffer target) throws IOException {
+    Scratch scratch = SCRATCH.get();
+    try {
+      int size = decode(reader, scratch);
+      for (int i = 0; i < size; i++) {
+        target.put((float) scratch.values[i]);
+      }
+      return size;
+    } finally {
+      scratch.release();
+    }
+  }
+
+  /**
+   * Reads the next value of the reader, which must be a JSON array of numbers or null, into the
+   * target buffer starting at its current position, without allocating an array
+   *
+   * @param reader the {@link JsonReader} positioned at the array
+   * @param target the {@link DoubleBuffer} to put the elements into, with NaN for null elements
+   * @return the number of elements put into the buffer, or -1 if the value is null
+   * @throws IOException if the value cannot be read or is not an array of numbers
+   * @throws java.nio.BufferOverflowException if the buffer does not have room for all elements
+   */
+  public static int readDoubles(JsonReader reader, DoubleBuffer target) throws IOException {
+    Scratch scratch = SCRATCH.get();
+    try {
+      int size = decode(reader, scratch);
+      if (size > 0) {
+        target.put(scratch.values, 0, size);
+      }
+      return size;
+    } finally {
+      scratch.release();
+    }
+  }
+
+  // Decode the next value of the reader into the buffer of this thread, returned by
+  // decodedValues(), and return the number of elements, or -1 if the value is null
+  static int decode(JsonReader reader) throws IOException {
+    Scratch scratch = SCRATCH.get();
+    try {
+      return decode(reader, scratch);
+    } catch (IOException | RuntimeException e) {
+      scratch.release();
+      throw e;
+    }
+  }
+
+  // Return the values of the last decode(JsonReader) call on this thread. Call it at most once per
+  // decode: it releases a temporary buffer used for an oversized array, so a second call may return
+  // the retained buffer with stale values. The array is only valid until the next decode
+  static double[] decodedValues() {
+    Scratch scratch = SCRATCH.get();
+    double[] values = scratch.values;
+    scratch.release();
+    return values;
+  }
+
+  private static int decode(JsonReader reader, Scratch scratch) throws IOException {
+    scratch.release();
+    if (reader.peek() == JsonReader.Token.NULL) {
+      reader.nextNull();
+      return -1;
+    }
+    if (reader.peek() != JsonReader.Token.BEGIN_ARRAY) {
+      throw new JsonDataException(
+          "Expected an array of numbers but was " + reader.peek() + " at " + reader.getPath());
+    }
+    try (BufferedSource source = reader.nextSource()) {
+      return decodeArray(source, scratch);
+    }
+  }
+
+  private static int decodeArray(BufferedSource source, Scratch scratch) throws IOException {
+    int b = nextNonWhitespace(source);
+    if (b != '[') {
+      throw new JsonDataException("Expected '[' but was '" + (char) b + "'");
+    }
+    int size = 0;
+    b = nextNonWhitespace(source);
+    if (b == ']') {
+      return 0;
+    }
+    while (true) {
+      if (size == scratch.values.length) {
+        scratch.grow();
+      }
+      b = readElement(source, b, scratch, size++);
+      if (b == ']') {
+        return size;
+      }
+      if (b != ',') {
+        throw new JsonDataException("Expected ',' or ']' but was '" + (char) b + "'");
+      }
+      b = nextNonWhitespace(source);
+    }
+  }
+
+  // Read the element starting with the byte b into values[index], and return the first
+  // non-whitespace byte after it
+  private static int readElement(BufferedSource source, int b, Scratch scratch, int index)
+      throws IOException {
+    byte[] chars = scratch.chars;
+    int length = 0;
+    if (b == '"') {
+      // A quoted number, or one of the strings Tecton uses for values JSON cannot represent
+      while ((b = source.readByte()) != '"') {
+        if (b == '\\' || length == MAX_NUMBER_LENGTH) {
+          throw new JsonDataException("Expected a number in the array");
+        }
+        chars[length++] = (byte) b;
+      }
+      scratch.values[index] = isNullString(chars, length) ? Double.NaN : parse(chars, length);
+      return nextNonWhitespace(source);
+    }
+    while (b != ',' && b != ']' && !isWhitespace(b)) {
+      if (length == MAX_NUMBER_LENGTH) {
+        throw new JsonDataException("Expected a number in the array");
+      }
+      chars[length++] = (byte) b;
+      b = source.readByte();
+    }
+    if (length == 4 && chars[0] == 'n' && chars[1] == 'u' && chars[2] == 'l' && chars[3] == 'l') {
+      scratch.values[index] = Double.NaN;
+    } else {
+      scratch.values[index] = parse(chars, length);
+    }
+    return isWhitespace(b) ? nextNonWhitespace(source) : b;
+  }
+
+  // Parse a JSON number. Numbers whose significant digits fit in a double exactly and whose
+  // exponent is small are computed with a single, correctly rounded, multiplication or division
+  static double parse(byte[] chars, int length) {
+    int i = 0;
+    boolean negative = false;
+    if (length > 0 && (chars[0] == '-' || chars[0] == '+')) {
+      negative = chars[0] == '-';
+      i++;
+    }
+    long mantissa = 0;
+    int digits = 0;
+    int exponent = 0;
+    boolean seenDigit = false;
+    boolean seenPoint = false;
+    for (; i < length; i++) {
+      int c = chars[i];
+      if (c >= '0' && c <= '9') {
+        seenDigit = true;
+        if (mantissa == 0 && c == '0') {
+          // Leading zeros are not significant
+          if (seenPoint) {
+            exponent--;
+          }
+          continue;
+        }
+        if (++digits > MAX_EXACT_DIGITS) {
+          return fallback(chars, length);
+        }
+        mantissa = mantissa * 10 + (c - '0');
+        if (seenPoint) {
+          exponent--;
+        }
+      } else if (c == '.' && !seenPoint) {
+        seenPoint = true;
+      } else if (c == 'e' || c == 'E') {
+        break;
+      } else {
+        return fallback(chars, length);
+      }
+    }
+    if (!seenDigit) {
+      return fallback(chars, length);
+    }
+    if (i < length) {
+      // Exponent
+      i++;
+      boolean negativeExponent = false;
+      if (i < length && (chars[i] == '-' || chars[i] == '+')) {
+        negativeExponent = chars[i] == '-';
+        i++;
+      }
+      if (i == length) {
+        return fallback(chars, length);
+      }
+      int explicitExponent = 0;
+      for (; i < length; i++) {
+        int c = chars[i];
+        if (c < '0' || c > '9' || explicitExponent > 1000) {
+          return fallback(chars, length);
+        }
+        explicitExponent = explicitExponent * 10 + (c - '0');
+      }
+      exponent += negativeExponent ? -explicitExponent : explicitExponent;
+    }
+    double value;
+    if (mantissa == 0) {
+      value = 0;
+    } else if (exponent >= 0 && exponent < POWERS_OF_TEN.length) {
+      value = mantissa * POWERS_OF_TEN[exponent];
+    } else if (exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+      value = mantissa / POWERS_OF_TEN[-exponent];
+    } else {
+      return fallback(chars, length);
+    }
+    return negative ? -value : value;
+  }
+
+  private static double fallback(byte[] chars, int length) {
+    try {
+      return Double.parseDouble(new String(chars, 0, length, StandardCharsets.US_ASCII));
+    } catch (NumberFormatException e) {
+      throw new JsonDataException("Expected a number in the array but was " + e.getMessage());
+    }
+  }
+
+  private static boolean isNullString(byte[] chars, int length) {
+    return equalsAscii(chars, length, "null")
+        || equalsAscii(chars, length, "NaN")
+        || equalsAscii(chars, length, "Infinity")
+        || equalsAscii(chars, length, "-Infinity");
+  }
+
+  private static boolean equalsAscii(byte[] chars, int length, String value) {
+    if (length != value.length()) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (chars[i] != value.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int nextNonWhitespace(BufferedSource source) throws IOException {
+    int b;
+    do {
+      b = source.readByte();
+    } while (isWhitespace(b));
+    return b;
+  }
+
+  private static boolean isWhitespace(int b) {
+    return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+  }
+
+  // Per-thread buffers reused across arrays, the values grow to the largest array decoded
+  private static final class Scratch {
+    // The buffer kept between calls, at most MAX_RETAINED_CAPACITY long
+    private double[] retained = new double[INITIAL_CAPACITY];
+    double[] values = retained;
+    final byte[] chars = new byte[MAX_NUMBER_LENGTH];
+
+    void grow() {
+      values = Arrays.copyOf(values, values.length * 2);
+      if (values.length <= MAX_RETAINED_CAPACITY) {
+        retained = values;
+      }
+    }
+
+    // Drop the reference to a temporary buffer, once its values have been copied out
+    void release() {
+      values = retained;
+    }
+  }
+}
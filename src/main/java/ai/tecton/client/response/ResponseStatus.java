@@ -0,0 +1,92 @@
+package ai.tecton.client.response;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A class that represents the outcome of a single row of a {@link
+ * ai.tecton.client.request.GetFeaturesBatchRequest}. Rows whose call did not complete successfully
+ * have a null {@link GetFeaturesResponse} in {@link
+ * GetFeaturesBatchResponse#getBatchResponseList()} and a status that describes why, along with the
+ * cause of the failure when known.
+ */
+public class ResponseStatus {
+
+  private static final ResponseStatus OK_STATUS = new ResponseStatus(Code.OK, null);
+
+  private final Code code;
+  private final Throwable cause;
+
+  private ResponseStatus(Code code, Throwable cause) {
+    this.code = code;
+    this.cause = cause;
+  }
+
+  static ResponseStatus ok() {
+    return OK_STATUS;
+  }
+
+  static ResponseStatus timedOut(Throwable cause) {
+    return new ResponseStatus(Code.TIMED_OUT, cause);
+  }
+
+  static ResponseStatus failed(Throwable cause) {
+    return new ResponseStatus(Code.FAILED, cause);
+  }
+
+  /**
+   * Returns the status code of the row
+   *
+   * @return {@link Code}
+   */
+  public Code getCode() {
+    return code;
+  }
+
+  /**
+   * Returns the cause of a timeout or failure wrapped in {@link java.util.Optional} if known,
+   * Optional.empty() otherwise
+   *
+   * @return the cause as a {@link Throwable}
+   */
+  public Optional<Throwable> getCause() {
+    return Optional.ofNullable(cause);
+  }
+
+  /**
+   * Returns true if a response was received for the row
+   *
+   * @return true if the status code is {@link Code#OK}
+   */
+  public boolean isOk() {
+    return code == Code.OK;
+  }
+
+  /** Overrides <i>equals()</i> in class {@link Object} */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    ResponseStatus that = (ResponseStatus) o;
+    return code == that.code && Objects.equals(cause, that.cause);
+  }
+
+  /** Overrides <i>hashCode()</i> in class {@link Object} */
+  @Override
+  public int hashCode() {
+    return Objects.hash(code, cause);
+  }
+
+  /** Enum that represents the possible outcomes of a row */
+  public enum Code {
+    /** A response was received for the row */
+    OK,
+    /** The call for the row was cancelled because it did not complete within the timeout */
+    TIMED_OUT,
+    /**
+     * The call for the row failed, e.g. due to a network error, or Tecton answered it with an error
+     * response, in which case the cause is the exception for its HTTP status
+     */
+    FAILED
+  }
+}
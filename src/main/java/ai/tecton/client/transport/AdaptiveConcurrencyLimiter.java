@@ -0,0 +1,319 @@
+package ai.tecton.client.transport;
+
+import ai.tecton.client.exceptions.TectonClientException;
+import ai.tecton.client.exceptions.TectonErrorMessage;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.Dispatcher;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * An adaptive limit on the number of concurrent calls the client sends to Tecton, used in place of
+ * the fixed {@code maxParallelRequests} configuration in {@link
+ * ai.tecton.client.TectonClientOptions}.
+ *
+ * <p>The limiter follows an AIMD (additive increase, multiplicative decrease) scheme driven by the
+ * calls made by the client. Every call that succeeds within the latency threshold grows the limit
+ * by roughly one per window of {@code limit} calls, as long as the client actually uses at least
+ * half of the current limit. Every call that is rejected by Tecton with a 429, 503 or 504 status,
+ * that times out, or whose round trip time exceeds the latency threshold shrinks the limit by the
+ * backoff ratio, at most once per window of calls sent with the previous limit.
+ *
+ * <p>By default the latency threshold follows the backend: it is the latency tolerance times a
+ * moving average of the round trip times of the calls answered by Tecton, so that it applies
+ * equally to a backend that answers in a few milliseconds and to one that takes hundreds. A fixed
+ * {@link Builder#latencyThreshold(Duration)} can be set instead, which must then be tuned for each
+ * deployment.
+ *
+ * <p>The limit is applied to the OkHttp {@link Dispatcher} of the client and therefore bounds all
+ * calls that are dispatched asynchronously, i.e. batch requests and the asynchronous methods of
+ * {@link ai.tecton.client.TectonClient}. A limiter can only be used by a single client.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+  private static final int DEFAULT_MIN_LIMIT = 1;
+  private static final int DEFAULT_MAX_LIMIT = 100;
+  private static final int DEFAULT_INITIAL_LIMIT = 5;
+  private static final double DEFAULT_BACKOFF_RATIO = 0.9;
+  private static final double DEFAULT_LATENCY_TOLERANCE = 2.0;
+  // Weight of a new round trip time in the moving average, so that the baseline follows the backend
+  // over roughly the last 20 calls
+  private static final double RTT_SMOOTHING = 0.05;
+  private static final Set<Integer> OVERLOAD_STATUS_CODES =
+      Collections.unmodifiableSet(new HashSet<>(Arrays.asList(429, 503, 504)));
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final double backoffRatio;
+  private final long latencyThresholdNanos;
+  private final double latencyTolerance;
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicLong overloadResponseCount = new AtomicLong();
+  private final AtomicLong timeoutCount = new AtomicLong();
+
+  // Guarded by this
+  private double estimatedLimit;
+  private long lastDecreaseNanos;
+  private double averageRttNanos;
+  private Dispatcher dispatcher;
+
+  private volatile int limit;
+
+  private AdaptiveConcurrencyLimiter(Builder builder) {
+    Validate.isTrue(builder.minLimit >= 1, "minLimit must be at least 1");
+    Validate.isTrue(builder.maxLimit >= builder.minLimit, "maxLimit must be at least minLimit");
+    Validate.isTrue(
+        builder.initialLimit >= builder.minLimit && builder.initialLimit <= builder.maxLimit,
+        "initialLimit must be between minLimit and maxLimit");
+    Validate.isTrue(
+        builder.backoffRatio > 0 && builder.backoffRatio < 1,
+        "backoffRatio must be between 0 and 1");
+    Validate.isTrue(builder.latencyTolerance > 1, "latencyTolerance must be greater than 1");
+    Validate.isTrue(
+        builder.latencyThreshold == null || !builder.latencyThreshold.isNegative(),
+        "latencyThreshold must not be negative");
+    this.minLimit = builder.minLimit;
+    this.maxLimit = builder.maxLimit;
+    this.backoffRatio = builder.backoffRatio;
+    this.latencyThresholdNanos =
+        builder.latencyThreshold == null ? -1 : builder.latencyThreshold.toNanos();
+    this.latencyTolerance = builder.latencyTolerance;
+    this.estimatedLimit = builder.initialLimit;
+    this.limit = builder.initialLimit;
+    this.lastDecreaseNanos = System.nanoTime();
+  }
+
+  /**
+   * Returns the current limit on the number of concurrent calls
+   *
+   * @return the current limit
+   */
+  public int getLimit() {
+    return limit;
+  }
+
+  /**
+   * Returns the number of calls currently in flight
+   *
+   * @return the number of calls in flight
+   */
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  /**
+   * Returns the total number of calls that Tecton answered with a 429, 503 or 504 status. These are
+   * responses of the server, not calls held back by the limiter
+   *
+   * @return the number of overload responses
+   */
+  public long getOverloadResponseCount() {
+    return overloadResponseCount.get();
+  }
+
+  /**
+   * Returns the total number of calls that timed out
+   *
+   * @return the number of timed out calls
+   */
+  public long getTimeoutCount() {
+    return timeoutCount.get();
+  }
+
+  // Bind the limiter to the Dispatcher of a client and apply the current limit
+  synchronized void attach(Dispatcher dispatcher) {
+    if (this.dispatcher != null) {
+      throw new TectonClientException(TectonErrorMessage.CONCURRENCY_LIMITER_IN_USE);
+    }
+    this.dispatcher = dispatcher;
+    applyLimit();
+  }
+
+  // Interceptor that measures every call and adjusts the limit accordingly
+  Interceptor interceptor() {
+    return chain -> {
+      long startNanos = System.nanoTime();
+      inFlight.incrementAndGet();
+      try {
+        Response response = chain.proceed(chain.request());
+        if (OVERLOAD_STATUS_CODES.contains(response.code())) {
+          overloadResponseCount.incrementAndGet();
+          onOverload(startNanos);
+        } else {
+          onSuccess(startNanos, System.nanoTime() - startNanos);
+        }
+        return response;
+      } catch (InterruptedIOException e) {
+        // Calls cancelled by the client are not a signal of overload
+        if (!chain.call().isCanceled()) {
+          timeoutCount.incrementAndGet();
+          onOverload(startNanos);
+        }
+        throw e;
+      } finally {
+        inFlight.decrementAndGet();
+      }
+    };
+  }
+
+  private void onSuccess(long startNanos, long rttNanos) {
+    synchronized (this) {
+      boolean slow = isSlow(rttNanos);
+      averageRttNanos =
+          averageRttNanos == 0
+              ? rttNanos
+              : averageRttNanos + RTT_SMOOTHING * (rttNanos - averageRttNanos);
+      if (slow) {
+        onOverload(startNanos);
+        return;
+      }
+      // Only grow the limit while the client is using it, otherwise it grows without bound
+      if (inFlight.get() * 2 < estimatedLimit) {
+        return;
+      }
+      estimatedLimit = Math.min(maxLimit, estimatedLimit + 1.0 / estimatedLimit);
+      updateLimit();
+    }
+  }
+
+  // Must be called while holding the lock. There is no latency signal until a first call completed
+  private boolean isSlow(long rttNanos) {
+    if (latencyThresholdNanos >= 0) {
+      return rttNanos > latencyThresholdNanos;
+    }
+    return averageRttNanos > 0 && rttNanos > averageRttNanos * latencyTolerance;
+  }
+
+  private void onOverload(long startNanos) {
+    synchronized (this) {
+      // Calls sent before the last decrease were sent with the previous limit, do not decrease
+      // again for each of them
+      if (startNanos - lastDecreaseNanos < 0) {
+        return;
+      }
+      estimatedLimit = Math.max(minLimit, estimatedLimit * backoffRatio);
+      lastDecreaseNanos = System.nanoTime();
+      updateLimit();
+    }
+  }
+
+  // Must be called while holding the lock, so that limits are applied to the Dispatcher in order
+  private void updateLimit() {
+    int newLimit = (int) estimatedLimit;
+    if (newLimit != limit) {
+      limit = newLimit;
+      applyLimit();
+    }
+  }
+
+  private void applyLimit() {
+    if (dispatcher != null) {
+      dispatcher.setMaxRequests(limit);
+      dispatcher.setMaxRequestsPerHost(limit);
+    }
+  }
+
+  /**
+   * A Builder class for creating an instance of {@link AdaptiveConcurrencyLimiter} object with
+   * specific configurations
+   */
+  public static class Builder {
+    private int minLimit = DEFAULT_MIN_LIMIT;
+    private int maxLimit = DEFAULT_MAX_LIMIT;
+    private int initialLimit = DEFAULT_INITIAL_LIMIT;
+    private double backoffRatio = DEFAULT_BACKOFF_RATIO;
+    private double latencyTolerance = DEFAULT_LATENCY_TOLERANCE;
+    private Duration latencyThreshold;
+
+    /**
+     * Setter for the lower bound of the limit. Default value is 1
+     *
+     * @param minLimit int value, must be at least 1
+     * @return this Builder
+     */
+    public Builder minLimit(int minLimit) {
+      this.minLimit = minLimit;
+      return this;
+    }
+
+    /**
+     * Setter for the upper bound of the limit. Default value is 100
+     *
+     * @param maxLimit int value, must be at least minLimit
+     * @return this Builder
+     */
+    public Builder maxLimit(int maxLimit) {
+      this.maxLimit = maxLimit;
+      return this;
+    }
+
+    /**
+     * Setter for the limit used before any call has completed. Default value is 5
+     *
+     * @param initialLimit int value, must be between minLimit and maxLimit
+     * @return this Builder
+     */
+    public Builder initialLimit(int initialLimit) {
+      this.initialLimit = initialLimit;
+      return this;
+    }
+
+    /**
+     * Setter for the ratio the limit is multiplied by when Tecton is overloaded. Default value is
+     * 0.9
+     *
+     * @param backoffRatio double value, must be between 0 and 1 (exclusive)
+     * @return this Builder
+     */
+    public Builder backoffRatio(double backoffRatio) {
+      this.backoffRatio = backoffRatio;
+      return this;
+    }
+
+    /**
+     * Setter for the ratio to the moving average round trip time above which a successful call is
+     * treated as a signal of overload. Default value is 2.0. Not used when a fixed latencyThreshold
+     * is set
+     *
+     * @param latencyTolerance double value, must be greater than 1
+     * @return this Builder
+     */
+    public Builder latencyTolerance(double latencyTolerance) {
+      this.latencyTolerance = latencyTolerance;
+      return this;
+    }
+
+    /**
+     * Setter for a fixed round trip time above which a successful call is treated as a signal of
+     * overload, in place of the threshold derived from the latency tolerance. It must be tuned to
+     * the latency of the deployment. Not set by default
+     *
+     * @param latencyThreshold latencyThreshold as a {@link java.time.Duration}
+     * @return this Builder
+     */
+    public Builder latencyThreshold(Duration latencyThreshold) {
+      this.latencyThreshold = latencyThreshold;
+      return this;
+    }
+
+    /**
+     * Build a {@link AdaptiveConcurrencyLimiter} object from the Builder
+     *
+     * @return {@link AdaptiveConcurrencyLimiter}
+     * @throws IllegalArgumentException when the configured limits, ratio, tolerance or threshold
+     *     are invalid
+     */
+    public AdaptiveConcurrencyLimiter build() {
+      return new AdaptiveConcurrencyLimiter(this);
+    }
+  }
+}
@@ -0,0 +1,185 @@
+package ai.tecton.client.transport;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * A policy for hedging requests to the /get-features endpoint. When the first attempt of a request
+ * has not received a response within the hedge delay, the client sends a duplicate attempt and uses
+ * whichever response arrives first. The other attempt is cancelled.
+ *
+ * <p>The hedge delay is either a fixed {@link Duration}, or a percentile of the latencies recently
+ * observed by the client (e.g. 0.95 to hedge the slowest 5% of requests). When both are configured,
+ * the fixed delay is used until enough latencies have been observed to compute the percentile. The
+ * percentile describes the latency of the first attempt of each request, whether or not it was
+ * hedged. When a hedge responds first, the first attempt is cancelled and its latency is recorded
+ * as the time until the hedge responded, which is a lower bound of its actual latency.
+ *
+ * <p>The extra load is capped by a hedge budget: every request earns {@code maxHedgeRatio} tokens
+ * and every hedge spends one, so that at most {@code maxHedgeRatio} extra requests are sent per
+ * request over time.
+ */
+public class HedgingPolicy {
+
+  private static final double DEFAULT_MAX_HEDGE_RATIO = 0.05;
+  private static final double MAX_HEDGE_TOKENS = 10;
+  private static final int LATENCY_WINDOW_SIZE = 1000;
+  private static final int MIN_LATENCY_SAMPLES = 20;
+  private static final int PERCENTILE_REFRESH_INTERVAL = 20;
+
+  private final Duration hedgeDelay;
+  private final double latencyPercentile;
+  private final double maxHedgeRatio;
+
+  private final AtomicLong hedgeCount = new AtomicLong();
+  private final AtomicLong hedgeWinCount = new AtomicLong();
+
+  // Guarded by this
+  private double hedgeTokens;
+  private final long[] latencyWindow = new long[LATENCY_WINDOW_SIZE];
+  private long latencySampleCount;
+
+  private volatile long percentileDelayNanos = -1;
+
+  private HedgingPolicy(Builder builder) {
+    Validate.isTrue(
+        builder.hedgeDelay != null || builder.latencyPercentile > 0,
+        "Either hedgeDelay or latencyPercentile must be set");
+    Validate.isTrue(
+        builder.latencyPercentile >= 0 && builder.latencyPercentile < 1,
+        "latencyPercentile must be between 0 and 1");
+    Validate.isTrue(
+        builder.maxHedgeRatio > 0 && builder.maxHedgeRatio <= 1,
+        "maxHedgeRatio must be between 0 and 1");
+    this.hedgeDelay = builder.hedgeDelay;
+    this.latencyPercentile = builder.latencyPercentile;
+    this.maxHedgeRatio = builder.maxHedgeRatio;
+  }
+
+  /**
+   * Returns the number of hedged attempts sent so far
+   *
+   * @return the number of hedges
+   */
+  public long getHedgeCount() {
+    return hedgeCount.get();
+  }
+
+  /**
+   * Returns the number of requests for which the hedged attempt responded first
+   *
+   * @return the number of hedges that won
+   */
+  public long getHedgeWinCount() {
+    return hedgeWinCount.get();
+  }
+
+  /**
+   * Returns the delay after which a request is hedged, or null if it cannot be determined yet
+   *
+   * @return the current hedge delay as a {@link java.time.Duration}
+   */
+  public Duration getHedgeDelay() {
+    long percentileDelay = percentileDelayNanos;
+    return percentileDelay >= 0 ? Duration.ofNanos(percentileDelay) : hedgeDelay;
+  }
+
+  // Called once for every request that may be hedged, adds to the hedge budget
+  synchronized void onRequest() {
+    hedgeTokens = Math.min(MAX_HEDGE_TOKENS, hedgeTokens + maxHedgeRatio);
+  }
+
+  // Returns true if the hedge budget allows sending a hedge, and spends from it
+  synchronized boolean tryAcquireHedge() {
+    if (hedgeTokens < 1) {
+      return false;
+    }
+    hedgeTokens -= 1;
+    hedgeCount.incrementAndGet();
+    return true;
+  }
+
+  void onHedgeWin() {
+    hedgeWinCount.incrementAndGet();
+  }
+
+  // Record the latency of the first attempt of a request
+  void recordLatency(long latencyNanos) {
+    if (latencyPercentile == 0) {
+      return;
+    }
+    long[] samples = null;
+    synchronized (this) {
+      latencyWindow[(int) (latencySampleCount % LATENCY_WINDOW_SIZE)] = latencyNanos;
+      latencySampleCount++;
+      if (latencySampleCount >= MIN_LATENCY_SAMPLES
+          && latencySampleCount % PERCENTILE_REFRESH_INTERVAL == 0) {
+        samples =
+            Arrays.copyOf(latencyWindow, (int) Math.min(latencySampleCount, LATENCY_WINDOW_SIZE));
+      }
+    }
+    // Recompute the percentile periodically, outside of the lock
+    if (samples != null) {
+      Arrays.sort(samples);
+      percentileDelayNanos = samples[(int) Math.floor(latencyPercentile * (samples.length - 1))];
+    }
+  }
+
+  /**
+   * A Builder class for creating an instance of {@link HedgingPolicy} object with specific
+   * configurations
+   */
+  public static class Builder {
+    private Duration hedgeDelay;
+    private double latencyPercentile;
+    private double maxHedgeRatio = DEFAULT_MAX_HEDGE_RATIO;
+
+    /**
+     * Setter for a fixed delay after which a request is hedged
+     *
+     * @param hedgeDelay hedgeDelay as a {@link java.time.Duration}
+     * @return this Builder
+     */
+    public Builder hedgeDelay(Duration hedgeDelay) {
+      this.hedgeDelay = hedgeDelay;
+      return this;
+    }
+
+    /**
+     * Setter for the percentile of recently observed latencies after which a request is hedged,
+     * e.g. 0.95 for the 95th percentile
+     *
+     * @param latencyPercentile double value, must be between 0 and 1 (exclusive)
+     * @return this Builder
+     */
+    public Builder latencyPercentile(double latencyPercentile) {
+      this.latencyPercentile = latencyPercentile;
+      return this;
+    }
+
+    /**
+     * Setter for the maximum ratio of hedged attempts to requests. Default value is 0.05, i.e. at
+     * most 5% extra requests
+     *
+     * @param maxHedgeRatio double value, must be between 0 (exclusive) and 1
+     * @return this Builder
+     */
+    public Builder maxHedgeRatio(double maxHedgeRatio) {
+      this.maxHedgeRatio = maxHedgeRatio;
+      return this;
+    }
+
+    /**
+     * Build a {@link HedgingPolicy} object from the Builder
+     *
+     * @return {@link HedgingPolicy}
+     * @throws IllegalArgumentException when neither a delay nor a percentile is set, or the
+     *     configured values are invalid
+     */
+    public HedgingPolicy build() {
+      return new HedgingPolicy(this);
+    }
+  }
+}
@@ -1,12 +1,13 @@
 package ai.tecton.client.transport;
 
 import okhttp3.HttpUrl;
+import okhttp3.RequestBody;
 import org.apache.commons.lang3.StringUtils;
 
 class HttpRequest {
   HttpUrl url;
   TectonHttpClient.HttpMethod method;
-  String jsonBody;
+  RequestBody requestBody;
   String apiKey;
 
   HttpRequest(
@@ -15,6 +16,15 @@ class HttpRequest {
       TectonHttpClient.HttpMethod method,
       String apiKey,
       String jsonBody) {
+    this(baseUrl, endpoint, method, apiKey, TectonHttpClient.jsonRequestBody(jsonBody));
+  }
+
+  HttpRequest(
+      String baseUrl,
+      String endpoint,
+      TectonHttpClient.HttpMethod method,
+      String apiKey,
+      RequestBody requestBody) {
     url = HttpUrl.parse(baseUrl);
     if (endpoint != null && !endpoint.isEmpty()) {
       // Paths with leading backslash results in a URL with double backslash.
@@ -23,7 +33,7 @@ class HttpRequest {
     }
     this.method = method;
     this.apiKey = apiKey;
-    this.jsonBody = jsonBody;
+    this.requestBody = requestBody;
   }
 
   HttpUrl getUrl() {
@@ -38,7 +48,7 @@ class HttpRequest {
     return apiKey;
   }
 
-  String getJsonBody() {
-    return jsonBody;
+  RequestBody getRequestBody() {
+    return requestBody;
   }
 }
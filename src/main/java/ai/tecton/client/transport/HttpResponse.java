@@ -12,12 +12,19 @@ import java.util.Optional;
 import okhttp3.Headers;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
 
 public class HttpResponse {
+  private final CallStatus callStatus;
+  private final Throwable cause;
   private final boolean isSuccessful;
   private final int responseCode;
   private final String message;
-  private final String body;
+  // The body of a successful response is kept as UTF-8 bytes, and only decoded into a String if it
+  // is requested with getResponseBody(). The body of an error response is decoded right away
+  private final Buffer successBody;
+  private volatile String body;
   private final Headers headers;
   private final Duration requestDuration;
   private static final Moshi moshi = new Moshi.Builder().build();
@@ -29,23 +36,64 @@ public class HttpResponse {
   }
 
   HttpResponse(Response response, ResponseBody responseBody) throws Exception {
+    this.callStatus = CallStatus.COMPLETED;
+    this.cause = null;
     this.responseCode = response.code();
     this.headers = response.headers();
     this.requestDuration =
         Duration.ofMillis(response.receivedResponseAtMillis() - response.sentRequestAtMillis());
     this.isSuccessful = response.isSuccessful();
-    this.body = responseBody.string();
 
     // If a Tecton error message (e.g. "invalid) 'Tecton-key' authorization header" ) isn't present
     // in the response, (e.g. when the request times out), the client uses the HTTP error status (
     // e.g.Forbidden, Not Found) while throwing an Exception
     if (!this.isSuccessful) {
+      this.successBody = null;
+      this.body = responseBody.string();
       this.message = parseErrorResponse(this.body, response.message());
     } else {
+      // Move the segments read from the socket into a Buffer without copying or decoding them
+      this.successBody = new Buffer();
+      responseBody.source().readAll(this.successBody);
+      this.body = null;
       this.message = response.message();
     }
   }
 
+  // Response of a call that never received a response from Tecton
+  private HttpResponse(CallStatus callStatus, Throwable cause) {
+    this.callStatus = callStatus;
+    this.cause = cause;
+    this.isSuccessful = false;
+    this.responseCode = 0;
+    this.headers = null;
+    this.requestDuration = Duration.ZERO;
+    this.successBody = null;
+    this.body = null;
+    this.message = cause.getMessage();
+  }
+
+  /**
+   * Returns an HttpResponse for a call that was cancelled because it did not complete before its
+   * deadline
+   */
+  static HttpResponse timedOut(Throwable cause) {
+    return new HttpResponse(CallStatus.TIMED_OUT, cause);
+  }
+
+  /** Returns an HttpResponse for a call that failed without receiving a response from Tecton */
+  static HttpResponse failed(Throwable cause) {
+    return new HttpResponse(CallStatus.FAILED, cause);
+  }
+
+  public CallStatus getCallStatus() {
+    return callStatus;
+  }
+
+  public Optional<Throwable> getCause() {
+    return Optional.ofNullable(cause);
+  }
+
   public boolean isSuccessful() {
     return isSuccessful;
   }
@@ -63,28 +111,59 @@ public class HttpResponse {
   }
 
   public Optional<String> getResponseBody() {
-    return Optional.ofNullable(this.body);
+    String body = this.body;
+    if (body == null && this.successBody != null) {
+      body = this.successBody.copy().readUtf8();
+      this.body = body;
+    }
+    return Optional.ofNullable(body);
+  }
+
+  /**
+   * Returns a {@link BufferedSource} over the response body, which can be decoded without first
+   * copying the body into a String. Each call returns a new source over the same bytes
+   *
+   * @return {@link BufferedSource} over the response body if present, Optional.empty() otherwise
+   */
+  public Optional<BufferedSource> getResponseSource() {
+    if (this.successBody != null) {
+      return Optional.of(this.successBody.copy());
+    }
+    return getResponseBody().map(body -> new Buffer().writeUtf8(body));
   }
 
   public void validateResponse() {
+    if (this.callStatus != CallStatus.COMPLETED) {
+      throw new TectonClientException(
+          String.format(TectonErrorMessage.CALL_FAILURE, this.getMessage()), this.cause);
+    }
     if (!this.isSuccessful()) {
-      int responseCode = this.getResponseCode();
-      String errorMessage = this.getMessage();
-
-      Optional<TectonException> tectonException =
-          HttpStatusExceptionFactory.createException(responseCode, errorMessage);
-      if (tectonException.isPresent()) {
-        throw tectonException.get();
-      }
-      throw new TectonServiceException(
-          String.format(
-              TectonErrorMessage.ERROR_RESPONSE, this.getResponseCode(), this.getMessage()));
+      throw errorResponseException();
     }
-    if (!this.getResponseBody().isPresent()) {
+    if (this.successBody == null && this.body == null) {
       throw new TectonClientException(TectonErrorMessage.EMPTY_RESPONSE);
     }
   }
 
+  /**
+   * Returns the exception that {@link #validateResponse()} throws for an error response, e.g. to
+   * report the error of one call of a batch without failing the other calls
+   *
+   * @return the {@link TectonException} for the HTTP status and error message of the response
+   */
+  public TectonException errorResponseException() {
+    int responseCode = this.getResponseCode();
+    String errorMessage = this.getMessage();
+
+    Optional<TectonException> tectonException =
+        HttpStatusExceptionFactory.createException(responseCode, errorMessage);
+    return tectonException.orElseGet(
+        () ->
+            new TectonServiceException(
+                String.format(
+                    TectonErrorMessage.ERROR_RESPONSE, this.getResponseCode(), this.getMessage())));
+  }
+
   private static String parseErrorResponse(String responseBody, String message) {
     // Parse error response and extract error message
     try {
@@ -95,6 +174,16 @@ public class HttpResponse {
     }
   }
 
+  /** The outcome of a call made by the {@link TectonHttpClient} */
+  public enum CallStatus {
+    /** The call received a response from Tecton, which may be an error response */
+    COMPLETED,
+    /** The call was cancelled because it did not complete before its deadline */
+    TIMED_OUT,
+    /** The call failed without receiving a response, e.g. due to a network error */
+    FAILED
+  }
+
   static class ErrorResponseJson {
     String error;
     int code;
@@ -0,0 +1,258 @@
+package ai.tecton.client.transport;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.Response;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * A policy for retrying calls to Tecton that fail with a retryable HTTP status (by default 429, 503
+ * and 504) or a connection failure. The policy applies to every call made by the client, including
+ * each microbatch of a {@link ai.tecton.client.request.GetFeaturesBatchRequest}.
+ *
+ * <p>Retries are delayed with exponential backoff and full jitter, i.e. a random delay between 0
+ * and {@code min(maxBackoff, initialBackoff * 2^(attempt - 1))}. If the response has a {@code
+ * Retry-After} header, the delay it specifies is used instead, and the call is not retried if that
+ * delay exceeds {@code maxBackoff}.
+ *
+ * <p>To avoid amplifying load during an incident, retries are capped by a retry budget: every
+ * request earns {@code retryBudgetRatio} tokens and every retry spends one, so that at most {@code
+ * retryBudgetRatio} retries are sent per request over time, after an initial reserve of 10 retries.
+ */
+public class RetryPolicy {
+
+  private static final int DEFAULT_MAX_ATTEMPTS = 3;
+  private static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofMillis(50);
+  private static final Duration DEFAULT_MAX_BACKOFF = Duration.ofSeconds(1);
+  private static final double DEFAULT_RETRY_BUDGET_RATIO = 0.1;
+  private static final double MAX_RETRY_TOKENS = 10;
+  private static final Set<Integer> DEFAULT_RETRYABLE_STATUS_CODES =
+      Collections.unmodifiableSet(new HashSet<>(Arrays.asList(429, 503, 504)));
+  private static final String RETRY_AFTER_HEADER = "Retry-After";
+
+  private final int maxAttempts;
+  private final long initialBackoffMillis;
+  private final long maxBackoffMillis;
+  private final double retryBudgetRatio;
+  private final Set<Integer> retryableStatusCodes;
+  private final boolean retryOnConnectionFailure;
+
+  private final AtomicLong retryCount = new AtomicLong();
+
+  // Guarded by this
+  private double retryTokens;
+
+  private RetryPolicy(Builder builder) {
+    Validate.isTrue(builder.maxAttempts >= 1, "maxAttempts must be at least 1");
+    Validate.isTrue(
+        !builder.initialBackoff.isNegative() && !builder.initialBackoff.isZero(),
+        "initialBackoff must be positive");
+    Validate.isTrue(
+        builder.maxBackoff.compareTo(builder.initialBackoff) >= 0,
+        "maxBackoff must be at least initialBackoff");
+    Validate.isTrue(
+        builder.retryBudgetRatio > 0 && builder.retryBudgetRatio <= 1,
+        "retryBudgetRatio must be between 0 and 1");
+    this.maxAttempts = builder.maxAttempts;
+    this.initialBackoffMillis = builder.initialBackoff.toMillis();
+    this.maxBackoffMillis = builder.maxBackoff.toMillis();
+    this.retryBudgetRatio = builder.retryBudgetRatio;
+    this.retryableStatusCodes = Collections.unmodifiableSet(builder.retryableStatusCodes);
+    this.retryOnConnectionFailure = builder.retryOnConnectionFailure;
+    this.retryTokens = MAX_RETRY_TOKENS;
+  }
+
+  /**
+   * Returns the maximum number of attempts per call, including the first attempt
+   *
+   * @return maxAttempts
+   */
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  /**
+   * Returns the HTTP status codes that are retried
+   *
+   * @return {@link Set} of retryable status codes
+   */
+  public Set<Integer> getRetryableStatusCodes() {
+    return retryableStatusCodes;
+  }
+
+  /**
+   * Returns the number of retries sent so far
+   *
+   * @return the number of retries
+   */
+  public long getRetryCount() {
+    return retryCount.get();
+  }
+
+  // Called once for every call that may be retried, adds to the retry budget
+  synchronized void onRequest() {
+    retryTokens = Math.min(MAX_RETRY_TOKENS, retryTokens + retryBudgetRatio);
+  }
+
+  // Returns the delay before retrying a call that received the response after the given number of
+  // attempts, or -1 if the call should not be retried
+  long retryDelayMillis(int attempts, Response response) {
+    if (!retryableStatusCodes.contains(response.code())) {
+      return -1;
+    }
+    long retryAfterMillis = parseRetryAfterMillis(response);
+    if (retryAfterMillis > maxBackoffMillis) {
+      return -1;
+    }
+    return retryDelayMillis(attempts, retryAfterMillis);
+  }
+
+  // Returns the delay before retrying a call that failed after the given number of attempts, or -1
+  // if the call should not be retried. Timeouts are not retried
+  long retryDelayMillis(int attempts, IOException e) {
+    if (!retryOnConnectionFailure || e instanceof InterruptedIOException) {
+      return -1;
+    }
+    return retryDelayMillis(attempts, -1);
+  }
+
+  private long retryDelayMillis(int attempts, long retryAfterMillis) {
+    if (attempts >= maxAttempts || !tryAcquireRetry()) {
+      return -1;
+    }
+    if (retryAfterMillis >= 0) {
+      return retryAfterMillis;
+    }
+    // Full jitter on the exponential backoff
+    long backoffMillis =
+        Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempts - 1, 30));
+    return ThreadLocalRandom.current().nextLong(backoffMillis + 1);
+  }
+
+  private synchronized boolean tryAcquireRetry() {
+    if (retryTokens < 1) {
+      return false;
+    }
+    retryTokens -= 1;
+    retryCount.incrementAndGet();
+    return true;
+  }
+
+  // Parse the Retry-After header, either as a number of seconds or as an HTTP date
+  private static long parseRetryAfterMillis(Response response) {
+    String retryAfter = response.header(RETRY_AFTER_HEADER);
+    if (retryAfter == null) {
+      return -1;
+    }
+    try {
+      return Math.max(0, Long.parseLong(retryAfter.trim()) * 1000);
+    } catch (NumberFormatException e) {
+      Date retryAfterDate = response.headers().getDate(RETRY_AFTER_HEADER);
+      return retryAfterDate == null
+          ? -1
+          : Math.max(0, retryAfterDate.getTime() - System.currentTimeMillis());
+    }
+  }
+
+  /**
+   * A Builder class for creating an instance of {@link RetryPolicy} object with specific
+   * configurations
+   */
+  public static class Builder {
+    private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private Duration initialBackoff = DEFAULT_INITIAL_BACKOFF;
+    private Duration maxBackoff = DEFAULT_MAX_BACKOFF;
+    private double retryBudgetRatio = DEFAULT_RETRY_BUDGET_RATIO;
+    private Set<Integer> retryableStatusCodes = new HashSet<>(DEFAULT_RETRYABLE_STATUS_CODES);
+    private boolean retryOnConnectionFailure = true;
+
+    /**
+     * Setter for the maximum number of attempts per call, including the first attempt. Default
+     * value is 3
+     *
+     * @param maxAttempts int value, must be at least 1
+     * @return this Builder
+     */
+    public Builder maxAttempts(int maxAttempts) {
+      this.maxAttempts = maxAttempts;
+      return this;
+    }
+
+    /**
+     * Setter for the backoff before the first retry, doubled for every subsequent retry. Default
+     * value is 50ms
+     *
+     * @param initialBackoff initialBackoff as a {@link java.time.Duration}
+     * @return this Builder
+     */
+    public Builder initialBackoff(Duration initialBackoff) {
+      this.initialBackoff = initialBackoff;
+      return this;
+    }
+
+    /**
+     * Setter for the maximum backoff between retries, also the maximum Retry-After delay that is
+     * honored. Default value is 1s
+     *
+     * @param maxBackoff maxBackoff as a {@link java.time.Duration}
+     * @return this Builder
+     */
+    public Builder maxBackoff(Duration maxBackoff) {
+      this.maxBackoff = maxBackoff;
+      return this;
+    }
+
+    /**
+     * Setter for the maximum ratio of retries to requests. Default value is 0.1, i.e. at most 10%
+     * extra requests
+     *
+     * @param retryBudgetRatio double value, must be between 0 (exclusive) and 1
+     * @return this Builder
+     */
+    public Builder retryBudgetRatio(double retryBudgetRatio) {
+      this.retryBudgetRatio = retryBudgetRatio;
+      return this;
+    }
+
+    /**
+     * Setter for the HTTP status codes that are retried. Default value is 429, 503 and 504
+     *
+     * @param retryableStatusCodes {@link Set} of HTTP status codes
+     * @return this Builder
+     */
+    public Builder retryableStatusCodes(Set<Integer> retryableStatusCodes) {
+      this.retryableStatusCodes = new HashSet<>(retryableStatusCodes);
+      return this;
+    }
+
+    /**
+     * Setter for whether calls that fail to connect or lose their connection are retried. Calls
+     * that time out are never retried. Default value is true
+     *
+     * @param retryOnConnectionFailure boolean value
+     * @return this Builder
+     */
+    public Builder retryOnConnectionFailure(boolean retryOnConnectionFailure) {
+      this.retryOnConnectionFailure = retryOnConnectionFailure;
+      return this;
+    }
+
+    /**
+     * Build a {@link RetryPolicy} object from the Builder
+     *
+     * @return {@link RetryPolicy}
+     * @throws IllegalArgumentException when the configured values are invalid
+     */
+    public RetryPolicy build() {
+      return new RetryPolicy(this);
+    }
+  }
+}
@@ -1,34 +1,39 @@
 package ai.tecton.client.transport;
 
 import ai.tecton.client.TectonClientOptions;
+import ai.tecton.client.exceptions.CallTimeoutException;
 import ai.tecton.client.exceptions.TectonClientException;
 import ai.tecton.client.exceptions.TectonErrorMessage;
-import ai.tecton.client.exceptions.TectonServiceException;
+import ai.tecton.client.request.RequestConstants;
 import ai.tecton.client.version.Version;
 import java.io.IOException;
-import java.io.InterruptedIOException;
 import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import okhttp3.Call;
 import okhttp3.Callback;
 import okhttp3.ConnectionPool;
 import okhttp3.Dispatcher;
+import okhttp3.Headers;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 
 public class TectonHttpClient {
@@ -37,17 +42,31 @@ public class TectonHttpClient {
   private final String apiKey;
   private final OkHttpClient client;
   private final AtomicBoolean isClosed;
+  private final HedgingPolicy hedgingPolicy;
+  private final RetryPolicy retryPolicy;
+  // Requests without a body with the resolved URL and headers of each endpoint
+  private final Map<String, Request> preparedRequests = new ConcurrentHashMap<>();
   private static final String API_KEY_PREFIX = "Tecton-key ";
   private static final String USER_AGENT_STRING_PREFIX = "tecton-http-java-client ";
 
-  private static final Map<String, String> defaultHeaders =
-      new HashMap<String, String>() {
-        {
-          put(HttpHeader.CONTENT_TYPE.getName(), MediaType.APPLICATION_JSON.getName());
-          put(HttpHeader.ACCEPT.getName(), MediaType.APPLICATION_JSON.getName());
-          put(HttpHeader.USER_AGENT.getName(), USER_AGENT_STRING_PREFIX + Version.VERSION);
-        }
-      };
+  // Single daemon thread shared by all clients, only used to fire timers for async calls
+  private static final ScheduledExecutorService timer =
+      Executors.newSingleThreadScheduledExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "tecton-http-client-timer");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  private static final Headers defaultHeaders =
+      new Headers.Builder()
+          .add(HttpHeader.CONTENT_TYPE.getName(), MediaType.APPLICATION_JSON.getName())
+          .add(HttpHeader.ACCEPT.getName(), MediaType.APPLICATION_JSON.getName())
+          .add(HttpHeader.USER_AGENT.getName(), USER_AGENT_STRING_PREFIX + Version.VERSION)
+          .build();
+  /** The media type of the JSON body of a request */
+  public static final okhttp3.MediaType JSON_MEDIA_TYPE =
+      okhttp3.MediaType.get(MediaType.APPLICATION_JSON.getName());
 
   public TectonHttpClient(String url, String apiKey, TectonClientOptions tectonClientOptions) {
     validateUrl(url);
@@ -59,9 +78,17 @@ public class TectonHttpClient {
 
     OkHttpClient.Builder builder =
         new OkHttpClient.Builder()
-            .readTimeout(tectonClientOptions.getReadTimeout().getSeconds(), TimeUnit.SECONDS)
-            .connectTimeout(tectonClientOptions.getConnectTimeout().getSeconds(), TimeUnit.SECONDS)
+            .readTimeout(tectonClientOptions.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS)
+            .connectTimeout(
+                tectonClientOptions.getConnectTimeout().toMillis(), TimeUnit.MILLISECONDS)
+            .writeTimeout(tectonClientOptions.getWriteTimeout().toMillis(), TimeUnit.MILLISECONDS)
+            .callTimeout(tectonClientOptions.getCallTimeout().toMillis(), TimeUnit.MILLISECONDS)
             .dispatcher(dispatcher);
+    AdaptiveConcurrencyLimiter concurrencyLimiter = tectonClientOptions.getConcurrencyLimiter();
+    if (concurrencyLimiter != null) {
+      concurrencyLimiter.attach(dispatcher);
+      builder.addInterceptor(concurrencyLimiter.interceptor());
+    }
     ConnectionPool connectionPool =
         new ConnectionPool(
             tectonClientOptions.getMaxIdleConnections(),
@@ -70,6 +97,8 @@ public class TectonHttpClient {
     builder.connectionPool(connectionPool);
     client = builder.build();
     isClosed = new AtomicBoolean(false);
+    hedgingPolicy = tectonClientOptions.getHedgingPolicy();
+    retryPolicy = tectonClientOptions.getRetryPolicy();
   }
 
   public TectonHttpClient(String url, String apiKey, OkHttpClient httpClient) {
@@ -80,6 +109,8 @@ public class TectonHttpClient {
     this.client = httpClient;
     this.apiKey = apiKey;
     this.isClosed = new AtomicBoolean(false);
+    this.hedgingPolicy = null;
+    this.retryPolicy = null;
   }
 
   public void close() {
@@ -94,84 +125,483 @@ public class TectonHttpClient {
   }
 
   public HttpResponse performRequest(String endpoint, HttpMethod method, String requestBody) {
-    HttpRequest httpRequest =
-        new HttpRequest(url.url().toString(), endpoint, method, apiKey, requestBody);
-    Request request = buildRequestWithDefaultHeaders(httpRequest);
-    Call call = client.newCall(request);
-    try (Response response = call.execute()) {
-      return new HttpResponse(response);
-    } catch (Exception e) {
-      throw new TectonClientException(e.getMessage());
+    return performRequest(endpoint, method, jsonRequestBody(requestBody), null);
+  }
+
+  /**
+   * Performs a request with a timeout that spans all attempts of the call, overriding the call
+   * timeout configured for the client. A null timeout uses the call timeout of the client.
+   */
+  public HttpResponse performRequest(
+      String endpoint, HttpMethod method, String requestBody, Duration callTimeout) {
+    return performRequest(endpoint, method, jsonRequestBody(requestBody), callTimeout);
+  }
+
+  /**
+   * Performs a request with a {@link RequestBody}, e.g. one that streams the JSON of the request
+   * into the call. The body is written again for every attempt of the call. A null timeout uses the
+   * call timeout of the client.
+   */
+  public HttpResponse performRequest(
+      String endpoint, HttpMethod method, RequestBody requestBody, Duration callTimeout) {
+    Request request = buildRequest(endpoint, method, requestBody);
+    Long deadlineNanos = deadlineNanos(callTimeout);
+    onRetryableRequest();
+    // The same Request, including its body, is reused for every attempt
+    for (int attempt = 1; ; attempt++) {
+      long retryDelayMillis;
+      try (Response response = newCall(request, deadlineNanos).execute()) {
+        retryDelayMillis =
+            retryPolicy == null
+                ? -1
+                : withinDeadline(retryPolicy.retryDelayMillis(attempt, response), deadlineNanos);
+        if (retryDelayMillis < 0) {
+          return new HttpResponse(response);
+        }
+      } catch (IOException e) {
+        retryDelayMillis =
+            retryPolicy == null
+                ? -1
+                : withinDeadline(retryPolicy.retryDelayMillis(attempt, e), deadlineNanos);
+        if (retryDelayMillis < 0) {
+          throw new TectonClientException(e.getMessage());
+        }
+      } catch (Exception e) {
+        throw new TectonClientException(e.getMessage());
+      }
+      try {
+        Thread.sleep(retryDelayMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new TectonClientException(e.getMessage());
+      }
     }
   }
 
-  public List<HttpResponse> performParallelRequests(
-      String endpoint, HttpMethod method, List<String> requestBodyList, Duration timeout)
-      throws TectonClientException {
-    // Initialize response list
-    ParallelCallHandler parallelCallHandler = new ParallelCallHandler(requestBodyList.size());
-
-    // Map request body to OkHttp Request
-    // ordering of requests is maintained
-    List<Request> requestList =
-        requestBodyList
-            .parallelStream()
-            .map(
-                requestBody ->
-                    new HttpRequest(url.url().toString(), endpoint, method, apiKey, requestBody))
-            .map(this::buildRequestWithDefaultHeaders)
-            .collect(Collectors.toList());
+  /**
+   * Asynchronously performs a request using {@link Call#enqueue(Callback)}. Cancelling the returned
+   * future cancels the underlying OkHttp {@link Call}.
+   */
+  public CompletableFuture<HttpResponse> performRequestAsync(
+      String endpoint, HttpMethod method, String requestBody) {
+    return performRequestAsync(endpoint, method, jsonRequestBody(requestBody), null);
+  }
+
+  /**
+   * Asynchronously performs a request with a timeout that spans all attempts of the call,
+   * overriding the call timeout configured for the client. A null timeout uses the call timeout of
+   * the client.
+   */
+  public CompletableFuture<HttpResponse> performRequestAsync(
+      String endpoint, HttpMethod method, String requestBody, Duration callTimeout) {
+    return performRequestAsync(endpoint, method, jsonRequestBody(requestBody), callTimeout);
+  }
+
+  /**
+   * Asynchronously performs a request with a {@link RequestBody}, see {@link
+   * #performRequest(String, HttpMethod, RequestBody, Duration)}
+   */
+  public CompletableFuture<HttpResponse> performRequestAsync(
+      String endpoint, HttpMethod method, RequestBody requestBody, Duration callTimeout) {
+    Request request = buildRequest(endpoint, method, requestBody);
+    onRetryableRequest();
+    return enqueue(request, deadlineNanos(callTimeout));
+  }
+
+  /**
+   * Performs a request that is hedged according to the configured {@link HedgingPolicy}, or a
+   * regular request if no policy is configured.
+   */
+  public HttpResponse performHedgedRequest(String endpoint, HttpMethod method, String requestBody) {
+    return performHedgedRequest(endpoint, method, jsonRequestBody(requestBody), null);
+  }
+
+  /**
+   * Performs a hedged request with a timeout that spans all attempts of the call, overriding the
+   * call timeout configured for the client. A null timeout uses the call timeout of the client.
+   */
+  public HttpResponse performHedgedRequest(
+      String endpoint, HttpMethod method, String requestBody, Duration callTimeout) {
+    return performHedgedRequest(endpoint, method, jsonRequestBody(requestBody), callTimeout);
+  }
+
+  /** Performs a hedged request with a {@link RequestBody}, see {@link #performHedgedRequest} */
+  public HttpResponse performHedgedRequest(
+      String endpoint, HttpMethod method, RequestBody requestBody, Duration callTimeout) {
+    if (hedgingPolicy == null) {
+      return performRequest(endpoint, method, requestBody, callTimeout);
+    }
+    try {
+      return performHedgedRequestAsync(endpoint, method, requestBody, callTimeout).join();
+    } catch (CompletionException e) {
+      Throwable cause = unwrap(e);
+      if (cause instanceof TectonClientException) {
+        throw (TectonClientException) cause;
+      }
+      throw new TectonClientException(cause.getMessage(), cause);
+    }
+  }
+
+  /**
+   * Asynchronously performs a request that is hedged according to the configured {@link
+   * HedgingPolicy}: if no response has been received within the hedge delay and the hedge budget
+   * allows it, a duplicate call is sent and the future completes with whichever response arrives
+   * first. The other call is cancelled. Without a policy this is equivalent to {@link
+   * #performRequestAsync}.
+   */
+  public CompletableFuture<HttpResponse> performHedgedRequestAsync(
+      String endpoint, HttpMethod method, String requestBody) {
+    return performHedgedRequestAsync(endpoint, method, jsonRequestBody(requestBody), null);
+  }
 
-    // Initialize a countdown latch for numberOfCalls.
-    CountDownLatch countDownLatch = new CountDownLatch(requestBodyList.size());
-
-    Callback callback =
-        new Callback() {
-          @Override
-          public void onFailure(Call call, IOException e) {
-            // On timeout, executor rejects all pending calls. This could lead to an
-            // InterruptedIOException for in-flight calls, which is expected.
-            // Only log failures for other call failures such as network issues
-            if (!(e instanceof InterruptedIOException)) {
-              parallelCallHandler.logCallFailure(e.getMessage());
+  /**
+   * Asynchronously performs a hedged request with a timeout that spans all attempts of the call,
+   * including the hedged attempt, overriding the call timeout configured for the client. A null
+   * timeout uses the call timeout of the client.
+   */
+  public CompletableFuture<HttpResponse> performHedgedRequestAsync(
+      String endpoint, HttpMethod method, String requestBody, Duration callTimeout) {
+    return performHedgedRequestAsync(endpoint, method, jsonRequestBody(requestBody), callTimeout);
+  }
+
+  /**
+   * Asynchronously performs a hedged request with a {@link RequestBody}, see {@link
+   * #performHedgedRequestAsync}. The body is written again for the hedged attempt.
+   */
+  public CompletableFuture<HttpResponse> performHedgedRequestAsync(
+      String endpoint, HttpMethod method, RequestBody requestBody, Duration callTimeout) {
+    if (hedgingPolicy == null) {
+      return performRequestAsync(endpoint, method, requestBody, callTimeout);
+    }
+    Request request = buildRequest(endpoint, method, requestBody);
+    Long deadlineNanos = deadlineNanos(callTimeout);
+    CompletableFuture<HttpResponse> resultFuture = new CompletableFuture<>();
+    AtomicInteger pendingAttempts = new AtomicInteger();
+
+    // The request earns its retry budget once, however many attempts are hedged
+    onRetryableRequest();
+    hedgingPolicy.onRequest();
+    sendAttempt(request, deadlineNanos, resultFuture, pendingAttempts, false);
+    Duration hedgeDelay = hedgingPolicy.getHedgeDelay();
+    if (hedgeDelay != null) {
+      ScheduledFuture<?> hedgeTask =
+          timer.schedule(
+              () -> {
+                if (!resultFuture.isDone() && hedgingPolicy.tryAcquireHedge()) {
+                  sendAttempt(request, deadlineNanos, resultFuture, pendingAttempts, true);
+                }
+              },
+              hedgeDelay.toNanos(),
+              TimeUnit.NANOSECONDS);
+      resultFuture.whenComplete((response, throwable) -> hedgeTask.cancel(false));
+    }
+    return resultFuture;
+  }
+
+  // Send a single attempt of a hedged request. The first attempt to receive a response completes
+  // the result, and the result only fails once all attempts sent so far have failed
+  private void sendAttempt(
+      Request request,
+      Long deadlineNanos,
+      CompletableFuture<HttpResponse> resultFuture,
+      AtomicInteger pendingAttempts,
+      boolean isHedge) {
+    long startNanos = System.nanoTime();
+    pendingAttempts.incrementAndGet();
+    CompletableFuture<HttpResponse> attemptFuture = enqueue(request, deadlineNanos);
+    attemptFuture.whenComplete(
+        (response, throwable) -> {
+          // The hedge delay is a percentile of the latency of first attempts. A first attempt that
+          // lost to its hedge is cancelled, and the time until then is recorded as its latency, so
+          // that slow first attempts are not left out of the samples
+          if (!isHedge
+              && (throwable == null
+                  || (resultFuture.isDone() && !resultFuture.isCompletedExceptionally()))) {
+            hedgingPolicy.recordLatency(System.nanoTime() - startNanos);
+          }
+          if (throwable == null) {
+            if (isHedge && !resultFuture.isDone()) {
+              hedgingPolicy.onHedgeWin();
             }
+            resultFuture.complete(response);
+          } else if (pendingAttempts.decrementAndGet() == 0) {
+            resultFuture.completeExceptionally(throwable);
           }
+        });
+    // Cancel the attempt once another attempt has won, or the request is cancelled
+    resultFuture.whenComplete((response, throwable) -> attemptFuture.cancel(true));
+  }
 
-          @Override
-          public void onResponse(Call call, Response response) {
-            try (ResponseBody responseBody = response.body()) {
-              // Add response to corresponding index
-              parallelCallHandler.set(
-                  requestList.indexOf(call.request()), new HttpResponse(response, responseBody));
-            } catch (Exception e) {
-              throw new TectonServiceException(e.getMessage());
-            } finally {
-              Objects.requireNonNull(response.body()).close();
-              countDownLatch.countDown();
-            }
+  /**
+   * Asynchronously performs parallel requests for the list of request bodies. The returned future
+   * completes with a list of responses in the same order as the requests once all calls have
+   * completed, or once the timeout has elapsed. Calls that are still in flight at the timeout are
+   * cancelled and their responses have a {@link HttpResponse.CallStatus#TIMED_OUT} status, calls
+   * that failed have a {@link HttpResponse.CallStatus#FAILED} status. Cancelling the returned
+   * future cancels all calls that are still in flight.
+   */
+  public CompletableFuture<List<HttpResponse>> performParallelRequestsAsync(
+      String endpoint, HttpMethod method, List<String> requestBodyList, Duration timeout) {
+    return performParallelRequestBodiesAsync(
+        endpoint, method, jsonRequestBodies(requestBodyList), timeout);
+  }
+
+  /**
+   * Asynchronously performs parallel requests for the list of {@link RequestBody}s, see {@link
+   * #performParallelRequestsAsync}
+   */
+  public CompletableFuture<List<HttpResponse>> performParallelRequestBodiesAsync(
+      String endpoint, HttpMethod method, List<RequestBody> requestBodyList, Duration timeout) {
+    List<CompletableFuture<HttpResponse>> callFutures =
+        requestBodyList.stream()
+            .map(requestBody -> performRequestAsync(endpoint, method, requestBody, null))
+            .collect(Collectors.toList());
+    CompletableFuture<List<HttpResponse>> batchFuture = new CompletableFuture<>();
+
+    // Calls that did not complete within the timeout fail with a CallTimeoutException, which tells
+    // them apart from calls that failed
+    TectonClientException timeoutException =
+        timeout.equals(RequestConstants.NONE_TIMEOUT) ? null : callTimeoutException(timeout);
+    CompletableFuture<Void> allCalls =
+        CompletableFuture.allOf(callFutures.toArray(new CompletableFuture[0]));
+    allCalls.whenComplete((ignored, throwable) -> completeBatch(batchFuture, callFutures));
+    if (timeoutException != null) {
+      // At the timeout, cancel all calls that are still in flight, which releases their connections
+      ScheduledFuture<?> timeoutTask =
+          timer.schedule(
+              () ->
+                  callFutures.forEach(
+                      callFuture -> callFuture.completeExceptionally(timeoutException)),
+              timeout.toMillis(),
+              TimeUnit.MILLISECONDS);
+      allCalls.whenComplete((ignored, throwable) -> timeoutTask.cancel(false));
+    }
+
+    // Propagate cancellation of the batch to all calls still in flight
+    batchFuture.whenComplete(
+        (responses, throwable) -> {
+          if (batchFuture.isCancelled()) {
+            callFutures.forEach(callFuture -> callFuture.cancel(true));
           }
-        };
-
-    // Enqueue all calls
-    requestList
-        .parallelStream()
-        .forEach(
-            request -> {
-              client.newCall(request).enqueue(callback);
-            });
+        });
+    return batchFuture;
+  }
+
+  /**
+   * Asynchronously performs parallel requests for the list of request bodies and returns one future
+   * per request, in the same order as the requests. Each future completes as soon as its own call
+   * completes, so responses can be consumed while the remaining calls are still in flight. Once the
+   * timeout has elapsed, the futures of all incomplete calls complete exceptionally with the same
+   * {@link TectonClientException} and the calls are cancelled.
+   */
+  public List<CompletableFuture<HttpResponse>> performParallelRequestsIncrementally(
+      String endpoint, HttpMethod method, List<String> requestBodyList, Duration timeout) {
+    return performParallelRequestBodiesIncrementally(
+        endpoint, method, jsonRequestBodies(requestBodyList), timeout);
+  }
+
+  /**
+   * Asynchronously performs parallel requests for the list of {@link RequestBody}s and returns one
+   * future per request, see {@link #performParallelRequestsIncrementally}
+   */
+  public List<CompletableFuture<HttpResponse>> performParallelRequestBodiesIncrementally(
+      String endpoint, HttpMethod method, List<RequestBody> requestBodyList, Duration timeout) {
+    List<CompletableFuture<HttpResponse>> callFutures =
+        requestBodyList.stream()
+            .map(requestBody -> performRequestAsync(endpoint, method, requestBody, null))
+            .collect(Collectors.toList());
+
+    if (!timeout.equals(RequestConstants.NONE_TIMEOUT)) {
+      TectonClientException timeoutException = callTimeoutException(timeout);
+      ScheduledFuture<?> timeoutTask =
+          timer.schedule(
+              () ->
+                  callFutures.forEach(
+                      callFuture -> callFuture.completeExceptionally(timeoutException)),
+              timeout.toMillis(),
+              TimeUnit.MILLISECONDS);
+      CompletableFuture.allOf(callFutures.toArray(new CompletableFuture[0]))
+          .whenComplete((ignored, throwable) -> timeoutTask.cancel(false));
+    }
+    return callFutures;
+  }
+
+  /**
+   * Performs parallel requests for the list of request bodies and waits until all calls have
+   * completed or the timeout has elapsed. See {@link #performParallelRequestsAsync}
+   */
+  public List<HttpResponse> performParallelRequests(
+      String endpoint, HttpMethod method, List<String> requestBodyList, Duration timeout)
+      throws TectonClientException {
+    return performParallelRequestBodies(
+        endpoint, method, jsonRequestBodies(requestBodyList), timeout);
+  }
 
-    // Wait until A) all calls have completed or B) specified timeout has elapsed
+  /**
+   * Performs parallel requests for the list of {@link RequestBody}s and waits until all calls have
+   * completed or the timeout has elapsed. See {@link #performParallelRequestsAsync}
+   */
+  public List<HttpResponse> performParallelRequestBodies(
+      String endpoint, HttpMethod method, List<RequestBody> requestBodyList, Duration timeout)
+      throws TectonClientException {
+    CompletableFuture<List<HttpResponse>> batchFuture =
+        performParallelRequestBodiesAsync(endpoint, method, requestBodyList, timeout);
     try {
-      boolean completedAllCalls = countDownLatch.await(timeout.toMillis(), TimeUnit.MILLISECONDS);
-      if (!parallelCallHandler.failureMessageList.isEmpty()) {
-        throw new TectonClientException(
-            String.format(
-                TectonErrorMessage.CALL_FAILURE, parallelCallHandler.failureMessageList.get(0)));
-      }
-      return parallelCallHandler.responseList;
+      return batchFuture.get();
     } catch (InterruptedException e) {
-      throw new TectonClientException(e.getMessage());
+      batchFuture.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new TectonClientException(e.getMessage(), e);
+    } catch (ExecutionException e) {
+      throw new TectonClientException(e.getCause().getMessage(), e.getCause());
+    }
+  }
+
+  // Adds to the retry budget once per request, not once per attempt or hedge
+  private void onRetryableRequest() {
+    if (retryPolicy != null) {
+      retryPolicy.onRequest();
+    }
+  }
+
+  private CompletableFuture<HttpResponse> enqueue(Request request, Long deadlineNanos) {
+    CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+    RetryingCallback retryingCallback =
+        new RetryingCallback(
+            request,
+            deadlineNanos,
+            new Callback() {
+              @Override
+              public void onFailure(Call call, IOException e) {
+                future.completeExceptionally(new TectonClientException(e.getMessage(), e));
+              }
+
+              @Override
+              public void onResponse(Call call, Response response) {
+                try (ResponseBody responseBody = response.body()) {
+                  future.complete(new HttpResponse(response, responseBody));
+                } catch (Exception e) {
+                  future.completeExceptionally(new TectonClientException(e.getMessage(), e));
+                }
+              }
+            });
+    // Cancel the call if the future is cancelled or completed exceptionally (e.g. on a timeout)
+    // before the call itself completes
+    future.whenComplete(
+        (response, throwable) -> {
+          if (throwable != null) {
+            retryingCallback.cancel();
+          }
+        });
+    retryingCallback.enqueue();
+    return future;
+  }
+
+  // Complete the batch with the response of every call, or a timed out or failed response for
+  // calls that did not complete successfully
+  private static void completeBatch(
+      CompletableFuture<List<HttpResponse>> batchFuture,
+      List<CompletableFuture<HttpResponse>> callFutures) {
+    List<HttpResponse> responseList = new ArrayList<>(callFutures.size());
+    for (CompletableFuture<HttpResponse> callFuture : callFutures) {
+      try {
+        responseList.add(callFuture.join());
+      } catch (CompletionException | CancellationException e) {
+        Throwable cause = unwrap(e);
+        responseList.add(
+            isCallTimeout(cause) ? HttpResponse.timedOut(cause) : HttpResponse.failed(cause));
+      }
+    }
+    batchFuture.complete(responseList);
+  }
+
+  private static TectonClientException callTimeoutException(Duration timeout) {
+    return new CallTimeoutException(timeout.toMillis());
+  }
+
+  // Returns true if the call failed because the timeout of its request elapsed, even if the
+  // CallTimeoutException has been wrapped since
+  private static boolean isCallTimeout(Throwable throwable) {
+    for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+      if (cause instanceof CallTimeoutException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Schedules a task on the timer thread shared by all clients. Tasks must be short and must not
+   * block, e.g. enqueueing calls.
+   */
+  public ScheduledFuture<?> schedule(Runnable task, Duration delay) {
+    return timer.schedule(task, delay.toNanos(), TimeUnit.NANOSECONDS);
+  }
+
+  // Returns the deadline of a request with the given timeout, or null if the request uses the call
+  // timeout configured for the client
+  private static Long deadlineNanos(Duration callTimeout) {
+    return callTimeout == null ? null : System.nanoTime() + callTimeout.toNanos();
+  }
+
+  // Create a call whose timeout is the time remaining until the deadline of the request
+  private Call newCall(Request request, Long deadlineNanos) {
+    Call call = client.newCall(request);
+    if (deadlineNanos != null) {
+      call.timeout().timeout(Math.max(1, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+    return call;
+  }
+
+  // Returns the retry delay if the retry can still be sent before the deadline of the request, -1
+  // otherwise
+  private static long withinDeadline(long retryDelayMillis, Long deadlineNanos) {
+    if (retryDelayMillis < 0 || deadlineNanos == null) {
+      return retryDelayMillis;
     }
+    return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryDelayMillis) - deadlineNanos < 0
+        ? retryDelayMillis
+        : -1;
+  }
+
+  private static Throwable unwrap(Throwable throwable) {
+    return (throwable instanceof CompletionException && throwable.getCause() != null)
+        ? throwable.getCause()
+        : throwable;
+  }
+
+  /**
+   * Resolves the URL and the headers of requests to an endpoint ahead of the first call. Requests
+   * to an endpoint reuse its URL and headers once they are resolved, instead of building them again
+   * for every call
+   */
+  public void prepareEndpoint(String endpoint) {
+    getPreparedRequest(endpoint);
+  }
+
+  // Build the Request of a call from the resolved URL and headers of the endpoint
+  Request buildRequest(String endpoint, HttpMethod method, RequestBody requestBody) {
+    return getPreparedRequest(endpoint).newBuilder().post(requestBody).build();
+  }
+
+  // Returns a Request without a body with the resolved URL and headers of the endpoint
+  private Request getPreparedRequest(String endpoint) {
+    String key = endpoint != null ? endpoint : "";
+    Request preparedRequest = preparedRequests.get(key);
+    if (preparedRequest == null) {
+      preparedRequest =
+          preparedRequests.computeIfAbsent(
+              key,
+              ignored ->
+                  buildRequestWithDefaultHeaders(
+                      new HttpRequest(
+                          url.url().toString(),
+                          endpoint,
+                          HttpMethod.POST,
+                          apiKey,
+                          RequestBody.create(new byte[0], null))));
+    }
+    return preparedRequest;
   }
 
   public Request buildRequestWithDefaultHeaders(HttpRequest httpRequest) {
@@ -179,26 +609,30 @@ public class TectonHttpClient {
     Request.Builder requestBuilder = new Request.Builder().url(httpRequest.getUrl());
 
     // Add headers
-    for (Map.Entry<String, String> header : defaultHeaders.entrySet()) {
-      requestBuilder.header(header.getKey(), header.getValue());
-    }
-    String apiKeyHeader = StringUtils.join(API_KEY_PREFIX + httpRequest.getApiKey());
-    requestBuilder.header(HttpHeader.AUTHORIZATION.getName(), apiKeyHeader);
+    requestBuilder.headers(defaultHeaders);
+    requestBuilder.header(
+        HttpHeader.AUTHORIZATION.getName(), API_KEY_PREFIX + httpRequest.getApiKey());
 
     // Add request body
     switch (httpRequest.getMethod()) {
       case POST:
       default:
-        {
-          okhttp3.MediaType mediaType =
-              okhttp3.MediaType.parse(MediaType.APPLICATION_JSON.getName());
-          RequestBody requestBody = RequestBody.create(httpRequest.getJsonBody(), mediaType);
-          requestBuilder.post(requestBody);
-        }
+        requestBuilder.post(httpRequest.getRequestBody());
     }
     return requestBuilder.build();
   }
 
+  // Create a RequestBody from the JSON String of a request
+  static RequestBody jsonRequestBody(String jsonBody) {
+    return RequestBody.create(jsonBody, JSON_MEDIA_TYPE);
+  }
+
+  private static List<RequestBody> jsonRequestBodies(List<String> jsonBodyList) {
+    return jsonBodyList.stream()
+        .map(TectonHttpClient::jsonRequestBody)
+        .collect(Collectors.toList());
+  }
+
   Duration getReadTimeout() {
     return Duration.ofMillis(client.readTimeoutMillis());
   }
@@ -207,6 +641,14 @@ public class TectonHttpClient {
     return Duration.ofMillis(client.connectTimeoutMillis());
   }
 
+  Duration getWriteTimeout() {
+    return Duration.ofMillis(client.writeTimeoutMillis());
+  }
+
+  Duration getCallTimeout() {
+    return Duration.ofMillis(client.callTimeoutMillis());
+  }
+
   int getMaxParallelRequests() {
     return client.dispatcher().getMaxRequestsPerHost();
   }
@@ -267,23 +709,62 @@ public class TectonHttpClient {
     }
   }
 
-  static class ParallelCallHandler {
-    List<HttpResponse> responseList;
-    List<String> failureMessageList;
+  // Callback that enqueues a new attempt of the same Request when the RetryPolicy allows it, and
+  // hands the final response or failure to the delegate callback
+  private class RetryingCallback implements Callback {
+    private final Request request;
+    private final Long deadlineNanos;
+    private final Callback delegate;
+    private int attempt;
+    private volatile Call currentCall;
+    private volatile boolean isCancelled;
+
+    RetryingCallback(Request request, Long deadlineNanos, Callback delegate) {
+      this.request = request;
+      this.deadlineNanos = deadlineNanos;
+      this.delegate = delegate;
+    }
 
-    ParallelCallHandler(int numberOfCalls) {
-      this.responseList = new ArrayList<>(Collections.nCopies(numberOfCalls, null));
-      this.failureMessageList = new ArrayList<>(numberOfCalls);
+    void enqueue() {
+      attempt++;
+      Call call = newCall(request, deadlineNanos);
+      currentCall = call;
+      if (isCancelled) {
+        call.cancel();
+      }
+      call.enqueue(this);
     }
 
-    void set(int index, HttpResponse httpResponse) {
-      this.responseList.set(index, httpResponse);
+    void cancel() {
+      isCancelled = true;
+      currentCall.cancel();
     }
 
-    void logCallFailure(String failureMessage) {
-      // Log all call failure messages. Currently we only use one but this can be useful for error
-      // handling per call in future
-      this.failureMessageList.add(failureMessage);
+    @Override
+    public void onFailure(Call call, IOException e) {
+      long retryDelayMillis =
+          (retryPolicy == null || call.isCanceled())
+              ? -1
+              : withinDeadline(retryPolicy.retryDelayMillis(attempt, e), deadlineNanos);
+      if (retryDelayMillis < 0) {
+        delegate.onFailure(call, e);
+      } else {
+        timer.schedule(this::enqueue, retryDelayMillis, TimeUnit.MILLISECONDS);
+      }
+    }
+
+    @Override
+    public void onResponse(Call call, Response response) throws IOException {
+      long retryDelayMillis =
+          (retryPolicy == null || isCancelled)
+              ? -1
+              : withinDeadline(retryPolicy.retryDelayMillis(attempt, response), deadlineNanos);
+      if (retryDelayMillis < 0) {
+        delegate.onResponse(call, response);
+      } else {
+        response.close();
+        timer.schedule(this::enqueue, retryDelayMillis, TimeUnit.MILLISECONDS);
+      }
     }
   }
 }
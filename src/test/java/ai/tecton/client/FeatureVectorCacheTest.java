@@ -0,0 +1,131 @@
+package ai.tecton.client;
+
+import ai.tecton.client.exceptions.TectonClientException;
+import ai.tecton.client.exceptions.TectonErrorMessage;
+import ai.tecton.client.request.GetFeaturesRequest;
+import ai.tecton.client.request.GetFeaturesRequestData;
+import ai.tecton.client.request.RequestConstants;
+import ai.tecton.client.response.GetFeaturesResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class FeatureVectorCacheTest {
+
+  private static final GetFeaturesResponse RESPONSE = Mockito.mock(GetFeaturesResponse.class);
+
+  @Test
+  public void testCacheKeyIgnoresLaterChangesToRequestData() {
+    GetFeaturesRequestData requestData = new GetFeaturesRequestData().addJoinKey("user_id", "1");
+    FeatureVectorCache.CacheKey key = FeatureVectorCache.keyOf(request(requestData));
+    requestData.addJoinKey("merchant", "abc");
+
+    Assert.assertNotEquals(key, FeatureVectorCache.keyOf(request(requestData)));
+    Assert.assertEquals(
+        key,
+        FeatureVectorCache.keyOf(request(new GetFeaturesRequestData().addJoinKey("user_id", "1"))));
+  }
+
+  @Test
+  public void testExpiredEntry() throws InterruptedException {
+    FeatureVectorCache cache = new FeatureVectorCache.Builder().ttl(Duration.ofMillis(50)).build();
+    FeatureVectorCache.CacheKey key = key("1");
+    Assert.assertNull(cache.get(key));
+    cache.put(key, RESPONSE);
+    Assert.assertSame(RESPONSE, cache.get(key));
+
+    Thread.sleep(100);
+    Assert.assertNull(cache.get(key));
+    Assert.assertEquals(0, cache.getSize());
+    Assert.assertEquals(1, cache.getHitCount());
+    Assert.assertEquals(2, cache.getMissCount());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEntryIsEvicted() {
+    FeatureVectorCache cache = new FeatureVectorCache.Builder().maxEntries(2).build();
+    cache.put(key("1"), RESPONSE);
+    cache.put(key("2"), RESPONSE);
+    // Access the first entry, so that the second one is the least recently used
+    Assert.assertNotNull(cache.get(key("1")));
+    cache.put(key("3"), RESPONSE);
+
+    Assert.assertEquals(2, cache.getSize());
+    Assert.assertEquals(1, cache.getEvictionCount());
+    Assert.assertNotNull(cache.get(key("1")));
+    Assert.assertNull(cache.get(key("2")));
+    Assert.assertNotNull(cache.get(key("3")));
+  }
+
+  @Test
+  public void testFailedRefreshBacksOff() throws InterruptedException {
+    FeatureVectorCache cache =
+        new FeatureVectorCache.Builder()
+            .ttl(Duration.ofSeconds(10))
+            .refreshAfter(Duration.ofMillis(100))
+            .build();
+    AtomicInteger refreshes = new AtomicInteger();
+    cache.attach(
+        request -> {
+          refreshes.incrementAndGet();
+          CompletableFuture<GetFeaturesResponse> future = new CompletableFuture<>();
+          future.completeExceptionally(new IllegalStateException());
+          return future;
+        });
+    FeatureVectorCache.CacheKey key = key("1");
+    cache.put(key, RESPONSE);
+
+    Thread.sleep(150);
+    Assert.assertSame(RESPONSE, cache.get(key));
+    Assert.assertEquals(1, refreshes.get());
+    // The failed refresh is not retried on every hit until refreshAfter has elapsed again
+    Assert.assertSame(RESPONSE, cache.get(key));
+    Assert.assertEquals(1, refreshes.get());
+
+    Thread.sleep(150);
+    Assert.assertSame(RESPONSE, cache.get(key));
+    Assert.assertEquals(2, refreshes.get());
+  }
+
+  @Test
+  public void testCacheCannotBeAttachedTwice() {
+    FeatureVectorCache cache =
+        new FeatureVectorCache.Builder().refreshAfter(Duration.ofSeconds(1)).build();
+    cache.attach(request -> new CompletableFuture<>());
+    try {
+      cache.attach(request -> new CompletableFuture<>());
+      Assert.fail();
+    } catch (TectonClientException e) {
+      Assert.assertEquals(TectonErrorMessage.FEATURE_VECTOR_CACHE_IN_USE, e.getMessage());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRefreshAfterExceedsTtl() {
+    new FeatureVectorCache.Builder()
+        .ttl(Duration.ofSeconds(1))
+        .refreshAfter(Duration.ofSeconds(1))
+        .build();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidTtl() {
+    new FeatureVectorCache.Builder().ttl(Duration.ZERO).build();
+  }
+
+  private static FeatureVectorCache.CacheKey key(String userId) {
+    return FeatureVectorCache.keyOf(
+        request(new GetFeaturesRequestData().addJoinKey("user_id", userId)));
+  }
+
+  private static GetFeaturesRequest request(GetFeaturesRequestData requestData) {
+    return new GetFeaturesRequest(
+        "prod",
+        "fraud_detection_feature_service",
+        requestData,
+        RequestConstants.ALL_METADATA_OPTIONS);
+  }
+}
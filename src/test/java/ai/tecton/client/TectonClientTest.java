@@ -3,7 +3,9 @@ package ai.tecton.client;
 import static junit.framework.TestCase.fail;
 
 import ai.tecton.client.exceptions.BadRequestException;
+import ai.tecton.client.exceptions.InternalServerErrorException;
 import ai.tecton.client.exceptions.ResourceExhaustedException;
+import ai.tecton.client.exceptions.ResourceNotFoundException;
 import ai.tecton.client.exceptions.TectonClientException;
 import ai.tecton.client.exceptions.TectonErrorMessage;
 import ai.tecton.client.exceptions.TectonException;
@@ -14,28 +16,45 @@ import ai.tecton.client.model.FeatureValue;
 import ai.tecton.client.model.NameAndType;
 import ai.tecton.client.model.SloInformation;
 import ai.tecton.client.model.ValueType;
+import ai.tecton.client.request.FeatureProjection;
 import ai.tecton.client.request.GetFeatureServiceMetadataRequest;
 import ai.tecton.client.request.GetFeaturesBatchRequest;
 import ai.tecton.client.request.GetFeaturesRequest;
 import ai.tecton.client.request.GetFeaturesRequestData;
 import ai.tecton.client.request.RequestConstants;
+import ai.tecton.client.response.FeatureFrame;
 import ai.tecton.client.response.GetFeatureServiceMetadataResponse;
+import ai.tecton.client.response.GetFeaturesBatchListener;
 import ai.tecton.client.response.GetFeaturesBatchResponse;
 import ai.tecton.client.response.GetFeaturesResponse;
+import ai.tecton.client.response.ResponseStatus;
+import ai.tecton.client.transport.RetryPolicy;
 import ai.tecton.client.utils.TestUtils;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.apache.commons.lang3.StringUtils;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -232,6 +251,317 @@ public class TectonClientTest {
                                 && featureVal.getDataType() == feature.getDataType()))));
   }
 
+  @Test
+  public void testFeatureServiceMetadataRegistry() throws IOException, InterruptedException {
+    String responseFile =
+        classLoader.getResource("mocktest/metadata/sampleMetadataResponse1.json").getFile();
+    String responseBody = new String(Files.readAllBytes(Paths.get(responseFile)));
+    mockWebServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) {
+            return new MockResponse().setResponseCode(200).setBody(responseBody);
+          }
+        });
+    FeatureServiceMetadataRegistry registry =
+        new FeatureServiceMetadataRegistry.Builder()
+            .featureService(WORKSPACE_NAME, FEATURE_SERVICE_NAME)
+            .refreshInterval(Duration.ofMillis(100))
+            .build();
+    TectonClient registryClient =
+        new TectonClient(
+            url,
+            apiKey,
+            new TectonClientOptions.Builder().featureServiceMetadataRegistry(registry).build());
+
+    // The metadata is loaded when the client is created
+    Assert.assertSame(registry, registryClient.getFeatureServiceMetadataRegistry());
+    Assert.assertEquals(1, mockWebServer.getRequestCount());
+    FeatureServiceMetadata metadata =
+        registry.getFeatureServiceMetadata(WORKSPACE_NAME, FEATURE_SERVICE_NAME).get();
+    Assert.assertEquals(14, metadata.getFeatureValues().size());
+    Assert.assertSame(metadata.getFeatureValuesAsMap(), metadata.getFeatureValuesAsMap());
+    Assert.assertFalse(registry.getFeatureServiceMetadata(WORKSPACE_NAME, "other").isPresent());
+
+    // The metadata is refreshed in the background
+    long deadline = System.currentTimeMillis() + 2000;
+    while (registry.getRefreshCount() == 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    Assert.assertTrue(registry.getRefreshCount() > 0);
+    Assert.assertNotSame(
+        metadata, registry.getFeatureServiceMetadata(WORKSPACE_NAME, FEATURE_SERVICE_NAME).get());
+
+    // The registry cannot be shared with another client
+    try {
+      new TectonClient(
+          url,
+          apiKey,
+          new TectonClientOptions.Builder().featureServiceMetadataRegistry(registry).build());
+      fail();
+    } catch (TectonClientException e) {
+      Assert.assertEquals(TectonErrorMessage.METADATA_REGISTRY_IN_USE, e.getMessage());
+    }
+    registryClient.close();
+  }
+
+  @Test
+  public void testFeatureServiceMetadataRegistryFailsToLoad() {
+    String errorResponse =
+        "{\"error\":\"Feature service not found\",\"code\":5,"
+            + "\"message\":\"Feature service not found\"}";
+    mockWebServer.enqueue(new MockResponse().setResponseCode(404).setBody(errorResponse));
+    FeatureServiceMetadataRegistry registry =
+        new FeatureServiceMetadataRegistry.Builder()
+            .featureService(WORKSPACE_NAME, FEATURE_SERVICE_NAME)
+            .build();
+    try {
+      new TectonClient(
+          url,
+          apiKey,
+          new TectonClientOptions.Builder().featureServiceMetadataRegistry(registry).build());
+      fail();
+    } catch (ResourceNotFoundException e) {
+      Assert.assertFalse(
+          registry.getFeatureServiceMetadata(WORKSPACE_NAME, FEATURE_SERVICE_NAME).isPresent());
+    }
+  }
+
+  @Test
+  public void testGetFeaturesWithLeanResponses() throws Exception {
+    String metadataResponse = readMetadataResponse();
+    String fullResponse = sampleResponses.get(0);
+    String leanResponse = toLeanResponse(fullResponse);
+    List<String> getFeaturesCalls = new ArrayList<>();
+    mockWebServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) {
+            if (request.getPath().endsWith("/metadata")) {
+              return new MockResponse().setResponseCode(200).setBody(metadataResponse);
+            }
+            String requestBody = request.getBody().readUtf8();
+            getFeaturesCalls.add(requestBody);
+            return new MockResponse()
+                .setResponseCode(200)
+                .setBody(requestBody.contains("metadata_options") ? fullResponse : leanResponse);
+          }
+        });
+    TectonClient leanClient =
+        new TectonClient(
+            url, apiKey, new TectonClientOptions.Builder().leanResponses(true).build());
+    GetFeaturesRequest request =
+        new GetFeaturesRequest(
+            WORKSPACE_NAME,
+            FEATURE_SERVICE_NAME,
+            new GetFeaturesRequestData().addJoinKey("user_id", "123"));
+
+    // The feature service is not in the registry yet, so the first request asks for metadata
+    GetFeaturesResponse response = leanClient.getFeatures(request);
+    Assert.assertTrue(getFeaturesCalls.get(0).contains("metadata_options"));
+    assertSameFeatureValues(response, new GetFeaturesResponse(fullResponse, Duration.ZERO));
+    FeatureServiceMetadataRegistry registry = leanClient.getFeatureServiceMetadataRegistry();
+    long deadline = System.currentTimeMillis() + 2000;
+    while (!registry.getFeatureServiceMetadata(WORKSPACE_NAME, FEATURE_SERVICE_NAME).isPresent()
+        && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+
+    // Later requests are decoded against the metadata in the registry
+    assertSameFeatureValues(leanClient.getFeatures(request), response);
+    assertSameFeatureValues(leanClient.getFeaturesAsync(request).get(), response);
+    Assert.assertEquals(3, getFeaturesCalls.size());
+    Assert.assertFalse(getFeaturesCalls.get(1).contains("metadata_options"));
+    Assert.assertFalse(getFeaturesCalls.get(2).contains("metadata_options"));
+    leanClient.close();
+  }
+
+  @Test
+  public void testGetFeaturesWithLeanResponsesOnlyForRegisteredFeatureServices() {
+    List<String> paths = new ArrayList<>();
+    mockWebServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) {
+            paths.add(request.getPath());
+            return new MockResponse().setResponseCode(200).setBody(sampleResponses.get(0));
+          }
+        });
+    TectonClient leanClient =
+        new TectonClient(
+            url,
+            apiKey,
+            new TectonClientOptions.Builder()
+                .featureServiceMetadataRegistry(
+                    new FeatureServiceMetadataRegistry.Builder()
+                        .maxOnDemandFeatureServices(0)
+                        .build())
+                .leanResponses(true)
+                .build());
+    GetFeaturesRequest request =
+        new GetFeaturesRequest(
+            WORKSPACE_NAME,
+            FEATURE_SERVICE_NAME,
+            new GetFeaturesRequestData().addJoinKey("user_id", "123"));
+
+    // The feature service was not added to the registry, so its metadata is never loaded
+    leanClient.getFeatures(request);
+    leanClient.getFeatures(request);
+    Assert.assertEquals(2, paths.size());
+    Assert.assertTrue(paths.stream().noneMatch(path -> path.endsWith("/metadata")));
+    Assert.assertFalse(
+        leanClient
+            .getFeatureServiceMetadataRegistry()
+            .getFeatureServiceMetadata(WORKSPACE_NAME, FEATURE_SERVICE_NAME)
+            .isPresent());
+    leanClient.close();
+  }
+
+  @Test
+  public void testGetFeaturesWithLeanResponsesBacksOffAfterMetadataFailure() throws Exception {
+    AtomicInteger metadataCalls = new AtomicInteger();
+    mockWebServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) {
+            if (request.getPath().endsWith("/metadata")) {
+              metadataCalls.incrementAndGet();
+              return new MockResponse().setResponseCode(500);
+            }
+            return new MockResponse().setResponseCode(200).setBody(sampleResponses.get(0));
+          }
+        });
+    FeatureServiceMetadataRegistry registry =
+        new FeatureServiceMetadataRegistry.Builder()
+            .loadFailureBackoff(Duration.ofMinutes(1))
+            .build();
+    TectonClient leanClient =
+        new TectonClient(
+            url,
+            apiKey,
+            new TectonClientOptions.Builder()
+                .featureServiceMetadataRegistry(registry)
+                .leanResponses(true)
+                .build());
+    GetFeaturesRequest request =
+        new GetFeaturesRequest(
+            WORKSPACE_NAME,
+            FEATURE_SERVICE_NAME,
+            new GetFeaturesRequestData().addJoinKey("user_id", "123"));
+
+    // Every request is sent with metadata, and the failed load is not retried within the backoff
+    for (int i = 0; i < 5; i++) {
+      Assert.assertEquals(14, leanClient.getFeatures(request).getFeatureValues().size());
+      Thread.sleep(20);
+    }
+    Assert.assertEquals(1, metadataCalls.get());
+    Assert.assertFalse(
+        registry.getFeatureServiceMetadata(WORKSPACE_NAME, FEATURE_SERVICE_NAME).isPresent());
+    leanClient.close();
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void testNullCallbackExecutor() {
+    new TectonClientOptions.Builder().callbackExecutor(null);
+  }
+
+  @Test
+  public void testGetFeaturesWithLazyDecoding() throws Exception {
+    mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(sampleResponses.get(0)));
+    TectonClient lazyClient =
+        new TectonClient(url, apiKey, new TectonClientOptions.Builder().lazyDecoding(true).build());
+    GetFeaturesRequest request =
+        new GetFeaturesRequest(
+            WORKSPACE_NAME,
+            FEATURE_SERVICE_NAME,
+            new GetFeaturesRequestData().addJoinKey("user_id", "123"));
+
+    GetFeaturesResponse response = lazyClient.getFeatures(request);
+    assertSameFeatureValues(
+        response, new GetFeaturesResponse(sampleResponses.get(0), Duration.ZERO));
+    lazyClient.close();
+  }
+
+  @Test
+  public void testGetFeaturesWithProjection() throws Exception {
+    mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(sampleResponses.get(0)));
+    GetFeaturesResponse fullResponse =
+        new GetFeaturesResponse(sampleResponses.get(0), Duration.ZERO);
+    String featureName =
+        fullResponse.getFeatureValues().get(1).getFeatureNamespace()
+            + "."
+            + fullResponse.getFeatureValues().get(1).getFeatureName();
+    GetFeaturesRequest request =
+        new GetFeaturesRequest.Builder()
+            .workspaceName(WORKSPACE_NAME)
+            .featureServiceName(FEATURE_SERVICE_NAME)
+            .getFeaturesRequestData(new GetFeaturesRequestData().addJoinKey("user_id", "123"))
+            .projection(FeatureProjection.ofNames(featureName))
+            .build();
+
+    GetFeaturesResponse response = tectonClient.getFeatures(request);
+    Assert.assertEquals(
+        Collections.singletonList(fullResponse.getFeatureValues().get(1)),
+        response.getFeatureValues());
+    Assert.assertFalse(mockWebServer.takeRequest().getBody().readUtf8().contains(featureName));
+  }
+
+  @Test
+  public void testGetFeaturesWithLeanResponsesReloadsChangedMetadata() throws Exception {
+    // The registry starts with metadata that has a single feature, and the feature service then
+    // returns all features
+    String staleMetadataResponse =
+        "{\"featureValues\":[{\"name\":\"merchant_fraud_rate.is_fraud_mean_1d_1d\","
+            + "\"dataType\":{\"type\":\"float64\"}}]}";
+    String metadataResponse = readMetadataResponse();
+    String leanResponse = toLeanResponse(sampleResponses.get(0));
+    AtomicInteger metadataCalls = new AtomicInteger();
+    mockWebServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) {
+            if (request.getPath().endsWith("/metadata")) {
+              return new MockResponse()
+                  .setResponseCode(200)
+                  .setBody(
+                      metadataCalls.getAndIncrement() == 0
+                          ? staleMetadataResponse
+                          : metadataResponse);
+            }
+            return new MockResponse().setResponseCode(200).setBody(leanResponse);
+          }
+        });
+    FeatureServiceMetadataRegistry registry =
+        new FeatureServiceMetadataRegistry.Builder()
+            .featureService(WORKSPACE_NAME, FEATURE_SERVICE_NAME)
+            .build();
+    TectonClient leanClient =
+        new TectonClient(
+            url,
+            apiKey,
+            new TectonClientOptions.Builder()
+                .featureServiceMetadataRegistry(registry)
+                .leanResponses(true)
+                .build());
+    GetFeaturesRequest request =
+        new GetFeaturesRequest(
+            WORKSPACE_NAME,
+            FEATURE_SERVICE_NAME,
+            new GetFeaturesRequestData().addJoinKey("user_id", "123"));
+
+    GetFeaturesResponse response = leanClient.getFeatures(request);
+    Assert.assertEquals(14, response.getFeatureValues().size());
+    Assert.assertEquals(2, metadataCalls.get());
+    Assert.assertEquals(
+        14,
+        registry
+            .getFeatureServiceMetadata(WORKSPACE_NAME, FEATURE_SERVICE_NAME)
+            .get()
+            .getFeatureValues()
+            .size());
+    leanClient.close();
+  }
+
   @Test
   public void testErrorResponseWhenJoinKeyIsMissing() {
     String errorResponse =
@@ -277,6 +607,27 @@ public class TectonClientTest {
     testErrorResponse(429, errorResponse, expectedMessage, ResourceExhaustedException.class);
   }
 
+  @Test
+  public void testGetFeaturesWithRetryPolicy() {
+    RetryPolicy retryPolicy = new RetryPolicy.Builder().build();
+    TectonClient retryingClient =
+        new TectonClient(
+            url, apiKey, new TectonClientOptions.Builder().retryPolicy(retryPolicy).build());
+    mockWebServer.enqueue(new MockResponse().setResponseCode(503));
+    mockWebServer.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "0"));
+    mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(sampleResponses.get(0)));
+    GetFeaturesRequest request =
+        new GetFeaturesRequest(
+            WORKSPACE_NAME,
+            FEATURE_SERVICE_NAME,
+            new GetFeaturesRequestData().addJoinKey("user_id", "xyz"));
+
+    GetFeaturesResponse response = retryingClient.getFeatures(request);
+    Assert.assertFalse(response.getFeatureValues().isEmpty());
+    Assert.assertEquals(3, mockWebServer.getRequestCount());
+    Assert.assertEquals(2, retryPolicy.getRetryCount());
+  }
+
   @Test
   public void testParallelGetFeaturesCall() {
     sampleResponses.forEach(
@@ -364,6 +715,676 @@ public class TectonClientTest {
     Assert.assertTrue(batchResponse.getBatchSloInformation().isPresent());
   }
 
+  @Test
+  public void testGetFeaturesAsync() {
+    mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(sampleResponses.get(0)));
+    GetFeaturesRequestData requestData =
+        new GetFeaturesRequestData().addJoinKey("user_id", "xyz").addJoinKey("merchant", "abc");
+    GetFeaturesRequest request =
+        new GetFeaturesRequest(WORKSPACE_NAME, FEATURE_SERVICE_NAME, requestData);
+
+    CompletableFuture<GetFeaturesResponse> responseFuture = tectonClient.getFeaturesAsync(request);
+    GetFeaturesResponse response = responseFuture.join();
+    Assert.assertEquals(14, response.getFeatureValues().size());
+    Assert.assertTrue(response.getSloInformation().isPresent());
+  }
+
+  @Test
+  public void testPreparedFeatureService() throws InterruptedException {
+    mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(sampleResponses.get(0)));
+    mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(sampleResponses.get(0)));
+    PreparedFeatureService preparedFeatureService =
+        tectonClient.prepare(
+            WORKSPACE_NAME, FEATURE_SERVICE_NAME, RequestConstants.DEFAULT_METADATA_OPTIONS);
+    GetFeaturesRequestData requestData =
+        new GetFeaturesRequestData().addJoinKey("user_id", "xyz").addJoinKey("merchant", "abc");
+
+    GetFeaturesResponse response = preparedFeatureService.getFeatures(requestData);
+    Assert.assertEquals(14, response.getFeatureValues().size());
+    response = preparedFeatureService.getFeaturesAsync(requestData).join();
+    Assert.assertEquals(14, response.getFeatureValues().size());
+
+    String expectedBody =
+        new GetFeaturesRequest(WORKSPACE_NAME, FEATURE_SERVICE_NAME, requestData).requestToJson();
+    for (int i = 0; i < 2; i++) {
+      RecordedRequest request = mockWebServer.takeRequest(1, TimeUnit.SECONDS);
+      Assert.assertEquals("/api/v1/feature-service/get-features", request.getPath());
+      Assert.assertEquals("Tecton-key " + apiKey, request.getHeader("Authorization"));
+      Assert.assertEquals(expectedBody, request.getBody().readUtf8());
+    }
+  }
+
+  @Test
+  public void testGetFeatureServiceMetadataAsyncWithErrorResponse() {
+    String errorResponse =
+        "{\"error\":\"invalid 'Tecton-key' authorization header\",\"code\":7,"
+            + "\"message\":\"invalid 'Tecton-key' authorization header\"}";
+    mockWebServer.enqueue(new MockResponse().setResponseCode(401).setBody(errorResponse));
+
+    CompletableFuture<GetFeatureServiceMetadataResponse> responseFuture =
+        tectonClient.getFeatureServiceMetadataAsync(
+            new GetFeatureServiceMetadataRequest(FEATURE_SERVICE_NAME));
+    try {
+      responseFuture.join();
+      fail();
+    } catch (CompletionException e) {
+      Assert.assertTrue(e.getCause() instanceof UnauthorizedException);
+      Assert.assertEquals(
+          "Unauthorized: invalid 'Tecton-key' authorization header", e.getCause().getMessage());
+    }
+  }
+
+  @Test
+  public void testGetFeaturesBatchAsync() throws IOException {
+    sampleBatchResponses.forEach(
+        sampleResponse ->
+            mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(sampleResponse)));
+    List<GetFeaturesRequestData> requestDataList =
+        TestUtils.generateFraudRequestDataFromFile("mocktest/getfeaturesbatch/input.csv");
+    GetFeaturesBatchRequest batchRequest =
+        new GetFeaturesBatchRequest(
+            WORKSPACE_NAME,
+            FEATURE_SERVICE_NAME,
+            requestDataList,
+            RequestConstants.ALL_METADATA_OPTIONS,
+            3);
+
+    GetFeaturesBatchResponse batchResponse =
+        tectonClient.getFeaturesBatchAsync(batchRequest).join();
+    Assert.assertEquals(7, batchResponse.getBatchResponseList().size());
+    batchResponse
+        .getBatchResponseList()
+        .forEach(response -> Assert.assertEquals(14, response.getFeatureValues().size()));
+    Assert.assertTrue(batchResponse.getBatchSloInformation().isPresent());
+  }
+
+  @Test
+  public void testGetFeaturesBatchAsyncWithListener() throws IOException {
+    mockWebServer.setDispatcher(new MicroBatchDispatcher(false));
+    List<GetFeaturesRequestData> requestDataList =
+        TestUtils.generateFraudRequestDataFromFile("mocktest/getfeaturesbatch/input.csv");
+    GetFeaturesBatchRequest batchRequest =
+        new GetFeaturesBatchRequest(
+            WORKSPACE_NAME,
+            FEATURE_SERVICE_NAME,
+            requestDataList,
+            RequestConstants.ALL_METADATA_OPTIONS,
+            3);
+
+    Map<Integer, GetFeaturesResponse> responses = new ConcurrentHashMap<>();
+    Map<Integer, Throwable> errors = new ConcurrentHashMap<>();
+    tectonClient
+        .getFeaturesBatchAsync(batchRequest, new CollectingListener(responses, errors))
+        .join();
+
+    Assert.assertTrue(errors.isEmpty());
+    Assert.assertEquals(7, responses.size());
+    IntStream.range(0, 7)
+        .forEach(i -> Assert.assertEquals(14, responses.get(i).getFeatureValues().size()));
+  }
+
+  @Test
+  public void testGetFeaturesBatchFrame() throws IOException {
+    mockWebServer.setDispatcher(new MicroBatchDispatcher(false));
+    List<GetFeaturesRequestData> requestDataList =
+        TestUtils.generateFraudRequestDataFromFile("mocktest/getfeaturesbatch/input.csv");
+    GetFeaturesBatchRequest batchRequest =
+        new GetFeaturesBatchRequest(
+            WORKSPACE_NAME,
+            FEATURE_SERVICE_NAME,
+            requestDataList,
+            RequestConstants.ALL_METADATA_OPTIONS,
+            3);
+
+    FeatureFrame frame = tectonClient.getFeaturesBatchFrame(batchRequest);
+    Assert.assertEquals(7, frame.getRowCount());
+    Assert.assertEquals(14, frame.getColumnCount());
+    Assert.assertTrue(frame.getBatchSloInformation().isPresent());
+    GetFeaturesBatchResponse batchResponse = tectonClient.getFeaturesBatch(batchRequest);
+    int column = frame.getColumnIndex("merchant_fraud_rate.is_fraud_mean_30d_1d");
+    IntStream.range(0, 7)
+        .forEach(
+            i -> {
+              Assert.assertTrue(frame.getResponseStatus(i).isOk());
+              Assert.assertEquals(
+                  batchResponse
+                      .getBatchResponseList()
+                      .get(i)
+                      .getFeatureValuesAsMap()
+                      .get("merchant_fraud_rate.is_fraud_mean_30d_1d")
+                      .float64Value(),
+                  frame.getDouble(i, column),
+                  0);
+            });
+
+    FeatureFrame asyncFrame = tectonClient.getFeaturesBatchFrameAsync(batchRequest).join();
+    Assert.assertEquals(7, asyncFrame.getRowCount());
+    Assert.assertEquals(frame.getFeatureNames(), asyncFrame.getFeatureNames());
+  }
+
+  @Test
+  public void testGetFeaturesBatchAsyncWithListenerDeliversCompletedMicroBatches()
+      throws IOException {
+    // The last microbatch (with a single row) does not complete within the timeout
+    mockWebServer.setDispatcher(new MicroBatchDispatcher(true));
+    List<GetFeaturesRequestData> requestDataList =
+        TestUtils.generateFraudRequestDataFromFile("mocktest/getfeaturesbatch/input.csv");
+    GetFeaturesBatchRequest batchRequest =
+        new GetFeaturesBatchRequest(
+            WORKSPACE_NAME,
+            FEATURE_SERVICE_NAME,
+            requestDataList,
+            RequestConstants.ALL_METADATA_OPTIONS,
+            3,
+            Duration.ofSeconds(1));
+
+    Map<Integer, GetFeaturesResponse> responses = new ConcurrentHashMap<>();
+    Map<Integer, Throwable> errors = new ConcurrentHashMap<>();
+    tectonClient
+        .getFeaturesBatchAsync(batchRequest, new CollectingListener(responses, errors))
+        .join();
+
+    Assert.assertEquals(6, responses.size());
+    IntStream.range(0, 6).forEach(i -> Assert.assertTrue(responses.containsKey(i)));
+    Assert.assertEquals(1, errors.size());
+    Assert.assertEquals(
+        String.format(TectonErrorMessage.CALL_TIMEOUT, 1000), errors.get(6).getMessage());
+  }
+
+  @Test
+  public void testGetFeaturesBatchWithErrorResponseForOneMicroBatch() throws IOException {
+    // The last microbatch (with a single row) is answered with a 500 error response
+    mockWebServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) {
+            int rows = StringUtils.countMatches(request.getBody().readUtf8(), "join_key_map");
+            if (rows == 1) {
+              return new MockResponse().setResponseCode(500).setBody("{\"message\": \"error\"}");
+            }
+            return new MockResponse().setResponseCode(200).setBody(sampleBatchResponses.get(0));
+          }
+        });
+    List<GetFeaturesRequestData> requestDataList =
+        TestUtils.generateFraudRequestDataFromFile("mocktest/getfeaturesbatch/input.csv");
+    GetFeaturesBatchRequest batchRequest =
+        new GetFeaturesBatchRequest(
+            WORKSPACE_NAME,
+            FEATURE_SERVICE_NAME,
+            requestDataList,
+            RequestConstants.ALL_METADATA_OPTIONS,
+            3);
+
+    GetFeaturesBatchResponse batchResponse = tectonClient.getFeaturesBatch(batchRequest);
+
+    // The rows of the other microbatches are not discarded
+    List<GetFeaturesResponse> responseList = batchResponse.getBatchResponseList();
+    List<ResponseStatus> statusList = batchResponse.getResponseStatusList();
+    Assert.assertEquals(7, responseList.size());
+    IntStream.range(0, 6)
+        .forEach(
+            i -> {
+              Assert.assertTrue(statusList.get(i).isOk());
+              Assert.assertNotNull(responseList.get(i));
+            });
+    Assert.assertNull(responseList.get(6));
+    Assert.assertEquals(ResponseStatus.Code.FAILED, statusList.get(6).getCode());
+    Throwable cause = statusList.get(6).getCause().get();
+    Assert.assertTrue(cause instanceof InternalServerErrorException);
+    Assert.assertEquals("error", cause.getMessage());
+
+    FeatureFrame frame = tectonClient.getFeaturesBatchFrame(batchRequest);
+    Assert.assertEquals(7, frame.getRowCount());
+    IntStream.range(0, 6).forEach(i -> Assert.assertTrue(frame.getResponseStatus(i).isOk()));
+    Assert.assertEquals(ResponseStatus.Code.FAILED, frame.getResponseStatus(6).getCode());
+    Assert.assertTrue(
+        frame.getResponseStatus(6).getCause().get() instanceof InternalServerErrorException);
+  }
+
+  @Test
+  public void testGetFeaturesBatchWithDuplicateRequestData() throws IOException {
+    mockWebServer.setDispatcher(new MicroBatchDispatcher(false));
+    GetFeaturesBatchRequest batchRequest = duplicateRowsBatchRequest();
+
+    GetFeaturesBatchResponse batchResponse = tectonClient.getFeaturesBatch(batchRequest);
+
+    // Only the 3 unique rows are sent, in a single microbatch
+    Assert.assertEquals(1, mockWebServer.getRequestCount());
+    List<GetFeaturesResponse> responseList = batchResponse.getBatchResponseList();
+    Assert.assertEquals(6, responseList.size());
+    Assert.assertEquals(6, batchResponse.getResponseStatusList().size());
+    IntStream.range(0, 3)
+        .forEach(
+            i -> {
+              Assert.assertEquals(14, responseList.get(i).getFeatureValues().size());
+              Assert.assertSame(responseList.get(i), responseList.get(i + 3));
+            });
+  }
+
+  @Test
+  public void testGetFeaturesBatchAsyncWithListenerAndDuplicateRequestData() throws IOException {
+    mockWebServer.setDispatcher(new MicroBatchDispatcher(false));
+    GetFeaturesBatchRequest batchRequest = duplicateRowsBatchRequest();
+
+    Map<Integer, GetFeaturesResponse> responses = new ConcurrentHashMap<>();
+    Map<Integer, Throwable> errors = new ConcurrentHashMap<>();
+    tectonClient
+        .getFeaturesBatchAsync(batchRequest, new CollectingListener(responses, errors))
+        .join();
+
+    Assert.assertEquals(1, mockWebServer.getRequestCount());
+    Assert.assertTrue(errors.isEmpty());
+    Assert.assertEquals(6, responses.size());
+    IntStream.range(0, 3).forEach(i -> Assert.assertSame(responses.get(i), responses.get(i + 3)));
+  }
+
+  // Batch request with 6 rows, where the last 3 rows repeat the first 3
+  private String readMetadataResponse() throws IOException {
+    String responseFile =
+        classLoader.getResource("mocktest/metadata/sampleMetadataResponse1.json").getFile();
+    return new String(Files.readAllBytes(Paths.get(responseFile)));
+  }
+
+  // Returns the response without the metadata block, as sent for a request without metadata options
+  private static String toLeanResponse(String response) throws IOException {
+    JsonAdapter<Map> jsonAdapter = new Moshi.Builder().build().adapter(Map.class);
+    Map<?, ?> responseJson = jsonAdapter.fromJson(response);
+    responseJson.remove("metadata");
+    return jsonAdapter.toJson(responseJson);
+  }
+
+  private static void assertSameFeatureValues(
+      GetFeaturesResponse actual, GetFeaturesResponse expected) {
+    Assert.assertEquals(expected.getFeatureValues().size(), actual.getFeatureValues().size());
+    for (int i = 0; i < expected.getFeatureValues().size(); i++) {
+      FeatureValue expectedValue = expected.getFeatureValues().get(i);
+      FeatureValue actualValue = actual.getFeatureValues().get(i);
+      Assert.assertEquals(expectedValue.getFeatureNamespace(), actualValue.getFeatureNamespace());
+      Assert.assertEquals(expectedValue.getFeatureName(), actualValue.getFeatureName());
+      Assert.assertEquals(expectedValue.getValueType(), actualValue.getValueType());
+      switch (expectedValue.getValueType()) {
+        case BOOLEAN:
+          Assert.assertEquals(expectedValue.booleanValue(), actualValue.booleanValue());
+          break;
+        case INT64:
+          Assert.assertEquals(expectedValue.int64value(), actualValue.int64value());
+          break;
+        case FLOAT64:
+          Assert.assertEquals(expectedValue.float64Value(), actualValue.float64Value());
+          break;
+        default:
+          Assert.assertEquals(expectedValue.stringValue(), actualValue.stringValue());
+      }
+    }
+  }
+
+  private GetFeaturesBatchRequest duplicateRowsBatchRequest() throws IOException {
+    List<GetFeaturesRequestData> requestDataList =
+        new ArrayList<>(
+            TestUtils.generateFraudRequestDataFromFile("mocktest/getfeaturesbatch/input.csv")
+                .subList(0, 3));
+    requestDataList.addAll(
+        TestUtils.generateFraudRequestDataFromFile("mocktest/getfeaturesbatch/input.csv")
+            .subList(0, 3));
+    return new GetFeaturesBatchRequest(
+        WORKSPACE_NAME,
+        FEATURE_SERVICE_NAME,
+        requestDataList,
+        RequestConstants.ALL_METADATA_OPTIONS,
+        3);
+  }
+
+  @Test
+  public void testCancelGetFeaturesAsync() throws InterruptedException {
+    mockWebServer.enqueue(
+        new MockResponse()
+            .setResponseCode(200)
+            .setBody(sampleResponses.get(0))
+            .setHeadersDelay(3, TimeUnit.SECONDS));
+    GetFeaturesRequest request =
+        new GetFeaturesRequest(
+            WORKSPACE_NAME,
+            FEATURE_SERVICE_NAME,
+            new GetFeaturesRequestData().addJoinKey("user_id", "xyz"));
+
+    CompletableFuture<GetFeaturesResponse> responseFuture = tectonClient.getFeaturesAsync(request);
+    // Wait for the request to reach the server before cancelling
+    Assert.assertNotNull(mockWebServer.takeRequest(2, TimeUnit.SECONDS));
+    Assert.assertTrue(responseFuture.cancel(true));
+    Assert.assertTrue(responseFuture.isCancelled());
+  }
+
+  @Test
+  public void testGetFeaturesWithBatchingPolicySendsFullBatch() {
+    mockWebServer.setDispatcher(new MicroBatchDispatcher(false));
+    BatchingPolicy batchingPolicy =
+        new BatchingPolicy.Builder().maxBatchSize(3).lingerTime(Duration.ofSeconds(10)).build();
+    TectonClient batchingClient =
+        new TectonClient(
+            url, apiKey, new TectonClientOptions.Builder().batchingPolicy(batchingPolicy).build());
+
+    // The batch is sent as soon as the third request arrives, without waiting for the linger time
+    List<CompletableFuture<GetFeaturesResponse>> responseFutures = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      responseFutures.add(
+          batchingClient.getFeaturesAsync(
+              new GetFeaturesRequest(
+                  WORKSPACE_NAME,
+                  FEATURE_SERVICE_NAME,
+                  new GetFeaturesRequestData().addJoinKey("user_id", "user_" + i),
+                  RequestConstants.ALL_METADATA_OPTIONS)));
+    }
+    responseFutures.forEach(
+        responseFuture -> Assert.assertEquals(14, responseFuture.join().getFeatureValues().size()));
+    Assert.assertEquals(1, mockWebServer.getRequestCount());
+    Assert.assertEquals(1, batchingPolicy.getBatchCount());
+    Assert.assertEquals(3, batchingPolicy.getBatchedRequestCount());
+  }
+
+  @Test
+  public void testGetFeaturesWithBatchingPolicyFlushesAfterLingerTime()
+      throws InterruptedException {
+    mockWebServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) {
+            String body =
+                request.getPath().endsWith("get-features-batch")
+                    ? sampleBatchResponses.get(0)
+                    : sampleResponses.get(0);
+            return new MockResponse().setResponseCode(200).setBody(body);
+          }
+        });
+    BatchingPolicy batchingPolicy =
+        new BatchingPolicy.Builder().lingerTime(Duration.ofMillis(200)).build();
+    TectonClient batchingClient =
+        new TectonClient(
+            url, apiKey, new TectonClientOptions.Builder().batchingPolicy(batchingPolicy).build());
+
+    // Three requests are sent together once the linger time has elapsed
+    List<CompletableFuture<GetFeaturesResponse>> responseFutures = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      responseFutures.add(
+          batchingClient.getFeaturesAsync(
+              new GetFeaturesRequest(
+                  WORKSPACE_NAME,
+                  FEATURE_SERVICE_NAME,
+                  new GetFeaturesRequestData().addJoinKey("user_id", "user_" + i))));
+    }
+    responseFutures.forEach(responseFuture -> Assert.assertNotNull(responseFuture.join()));
+    RecordedRequest batchCall = mockWebServer.takeRequest(1, TimeUnit.SECONDS);
+    Assert.assertTrue(batchCall.getPath().endsWith("get-features-batch"));
+
+    // A single request is sent to the /get-features endpoint
+    GetFeaturesResponse response =
+        batchingClient.getFeatures(
+            new GetFeaturesRequest(
+                WORKSPACE_NAME,
+                FEATURE_SERVICE_NAME,
+                new GetFeaturesRequestData().addJoinKey("user_id", "xyz")));
+    Assert.assertFalse(response.getFeatureValues().isEmpty());
+    RecordedRequest singleCall = mockWebServer.takeRequest(1, TimeUnit.SECONDS);
+    Assert.assertTrue(singleCall.getPath().endsWith("get-features"));
+    Assert.assertEquals(2, batchingPolicy.getBatchCount());
+    Assert.assertEquals(4, batchingPolicy.getBatchedRequestCount());
+  }
+
+  @Test
+  public void testGetFeaturesWithBatchingPolicyErrorResponse() {
+    String errorResponse =
+        "{\"error\":\"Missing required join key: merchant\",\"code\":3,\"message\":\"Missing required join key: merchant\"}";
+    mockWebServer.enqueue(new MockResponse().setResponseCode(400).setBody(errorResponse));
+    BatchingPolicy batchingPolicy =
+        new BatchingPolicy.Builder().lingerTime(Duration.ofMillis(1)).build();
+    TectonClient batchingClient =
+        new TectonClient(
+            url, apiKey, new TectonClientOptions.Builder().batchingPolicy(batchingPolicy).build());
+    try {
+      batchingClient.getFeatures(
+          new GetFeaturesRequest(
+              WORKSPACE_NAME,
+              FEATURE_SERVICE_NAME,
+              new GetFeaturesRequestData().addJoinKey("user_id", "xyz")));
+      fail();
+    } catch (BadRequestException e) {
+      Assert.assertEquals(Integer.valueOf(400), e.getStatusCode().get());
+    }
+  }
+
+  @Test
+  public void testGetFeaturesWithRequestCoalescer() throws InterruptedException {
+    for (int i = 0; i < 3; i++) {
+      mockWebServer.enqueue(
+          new MockResponse()
+              .setResponseCode(200)
+              .setBody(sampleResponses.get(0))
+              .setHeadersDelay(300, TimeUnit.MILLISECONDS));
+    }
+    RequestCoalescer requestCoalescer = new RequestCoalescer();
+    TectonClient coalescingClient =
+        new TectonClient(
+            url,
+            apiKey,
+            new TectonClientOptions.Builder().requestCoalescer(requestCoalescer).build());
+
+    // Five identical requests and one different request are in flight at the same time
+    List<CompletableFuture<GetFeaturesResponse>> responseFutures = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      responseFutures.add(
+          coalescingClient.getFeaturesAsync(
+              new GetFeaturesRequest(
+                  WORKSPACE_NAME,
+                  FEATURE_SERVICE_NAME,
+                  new GetFeaturesRequestData().addJoinKey("user_id", "hot_user"))));
+    }
+    CompletableFuture<GetFeaturesResponse> otherFuture =
+        coalescingClient.getFeaturesAsync(
+            new GetFeaturesRequest(
+                WORKSPACE_NAME,
+                FEATURE_SERVICE_NAME,
+                new GetFeaturesRequestData().addJoinKey("user_id", "other_user")));
+    // An identical request with its own timeout is not coalesced
+    CompletableFuture<GetFeaturesResponse> timeoutFuture =
+        coalescingClient.getFeaturesAsync(
+            new GetFeaturesRequest.Builder()
+                .workspaceName(WORKSPACE_NAME)
+                .featureServiceName(FEATURE_SERVICE_NAME)
+                .getFeaturesRequestData(
+                    new GetFeaturesRequestData().addJoinKey("user_id", "hot_user"))
+                .timeout(Duration.ofSeconds(5))
+                .build());
+    Assert.assertEquals(3, requestCoalescer.getInFlightCount());
+
+    GetFeaturesResponse sharedResponse = responseFutures.get(0).join();
+    responseFutures.forEach(future -> Assert.assertSame(sharedResponse, future.join()));
+    Assert.assertNotSame(sharedResponse, otherFuture.join());
+    Assert.assertNotSame(sharedResponse, timeoutFuture.join());
+    Assert.assertEquals(3, mockWebServer.getRequestCount());
+    Assert.assertEquals(7, requestCoalescer.getRequestCount());
+    Assert.assertEquals(4, requestCoalescer.getCoalescedRequestCount());
+    Assert.assertEquals(0, requestCoalescer.getInFlightCount());
+
+    // Once the call has completed, an identical request sends a new call
+    mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(sampleResponses.get(0)));
+    coalescingClient.getFeatures(
+        new GetFeaturesRequest(
+            WORKSPACE_NAME,
+            FEATURE_SERVICE_NAME,
+            new GetFeaturesRequestData().addJoinKey("user_id", "hot_user")));
+    Assert.assertEquals(4, mockWebServer.getRequestCount());
+  }
+
+  @Test
+  public void testGetFeaturesWithFeatureVectorCache() {
+    mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(sampleResponses.get(0)));
+    FeatureVectorCache featureVectorCache = new FeatureVectorCache.Builder().build();
+    TectonClient cachingClient =
+        new TectonClient(
+            url,
+            apiKey,
+            new TectonClientOptions.Builder().featureVectorCache(featureVectorCache).build());
+    GetFeaturesRequest request =
+        new GetFeaturesRequest(
+            WORKSPACE_NAME,
+            FEATURE_SERVICE_NAME,
+            new GetFeaturesRequestData().addJoinKey("user_id", "hot_user"));
+
+    GetFeaturesResponse response = cachingClient.getFeatures(request);
+    Assert.assertSame(response, cachingClient.getFeatures(request));
+    Assert.assertSame(response, cachingClient.getFeaturesAsync(request).join());
+    Assert.assertEquals(1, mockWebServer.getRequestCount());
+    Assert.assertEquals(2, featureVectorCache.getHitCount());
+    Assert.assertEquals(1, featureVectorCache.getMissCount());
+  }
+
+  @Test
+  public void testGetFeaturesBatchWithFeatureVectorCache() throws IOException {
+    mockWebServer.setDispatcher(new MicroBatchDispatcher(false));
+    FeatureVectorCache featureVectorCache = new FeatureVectorCache.Builder().build();
+    TectonClient cachingClient =
+        new TectonClient(
+            url,
+            apiKey,
+            new TectonClientOptions.Builder().featureVectorCache(featureVectorCache).build());
+    List<GetFeaturesRequestData> requestDataList =
+        TestUtils.generateFraudRequestDataFromFile("mocktest/getfeaturesbatch/input.csv");
+
+    GetFeaturesBatchResponse firstResponse =
+        cachingClient.getFeaturesBatch(
+            new GetFeaturesBatchRequest(
+                WORKSPACE_NAME,
+                FEATURE_SERVICE_NAME,
+                requestDataList.subList(0, 3),
+                RequestConstants.ALL_METADATA_OPTIONS,
+                3));
+    Assert.assertEquals(1, mockWebServer.getRequestCount());
+
+    // Only the 3 rows that are not cached are sent
+    GetFeaturesBatchRequest batchRequest =
+        new GetFeaturesBatchRequest(
+            WORKSPACE_NAME,
+            FEATURE_SERVICE_NAME,
+            requestDataList.subList(0, 6),
+            RequestConstants.ALL_METADATA_OPTIONS,
+            3);
+    GetFeaturesBatchResponse secondResponse = cachingClient.getFeaturesBatch(batchRequest);
+    Assert.assertEquals(2, mockWebServer.getRequestCount());
+    Assert.assertEquals(
+        firstResponse.getBatchResponseList(), secondResponse.getBatchResponseList().subList(0, 3));
+    Assert.assertEquals(6, secondResponse.getBatchResponseList().size());
+    secondResponse
+        .getResponseStatusList()
+        .forEach(responseStatus -> Assert.assertTrue(responseStatus.isOk()));
+    Assert.assertEquals(3, featureVectorCache.getHitCount());
+    Assert.assertEquals(6, featureVectorCache.getMissCount());
+
+    // Every row is cached, so no call is sent
+    Map<Integer, GetFeaturesResponse> responses = new ConcurrentHashMap<>();
+    Map<Integer, Throwable> errors = new ConcurrentHashMap<>();
+    cachingClient
+        .getFeaturesBatchAsync(batchRequest, new CollectingListener(responses, errors))
+        .join();
+    Assert.assertEquals(6, responses.size());
+    Assert.assertEquals(
+        secondResponse.getBatchResponseList(),
+        cachingClient.getFeaturesBatchAsync(batchRequest).join().getBatchResponseList());
+    Assert.assertEquals(2, mockWebServer.getRequestCount());
+  }
+
+  @Test
+  public void testGetFeaturesWithFeatureVectorCacheRefreshAhead() throws InterruptedException {
+    mockWebServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) {
+            String body =
+                request.getPath().endsWith("get-features-batch")
+                    ? sampleBatchResponses.get(0)
+                    : sampleResponses.get(0);
+            return new MockResponse().setResponseCode(200).setBody(body);
+          }
+        });
+    FeatureVectorCache featureVectorCache =
+        new FeatureVectorCache.Builder()
+            .ttl(Duration.ofSeconds(10))
+            .refreshAfter(Duration.ofMillis(100))
+            .build();
+    TectonClient cachingClient =
+        new TectonClient(
+            url,
+            apiKey,
+            new TectonClientOptions.Builder().featureVectorCache(featureVectorCache).build());
+    List<GetFeaturesRequest> requests = new ArrayList<>();
+    List<GetFeaturesResponse> responses = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      requests.add(
+          new GetFeaturesRequest(
+              WORKSPACE_NAME,
+              FEATURE_SERVICE_NAME,
+              new GetFeaturesRequestData().addJoinKey("user_id", "user_" + i)));
+      responses.add(cachingClient.getFeatures(requests.get(i)));
+    }
+    Assert.assertEquals(3, mockWebServer.getRequestCount());
+
+    // Once refreshAfter has elapsed, the cached responses are returned and refreshed in a single
+    // batch call
+    Thread.sleep(150);
+    for (int i = 0; i < 3; i++) {
+      Assert.assertSame(responses.get(i), cachingClient.getFeatures(requests.get(i)));
+    }
+    Assert.assertEquals(3, featureVectorCache.getRefreshCount());
+    long deadline = System.currentTimeMillis() + 2000;
+    while (cachingClient.getFeatures(requests.get(2)) == responses.get(2)
+        && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    Assert.assertNotSame(responses.get(2), cachingClient.getFeatures(requests.get(2)));
+    Assert.assertEquals(4, mockWebServer.getRequestCount());
+    Assert.assertEquals(3, featureVectorCache.getMissCount());
+    Assert.assertEquals(3, featureVectorCache.getRefreshCount());
+  }
+
+  // Responds to each microbatch call with a sample response of the matching size
+  private class MicroBatchDispatcher extends Dispatcher {
+    private final boolean delaySingleRowMicroBatch;
+
+    MicroBatchDispatcher(boolean delaySingleRowMicroBatch) {
+      this.delaySingleRowMicroBatch = delaySingleRowMicroBatch;
+    }
+
+    @Override
+    public MockResponse dispatch(RecordedRequest request) {
+      int rows = StringUtils.countMatches(request.getBody().readUtf8(), "join_key_map");
+      if (rows == 1) {
+        MockResponse response =
+            new MockResponse().setResponseCode(200).setBody(sampleBatchResponses.get(2));
+        return delaySingleRowMicroBatch ? response.setHeadersDelay(3, TimeUnit.SECONDS) : response;
+      }
+      return new MockResponse().setResponseCode(200).setBody(sampleBatchResponses.get(0));
+    }
+  }
+
+  private static class CollectingListener implements GetFeaturesBatchListener {
+    private final Map<Integer, GetFeaturesResponse> responses;
+    private final Map<Integer, Throwable> errors;
+
+    CollectingListener(
+        Map<Integer, GetFeaturesResponse> responses, Map<Integer, Throwable> errors) {
+      this.responses = responses;
+      this.errors = errors;
+    }
+
+    @Override
+    public void onResponse(int index, GetFeaturesResponse response) {
+      responses.put(index, response);
+    }
+
+    @Override
+    public void onError(int index, Throwable throwable) {
+      errors.put(index, throwable);
+    }
+  }
+
   private void testErrorResponse(
       int expectedStatusCode,
       String errorResponse,
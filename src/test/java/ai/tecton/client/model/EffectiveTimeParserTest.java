@@ -0,0 +1,83 @@
+package ai.tecton.client.model;
+
+import ai.tecton.client.exceptions.TectonClientException;
+import ai.tecton.client.exceptions.TectonErrorMessage;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EffectiveTimeParserTest {
+
+  @Test
+  public void testParseMatchesOffsetDateTime() {
+    String[] timestamps = {
+      "2023-05-03T00:00:00Z",
+      "1970-01-01T00:00:00Z",
+      "1969-12-31T23:59:59.999999999Z",
+      "2000-02-29T12:30:45.5+05:30",
+      "2100-12-31T23:59:59.000001-08:00",
+      "0001-01-01T00:00:00+18:00",
+      "9999-12-31T23:59:59.123-18:00",
+      // Layouts that are parsed by the fallback
+      "2023-05-03t01:02:03z",
+      "2023-05-03T01:02Z",
+      "2023-05-03T01:02:03+01:00:30",
+      "2023-05-03T01:02:03.Z",
+      "+12023-05-03T01:02:03Z"
+    };
+    for (String timestamp : timestamps) {
+      Instant expected = OffsetDateTime.parse(timestamp).toInstant();
+      Assert.assertEquals(timestamp, expected, EffectiveTimeParser.parseInstant(timestamp));
+    }
+
+    Random random = new Random(42);
+    for (int i = 0; i < 1000; i++) {
+      OffsetDateTime dateTime =
+          OffsetDateTime.ofInstant(
+              Instant.ofEpochSecond(
+                  random.nextInt(Integer.MAX_VALUE) * (random.nextBoolean() ? 1L : -1L),
+                  random.nextInt(1_000_000_000)),
+              ZoneOffset.ofTotalSeconds((random.nextInt(37) - 18) * 1800));
+      String timestamp = dateTime.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+      Assert.assertEquals(
+          timestamp, dateTime.toInstant(), EffectiveTimeParser.parseInstant(timestamp));
+    }
+  }
+
+  @Test
+  public void testParseEpochMicros() {
+    Assert.assertEquals(0, EffectiveTimeParser.parseEpochMicros("1970-01-01T00:00:00Z"));
+    Assert.assertEquals(
+        1_683_072_000_123_456L,
+        EffectiveTimeParser.parseEpochMicros("2023-05-03T00:00:00.123456789Z"));
+    Assert.assertEquals(-1, EffectiveTimeParser.parseEpochMicros("1969-12-31T23:59:59.999999Z"));
+  }
+
+  @Test
+  public void testInvalidTimestamps() {
+    String[] timestamps = {
+      "2023-02-29T00:00:00Z",
+      "2023-13-01T00:00:00Z",
+      "2023-05-03T24:00:00Z",
+      "2023-05-03T00:60:00Z",
+      "2023-05-03T00:00:60Z",
+      "2023-05-03T00:00:00",
+      "2023-05-03T00:00:00.1234567890Z",
+      "2023-05-03T00:00:00+18:01",
+      "2023-05-03 00:00:00Z",
+      "yesterday"
+    };
+    for (String timestamp : timestamps) {
+      try {
+        EffectiveTimeParser.parseInstant(timestamp);
+        Assert.fail(timestamp);
+      } catch (TectonClientException e) {
+        Assert.assertEquals(TectonErrorMessage.UNKNOWN_DATETIME_FORMAT, e.getMessage());
+      }
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package ai.tecton.client.model;
+
+import ai.tecton.client.exceptions.TectonClientException;
+import ai.tecton.client.exceptions.TectonErrorMessage;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FeatureSchemaTest {
+
+  @Test
+  public void testSchemaFromBuilder() {
+    FeatureSchema featureSchema =
+        new FeatureSchema.Builder()
+            .addFeature(
+                "user_metrics.amount_mean",
+                ValueType.FLOAT64,
+                null,
+                "2022-08-15T00:00:00Z",
+                "Mean amount",
+                Collections.singletonMap("owner", "fraud"))
+            .addFeature("user_metrics.recent_merchants", ValueType.ARRAY, ValueType.STRING)
+            .build();
+
+    Assert.assertEquals(2, featureSchema.size());
+    Assert.assertEquals(1, featureSchema.indexOf("user_metrics.recent_merchants"));
+    Assert.assertEquals(-1, featureSchema.indexOf("recent_merchants"));
+    Assert.assertEquals("user_metrics", featureSchema.getFeatureNamespace(0));
+    Assert.assertEquals("amount_mean", featureSchema.getFeatureName(0));
+    Assert.assertEquals(Instant.parse("2022-08-15T00:00:00Z"), featureSchema.getEffectiveTime(0));
+    Assert.assertEquals("Mean amount", featureSchema.getFeatureDescription(0));
+    Assert.assertEquals("fraud", featureSchema.getFeatureTags(0).get("owner"));
+    Assert.assertNull(featureSchema.getListElementType(0));
+    Assert.assertEquals(ValueType.STRING, featureSchema.getListElementType(1));
+    Assert.assertNull(featureSchema.getEffectiveTime(1));
+  }
+
+  @Test
+  public void testValuesShareSchema() {
+    FeatureSchema featureSchema =
+        FeatureSchema.of(
+            Arrays.asList(
+                new NameAndType("user_metrics.amount_mean", ValueType.FLOAT64),
+                new NameAndType("user_metrics.transaction_count", ValueType.INT64)));
+    FeatureValue amountMean =
+        new FeatureValue(10.5, featureSchema, 0, Optional.of(FeatureStatus.PRESENT));
+    FeatureValue transactionCount =
+        new FeatureValue("42", featureSchema, 1, Optional.of(FeatureStatus.PRESENT));
+
+    Assert.assertSame(amountMean.getFeatureSchema(), transactionCount.getFeatureSchema());
+    Assert.assertEquals("transaction_count", transactionCount.getFeatureName());
+    Assert.assertEquals(Long.valueOf(42), transactionCount.int64value());
+    // A value built against a shared schema equals one built with its own metadata
+    Assert.assertEquals(
+        new FeatureValue(
+            10.5,
+            "user_metrics.amount_mean",
+            ValueType.FLOAT64,
+            Optional.empty(),
+            null,
+            Optional.of(FeatureStatus.PRESENT),
+            null,
+            null),
+        amountMean);
+  }
+
+  @Test
+  public void testEffectiveTimeMicros() {
+    FeatureSchema featureSchema =
+        new FeatureSchema.Builder()
+            .addFeature("fv.a", ValueType.INT64, null, "2022-08-15T00:00:00.5Z", null, null)
+            .addFeature("fv.b", ValueType.INT64, null, null, null, null)
+            .addFeature("fv.c", ValueType.INT64, null, "2022-08-15T00:00:00.5Z", null, null)
+            .addFeature("fv.d", ValueType.INT64, null, "2022-08-15T02:00:00+02:00", null, null)
+            .build();
+
+    Assert.assertEquals(1_660_521_600_500_000L, featureSchema.getEffectiveTimeMicros(0));
+    Assert.assertEquals(FeatureSchema.NO_EFFECTIVE_TIME, featureSchema.getEffectiveTimeMicros(1));
+    Assert.assertFalse(featureSchema.hasEffectiveTime(1));
+    Assert.assertEquals(featureSchema.getEffectiveTime(0), featureSchema.getEffectiveTime(2));
+    Assert.assertEquals(1_660_521_600_000_000L, featureSchema.getEffectiveTimeMicros(3));
+    Assert.assertEquals(
+        Instant.parse("2022-08-15T00:00:00Z"),
+        new FeatureValue("1", featureSchema, 3, Optional.empty()).getEffectiveTime().get());
+    Assert.assertEquals(
+        FeatureSchema.NO_EFFECTIVE_TIME,
+        new FeatureValue("1", featureSchema, 1, Optional.empty()).getEffectiveTimeMicros());
+  }
+
+  @Test(expected = TectonClientException.class)
+  public void testInvalidEffectiveTime() {
+    new FeatureSchema.Builder()
+        .addFeature("user_metrics.amount_mean", ValueType.FLOAT64, null, "yesterday", null, null);
+  }
+
+  @Test
+  public void testInvalidFeatureName() {
+    for (String name : Arrays.asList("amount_mean", "user_metrics.", "", null)) {
+      try {
+        new FeatureSchema.Builder().addFeature(name, ValueType.FLOAT64, null);
+        Assert.fail();
+      } catch (TectonClientException e) {
+        Assert.assertEquals(TectonErrorMessage.INVALID_RESPONSE_FORMAT, e.getMessage());
+      }
+    }
+  }
+}
@@ -303,4 +303,81 @@ public class FeatureValueTest {
     Assert.assertNull(featureValueDoesNotHaveDescriptionOrTags.getFeatureDescription());
     Assert.assertNull(featureValueDoesNotHaveDescriptionOrTags.getFeatureTags());
   }
+
+  @Test
+  public void testPrimitiveScalarValues() {
+    FeatureValue longValue = featureValue("42", ValueType.INT64, null);
+    Assert.assertFalse(longValue.isNull());
+    Assert.assertEquals(42L, longValue.getLong());
+
+    FeatureValue doubleValue = featureValue(555.55, ValueType.FLOAT64, null);
+    Assert.assertEquals(555.55, doubleValue.getDouble(), 0);
+
+    FeatureValue nullLongValue = featureValue(null, ValueType.INT64, null);
+    Assert.assertTrue(nullLongValue.isNull());
+    Assert.assertEquals(0L, nullLongValue.getLong());
+    Assert.assertNull(nullLongValue.int64value());
+
+    FeatureValue nullDoubleValue = featureValue("NaN", ValueType.FLOAT64, null);
+    Assert.assertTrue(nullDoubleValue.isNull());
+    Assert.assertTrue(Double.isNaN(nullDoubleValue.getDouble()));
+    Assert.assertNull(nullDoubleValue.float64Value());
+
+    try {
+      longValue.getDouble();
+      fail();
+    } catch (TectonClientException e) {
+      Assert.assertEquals(
+          String.format(TectonErrorMessage.MISMATCHED_TYPE, "int64"), e.getMessage());
+    }
+  }
+
+  @Test
+  public void testPrimitiveArrayValues() {
+    FeatureValue float64Array =
+        featureValue(Arrays.asList(1.5, null, -2.25), ValueType.ARRAY, ValueType.FLOAT64);
+    Assert.assertArrayEquals(
+        new double[] {1.5, Double.NaN, -2.25}, float64Array.toDoubleArray(), 0);
+    Assert.assertArrayEquals(new float[] {1.5F, Float.NaN, -2.25F}, float64Array.toFloatArray(), 0);
+    Assert.assertTrue(float64Array.isNullElement(1));
+    Assert.assertFalse(float64Array.isNullElement(2));
+    Assert.assertEquals(Arrays.asList(1.5, null, -2.25), float64Array.float64ArrayValue());
+
+    // Float32 array elements are decoded from JSON numbers, which Moshi reads as doubles
+    FeatureValue float32Array =
+        featureValue(Arrays.asList(0.5, 0.25), ValueType.ARRAY, ValueType.FLOAT32);
+    Assert.assertArrayEquals(new float[] {0.5F, 0.25F}, float32Array.toFloatArray(), 0);
+    Assert.assertEquals(Arrays.asList(0.5F, 0.25F), float32Array.float32ArrayValue());
+
+    FeatureValue int64Array =
+        featureValue(Arrays.asList("7", null), ValueType.ARRAY, ValueType.INT64);
+    Assert.assertArrayEquals(new long[] {7L, 0L}, int64Array.toLongArray());
+    Assert.assertTrue(int64Array.isNullElement(1));
+
+    FeatureValue nullArray = featureValue(null, ValueType.ARRAY, ValueType.FLOAT64);
+    Assert.assertTrue(nullArray.isNull());
+    Assert.assertNull(nullArray.toDoubleArray());
+    Assert.assertNull(nullArray.float64ArrayValue());
+
+    try {
+      int64Array.toDoubleArray();
+      fail();
+    } catch (TectonClientException e) {
+      Assert.assertEquals(
+          String.format(TectonErrorMessage.MISMATCHED_TYPE, "int64"), e.getMessage());
+    }
+  }
+
+  private FeatureValue featureValue(
+      Object featureObject, ValueType valueType, ValueType listElementType) {
+    return new FeatureValue(
+        featureObject,
+        testName,
+        valueType,
+        Optional.ofNullable(listElementType),
+        null,
+        Optional.of(FeatureStatus.PRESENT),
+        null,
+        null);
+  }
 }
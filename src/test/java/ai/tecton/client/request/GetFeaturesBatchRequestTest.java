@@ -23,6 +23,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
+import okio.Buffer;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -300,6 +301,66 @@ public class GetFeaturesBatchRequestTest {
     Assert.assertEquals(20, getFeaturesBatchRequest.getRequestList().size());
   }
 
+  @Test
+  public void testBatchRequestWithDuplicateRequestData_shouldSendUniqueRows() {
+    // GetFeaturesBatchRequest with 8 requestData of which 6 are unique and microBatchSize=5 should
+    // create 2 GetFeaturesMicroBatchRequests with a requestDataList of size 5 and 1 respectively
+    List<GetFeaturesRequestData> uniqueRequestDataList = TestUtils.generateRequestDataForSize(6);
+    List<GetFeaturesRequestData> requestDataList = new ArrayList<>(uniqueRequestDataList);
+    requestDataList.add(
+        2,
+        new GetFeaturesRequestData().addJoinKeyMap(uniqueRequestDataList.get(0).getJoinKeyMap()));
+    requestDataList.add(
+        new GetFeaturesRequestData().addJoinKeyMap(uniqueRequestDataList.get(5).getJoinKeyMap()));
+
+    getFeaturesBatchRequest =
+        new GetFeaturesBatchRequest.Builder()
+            .workspaceName(TEST_WORKSPACENAME)
+            .featureServiceName(TEST_FEATURESERVICE_NAME)
+            .requestDataList(requestDataList)
+            .microBatchSize(5)
+            .build();
+
+    Assert.assertEquals(requestDataList, getFeaturesBatchRequest.getRequestDataList());
+    Assert.assertEquals(uniqueRequestDataList, getFeaturesBatchRequest.getUniqueRequestDataList());
+    Assert.assertEquals(2, getFeaturesBatchRequest.getRequestList().size());
+    Assert.assertEquals(5, getFeaturesBatchRequest.getRowsPerCall());
+
+    List<GetFeaturesMicroBatchRequest> microBatchRequestList =
+        (List<GetFeaturesMicroBatchRequest>) getFeaturesBatchRequest.getRequestList();
+    Assert.assertEquals(
+        uniqueRequestDataList.subList(0, 5), microBatchRequestList.get(0).getFeaturesRequestData());
+    Assert.assertEquals(
+        uniqueRequestDataList.subList(5, 6), microBatchRequestList.get(1).getFeaturesRequestData());
+
+    // Verify each row maps to its first occurrence
+    int[] expectedUniqueIndices = {0, 1, 0, 2, 3, 4, 5, 5};
+    for (int i = 0; i < expectedUniqueIndices.length; i++) {
+      Assert.assertEquals(expectedUniqueIndices[i], getFeaturesBatchRequest.getUniqueIndex(i));
+    }
+  }
+
+  @Test
+  public void testBatchRequestWithIdenticalRequestData_shouldCallGetFeaturesEndpoint() {
+    // GetFeaturesBatchRequest with 3 identical requestData should send a single GetFeaturesRequest
+    List<GetFeaturesRequestData> requestDataList = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      requestDataList.add(new GetFeaturesRequestData().addJoinKey("testKey", "testValue"));
+    }
+    getFeaturesBatchRequest =
+        new GetFeaturesBatchRequest.Builder()
+            .workspaceName(TEST_WORKSPACENAME)
+            .featureServiceName(TEST_FEATURESERVICE_NAME)
+            .requestDataList(requestDataList)
+            .microBatchSize(5)
+            .build();
+
+    Assert.assertEquals(1, getFeaturesBatchRequest.getRequestList().size());
+    Assert.assertEquals(ENDPOINT, getFeaturesBatchRequest.getEndpoint());
+    Assert.assertEquals(1, getFeaturesBatchRequest.getRowsPerCall());
+    Assert.assertEquals(3, getFeaturesBatchRequest.getRequestDataList().size());
+  }
+
   @Test
   public void testGivenBatchRequestObject_shouldSerializeToValidString() throws IOException {
 
@@ -329,6 +390,23 @@ public class GetFeaturesBatchRequestTest {
     Assert.assertEquals(expectedMap, actualMap);
   }
 
+  @Test
+  public void testMicroBatchRequestBody() throws IOException {
+    getFeaturesBatchRequest =
+        new GetFeaturesBatchRequest.Builder()
+            .requestDataList(TestUtils.generateFraudRequestDataFromFile("request/input.csv"))
+            .workspaceName("prod")
+            .featureServiceName("fraud_detection_feature_service")
+            .requestOptions(new RequestOptions().setOption("latency_budget_ms", 5000))
+            .microBatchSize(5)
+            .build();
+    AbstractTectonRequest microBatchRequest = getFeaturesBatchRequest.getRequestList().get(0);
+
+    Buffer buffer = new Buffer();
+    microBatchRequest.requestBody().writeTo(buffer);
+    Assert.assertEquals(microBatchRequest.requestToJson(), buffer.readUtf8());
+  }
+
   @Test
   public void testDefaultBatchRequestWithNullJoinKey_shouldSerializeNulls() {
     // GetFeaturesBatchRequest with 25 requestData should create 25 individual GetFeaturesRequest
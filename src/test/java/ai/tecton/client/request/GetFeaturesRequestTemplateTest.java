@@ -0,0 +1,93 @@
+package ai.tecton.client.request;
+
+import static org.junit.Assert.fail;
+
+import ai.tecton.client.exceptions.InvalidRequestParameterException;
+import ai.tecton.client.exceptions.TectonErrorMessage;
+import ai.tecton.client.model.MetadataOption;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Set;
+import okio.Buffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GetFeaturesRequestTemplateTest {
+
+  private static final String TEST_WORKSPACENAME = "testWorkspaceName";
+  private static final String TEST_FEATURESERVICE_NAME = "testFSName";
+
+  @Test
+  public void testRequestJsonMatchesGetFeaturesRequest() throws IOException {
+    RequestOptions requestOptions = new RequestOptions().setOption("latency_budget_ms", 5000);
+    Set<MetadataOption> metadataOptions = EnumSet.of(MetadataOption.SLO_INFO);
+    GetFeaturesRequestTemplate template =
+        new GetFeaturesRequestTemplate(
+            TEST_WORKSPACENAME, TEST_FEATURESERVICE_NAME, metadataOptions, requestOptions);
+
+    GetFeaturesRequestData[] requestDataList = {
+      new GetFeaturesRequestData().addJoinKey("user_id", "123").addJoinKey("merchant", "xyz"),
+      new GetFeaturesRequestData().addJoinKey("user_id", (String) null),
+      new GetFeaturesRequestData().addRequestContext("amount", 42.5),
+      new GetFeaturesRequestData().addJoinKey("user\"id", "1").addRequestContext("count", 3L)
+    };
+    for (GetFeaturesRequestData requestData : requestDataList) {
+      GetFeaturesRequest expected =
+          new GetFeaturesRequest(
+              TEST_WORKSPACENAME,
+              TEST_FEATURESERVICE_NAME,
+              requestData,
+              EnumSet.copyOf(metadataOptions),
+              requestOptions);
+      GetFeaturesRequest request = template.newRequest(requestData);
+
+      Assert.assertEquals(expected, request);
+      Assert.assertEquals(expected.hashCode(), request.hashCode());
+      Assert.assertEquals(expected.requestToJson(), request.requestToJson());
+      Assert.assertEquals(expected.leanRequestToJson(), request.leanRequestToJson());
+      Buffer buffer = new Buffer();
+      request.requestBody().writeTo(buffer);
+      Assert.assertEquals(expected.requestToJson(), buffer.readUtf8());
+    }
+  }
+
+  @Test
+  public void testRequestOptionsAreCopied() {
+    RequestOptions requestOptions = new RequestOptions().setOption("latency_budget_ms", 5000);
+    GetFeaturesRequestTemplate template =
+        new GetFeaturesRequestTemplate(
+            TEST_WORKSPACENAME, TEST_FEATURESERVICE_NAME, null, requestOptions);
+    requestOptions.setOption("latency_budget_ms", 100);
+
+    GetFeaturesRequest request =
+        template.newRequest(new GetFeaturesRequestData().addJoinKey("user_id", "123"));
+    Assert.assertEquals(RequestConstants.DEFAULT_METADATA_OPTIONS, request.getMetadataOptions());
+    Assert.assertEquals(5000, request.getRequestOptions().getOption("latency_budget_ms"));
+    Assert.assertTrue(request.requestToJson().contains("\"latency_budget_ms\":5000"));
+  }
+
+  @Test
+  public void testInvalidRequest() {
+    GetFeaturesRequestTemplate template =
+        new GetFeaturesRequestTemplate(TEST_WORKSPACENAME, TEST_FEATURESERVICE_NAME, null, null);
+    try {
+      template.newRequest(new GetFeaturesRequestData());
+      fail();
+    } catch (InvalidRequestParameterException e) {
+      Assert.assertEquals(TectonErrorMessage.EMPTY_REQUEST_MAPS, e.getMessage());
+    }
+    try {
+      template.newRequest(new GetFeaturesRequestData().addJoinKey("user_id", "123"), Duration.ZERO);
+      fail();
+    } catch (InvalidRequestParameterException e) {
+      Assert.assertEquals(TectonErrorMessage.INVALID_TIMEOUT, e.getMessage());
+    }
+    try {
+      new GetFeaturesRequestTemplate("", TEST_FEATURESERVICE_NAME, null, null);
+      fail();
+    } catch (InvalidRequestParameterException e) {
+      Assert.assertEquals(TectonErrorMessage.INVALID_WORKSPACENAME, e.getMessage());
+    }
+  }
+}
@@ -11,11 +11,14 @@ import com.squareup.moshi.Moshi;
 import com.squareup.moshi.Types;
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import okhttp3.RequestBody;
+import okio.Buffer;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -311,4 +314,135 @@ public class GetFeaturesRequestTest {
     Assert.assertNotEquals(getFeaturesRequest, getFeaturesRequestNotEquals);
     Assert.assertNotEquals(getFeaturesRequest.hashCode(), getFeaturesRequestNotEquals.hashCode());
   }
+
+  @Test
+  public void testRequestWithTimeout() {
+    GetFeaturesRequest getFeaturesRequest =
+        new GetFeaturesRequest(
+            TEST_WORKSPACENAME, TEST_FEATURESERVICE_NAME, defaultFeatureRequestData);
+    GetFeaturesRequest getFeaturesRequestWithTimeout =
+        new GetFeaturesRequest.Builder()
+            .workspaceName(TEST_WORKSPACENAME)
+            .featureServiceName(TEST_FEATURESERVICE_NAME)
+            .getFeaturesRequestData(defaultFeatureRequestData)
+            .timeout(Duration.ofMillis(50))
+            .build();
+
+    Assert.assertFalse(getFeaturesRequest.getTimeout().isPresent());
+    Assert.assertEquals(Duration.ofMillis(50), getFeaturesRequestWithTimeout.getTimeout().get());
+    Assert.assertEquals(defaultMetadataOptions, getFeaturesRequestWithTimeout.getMetadataOptions());
+    // The timeout is not part of the identity of the request
+    Assert.assertEquals(getFeaturesRequest, getFeaturesRequestWithTimeout);
+    Assert.assertEquals(getFeaturesRequest.hashCode(), getFeaturesRequestWithTimeout.hashCode());
+    Assert.assertEquals(
+        getFeaturesRequest.requestToJson(), getFeaturesRequestWithTimeout.requestToJson());
+  }
+
+  @Test
+  public void testRequestWithProjection() {
+    GetFeaturesRequest getFeaturesRequest =
+        new GetFeaturesRequest(
+            TEST_WORKSPACENAME, TEST_FEATURESERVICE_NAME, defaultFeatureRequestData);
+    GetFeaturesRequest getFeaturesRequestWithProjection =
+        new GetFeaturesRequest.Builder()
+            .workspaceName(TEST_WORKSPACENAME)
+            .featureServiceName(TEST_FEATURESERVICE_NAME)
+            .getFeaturesRequestData(defaultFeatureRequestData)
+            .projection(FeatureProjection.ofNames("fv.feature_a", "fv.feature_b"))
+            .build();
+
+    Assert.assertFalse(getFeaturesRequest.getProjection().isPresent());
+    Assert.assertEquals(
+        FeatureProjection.ofNames(Arrays.asList("fv.feature_a", "fv.feature_b")),
+        getFeaturesRequestWithProjection.getProjection().get());
+    Assert.assertEquals(
+        defaultMetadataOptions, getFeaturesRequestWithProjection.getMetadataOptions());
+    // The projection is applied by the client, so it does not change the request sent to Tecton
+    Assert.assertNotEquals(getFeaturesRequest, getFeaturesRequestWithProjection);
+    Assert.assertEquals(
+        getFeaturesRequest.requestToJson(), getFeaturesRequestWithProjection.requestToJson());
+  }
+
+  @Test
+  public void testInvalidProjection() {
+    try {
+      FeatureProjection.ofNames();
+      fail();
+    } catch (InvalidRequestParameterException e) {
+      Assert.assertEquals(TectonErrorMessage.INVALID_FEATURE_PROJECTION, e.getMessage());
+    }
+    try {
+      FeatureProjection.ofIndices(1, -1);
+      fail();
+    } catch (InvalidRequestParameterException e) {
+      Assert.assertEquals(TectonErrorMessage.INVALID_FEATURE_PROJECTION, e.getMessage());
+    }
+    Assert.assertArrayEquals(
+        new int[] {1, 3}, FeatureProjection.ofIndices(3, 1, 3).getFeatureIndices());
+  }
+
+  @Test
+  public void testInvalidTimeout() {
+    try {
+      new GetFeaturesRequest.Builder()
+          .workspaceName(TEST_WORKSPACENAME)
+          .featureServiceName(TEST_FEATURESERVICE_NAME)
+          .getFeaturesRequestData(defaultFeatureRequestData)
+          .timeout(Duration.ZERO)
+          .build();
+      fail();
+    } catch (InvalidRequestParameterException e) {
+      Assert.assertEquals(TectonErrorMessage.INVALID_TIMEOUT, e.getMessage());
+    }
+  }
+
+  @Test
+  public void testRequestBody() throws IOException {
+    defaultFeatureRequestData.addRequestContext("amount", 42.5);
+    getFeaturesRequest =
+        new GetFeaturesRequest.Builder()
+            .workspaceName(TEST_WORKSPACENAME)
+            .featureServiceName(TEST_FEATURESERVICE_NAME)
+            .getFeaturesRequestData(defaultFeatureRequestData)
+            .requestOptions(new RequestOptions().setOption("latency_budget_ms", 5000))
+            .build();
+
+    Buffer buffer = new Buffer();
+    RequestBody requestBody = getFeaturesRequest.requestBody();
+    requestBody.writeTo(buffer);
+    Assert.assertEquals(TectonHttpClient.JSON_MEDIA_TYPE, requestBody.contentType());
+    Assert.assertEquals(getFeaturesRequest.requestToJson(), buffer.readUtf8());
+
+    // Every attempt of a call sends the same body
+    Assert.assertEquals(getFeaturesRequest.requestToJson().length(), requestBody.contentLength());
+    requestBody.writeTo(buffer);
+    Assert.assertEquals(getFeaturesRequest.requestToJson(), buffer.readUtf8());
+
+    getFeaturesRequest.leanRequestBody().writeTo(buffer);
+    String expected_json =
+        "{\"params\":{\"feature_service_name\":\"testFSName\",\"join_key_map\":{\"testKey\":\"testValue\"},\"request_context_map\":{\"amount\":42.5},\"request_options\":{\"latency_budget_ms\":5000},\"workspace_name\":\"testWorkspaceName\"}}";
+    Assert.assertEquals(expected_json, buffer.readUtf8());
+    Assert.assertEquals(expected_json, getFeaturesRequest.leanRequestToJson());
+  }
+
+  @Test
+  public void testInvalidRequestBody() {
+    defaultFeatureRequestData.addRequestContext("amount", Double.NaN);
+    getFeaturesRequest =
+        new GetFeaturesRequest(
+            TEST_WORKSPACENAME, TEST_FEATURESERVICE_NAME, defaultFeatureRequestData);
+    try {
+      getFeaturesRequest.requestToJson();
+      fail();
+    } catch (InvalidRequestParameterException e) {
+      Assert.assertTrue(e.getMessage().contains("NaN"));
+    }
+    // The body is encoded when it is created, before any call is made
+    try {
+      getFeaturesRequest.requestBody();
+      fail();
+    } catch (InvalidRequestParameterException e) {
+      Assert.assertTrue(e.getMessage().contains("NaN"));
+    }
+  }
 }
@@ -0,0 +1,186 @@
+package ai.tecton.client.response;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ai.tecton.client.exceptions.TectonClientException;
+import ai.tecton.client.model.FeatureValue;
+import ai.tecton.client.model.ValueType;
+import ai.tecton.client.request.GetFeaturesBatchRequest;
+import ai.tecton.client.request.GetFeaturesRequestData;
+import ai.tecton.client.request.RequestConstants;
+import ai.tecton.client.transport.HttpResponse;
+import ai.tecton.client.transport.HttpResponse.CallStatus;
+import ai.tecton.client.utils.TestUtils;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import okio.Buffer;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FeatureFrameTest {
+  List<String> batchResponses;
+
+  @Before
+  public void setup() throws IOException, URISyntaxException {
+    batchResponses = TestUtils.readAllFilesInDirectory("response/batch", "json");
+  }
+
+  @Test
+  public void testFrameMatchesBatchResponse() {
+    // batch2.json has 5 rows of 14 features
+    String responseJson = batchResponses.get(1);
+    GetFeaturesBatchRequest batchRequest = batchRequest(5, 0, 1, 2, 3, 4);
+    FeatureFrame frame =
+        new FeatureFrame(
+            Collections.singletonList(httpResponse(responseJson)),
+            Duration.ofMillis(25),
+            batchRequest);
+    GetFeaturesBatchResponse batchResponse =
+        new GetFeaturesBatchResponse(
+            Collections.singletonList(httpResponse(responseJson)),
+            Duration.ofMillis(25),
+            batchRequest);
+
+    Assert.assertEquals(5, frame.getRowCount());
+    Assert.assertEquals(14, frame.getColumnCount());
+    for (int row = 0; row < frame.getRowCount(); row++) {
+      Assert.assertTrue(frame.getResponseStatus(row).isOk());
+      checkRow(frame, row, batchResponse.getBatchResponseList().get(row));
+    }
+    Assert.assertEquals(batchResponse.getBatchSloInformation(), frame.getBatchSloInformation());
+    Assert.assertEquals(Duration.ofMillis(25), frame.getRequestLatency());
+  }
+
+  @Test
+  public void testDuplicateRowsAndTimedOutCall() {
+    // Rows 5 and 6 repeat rows 0 and 3, the second call of 5 rows times out
+    GetFeaturesBatchRequest batchRequest = batchRequest(5, 0, 1, 2, 3, 4, 0, 3, 5, 6, 7, 8, 9);
+    HttpResponse timedOutResponse = mock(HttpResponse.class);
+    when(timedOutResponse.getCallStatus()).thenReturn(CallStatus.TIMED_OUT);
+    when(timedOutResponse.getCause()).thenReturn(Optional.empty());
+    FeatureFrame frame =
+        new FeatureFrame(
+            Arrays.asList(httpResponse(batchResponses.get(1)), timedOutResponse),
+            Duration.ofMillis(25),
+            batchRequest);
+
+    Assert.assertEquals(12, frame.getRowCount());
+    int column = frame.getColumnIndex("user_transaction_counts.transaction_count_90d_1d");
+    Assert.assertEquals(ValueType.INT64, frame.getValueType(column));
+    Assert.assertEquals(frame.getLong(0, column), frame.getLong(5, column));
+    Assert.assertEquals(frame.getLong(3, column), frame.getLong(6, column));
+    for (int row = 7; row < 12; row++) {
+      Assert.assertEquals(ResponseStatus.Code.TIMED_OUT, frame.getResponseStatus(row).getCode());
+      Assert.assertTrue(frame.isNull(row, column));
+      Assert.assertEquals(0L, frame.getLong(row, column));
+      Assert.assertFalse(frame.getFeatureStatus(row, column).isPresent());
+    }
+    Assert.assertEquals(-1, frame.getColumnIndex("unknown.feature"));
+  }
+
+  @Test
+  public void testListColumns() throws IOException, URISyntaxException {
+    // sample_response_list.json has a single row of Int64, String and Float64 array features
+    String responseJson = TestUtils.readAllFilesInDirectory("response/single", "json").get(2);
+    // Batches with a microBatchSize of 1 call the /get-features endpoint for every row
+    FeatureFrame frame =
+        new FeatureFrame(
+            Collections.singletonList(httpResponse(responseJson)),
+            Duration.ofMillis(25),
+            batchRequest(1, 0));
+
+    Assert.assertEquals(1, frame.getRowCount());
+    Assert.assertEquals(
+        Optional.of(ValueType.INT64),
+        frame.getListElementType(frame.getColumnIndex("average_rain.rain_in_last_24_hrs")));
+    Assert.assertEquals(1, frame.getListSize(0, 0));
+    Assert.assertEquals(0L, frame.getListLong(0, 0, 0));
+    Assert.assertEquals(1, frame.getListSize(0, 1));
+    Assert.assertTrue(frame.isListElementNull(0, 1, 0));
+    Assert.assertNull(frame.getListString(0, 1, 0));
+    Assert.assertEquals(6, frame.getListSize(0, 2));
+    Assert.assertEquals(57.88, frame.getListDouble(0, 2, 1), 0);
+    Assert.assertTrue(frame.isListElementNull(0, 2, 4));
+    Assert.assertTrue(Double.isNaN(frame.getListDouble(0, 2, 4)));
+    Assert.assertThrows(TectonClientException.class, () -> frame.getListLong(0, 2, 0));
+    Assert.assertThrows(IndexOutOfBoundsException.class, () -> frame.getListDouble(0, 2, 6));
+  }
+
+  @Test(expected = TectonClientException.class)
+  public void testRowCountMismatch() {
+    new FeatureFrame(
+        Collections.singletonList(httpResponse(batchResponses.get(1))),
+        Duration.ofMillis(25),
+        batchRequest(5, 0, 1, 2, 3));
+  }
+
+  private static void checkRow(FeatureFrame frame, int row, GetFeaturesResponse response) {
+    List<FeatureValue> featureValues = response.getFeatureValues();
+    for (int column = 0; column < featureValues.size(); column++) {
+      FeatureValue featureValue = featureValues.get(column);
+      Assert.assertEquals(
+          featureValue.getFeatureNamespace() + "." + featureValue.getFeatureName(),
+          frame.getFeatureNames().get(column));
+      Assert.assertEquals(featureValue.getValueType(), frame.getValueType(column));
+      Assert.assertEquals(
+          featureValue.getFeatureStatus() != null
+              ? featureValue.getFeatureStatus()
+              : Optional.empty(),
+          frame.getFeatureStatus(row, column));
+      Assert.assertEquals(featureValue.getEffectiveTime(), frame.getEffectiveTime(column));
+      switch (featureValue.getValueType()) {
+        case BOOLEAN:
+          Assert.assertEquals(featureValue.booleanValue() == null, frame.isNull(row, column));
+          Assert.assertEquals(
+              Boolean.TRUE.equals(featureValue.booleanValue()), frame.getBoolean(row, column));
+          break;
+        case INT64:
+          Assert.assertEquals(featureValue.int64value() == null, frame.isNull(row, column));
+          if (featureValue.int64value() != null) {
+            Assert.assertEquals(featureValue.int64value().longValue(), frame.getLong(row, column));
+          }
+          break;
+        case FLOAT64:
+          Assert.assertEquals(featureValue.float64Value() == null, frame.isNull(row, column));
+          if (featureValue.float64Value() != null) {
+            Assert.assertEquals(featureValue.float64Value(), frame.getDouble(row, column), 0);
+          }
+          break;
+        default:
+          Assert.assertEquals(featureValue.stringValue(), frame.getString(row, column));
+      }
+    }
+  }
+
+  private static GetFeaturesBatchRequest batchRequest(int microBatchSize, int... userIds) {
+    List<GetFeaturesRequestData> requestDataList = new ArrayList<>(userIds.length);
+    for (int userId : userIds) {
+      requestDataList.add(new GetFeaturesRequestData().addJoinKey("user_id", "user_" + userId));
+    }
+    return new GetFeaturesBatchRequest(
+        "prod",
+        "fraud_detection_feature_service",
+        requestDataList,
+        RequestConstants.DEFAULT_METADATA_OPTIONS,
+        microBatchSize);
+  }
+
+  private static HttpResponse httpResponse(String responseJson) {
+    HttpResponse httpResponse = mock(HttpResponse.class);
+    when(httpResponse.getCallStatus()).thenReturn(CallStatus.COMPLETED);
+    when(httpResponse.getResponseBody()).thenReturn(Optional.of(responseJson));
+    when(httpResponse.getResponseSource())
+        .thenAnswer(invocation -> Optional.of(new Buffer().writeUtf8(responseJson)));
+    when(httpResponse.isSuccessful()).thenReturn(true);
+    when(httpResponse.getRequestDuration()).thenReturn(Duration.ofMillis(10));
+    return httpResponse;
+  }
+}
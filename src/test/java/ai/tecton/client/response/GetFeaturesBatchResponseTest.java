@@ -3,8 +3,11 @@ package ai.tecton.client.response;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import ai.tecton.client.exceptions.TectonClientException;
 import ai.tecton.client.model.SloInformation;
+import ai.tecton.client.request.FeatureProjection;
 import ai.tecton.client.transport.HttpResponse;
+import ai.tecton.client.transport.HttpResponse.CallStatus;
 import ai.tecton.client.utils.TestUtils;
 import java.io.IOException;
 import java.net.URISyntaxException;
@@ -15,6 +18,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.IntStream;
+import okio.Buffer;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -45,6 +49,16 @@ public class GetFeaturesBatchResponseTest {
 
     // Check that values are in order in the response list
     checkResultOrdering(featureVectorList);
+    // The rows of a microbatch share a single feature schema
+    featureVectorList.forEach(
+        getFeaturesResponse ->
+            getFeaturesResponse
+                .getFeatureValues()
+                .forEach(
+                    featureValue ->
+                        Assert.assertSame(
+                            featureVectorList.get(0).getFeatureValues().get(0).getFeatureSchema(),
+                            featureValue.getFeatureSchema())));
 
     // Check batchSloInfo is Optional.empty()
     Assert.assertFalse(batchResponse.getBatchSloInformation().isPresent());
@@ -96,6 +110,35 @@ public class GetFeaturesBatchResponseTest {
     Assert.assertEquals(new Double(0.099455727), batchSloInfo.getServerTimeSeconds().get());
   }
 
+  @Test
+  public void testMicroBatchResponseWithProjection() {
+    HttpResponse httpResponse =
+        generateHttpResponseList(Collections.singletonList(batchResponses.get(1))).get(0);
+    List<String> featureNames =
+        Arrays.asList(
+            "merchant_fraud_rate.is_fraud_mean_30d_1d",
+            "user_transaction_counts.transaction_count_1d_1d");
+    FeatureProjection projection =
+        FeatureProjection.ofNames(featureNames.get(1), featureNames.get(0), "unknown.feature");
+
+    List<GetFeaturesResponse> responseList =
+        GetFeaturesBatchResponse.parseMicroBatchResponse(httpResponse, 5, projection);
+    List<GetFeaturesResponse> fullResponseList =
+        GetFeaturesBatchResponse.parseMicroBatchResponse(httpResponse, 5);
+    Assert.assertEquals(fullResponseList.size(), responseList.size());
+    for (int i = 0; i < responseList.size(); i++) {
+      GetFeaturesResponse response = responseList.get(i);
+      Assert.assertEquals(2, response.getFeatureValues().size());
+      for (String featureName : featureNames) {
+        Assert.assertEquals(
+            fullResponseList.get(i).getFeatureValue(featureName),
+            response.getFeatureValue(featureName));
+      }
+      Assert.assertEquals(
+          fullResponseList.get(i).getSloInformation(), response.getSloInformation());
+    }
+  }
+
   @Test
   public void testMultipleSingleGetFeatures() throws Exception {
     List<String> singleVectorResponseList =
@@ -136,10 +179,57 @@ public class GetFeaturesBatchResponseTest {
     Assert.assertEquals(7, responseList.size());
     responseList.subList(0, 5).forEach(Assert::assertNotNull);
     responseList.subList(5, 7).forEach(Assert::assertNull);
+    // Verify the status of each row
+    List<ResponseStatus> statusList = batchResponse.getResponseStatusList();
+    Assert.assertEquals(7, statusList.size());
+    statusList.subList(0, 5).forEach(status -> Assert.assertTrue(status.isOk()));
+    statusList
+        .subList(5, 7)
+        .forEach(status -> Assert.assertEquals(ResponseStatus.Code.TIMED_OUT, status.getCode()));
     // Assert batch slo info is empty
     Assert.assertFalse(batchResponse.getBatchSloInformation().isPresent());
   }
 
+  @Test
+  public void testMicroBatchResponsesWithTimeoutAndFailure() {
+    List<HttpResponse> httpResponseList =
+        generateHttpResponseList(Collections.singletonList(batchResponses.get(0)));
+    TectonClientException timeoutCause = new TectonClientException("timed out");
+    TectonClientException failureCause = new TectonClientException("connection refused");
+    HttpResponse timedOutResponse = mock(HttpResponse.class);
+    when(timedOutResponse.getCallStatus()).thenReturn(CallStatus.TIMED_OUT);
+    when(timedOutResponse.getCause()).thenReturn(Optional.of(timeoutCause));
+    HttpResponse failedResponse = mock(HttpResponse.class);
+    when(failedResponse.getCallStatus()).thenReturn(CallStatus.FAILED);
+    when(failedResponse.getCause()).thenReturn(Optional.of(failureCause));
+    httpResponseList.add(timedOutResponse);
+    httpResponseList.add(failedResponse);
+
+    batchResponse = new GetFeaturesBatchResponse(httpResponseList, Duration.ofMillis(25), 7);
+    // Verify 21 rows: 7 responses followed by 7 timed out and 7 failed rows
+    List<GetFeaturesResponse> responseList = batchResponse.getBatchResponseList();
+    List<ResponseStatus> statusList = batchResponse.getResponseStatusList();
+    Assert.assertEquals(21, responseList.size());
+    Assert.assertEquals(21, statusList.size());
+    checkResultOrdering(responseList.subList(0, 7));
+    responseList.subList(7, 21).forEach(Assert::assertNull);
+    statusList.subList(0, 7).forEach(status -> Assert.assertTrue(status.isOk()));
+    statusList
+        .subList(7, 14)
+        .forEach(
+            status -> {
+              Assert.assertEquals(ResponseStatus.Code.TIMED_OUT, status.getCode());
+              Assert.assertEquals(timeoutCause, status.getCause().get());
+            });
+    statusList
+        .subList(14, 21)
+        .forEach(
+            status -> {
+              Assert.assertEquals(ResponseStatus.Code.FAILED, status.getCode());
+              Assert.assertEquals(failureCause, status.getCause().get());
+            });
+  }
+
   private void checkResultOrdering(List<GetFeaturesResponse> batchResponse) {
     List<Double> valuesInOrder =
         Arrays.asList(
@@ -182,7 +272,9 @@ public class GetFeaturesBatchResponseTest {
     responseJsonList.forEach(
         responseJson -> {
           HttpResponse httpResponse = mock(HttpResponse.class);
-          when(httpResponse.getResponseBody()).thenReturn(Optional.of(responseJson));
+          // Each call returns a new source over the same bytes, as HttpResponse does
+          when(httpResponse.getResponseSource())
+              .thenAnswer(invocation -> Optional.of(new Buffer().writeUtf8(responseJson)));
           when(httpResponse.isSuccessful()).thenReturn(true);
           when(httpResponse.getRequestDuration()).thenReturn(Duration.ofMillis(10));
           httpResponseList.add(httpResponse);
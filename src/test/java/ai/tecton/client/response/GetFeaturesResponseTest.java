@@ -2,14 +2,24 @@ package ai.tecton.client.response;
 
 import ai.tecton.client.exceptions.TectonClientException;
 import ai.tecton.client.exceptions.TectonErrorMessage;
+import ai.tecton.client.model.FeatureSchema;
 import ai.tecton.client.model.FeatureValue;
+import ai.tecton.client.model.NameAndType;
 import ai.tecton.client.model.SloInformation;
+import ai.tecton.client.model.ValueType;
+import ai.tecton.client.request.FeatureProjection;
+import ai.tecton.client.response.GetFeaturesResponse.DecodeOptions;
 import ai.tecton.client.utils.TestUtils;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import okio.Buffer;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -128,6 +138,187 @@ public class GetFeaturesResponseTest {
     Assert.assertNotEquals(getFeaturesResponse.hashCode(), getFeaturesResponseNotEquals.hashCode());
   }
 
+  @Test
+  public void testResponseFromSource() {
+    for (String sampleResponse : sampleResponses) {
+      GetFeaturesResponse responseFromSource =
+          GetFeaturesResponse.decode(
+              new Buffer().writeUtf8(sampleResponse), Duration.ofMillis(10), DecodeOptions.DEFAULT);
+      Assert.assertEquals(
+          new GetFeaturesResponse(sampleResponse, Duration.ofMillis(10)), responseFromSource);
+    }
+    getFeaturesResponse = decode(sampleResponses.get(3), null, null, false);
+    Assert.assertTrue(getFeaturesResponse.getSloInformation().isPresent());
+  }
+
+  @Test
+  public void testLeanResponse() {
+    String leanResponse = "{\"result\":{\"features\":[\"0\",false,null,\"nimbostratus\",55.5]}}";
+    List<NameAndType> featureSchema = new ArrayList<>();
+    featureSchema.add(new NameAndType("average_rain.rain_in_last_24_hrs", ValueType.INT64));
+    featureSchema.add(
+        new NameAndType("average_rain.precipitation_higher_than_average", ValueType.BOOLEAN));
+    featureSchema.add(new NameAndType("average_rain.atmospheric_pressure", ValueType.FLOAT64));
+    featureSchema.add(new NameAndType("average_rain.cloud_type", ValueType.STRING));
+    featureSchema.add(new NameAndType("average_rain.average_temperate_24hrs", ValueType.FLOAT64));
+
+    getFeaturesResponse = decode(leanResponse, FeatureSchema.of(featureSchema), null, false);
+    checkFeatureValues(getFeaturesResponse.getFeatureValuesAsMap());
+    Assert.assertEquals(
+        new GetFeaturesResponse(sampleResponses.get(1), Duration.ZERO), getFeaturesResponse);
+
+    try {
+      decode(leanResponse, FeatureSchema.of(featureSchema.subList(0, 4)), null, false);
+      Assert.fail();
+    } catch (TectonClientException e) {
+      Assert.assertEquals(
+          String.format(TectonErrorMessage.FEATURE_VECTOR_SCHEMA_MISMATCH, 5, 4), e.getMessage());
+    }
+  }
+
+  @Test
+  public void testLeanResponseWithNumericArrays() {
+    String leanResponse =
+        "{\"result\":{\"features\":[[0.5, null, \"NaN\", -2E-3],[1.25,2],null,[\"1\"]]}}";
+    List<NameAndType> featureSchema = new ArrayList<>();
+    featureSchema.add(new NameAndType("embeddings.float32", ValueType.ARRAY, ValueType.FLOAT32));
+    featureSchema.add(new NameAndType("embeddings.float64", ValueType.ARRAY, ValueType.FLOAT64));
+    featureSchema.add(new NameAndType("embeddings.empty", ValueType.ARRAY, ValueType.FLOAT64));
+    featureSchema.add(new NameAndType("embeddings.int64", ValueType.ARRAY, ValueType.INT64));
+
+    getFeaturesResponse = decode(leanResponse, FeatureSchema.of(featureSchema), null, false);
+    List<FeatureValue> featureValues = getFeaturesResponse.getFeatureValues();
+    Assert.assertEquals(
+        Arrays.asList(0.5f, null, null, -0.002f), featureValues.get(0).float32ArrayValue());
+    Assert.assertArrayEquals(
+        new float[] {0.5f, Float.NaN, Float.NaN, -0.002f}, featureValues.get(0).toFloatArray(), 0);
+    Assert.assertTrue(featureValues.get(0).isNullElement(1));
+    Assert.assertFalse(featureValues.get(0).isNullElement(3));
+    Assert.assertArrayEquals(new double[] {1.25, 2}, featureValues.get(1).toDoubleArray(), 0);
+    Assert.assertNull(featureValues.get(2).float64ArrayValue());
+    Assert.assertEquals(Collections.singletonList(1L), featureValues.get(3).int64ArrayValue());
+  }
+
+  @Test
+  public void testLazyDecoding() throws Exception {
+    for (String response : sampleResponses) {
+      GetFeaturesResponse lazyResponse = decode(response, null, null, true);
+      Assert.assertEquals(new GetFeaturesResponse(response, Duration.ZERO), lazyResponse);
+    }
+
+    // Concurrent accesses decode each feature value once
+    getFeaturesResponse = decode(sampleResponses.get(1), null, null, true);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<Future<FeatureValue>> futures = new ArrayList<>();
+    for (int i = 0; i < 16; i++) {
+      futures.add(
+          executor.submit(
+              () -> getFeaturesResponse.getFeatureValue("average_rain.cloud_type").get()));
+    }
+    FeatureValue cloudType = futures.get(0).get();
+    for (Future<FeatureValue> future : futures) {
+      Assert.assertSame(cloudType, future.get());
+    }
+    executor.shutdown();
+    Assert.assertEquals("nimbostratus", cloudType.stringValue());
+    Assert.assertSame(cloudType, getFeaturesResponse.getFeatureValues().get(3));
+    Assert.assertFalse(getFeaturesResponse.getFeatureValue("unknown.feature").isPresent());
+  }
+
+  @Test
+  public void testLazyDecodingReportsInvalidValueOnAccess() {
+    String leanResponse = "{\"result\":{\"features\":[\"not a number\", [1.5, {\"a\": \"]\"}]]}}";
+    FeatureSchema featureSchema =
+        new FeatureSchema.Builder()
+            .addFeature("average_rain.rain_in_last_24_hrs", ValueType.INT64, null)
+            .addFeature("average_rain.precipitation", ValueType.ARRAY, ValueType.FLOAT64)
+            .build();
+
+    getFeaturesResponse = decode(leanResponse, featureSchema, null, true);
+    Assert.assertEquals(2, getFeaturesResponse.getFeatureValues().size());
+    Assert.assertThrows(
+        TectonClientException.class, () -> getFeaturesResponse.getFeatureValues().get(0));
+    Assert.assertThrows(
+        TectonClientException.class, () -> getFeaturesResponse.getFeatureValues().get(1));
+    Assert.assertThrows(
+        TectonClientException.class,
+        () -> decode("{\"result\":{\"features\":[\"1\"]}}", featureSchema, null, true));
+  }
+
+  @Test
+  public void testProjection() {
+    FeatureProjection projection = FeatureProjection.ofIndices(2, 0, 100);
+    for (String response : sampleResponses) {
+      GetFeaturesResponse fullResponse = new GetFeaturesResponse(response, Duration.ZERO);
+      List<FeatureValue> expected = new ArrayList<>();
+      for (int index : new int[] {0, 2}) {
+        if (index < fullResponse.getFeatureValues().size()) {
+          expected.add(fullResponse.getFeatureValues().get(index));
+        }
+      }
+      for (boolean lazyDecoding : new boolean[] {false, true}) {
+        GetFeaturesResponse projectedResponse = decode(response, null, projection, lazyDecoding);
+        Assert.assertEquals(expected, projectedResponse.getFeatureValues());
+        Assert.assertEquals(
+            fullResponse.getSloInformation(), projectedResponse.getSloInformation());
+      }
+    }
+
+    // Projected feature values are in the order of the feature vector
+    getFeaturesResponse =
+        decode(
+            sampleResponses.get(1),
+            null,
+            FeatureProjection.ofNames(
+                "average_rain.cloud_type", "average_rain.rain_in_last_24_hrs", "unknown.feature"),
+            false);
+    Assert.assertEquals(2, getFeaturesResponse.getFeatureValues().size());
+    Assert.assertEquals(
+        "rain_in_last_24_hrs", getFeaturesResponse.getFeatureValues().get(0).getFeatureName());
+    Assert.assertEquals(
+        "nimbostratus",
+        getFeaturesResponse.getFeatureValue("average_rain.cloud_type").get().stringValue());
+    Assert.assertFalse(
+        getFeaturesResponse.getFeatureValue("average_rain.atmospheric_pressure").isPresent());
+  }
+
+  @Test
+  public void testLeanResponseWithProjection() {
+    // The value outside the projection is skipped, so it is not decoded
+    String leanResponse = "{\"result\":{\"features\":[\"not a number\", [1.5, 2]]}}";
+    FeatureSchema featureSchema =
+        new FeatureSchema.Builder()
+            .addFeature("average_rain.rain_in_last_24_hrs", ValueType.INT64, null)
+            .addFeature("average_rain.precipitation", ValueType.ARRAY, ValueType.FLOAT64)
+            .build();
+    FeatureProjection projection = FeatureProjection.ofNames("average_rain.precipitation");
+
+    for (boolean lazyDecoding : new boolean[] {false, true}) {
+      getFeaturesResponse = decode(leanResponse, featureSchema, projection, lazyDecoding);
+      Assert.assertEquals(1, getFeaturesResponse.getFeatureValues().size());
+      Assert.assertArrayEquals(
+          new double[] {1.5, 2},
+          getFeaturesResponse.getFeatureValue("average_rain.precipitation").get().toDoubleArray(),
+          0);
+      Assert.assertFalse(
+          getFeaturesResponse.getFeatureValue("average_rain.rain_in_last_24_hrs").isPresent());
+    }
+    // The size of the feature vector is still validated against the schema
+    Assert.assertThrows(
+        TectonClientException.class,
+        () -> decode("{\"result\":{\"features\":[\"1\"]}}", featureSchema, projection, false));
+  }
+
+  @Test
+  public void testInvalidResponse() {
+    try {
+      new GetFeaturesResponse("{\"result\":{\"features\":[1,2", Duration.ZERO);
+      Assert.fail();
+    } catch (TectonClientException e) {
+      Assert.assertEquals(TectonErrorMessage.INVALID_RESPONSE_FORMAT, e.getMessage());
+    }
+  }
+
   private void checkFeatureValues(Map<String, FeatureValue> featureValues) {
     Assert.assertEquals(5, getFeaturesResponse.getFeatureValues().size());
     Assert.assertEquals(
@@ -158,4 +349,19 @@ public class GetFeaturesResponseTest {
     Assert.assertNull(featureValueMap.get("average_rain.precipitation").float32ArrayValue());
     Assert.assertNull(featureValueMap.get("average_rain.rainfall").float64ArrayValue());
   }
+
+  private static GetFeaturesResponse decode(
+      String response,
+      FeatureSchema featureSchema,
+      FeatureProjection projection,
+      boolean lazyDecoding) {
+    return GetFeaturesResponse.decode(
+        new Buffer().writeUtf8(response),
+        Duration.ZERO,
+        new DecodeOptions.Builder()
+            .featureSchema(featureSchema)
+            .projection(projection)
+            .lazyDecoding(lazyDecoding)
+            .build());
+  }
 }
@@ -0,0 +1,180 @@
+package ai.tecton.client.response;
+
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.JsonReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.BufferOverflowException;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.util.List;
+import java.util.Random;
+import okio.Buffer;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class NumericArrayDecoderTest {
+
+  private static final int[] DIMENSIONS = {128, 512, 2048};
+
+  @Test
+  public void testDecodeMatchesMoshi() throws IOException {
+    Random random = new Random(42);
+    for (int dimension : DIMENSIONS) {
+      StringBuilder json = new StringBuilder("[ ");
+      for (int i = 0; i < dimension; i++) {
+        if (i > 0) {
+          json.append(i % 3 == 0 ? ",\n" : ",");
+        }
+        switch (i % 5) {
+          case 0:
+            json.append((float) random.nextGaussian());
+            break;
+          case 1:
+            json.append(random.nextGaussian() * 1e-5);
+            break;
+          case 2:
+            json.append(random.nextInt(2000) - 1000);
+            break;
+          case 3:
+            json.append(random.nextDouble() * 1e30);
+            break;
+          default:
+            json.append(String.format("%.4f", random.nextGaussian()));
+        }
+      }
+      json.append(" ]");
+
+      double[] doubles = NumericArrayDecoder.readDoubleArray(reader(json.toString()));
+      List<?> expected = (List<?>) reader(json.toString()).readJsonValue();
+      Assert.assertEquals(expected.size(), doubles.length);
+      for (int i = 0; i < dimension; i++) {
+        Assert.assertEquals(((Number) expected.get(i)).doubleValue(), doubles[i], 0);
+      }
+      float[] floats = NumericArrayDecoder.readFloatArray(reader(json.toString()));
+      for (int i = 0; i < dimension; i++) {
+        Assert.assertEquals(((Number) expected.get(i)).floatValue(), floats[i], 0);
+      }
+    }
+  }
+
+  @Test
+  public void testOversizedArrayIsNotRetained() throws IOException {
+    int dimension = NumericArrayDecoder.MAX_RETAINED_CAPACITY * 4;
+    StringBuilder json = new StringBuilder("[");
+    for (int i = 0; i < dimension; i++) {
+      json.append(i > 0 ? "," : "").append(i);
+    }
+    json.append("]");
+
+    double[] doubles = NumericArrayDecoder.readDoubleArray(reader(json.toString()));
+    Assert.assertEquals(dimension, doubles.length);
+    Assert.assertEquals(dimension - 1, doubles[dimension - 1], 0);
+    assertRetainedCapacity();
+
+    int size = NumericArrayDecoder.decode(reader(json.toString()));
+    double[] values = NumericArrayDecoder.decodedValues();
+    Assert.assertEquals(dimension, size);
+    Assert.assertEquals(dimension - 1, values[dimension - 1], 0);
+    assertRetainedCapacity();
+  }
+
+  private static void assertRetainedCapacity() throws IOException {
+    Assert.assertEquals(2, NumericArrayDecoder.decode(reader("[1,2]")));
+    double[] values = NumericArrayDecoder.decodedValues();
+    Assert.assertTrue(values.length <= NumericArrayDecoder.MAX_RETAINED_CAPACITY);
+    Assert.assertEquals(1, values[0], 0);
+    Assert.assertEquals(2, values[1], 0);
+  }
+
+  @Test
+  public void testNullsAndSpecialValues() throws IOException {
+    double[] doubles =
+        NumericArrayDecoder.readDoubleArray(
+            reader(
+                "[1.5, null, \"NaN\", \"Infinity\", \"-Infinity\", \"null\", \"2.5\", -0.0, 1E2]"));
+    Assert.assertEquals(9, doubles.length);
+    Assert.assertEquals(1.5, doubles[0], 0);
+    for (int i = 1; i < 6; i++) {
+      Assert.assertTrue(Double.isNaN(doubles[i]));
+    }
+    Assert.assertEquals(2.5, doubles[6], 0);
+    Assert.assertEquals(Double.doubleToLongBits(-0.0), Double.doubleToLongBits(doubles[7]));
+    Assert.assertEquals(100.0, doubles[8], 0);
+
+    Assert.assertNull(NumericArrayDecoder.readDoubleArray(reader("null")));
+    Assert.assertEquals(0, NumericArrayDecoder.readFloatArray(reader("[ ]")).length);
+    Assert.assertThrows(
+        JsonDataException.class, () -> NumericArrayDecoder.readDoubleArray(reader("[1, \"a\"]")));
+    Assert.assertThrows(
+        JsonDataException.class, () -> NumericArrayDecoder.readDoubleArray(reader("{\"a\": 1}")));
+  }
+
+  @Test
+  public void testDecodeIntoBuffer() throws IOException {
+    JsonReader reader = reader("{\"a\": [0.25, 0.5], \"b\": null, \"c\": [1, 2, 3]}");
+    FloatBuffer target = FloatBuffer.allocate(4);
+    reader.beginObject();
+    reader.nextName();
+    Assert.assertEquals(2, NumericArrayDecoder.readFloats(reader, target));
+    reader.nextName();
+    Assert.assertEquals(-1, NumericArrayDecoder.readFloats(reader, target));
+    Assert.assertEquals(2, target.position());
+    reader.nextName();
+    // The reader is left after the array even if the buffer is too small
+    Assert.assertThrows(
+        BufferOverflowException.class, () -> NumericArrayDecoder.readFloats(reader, target));
+    reader.endObject();
+    Assert.assertEquals(0.25f, target.get(0), 0);
+    Assert.assertEquals(0.5f, target.get(1), 0);
+
+    DoubleBuffer doubles = DoubleBuffer.allocate(3);
+    Assert.assertEquals(3, NumericArrayDecoder.readDoubles(reader("[1, 2, 3]"), doubles));
+    Assert.assertArrayEquals(new double[] {1, 2, 3}, doubles.array(), 0);
+  }
+
+  @Test
+  public void testDecodeAllocations() throws IOException {
+    ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    Assume.assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+    com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadMXBean;
+    Assume.assumeTrue(allocationBean.isThreadAllocatedMemoryEnabled());
+
+    Random random = new Random(7);
+    StringBuilder json = new StringBuilder("[");
+    for (int i = 0; i < 2048; i++) {
+      json.append(i > 0 ? "," : "").append((float) random.nextGaussian());
+    }
+    Buffer embedding = new Buffer().writeUtf8(json.append("]").toString());
+    FloatBuffer target = FloatBuffer.allocate(2048);
+
+    long threadId = Thread.currentThread().getId();
+    int iterations = 200;
+    long bytesPerCall = 0;
+    long moshiBytesPerCall = 0;
+    // Repeat the measurement once, so that the second round runs with compiled code
+    for (int round = 0; round < 2; round++) {
+      long start = allocationBean.getThreadAllocatedBytes(threadId);
+      for (int i = 0; i < iterations; i++) {
+        target.clear();
+        NumericArrayDecoder.readFloats(JsonReader.of(embedding.copy()), target);
+      }
+      bytesPerCall = (allocationBean.getThreadAllocatedBytes(threadId) - start) / iterations;
+      start = allocationBean.getThreadAllocatedBytes(threadId);
+      for (int i = 0; i < iterations; i++) {
+        JsonReader.of(embedding.copy()).readJsonValue();
+      }
+      moshiBytesPerCall = (allocationBean.getThreadAllocatedBytes(threadId) - start) / iterations;
+    }
+    // Without a boxed Double and a String for every element, decoding allocates a small fraction
+    Assert.assertTrue(
+        "Decoder allocated " + bytesPerCall + " bytes, Moshi " + moshiBytesPerCall,
+        bytesPerCall * 10 < moshiBytesPerCall);
+  }
+
+  private static JsonReader reader(String json) {
+    return JsonReader.of(new Buffer().writeUtf8(json));
+  }
+}
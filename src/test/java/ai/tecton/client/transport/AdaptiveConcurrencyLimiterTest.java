@@ -0,0 +1,149 @@
+package ai.tecton.client.transport;
+
+import static org.junit.Assert.fail;
+
+import ai.tecton.client.TectonClientOptions;
+import ai.tecton.client.exceptions.TectonClientException;
+import ai.tecton.client.exceptions.TectonErrorMessage;
+import ai.tecton.client.transport.TectonHttpClient.HttpMethod;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AdaptiveConcurrencyLimiterTest {
+  private static final String ENDPOINT = "/api/v1/feature-service/get-features";
+  private static final String API_KEY = "12345";
+  private MockWebServer mockWebServer;
+
+  @Before
+  public void setup() throws IOException {
+    mockWebServer = new MockWebServer();
+    mockWebServer.start();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    mockWebServer.shutdown();
+  }
+
+  @Test
+  public void testDefaultLimiter() {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter.Builder().build();
+    TectonHttpClient httpClient = createHttpClient(limiter);
+    Assert.assertEquals(5, limiter.getLimit());
+    Assert.assertEquals(5, httpClient.getMaxParallelRequests());
+    Assert.assertEquals(0, limiter.getInFlight());
+    Assert.assertEquals(0, limiter.getOverloadResponseCount());
+    Assert.assertEquals(0, limiter.getTimeoutCount());
+  }
+
+  @Test
+  public void testLimitIncreasesWhileInUse() {
+    // A fixed threshold, so that jitter of the fast local calls is not a signal of overload
+    AdaptiveConcurrencyLimiter limiter =
+        new AdaptiveConcurrencyLimiter.Builder()
+            .initialLimit(1)
+            .latencyThreshold(Duration.ofSeconds(10))
+            .build();
+    TectonHttpClient httpClient = createHttpClient(limiter);
+    for (int i = 0; i < 10; i++) {
+      mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("{}"));
+      httpClient.performRequest(ENDPOINT, HttpMethod.POST, "{}");
+    }
+    // Sequential calls only use a single slot, so the limit stops growing once it is above 2
+    Assert.assertEquals(2, limiter.getLimit());
+    Assert.assertEquals(2, httpClient.getMaxParallelRequests());
+    Assert.assertEquals(0, limiter.getInFlight());
+  }
+
+  @Test
+  public void testLimitDecreasesOnOverloadResponses() {
+    AdaptiveConcurrencyLimiter limiter =
+        new AdaptiveConcurrencyLimiter.Builder().initialLimit(10).backoffRatio(0.5).build();
+    TectonHttpClient httpClient = createHttpClient(limiter);
+    int[] statusCodes = {500, 429, 503, 504};
+    for (int statusCode : statusCodes) {
+      mockWebServer.enqueue(new MockResponse().setResponseCode(statusCode));
+      httpClient.performRequest(ENDPOINT, HttpMethod.POST, "{}");
+    }
+    // 500 responses are not a signal of overload
+    Assert.assertEquals(1, limiter.getLimit());
+    Assert.assertEquals(1, httpClient.getMaxParallelRequests());
+    Assert.assertEquals(3, limiter.getOverloadResponseCount());
+  }
+
+  @Test
+  public void testLimitDecreasesOnSlowResponses() {
+    AdaptiveConcurrencyLimiter limiter =
+        new AdaptiveConcurrencyLimiter.Builder()
+            .initialLimit(10)
+            .backoffRatio(0.5)
+            .latencyThreshold(Duration.ofMillis(100))
+            .build();
+    TectonHttpClient httpClient = createHttpClient(limiter);
+    mockWebServer.enqueue(
+        new MockResponse()
+            .setResponseCode(200)
+            .setBody("{}")
+            .setHeadersDelay(300, TimeUnit.MILLISECONDS));
+    httpClient.performRequest(ENDPOINT, HttpMethod.POST, "{}");
+    Assert.assertEquals(5, limiter.getLimit());
+    Assert.assertEquals(0, limiter.getOverloadResponseCount());
+  }
+
+  @Test
+  public void testLatencyThresholdFollowsBaseline() {
+    AdaptiveConcurrencyLimiter limiter =
+        new AdaptiveConcurrencyLimiter.Builder().initialLimit(100).build();
+    TectonHttpClient httpClient = createHttpClient(limiter);
+    for (int i = 0; i < 20; i++) {
+      mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("{}"));
+      httpClient.performRequest(ENDPOINT, HttpMethod.POST, "{}");
+    }
+    int limit = limiter.getLimit();
+    mockWebServer.enqueue(
+        new MockResponse()
+            .setResponseCode(200)
+            .setBody("{}")
+            .setHeadersDelay(300, TimeUnit.MILLISECONDS));
+    httpClient.performRequest(ENDPOINT, HttpMethod.POST, "{}");
+    // 300ms is well above twice the round trip time of the previous calls
+    Assert.assertTrue(limiter.getLimit() < limit);
+    Assert.assertEquals(0, limiter.getOverloadResponseCount());
+  }
+
+  @Test
+  public void testLimiterCannotBeShared() {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter.Builder().build();
+    createHttpClient(limiter);
+    try {
+      createHttpClient(limiter);
+      fail();
+    } catch (TectonClientException e) {
+      Assert.assertEquals(TectonErrorMessage.CONCURRENCY_LIMITER_IN_USE, e.getMessage());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidLimits() {
+    new AdaptiveConcurrencyLimiter.Builder().minLimit(10).maxLimit(5).build();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidLatencyTolerance() {
+    new AdaptiveConcurrencyLimiter.Builder().latencyTolerance(1).build();
+  }
+
+  private TectonHttpClient createHttpClient(AdaptiveConcurrencyLimiter limiter) {
+    return new TectonHttpClient(
+        mockWebServer.url("").toString(),
+        API_KEY,
+        new TectonClientOptions.Builder().concurrencyLimiter(limiter).build());
+  }
+}
@@ -0,0 +1,53 @@
+package ai.tecton.client.transport;
+
+import java.time.Duration;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HedgingPolicyTest {
+
+  @Test
+  public void testFixedHedgeDelay() {
+    HedgingPolicy hedgingPolicy =
+        new HedgingPolicy.Builder().hedgeDelay(Duration.ofMillis(50)).build();
+    Assert.assertEquals(Duration.ofMillis(50), hedgingPolicy.getHedgeDelay());
+    hedgingPolicy.recordLatency(Duration.ofSeconds(1).toNanos());
+    Assert.assertEquals(Duration.ofMillis(50), hedgingPolicy.getHedgeDelay());
+  }
+
+  @Test
+  public void testPercentileHedgeDelay() {
+    HedgingPolicy hedgingPolicy =
+        new HedgingPolicy.Builder()
+            .hedgeDelay(Duration.ofMillis(50))
+            .latencyPercentile(0.9)
+            .build();
+    // The fixed delay is used until enough latencies have been recorded
+    for (int i = 1; i < 20; i++) {
+      hedgingPolicy.recordLatency(Duration.ofMillis(i).toNanos());
+    }
+    Assert.assertEquals(Duration.ofMillis(50), hedgingPolicy.getHedgeDelay());
+    hedgingPolicy.recordLatency(Duration.ofMillis(20).toNanos());
+    Assert.assertEquals(Duration.ofMillis(18), hedgingPolicy.getHedgeDelay());
+  }
+
+  @Test
+  public void testHedgeBudget() {
+    HedgingPolicy hedgingPolicy =
+        new HedgingPolicy.Builder().hedgeDelay(Duration.ofMillis(50)).maxHedgeRatio(0.25).build();
+    int hedges = 0;
+    for (int i = 0; i < 100; i++) {
+      hedgingPolicy.onRequest();
+      if (hedgingPolicy.tryAcquireHedge()) {
+        hedges++;
+      }
+    }
+    Assert.assertEquals(25, hedges);
+    Assert.assertEquals(25, hedgingPolicy.getHedgeCount());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPolicyWithoutDelay() {
+    new HedgingPolicy.Builder().maxHedgeRatio(0.25).build();
+  }
+}
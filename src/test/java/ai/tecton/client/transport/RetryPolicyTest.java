@@ -0,0 +1,106 @@
+package ai.tecton.client.transport;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.Collections;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RetryPolicyTest {
+
+  @Test
+  public void testRetryableStatusCodes() {
+    RetryPolicy retryPolicy = new RetryPolicy.Builder().build();
+    Assert.assertTrue(retryPolicy.retryDelayMillis(1, response(429, null)) >= 0);
+    Assert.assertTrue(retryPolicy.retryDelayMillis(1, response(503, null)) >= 0);
+    Assert.assertTrue(retryPolicy.retryDelayMillis(1, response(504, null)) >= 0);
+    Assert.assertEquals(-1, retryPolicy.retryDelayMillis(1, response(500, null)));
+    Assert.assertEquals(-1, retryPolicy.retryDelayMillis(1, response(400, null)));
+    Assert.assertEquals(3, retryPolicy.getRetryCount());
+
+    RetryPolicy customPolicy =
+        new RetryPolicy.Builder().retryableStatusCodes(Collections.singleton(500)).build();
+    Assert.assertTrue(customPolicy.retryDelayMillis(1, response(500, null)) >= 0);
+    Assert.assertEquals(-1, customPolicy.retryDelayMillis(1, response(503, null)));
+  }
+
+  @Test
+  public void testExponentialBackoffWithJitter() {
+    RetryPolicy retryPolicy =
+        new RetryPolicy.Builder()
+            .maxAttempts(5)
+            .initialBackoff(Duration.ofMillis(100))
+            .maxBackoff(Duration.ofMillis(300))
+            .build();
+    for (int i = 0; i < 10; i++) {
+      retryPolicy.onRequest();
+      Assert.assertTrue(retryPolicy.retryDelayMillis(1, response(503, null)) <= 100);
+      retryPolicy.onRequest();
+      Assert.assertTrue(retryPolicy.retryDelayMillis(2, response(503, null)) <= 200);
+      retryPolicy.onRequest();
+      Assert.assertTrue(retryPolicy.retryDelayMillis(4, response(503, null)) <= 300);
+    }
+    // No retry once the maximum number of attempts is reached
+    Assert.assertEquals(-1, retryPolicy.retryDelayMillis(5, response(503, null)));
+  }
+
+  @Test
+  public void testRetryAfter() {
+    RetryPolicy retryPolicy = new RetryPolicy.Builder().maxBackoff(Duration.ofSeconds(2)).build();
+    Assert.assertEquals(1000, retryPolicy.retryDelayMillis(1, response(429, "1")));
+    // A Retry-After delay above the maximum backoff is not honored, and the call is not retried
+    Assert.assertEquals(-1, retryPolicy.retryDelayMillis(1, response(429, "5")));
+    Assert.assertEquals(
+        0, retryPolicy.retryDelayMillis(1, response(503, "Thu, 01 Jan 1970 00:00:00 GMT")));
+  }
+
+  @Test
+  public void testConnectionFailures() {
+    RetryPolicy retryPolicy = new RetryPolicy.Builder().build();
+    Assert.assertTrue(retryPolicy.retryDelayMillis(1, new ConnectException()) >= 0);
+    Assert.assertEquals(-1, retryPolicy.retryDelayMillis(1, new SocketTimeoutException()));
+
+    RetryPolicy noConnectionRetries =
+        new RetryPolicy.Builder().retryOnConnectionFailure(false).build();
+    Assert.assertEquals(-1, noConnectionRetries.retryDelayMillis(1, new IOException()));
+  }
+
+  @Test
+  public void testRetryBudget() {
+    RetryPolicy retryPolicy = new RetryPolicy.Builder().retryBudgetRatio(0.5).build();
+    // The initial reserve of 10 retries is spent first
+    for (int i = 0; i < 10; i++) {
+      Assert.assertTrue(retryPolicy.retryDelayMillis(1, response(503, null)) >= 0);
+    }
+    Assert.assertEquals(-1, retryPolicy.retryDelayMillis(1, response(503, null)));
+    // Afterwards, one retry is allowed for every two requests
+    retryPolicy.onRequest();
+    Assert.assertEquals(-1, retryPolicy.retryDelayMillis(1, response(503, null)));
+    retryPolicy.onRequest();
+    Assert.assertTrue(retryPolicy.retryDelayMillis(1, response(503, null)) >= 0);
+    Assert.assertEquals(11, retryPolicy.getRetryCount());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidMaxAttempts() {
+    new RetryPolicy.Builder().maxAttempts(0).build();
+  }
+
+  private static Response response(int code, String retryAfter) {
+    Response.Builder builder =
+        new Response.Builder()
+            .request(new Request.Builder().url("http://test-url.com").build())
+            .protocol(Protocol.HTTP_1_1)
+            .code(code)
+            .message("");
+    if (retryAfter != null) {
+      builder.header("Retry-After", retryAfter);
+    }
+    return builder.build();
+  }
+}
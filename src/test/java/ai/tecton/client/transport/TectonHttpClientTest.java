@@ -1,22 +1,37 @@
 package ai.tecton.client.transport;
 
 import ai.tecton.client.TectonClientOptions;
+import ai.tecton.client.exceptions.CallTimeoutException;
+import ai.tecton.client.exceptions.TectonClientException;
+import ai.tecton.client.exceptions.TectonErrorMessage;
 import ai.tecton.client.request.RequestConstants;
+import ai.tecton.client.transport.HttpResponse.CallStatus;
 import ai.tecton.client.transport.TectonHttpClient.HttpMethod;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import okhttp3.Call;
+import okhttp3.EventListener;
 import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
 import okhttp3.Request;
+import okhttp3.RequestBody;
 import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -70,6 +85,48 @@ public class TectonHttpClientTest {
     Assert.assertFalse(httpClient.isClosed());
   }
 
+  @Test
+  public void testBuildRequestAllocations() {
+    ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    Assume.assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+    com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadMXBean;
+    Assume.assumeTrue(allocationBean.isThreadAllocatedMemoryEnabled());
+    RequestBody requestBody = TectonHttpClient.jsonRequestBody(body);
+
+    Request request = httpClient.buildRequest(endpoint, method, requestBody);
+    Request defaultRequest =
+        httpClient.buildRequestWithDefaultHeaders(
+            new HttpRequest(url, endpoint, method, apiKey, requestBody));
+    Assert.assertEquals(defaultRequest.url(), request.url());
+    Assert.assertEquals(defaultRequest.headers(), request.headers());
+    Assert.assertSame(requestBody, request.body());
+
+    long threadId = Thread.currentThread().getId();
+    int iterations = 10000;
+    long bytesPerCall = 0;
+    long defaultBytesPerCall = 0;
+    // Repeat the measurement once, so that the second round runs with compiled code
+    for (int round = 0; round < 2; round++) {
+      long start = allocationBean.getThreadAllocatedBytes(threadId);
+      for (int i = 0; i < iterations; i++) {
+        request = httpClient.buildRequest(endpoint, method, requestBody);
+      }
+      bytesPerCall = (allocationBean.getThreadAllocatedBytes(threadId) - start) / iterations;
+      start = allocationBean.getThreadAllocatedBytes(threadId);
+      for (int i = 0; i < iterations; i++) {
+        defaultRequest =
+            httpClient.buildRequestWithDefaultHeaders(
+                new HttpRequest(url, endpoint, method, apiKey, requestBody));
+      }
+      defaultBytesPerCall = (allocationBean.getThreadAllocatedBytes(threadId) - start) / iterations;
+    }
+    // Reusing the resolved URL and headers of the endpoint allocates a fraction of resolving them
+    Assert.assertTrue(
+        "Allocated " + bytesPerCall + " vs " + defaultBytesPerCall + " bytes per call",
+        bytesPerCall < defaultBytesPerCall / 3);
+    Assert.assertTrue("Allocated " + bytesPerCall + " bytes per call", bytesPerCall < 1024);
+  }
+
   @Test
   public void testDefaultTectonRequest() {
     HttpRequest httpRequest =
@@ -112,6 +169,53 @@ public class TectonHttpClientTest {
     Assert.assertEquals(20, tectonHttpClient.getMaxParallelRequests());
   }
 
+  @Test
+  public void testClientWithMillisecondTimeouts() {
+    TectonClientOptions tectonClientOptions =
+        new TectonClientOptions.Builder()
+            .readTimeout(Duration.ofMillis(300))
+            .connectTimeout(Duration.ofMillis(150))
+            .writeTimeout(Duration.ofMillis(250))
+            .callTimeout(Duration.ofMillis(1500))
+            .build();
+    TectonHttpClient tectonHttpClient = new TectonHttpClient(url, apiKey, tectonClientOptions);
+
+    Assert.assertEquals(Duration.ofMillis(300), tectonHttpClient.getReadTimeout());
+    Assert.assertEquals(Duration.ofMillis(150), tectonHttpClient.getConnectTimeout());
+    Assert.assertEquals(Duration.ofMillis(250), tectonHttpClient.getWriteTimeout());
+    Assert.assertEquals(Duration.ofMillis(1500), tectonHttpClient.getCallTimeout());
+  }
+
+  @Test
+  public void testRequestTimeoutOverridesClientTimeout() throws IOException {
+    MockWebServer slowServer = new MockWebServer();
+    slowServer.enqueue(new MockResponse().setBody(body).setHeadersDelay(1, TimeUnit.SECONDS));
+    slowServer.enqueue(new MockResponse().setBody(body).setHeadersDelay(1, TimeUnit.SECONDS));
+    slowServer.start();
+    httpClient =
+        new TectonHttpClient(
+            slowServer.url("").toString(),
+            apiKey,
+            new TectonClientOptions.Builder().readTimeout(Duration.ofSeconds(5)).build());
+
+    long start = System.nanoTime();
+    try {
+      httpClient.performRequest(endpoint, method, body, Duration.ofMillis(100));
+      Assert.fail();
+    } catch (TectonClientException e) {
+      Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 900);
+    }
+    CompletableFuture<HttpResponse> responseFuture =
+        httpClient.performRequestAsync(endpoint, method, body, Duration.ofMillis(100));
+    try {
+      responseFuture.join();
+      Assert.fail();
+    } catch (CompletionException e) {
+      Assert.assertTrue(e.getCause() instanceof TectonClientException);
+    }
+    slowServer.shutdown();
+  }
+
   @Test
   public void testParallelRequestsWithDefaultClient() {
 
@@ -162,10 +266,356 @@ public class TectonHttpClientTest {
     List<HttpResponse> httpResponses =
         httpClient.performParallelRequests(endpoint, method, requestList, Duration.ofMillis(10));
     // 100 requests with a default maxParallelRequests is not expected to complete in 10 ms
-    long numSuccessfulCalls = httpResponses.stream().filter(Objects::nonNull).count();
+    long numSuccessfulCalls =
+        httpResponses.stream()
+            .filter(httpResponse -> httpResponse.getCallStatus() == CallStatus.COMPLETED)
+            .count();
+    Assert.assertEquals(100, httpResponses.size());
     Assert.assertTrue(numSuccessfulCalls < 100);
   }
 
+  @Test
+  public void testParallelRequestsCancelledAtTimeout() throws Exception {
+    MockWebServer slowServer = new MockWebServer();
+    for (int i = 0; i < 3; i++) {
+      slowServer.enqueue(new MockResponse().setBody(body).setHeadersDelay(3, TimeUnit.SECONDS));
+    }
+    slowServer.start();
+    CountDownLatch canceledLatch = new CountDownLatch(3);
+    OkHttpClient okHttpClient =
+        new OkHttpClient.Builder()
+            .eventListener(
+                new EventListener() {
+                  @Override
+                  public void canceled(Call call) {
+                    canceledLatch.countDown();
+                  }
+                })
+            .build();
+    httpClient = new TectonHttpClient(slowServer.url("").toString(), apiKey, okHttpClient);
+
+    long start = System.nanoTime();
+    List<HttpResponse> httpResponses =
+        httpClient.performParallelRequests(
+            endpoint, method, prepareRequests(3), Duration.ofMillis(200));
+    Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+
+    // Every call times out and is cancelled, releasing its connection
+    Assert.assertEquals(3, httpResponses.size());
+    for (HttpResponse httpResponse : httpResponses) {
+      Assert.assertEquals(CallStatus.TIMED_OUT, httpResponse.getCallStatus());
+      Assert.assertTrue(httpResponse.getCause().get() instanceof CallTimeoutException);
+      Assert.assertEquals(
+          String.format(TectonErrorMessage.CALL_TIMEOUT, 200),
+          httpResponse.getCause().get().getMessage());
+    }
+    Assert.assertTrue(canceledLatch.await(2, TimeUnit.SECONDS));
+    slowServer.shutdown();
+  }
+
+  @Test
+  public void testParallelRequestsWithCallFailure() throws IOException {
+    MockWebServer stoppedServer = new MockWebServer();
+    stoppedServer.start();
+    String stoppedUrl = stoppedServer.url("").toString();
+    stoppedServer.shutdown();
+    httpClient =
+        new TectonHttpClient(stoppedUrl, apiKey, new TectonClientOptions.Builder().build());
+
+    // Calls that fail to connect complete the batch even without a timeout
+    List<HttpResponse> httpResponses =
+        httpClient.performParallelRequests(
+            endpoint, method, prepareRequests(3), RequestConstants.NONE_TIMEOUT);
+    Assert.assertEquals(3, httpResponses.size());
+    for (HttpResponse httpResponse : httpResponses) {
+      Assert.assertEquals(CallStatus.FAILED, httpResponse.getCallStatus());
+      Assert.assertFalse(httpResponse.isSuccessful());
+      Assert.assertTrue(httpResponse.getCause().isPresent());
+      try {
+        httpResponse.validateResponse();
+        Assert.fail();
+      } catch (TectonClientException e) {
+        Assert.assertEquals(httpResponse.getCause().get(), e.getCause());
+      }
+    }
+  }
+
+  @Test
+  public void testPerformRequestAsync() {
+    httpClient =
+        new TectonHttpClient(
+            this.baseUrlString, this.apiKey, new TectonClientOptions.Builder().build());
+    HttpResponse httpResponse = httpClient.performRequestAsync(endpoint, method, body).join();
+    Assert.assertTrue(httpResponse.isSuccessful());
+    Assert.assertEquals(body, httpResponse.getResponseBody().get());
+  }
+
+  @Test
+  public void testResponseSource() throws IOException {
+    httpClient =
+        new TectonHttpClient(
+            this.baseUrlString, this.apiKey, new TectonClientOptions.Builder().build());
+    HttpResponse httpResponse = httpClient.performRequest(endpoint, method, body);
+    Assert.assertTrue(httpResponse.isSuccessful());
+
+    // Each source reads the whole body
+    Assert.assertEquals(body, httpResponse.getResponseSource().get().readUtf8());
+    Assert.assertEquals(body, httpResponse.getResponseSource().get().readUtf8());
+    Assert.assertEquals(body, httpResponse.getResponseBody().get());
+  }
+
+  @Test
+  public void testParallelRequestsAsync() {
+    httpClient =
+        new TectonHttpClient(
+            this.baseUrlString, this.apiKey, new TectonClientOptions.Builder().build());
+    List<String> requestList = prepareRequests(50);
+    List<HttpResponse> httpResponses =
+        httpClient
+            .performParallelRequestsAsync(
+                endpoint, method, requestList, RequestConstants.NONE_TIMEOUT)
+            .join();
+
+    List<String> responseList =
+        httpResponses.stream()
+            .map(httpResponse -> httpResponse.getResponseBody().get())
+            .collect(Collectors.toList());
+    Assert.assertEquals(requestList, responseList);
+  }
+
+  @Test
+  public void testParallelRequestsIncrementally() {
+    httpClient =
+        new TectonHttpClient(
+            this.baseUrlString, this.apiKey, new TectonClientOptions.Builder().build());
+    List<String> requestList = prepareRequests(20);
+    List<CompletableFuture<HttpResponse>> responseFutures =
+        httpClient.performParallelRequestsIncrementally(
+            endpoint, method, requestList, RequestConstants.NONE_TIMEOUT);
+
+    Assert.assertEquals(requestList.size(), responseFutures.size());
+    IntStream.range(0, requestList.size())
+        .forEach(
+            i ->
+                Assert.assertEquals(
+                    requestList.get(i), responseFutures.get(i).join().getResponseBody().get()));
+  }
+
+  @Test
+  public void testParallelRequestsIncrementallyTimeOut() throws Exception {
+    MockWebServer slowServer = new MockWebServer();
+    for (int i = 0; i < 2; i++) {
+      slowServer.enqueue(new MockResponse().setBody("slow").setHeadersDelay(3, TimeUnit.SECONDS));
+    }
+    slowServer.start();
+    httpClient =
+        new TectonHttpClient(
+            slowServer.url("").toString(), apiKey, new TectonClientOptions.Builder().build());
+
+    List<CompletableFuture<HttpResponse>> responseFutures =
+        httpClient.performParallelRequestsIncrementally(
+            endpoint, method, prepareRequests(2), Duration.ofMillis(100));
+    // Every call that did not complete within the timeout fails with the same exception
+    Throwable timeoutException = null;
+    for (CompletableFuture<HttpResponse> responseFuture : responseFutures) {
+      try {
+        responseFuture.join();
+        Assert.fail();
+      } catch (CompletionException e) {
+        if (timeoutException == null) {
+          timeoutException = e.getCause();
+        }
+        Assert.assertSame(timeoutException, e.getCause());
+      }
+    }
+    Assert.assertEquals(
+        String.format(TectonErrorMessage.CALL_TIMEOUT, 100), timeoutException.getMessage());
+    httpClient.close();
+    slowServer.shutdown();
+  }
+
+  @Test
+  public void testHedgedRequestReturnsFirstResponse() throws Exception {
+    MockWebServer slowServer = new MockWebServer();
+    slowServer.enqueue(new MockResponse().setBody("slow").setHeadersDelay(3, TimeUnit.SECONDS));
+    slowServer.enqueue(new MockResponse().setBody("fast"));
+    slowServer.start();
+    HedgingPolicy hedgingPolicy =
+        new HedgingPolicy.Builder().hedgeDelay(Duration.ofMillis(100)).maxHedgeRatio(1).build();
+    httpClient =
+        new TectonHttpClient(
+            slowServer.url("").toString(),
+            apiKey,
+            new TectonClientOptions.Builder()
+                .readTimeout(Duration.ofSeconds(5))
+                .hedgingPolicy(hedgingPolicy)
+                .build());
+
+    long start = System.currentTimeMillis();
+    HttpResponse httpResponse = httpClient.performHedgedRequest(endpoint, method, body);
+    Assert.assertTrue(System.currentTimeMillis() - start < 2000);
+    Assert.assertEquals("fast", httpResponse.getResponseBody().get());
+    Assert.assertEquals(2, slowServer.getRequestCount());
+    Assert.assertEquals(1, hedgingPolicy.getHedgeCount());
+    Assert.assertEquals(1, hedgingPolicy.getHedgeWinCount());
+    slowServer.shutdown();
+  }
+
+  @Test
+  public void testHedgeDelayIncludesFirstAttemptsThatLost() throws Exception {
+    MockWebServer slowServer = new MockWebServer();
+    for (int i = 0; i < 21; i++) {
+      slowServer.enqueue(new MockResponse().setBody("slow").setHeadersDelay(2, TimeUnit.SECONDS));
+      slowServer.enqueue(new MockResponse().setBody("fast"));
+    }
+    slowServer.start();
+    HedgingPolicy hedgingPolicy =
+        new HedgingPolicy.Builder()
+            .hedgeDelay(Duration.ofMillis(50))
+            .latencyPercentile(0.5)
+            .maxHedgeRatio(1)
+            .build();
+    httpClient =
+        new TectonHttpClient(
+            slowServer.url("").toString(),
+            apiKey,
+            new TectonClientOptions.Builder()
+                .readTimeout(Duration.ofSeconds(5))
+                .hedgingPolicy(hedgingPolicy)
+                .build());
+
+    for (int i = 0; i < 21; i++) {
+      HttpResponse httpResponse = httpClient.performHedgedRequest(endpoint, method, body);
+      Assert.assertEquals("fast", httpResponse.getResponseBody().get());
+    }
+    // Every first attempt took at least the hedge delay, even though the fast hedges won
+    Assert.assertEquals(21, hedgingPolicy.getHedgeWinCount());
+    Assert.assertTrue(hedgingPolicy.getHedgeDelay().compareTo(Duration.ofMillis(50)) >= 0);
+    slowServer.shutdown();
+  }
+
+  @Test
+  public void testHedgedRequestWithinBudget() throws Exception {
+    MockWebServer slowServer = new MockWebServer();
+    slowServer.enqueue(
+        new MockResponse().setBody("slow").setHeadersDelay(500, TimeUnit.MILLISECONDS));
+    slowServer.start();
+    // The first request only earns 5% of a hedge, so it is not hedged
+    HedgingPolicy hedgingPolicy =
+        new HedgingPolicy.Builder().hedgeDelay(Duration.ofMillis(100)).build();
+    httpClient =
+        new TectonHttpClient(
+            slowServer.url("").toString(),
+            apiKey,
+            new TectonClientOptions.Builder().hedgingPolicy(hedgingPolicy).build());
+
+    HttpResponse httpResponse = httpClient.performHedgedRequestAsync(endpoint, method, body).join();
+    Assert.assertEquals("slow", httpResponse.getResponseBody().get());
+    Assert.assertEquals(1, slowServer.getRequestCount());
+    Assert.assertEquals(0, hedgingPolicy.getHedgeCount());
+    slowServer.shutdown();
+  }
+
+  @Test
+  public void testHedgedRequestEarnsRetryBudgetOnce() throws Exception {
+    MockWebServer slowServer = new MockWebServer();
+    slowServer.enqueue(
+        new MockResponse().setBody("slow").setHeadersDelay(500, TimeUnit.MILLISECONDS));
+    slowServer.enqueue(new MockResponse().setBody("fast"));
+    slowServer.enqueue(new MockResponse().setResponseCode(503));
+    slowServer.enqueue(new MockResponse().setBody("retried"));
+    slowServer.start();
+    HedgingPolicy hedgingPolicy =
+        new HedgingPolicy.Builder().hedgeDelay(Duration.ofMillis(50)).maxHedgeRatio(1).build();
+    RetryPolicy retryPolicy = new RetryPolicy.Builder().retryBudgetRatio(0.4).build();
+    httpClient =
+        new TectonHttpClient(
+            slowServer.url("").toString(),
+            apiKey,
+            new TectonClientOptions.Builder()
+                .hedgingPolicy(hedgingPolicy)
+                .retryPolicy(retryPolicy)
+                .build());
+    // Spend the initial reserve of the retry budget
+    for (int i = 0; i < 10; i++) {
+      Assert.assertTrue(retryPolicy.retryDelayMillis(1, new IOException()) >= 0);
+    }
+
+    HttpResponse httpResponse = httpClient.performHedgedRequest(endpoint, method, body);
+    Assert.assertEquals("fast", httpResponse.getResponseBody().get());
+    Assert.assertEquals(1, hedgingPolicy.getHedgeCount());
+
+    // Two requests earn 0.8 retries, which is not enough for a retry. Had the hedge earned tokens
+    // as well, the budget would allow it
+    httpResponse = httpClient.performRequest(endpoint, method, body);
+    Assert.assertEquals(503, httpResponse.getResponseCode());
+    Assert.assertEquals(10, retryPolicy.getRetryCount());
+    slowServer.shutdown();
+  }
+
+  @Test
+  public void testParallelRequestsWithRetryPolicy() throws IOException {
+    MockWebServer flakyServer = new MockWebServer();
+    AtomicInteger callCount = new AtomicInteger();
+    // Every third call is rejected with a 503 status
+    flakyServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) {
+            if (callCount.incrementAndGet() % 3 == 0) {
+              return new MockResponse().setResponseCode(503);
+            }
+            return new MockResponse().setResponseCode(200).setBody(request.getBody());
+          }
+        });
+    flakyServer.start();
+    RetryPolicy retryPolicy = new RetryPolicy.Builder().build();
+    httpClient =
+        new TectonHttpClient(
+            flakyServer.url("").toString(),
+            apiKey,
+            new TectonClientOptions.Builder().retryPolicy(retryPolicy).build());
+
+    List<String> requestList = prepareRequests(10);
+    List<String> responseList =
+        httpClient.performParallelRequests(endpoint, method, requestList, Duration.ofSeconds(5))
+            .stream()
+            .map(httpResponse -> httpResponse.getResponseBody().get())
+            .collect(Collectors.toList());
+    Assert.assertEquals(requestList, responseList);
+    Assert.assertTrue(retryPolicy.getRetryCount() >= 3);
+
+    HttpResponse httpResponse = httpClient.performRequestAsync(endpoint, method, body).join();
+    Assert.assertTrue(httpResponse.isSuccessful());
+    flakyServer.shutdown();
+  }
+
+  @Test
+  public void testCancelRequestAsyncCancelsCall() throws Exception {
+    MockWebServer slowServer = new MockWebServer();
+    slowServer.enqueue(new MockResponse().setBody(body).setHeadersDelay(3, TimeUnit.SECONDS));
+    slowServer.start();
+    CountDownLatch canceledLatch = new CountDownLatch(1);
+    OkHttpClient okHttpClient =
+        new OkHttpClient.Builder()
+            .eventListener(
+                new EventListener() {
+                  @Override
+                  public void canceled(Call call) {
+                    canceledLatch.countDown();
+                  }
+                })
+            .build();
+    httpClient = new TectonHttpClient(slowServer.url("").toString(), apiKey, okHttpClient);
+
+    CompletableFuture<HttpResponse> responseFuture =
+        httpClient.performRequestAsync(endpoint, method, body);
+    Assert.assertNotNull(slowServer.takeRequest(2, TimeUnit.SECONDS));
+    responseFuture.cancel(true);
+    Assert.assertTrue(canceledLatch.await(2, TimeUnit.SECONDS));
+    slowServer.shutdown();
+  }
+
   private List<String> prepareRequests(int size) {
     // Request body will be a string representation of sequential Integer values
     return IntStream.range(0, size).mapToObj(String::valueOf).collect(Collectors.toList());